@@ -5,7 +5,8 @@ import dev.jorel.commandapi.CommandAPIBukkitConfig;
 import me.fergs.phantomvoting.commands.AdminCommands;
 import me.fergs.phantomvoting.commands.PlayerCommands;
 import me.fergs.phantomvoting.config.ConfigurationManager;
-import me.fergs.phantomvoting.database.VoteStorage;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.enums.StorageType;
 import me.fergs.phantomvoting.inventories.LeaderboardInventory;
 import me.fergs.phantomvoting.inventories.MilestonesInventory;
 import me.fergs.phantomvoting.inventories.StreaksInventory;
@@ -20,7 +21,7 @@ import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public final class PhantomVoting extends JavaPlugin {
     private static PhantomVoting instance;
@@ -35,6 +36,12 @@ public final class PhantomVoting extends JavaPlugin {
     private VoteReminderManager<PhantomVoting> voteReminderManager;
     private MilestonesInventory milestonesInventory;
     private StreaksInventory streaksInventory;
+    private PlaceholderManager placeholderManager;
+    private BackupManager backupManager;
+    private ImportManager importManager;
+    private VoteIntakeManager voteIntakeManager;
+    private RewardDispatcher rewardDispatcher;
+    private VotePipeline votePipeline;
     /**
      * Called when the plugin is loaded.
      * This is where we register the Command API if it is not already loaded.
@@ -63,6 +70,7 @@ public final class PhantomVoting extends JavaPlugin {
                 "voteparty",
                 "modules",
                 "storage",
+                "importers",
                 "modules/bossbar",
                 "modules/vote_reminder",
                 "menus/leaderboard",
@@ -71,22 +79,26 @@ public final class PhantomVoting extends JavaPlugin {
 
         configurationManager.loadModules();
         messageManager = new MessageManager<>(this, configurationManager);
-        voteStorage = new VoteStorage("PhantomVoting", configurationManager.getConfig("storage"));
+        voteStorage = StorageType.create("PhantomVoting", configurationManager.getConfig("storage"));
 
-        try {
-            voteStorage.loadMilestones();
-            voteStorage.loadStreaks();
-            voteStorage.loadCurrentGlobalVoteCount();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        CompletableFuture.allOf(
+                voteStorage.loadCurrentGlobalVoteCount(),
+                voteStorage.loadLeaderboards()
+        ).exceptionally(throwable -> null).join();
+        Bukkit.getOnlinePlayers().forEach(player -> voteStorage.loadPlayer(player.getUniqueId()));
 
         votePartyManager = new VotePartyManager(this);
+        backupManager = new BackupManager(this);
+        importManager = new ImportManager(this);
+        rewardDispatcher = new RewardDispatcher(this);
+        voteIntakeManager = new VoteIntakeManager(this);
+        votePipeline = new VotePipeline(this);
         leaderboardInventory = new LeaderboardInventory<>(this);
         playerManager = new PlayerManager<>(this);
 
         if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new PlaceholderManager(voteStorage, votePartyManager).register();
+            placeholderManager = new PlaceholderManager(voteStorage, votePartyManager);
+            placeholderManager.register();
         }
 
         new PlayerCommands().register(this);
@@ -111,14 +123,24 @@ public final class PhantomVoting extends JavaPlugin {
     }
     @Override
     public void onDisable() {
-        try {
-            voteStorage.saveMilestones();
-            voteStorage.saveStreaks();
-            voteStorage.saveCurrentGlobalVoteCount();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (importManager != null) {
+            importManager.cancel();
+        }
+        if (votePipeline != null) {
+            votePipeline.close();
         }
+        if (rewardDispatcher != null) {
+            rewardDispatcher.close();
+        }
+        CompletableFuture.allOf(
+                voteStorage.saveMilestones(),
+                voteStorage.saveStreaks(),
+                voteStorage.saveCurrentGlobalVoteCount()
+        ).exceptionally(throwable -> null).join();
         voteStorage.close();
+        if (voteIntakeManager != null) {
+            voteIntakeManager.close();
+        }
         if (voteReminderManager != null) {
             voteReminderManager.cancelAllTasks();
         }
@@ -162,6 +184,46 @@ public final class PhantomVoting extends JavaPlugin {
     public VotePartyManager getVotePartyManager() {
         return votePartyManager;
     }
+    /**
+     * Gets the backup manager.
+     *
+     * @return the backup manager
+     */
+    public BackupManager getBackupManager() {
+        return backupManager;
+    }
+    /**
+     * Gets the import manager.
+     *
+     * @return the import manager
+     */
+    public ImportManager getImportManager() {
+        return importManager;
+    }
+    /**
+     * Gets the vote intake manager.
+     *
+     * @return the vote intake manager
+     */
+    public VoteIntakeManager getVoteIntakeManager() {
+        return voteIntakeManager;
+    }
+    /**
+     * Gets the reward dispatcher.
+     *
+     * @return the reward dispatcher
+     */
+    public RewardDispatcher getRewardDispatcher() {
+        return rewardDispatcher;
+    }
+    /**
+     * Gets the vote pipeline.
+     *
+     * @return the vote pipeline
+     */
+    public VotePipeline getVotePipeline() {
+        return votePipeline;
+    }
     /**
      * Gets the listener manager.
      *
@@ -218,4 +280,12 @@ public final class PhantomVoting extends JavaPlugin {
     public StreaksInventory getStreaksInventory() {
         return streaksInventory;
     }
+    /**
+     * Gets the placeholder manager.
+     *
+     * @return the placeholder manager, or null if PlaceholderAPI is not installed
+     */
+    public PlaceholderManager getPlaceholderManager() {
+        return placeholderManager;
+    }
 }
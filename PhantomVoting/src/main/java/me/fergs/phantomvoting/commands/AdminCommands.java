@@ -5,11 +5,19 @@ import com.vexsoftware.votifier.model.VotifierEvent;
 import dev.jorel.commandapi.CommandAPICommand;
 import dev.jorel.commandapi.arguments.*;
 import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.database.importer.VoteImporter;
+import me.fergs.phantomvoting.enums.PipelineStage;
+import me.fergs.phantomvoting.enums.StorageType;
+import me.fergs.phantomvoting.managers.RewardDispatcher;
+import me.fergs.phantomvoting.managers.VotePipeline;
 import me.fergs.phantomvoting.utils.Color;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
 
 public class AdminCommands {
     /**
@@ -108,7 +116,7 @@ public class AdminCommands {
                                     Player target = (Player) args.get("player");
                                     assert target != null;
                                     LocalDate today = LocalDate.now();
-                                    plugin.getVoteStorage().resetStreak(target.getUniqueId(), today.toString());
+                                    plugin.getVoteStorage().resetStreak(target.getUniqueId(), today);
                                     plugin.getMessageManager().sendMessage(player, "STREAK_RESET", "%player%", target.getName());
                                 })
                         )
@@ -168,11 +176,175 @@ public class AdminCommands {
                                 Player target = (Player) args.get("player");
                                 assert target != null;
 
-                                 plugin.getMessageManager().sendMessage(target, "VOTE_LIST",
-                                    "%daily_votes%", String.valueOf(plugin.getVoteStorage().getPlayerVoteCount(target.getUniqueId(), "daily")));
+                                plugin.getVoteStorage().getPlayerVoteCount(target.getUniqueId(), "daily").thenAcceptAsync(dailyVotes ->
+                                        plugin.getMessageManager().sendMessage(target, "VOTE_LIST",
+                                                "%daily_votes%", String.valueOf(dailyVotes)), SchedulerUtil.mainThread(plugin));
+                        })
+                )
+                .withSubcommand(new CommandAPICommand("backup")
+                        .withSubcommand(new CommandAPICommand("export")
+                                .withArguments(new StringArgument("name"))
+                                .executes((player, args) -> {
+                                    String name = (String) args.get("name");
+                                    long started = System.currentTimeMillis();
+                                    plugin.getBackupManager().export(name).whenCompleteAsync((rows, throwable) -> {
+                                        if (throwable != null) {
+                                            sendBackupFailure(plugin, player, throwable);
+                                            return;
+                                        }
+                                        plugin.getMessageManager().sendMessage(player, "BACKUP_EXPORTED", "%file%", name, "%rows%", String.valueOf(rows),
+                                                "%time%", String.valueOf(System.currentTimeMillis() - started));
+                                    }, SchedulerUtil.mainThread(plugin));
+                                })
+                        )
+                        .withSubcommand(new CommandAPICommand("restore")
+                                .withArguments(new StringArgument("name"))
+                                .executes((player, args) -> {
+                                    String name = (String) args.get("name");
+                                    long started = System.currentTimeMillis();
+                                    plugin.getBackupManager().restore(name).whenCompleteAsync((rows, throwable) -> {
+                                        if (throwable != null) {
+                                            sendBackupFailure(plugin, player, throwable);
+                                            return;
+                                        }
+                                        plugin.getMessageManager().sendMessage(player, "BACKUP_RESTORED", "%file%", name, "%rows%", String.valueOf(rows),
+                                                "%time%", String.valueOf(System.currentTimeMillis() - started));
+                                    }, SchedulerUtil.mainThread(plugin));
+                                })
+                        )
+                        .withSubcommand(new CommandAPICommand("migrate")
+                                .withArguments(new StringArgument("type")
+                                        .replaceSuggestions(ArgumentSuggestions.strings("SQL", "SQLITE", "H2", "LOG"))
+                                )
+                                .executes((player, args) -> {
+                                    StorageType type = StorageType.fromName((String) args.get("type"));
+                                    if (type == null) {
+                                        player.sendMessage(Color.hex("&4&l[&c&l!&4&l] &cThe storage type &f" + args.get("type") + " &cdoes not exist."));
+                                        return;
+                                    }
+                                    long started = System.currentTimeMillis();
+                                    plugin.getBackupManager().migrate(type).whenCompleteAsync((rows, throwable) -> {
+                                        if (throwable != null) {
+                                            sendBackupFailure(plugin, player, throwable);
+                                            return;
+                                        }
+                                        plugin.getMessageManager().sendMessage(player, "BACKUP_MIGRATED", "%type%", type.name(), "%rows%", String.valueOf(rows),
+                                                "%time%", String.valueOf(System.currentTimeMillis() - started));
+                                    }, SchedulerUtil.mainThread(plugin));
+                                })
+                        )
+                )
+                .withSubcommand(new CommandAPICommand("import")
+                        .withSubcommand(new CommandAPICommand("start")
+                                .withArguments(new StringArgument("name")
+                                        .replaceSuggestions(ArgumentSuggestions.strings(plugin.getImportManager().getImportNames().toArray(new String[0])))
+                                )
+                                .executes((player, args) -> {
+                                    startImport(plugin, player, (String) args.get("name"), false);
+                                })
+                        )
+                        .withSubcommand(new CommandAPICommand("restart")
+                                .withArguments(new StringArgument("name")
+                                        .replaceSuggestions(ArgumentSuggestions.strings(plugin.getImportManager().getImportNames().toArray(new String[0])))
+                                )
+                                .executes((player, args) -> {
+                                    startImport(plugin, player, (String) args.get("name"), true);
+                                })
+                        )
+                        .withSubcommand(new CommandAPICommand("status")
+                                .executes((player, args) -> {
+                                    VoteImporter importer = plugin.getImportManager().getActive();
+                                    if (importer == null) {
+                                        plugin.getMessageManager().sendMessage(player, "IMPORT_NOT_RUNNING");
+                                        return;
+                                    }
+                                    plugin.getMessageManager().sendMessage(player, "IMPORT_STATUS", "%name%", importer.getName(),
+                                            "%rows%", String.valueOf(importer.getPosition()),
+                                            "%total%", importer.getTotal() < 0 ? "?" : String.valueOf(importer.getTotal()),
+                                            "%imported%", String.valueOf(importer.getImported()), "%skipped%", String.valueOf(importer.getSkipped()));
+                                })
+                        )
+                        .withSubcommand(new CommandAPICommand("cancel")
+                                .executes((player, args) -> {
+                                    if (!plugin.getImportManager().cancel()) {
+                                        plugin.getMessageManager().sendMessage(player, "IMPORT_NOT_RUNNING");
+                                    }
+                                })
+                        )
+                )
+                .withSubcommand(new CommandAPICommand("pipeline")
+                        .executes((player, args) -> {
+                            VotePipeline pipeline = plugin.getVotePipeline();
+                            plugin.getMessageManager().sendMessage(player, "PIPELINE_STATUS",
+                                    "%depth%", String.valueOf(pipeline.getQueueDepth()), "%capacity%", String.valueOf(pipeline.getCapacity()),
+                                    "%received%", String.valueOf(pipeline.getReceived()), "%dropped%", String.valueOf(pipeline.getDropped()));
+                            for (PipelineStage stage : PipelineStage.values()) {
+                                VotePipeline.StageStats stats = pipeline.getStats(stage);
+                                plugin.getMessageManager().sendMessage(player, "PIPELINE_STAGE", "%stage%", stage.getIdentifier(),
+                                        "%count%", String.valueOf(stats.getCount()),
+                                        "%average%", String.format("%.2f", stats.getAverageMillis()), "%max%", String.format("%.2f", stats.getMaxMillis()));
+                            }
+                        })
+                )
+                .withSubcommand(new CommandAPICommand("rewards")
+                        .executes((player, args) -> {
+                            RewardDispatcher dispatcher = plugin.getRewardDispatcher();
+                            plugin.getMessageManager().sendMessage(player, "REWARDS_STATUS", "%queued%", String.valueOf(dispatcher.getQueued()));
+                            for (RewardDispatcher.Batch batch : dispatcher.getBatches()) {
+                                plugin.getMessageManager().sendMessage(player, "REWARDS_BATCH", "%name%", batch.getName(),
+                                        "%dispatched%", String.valueOf(batch.getDispatched()), "%total%", String.valueOf(batch.getTotal()),
+                                        "%ticks%", String.valueOf(batch.getTicks()));
+                            }
                         })
                 )
 
                 .register();
     }
+    /**
+     * Starts an import and tells the sender once it has stopped.
+     *
+     * @param plugin  The plugin instance.
+     * @param sender  The command sender.
+     * @param name    The name of the import.
+     * @param restart True to start over from the first row.
+     */
+    private void startImport(final PhantomVoting plugin, final CommandSender sender, String name, boolean restart) {
+        plugin.getMessageManager().sendMessage(sender, "IMPORT_STARTED", "%name%", name);
+        plugin.getImportManager().start(name, restart).whenCompleteAsync((importer, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = unwrap(throwable);
+                cause.printStackTrace();
+                plugin.getMessageManager().sendMessage(sender, "IMPORT_FAILED", "%name%", name, "%error%", String.valueOf(cause.getMessage()));
+                return;
+            }
+            if (importer.isCancelled()) {
+                plugin.getMessageManager().sendMessage(sender, "IMPORT_CANCELLED", "%name%", name, "%rows%", String.valueOf(importer.getPosition()));
+                return;
+            }
+            plugin.getMessageManager().sendMessage(sender, "IMPORT_FINISHED", "%name%", name,
+                    "%imported%", String.valueOf(importer.getImported()), "%skipped%", String.valueOf(importer.getSkipped()),
+                    "%time%", String.valueOf((System.currentTimeMillis() - importer.getStartedAt()) / 1000L));
+        }, SchedulerUtil.mainThread(plugin));
+    }
+    /**
+     * Tells the sender that a backup operation failed and logs the cause.
+     *
+     * @param plugin    The plugin instance.
+     * @param sender    The command sender.
+     * @param throwable The failure.
+     */
+    private void sendBackupFailure(final PhantomVoting plugin, final CommandSender sender, Throwable throwable) {
+        Throwable cause = unwrap(throwable);
+        cause.printStackTrace();
+        plugin.getMessageManager().sendMessage(sender, "BACKUP_FAILED", "%error%", String.valueOf(cause.getMessage()));
+    }
+    /**
+     * Gets the cause of a failed future.
+     *
+     * @param throwable The failure.
+     * @return The cause.
+     */
+    private Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
 }
@@ -2,6 +2,7 @@ package me.fergs.phantomvoting.commands;
 
 import dev.jorel.commandapi.CommandAPICommand;
 import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
 
 public class PlayerCommands{
@@ -14,8 +15,9 @@ public class PlayerCommands{
         new CommandAPICommand(plugin.getConfigurationManager().getConfig("config").getString("Commands.Base.Command", "vote"))
                 .withAliases(plugin.getConfigurationManager().getConfig("config").getStringList("Commands.Base.Aliases").toArray(new String[0]))
                 .executesPlayer((player, args) -> {
-                    plugin.getMessageManager().sendMessage(player, "VOTE_LIST",
-                            "%daily_votes%", String.valueOf(plugin.getVoteStorage().getPlayerVoteCount(player.getUniqueId(), "daily")));
+                    plugin.getVoteStorage().getPlayerVoteCount(player.getUniqueId(), "daily").thenAcceptAsync(dailyVotes ->
+                            plugin.getMessageManager().sendMessage(player, "VOTE_LIST",
+                                    "%daily_votes%", String.valueOf(dailyVotes)), SchedulerUtil.mainThread(plugin));
                 })
                 .withSubcommand(new CommandAPICommand("leaderboard")
                         .executesPlayer((player, args) -> {
@@ -1,35 +1,376 @@
 package me.fergs.phantomvoting.database;
 
+import me.fergs.phantomvoting.database.backup.BackupCollector;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.index.VoteRankIndex;
 import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.database.leaderboard.VoteLeaderboards;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.objects.voteparty.SharedPartyState;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.TimeUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-/*
- * TODO: Complete the implementation of the AbstractVoteStorage class.
+/**
+ * The part of every storage backend that lives in memory: the leaderboards, the rank
+ * index, milestone and streak claims, the vote party counter and the calendar period
+ * resets. Backends store the data and keep these structures up to date.
  */
 public abstract class AbstractVoteStorage implements VoteStorage {
-    protected Connection connection;
-    protected final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    protected static final String[] VOTE_PERIODS = {"daily", "weekly", "monthly", "yearly"};
+    protected final ScheduledExecutorService scheduler;
+    protected final VoteRankIndex rankIndex = new VoteRankIndex();
+    protected final VoteLeaderboards leaderboards;
+    protected final VotePeriodClock periodClock;
+    protected final ReadWriteLock periodLock = new ReentrantReadWriteLock();
+    protected final ClaimTable milestoneCache = new ClaimTable();
+    protected final ClaimTable streakCache = new ClaimTable();
+    protected final AtomicInteger currentGlobalVoteCount = new AtomicInteger(0);
+    private final AtomicBoolean partyCountChanged = new AtomicBoolean(false);
+    private final Map<LeaderboardType, Long> periodStarts = new ConcurrentHashMap<>();
+    private final long checkpointInterval;
 
-    public AbstractVoteStorage() {
+    /**
+     * Creates a new AbstractVoteStorage instance.
+     *
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    protected AbstractVoteStorage(ConfigurationSection storageSection) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PhantomVoting-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.leaderboards = new VoteLeaderboards(storageSection.getInt("leaderboard-size", 10));
+        this.periodClock = VotePeriodClock.fromConfig(storageSection.getConfigurationSection("periods"));
+        this.checkpointInterval = storageSection.getLong("checkpoint-interval", 30L);
+    }
+    /**
+     * Gets the current day in the configured time zone.
+     *
+     * @return The epoch day.
+     */
+    protected long today() {
+        return periodClock.toEpochDay(System.currentTimeMillis());
+    }
+    /**
+     * Rebuilds the rank index and the leaderboards from every stored player.
+     *
+     * @param records The record of every stored player.
+     */
+    protected void rebuildLeaderboards(Collection<PlayerVoteRecord> records) {
+        Map<UUID, Integer> allTimeCounts = new HashMap<>();
+        records.forEach(record -> allTimeCounts.put(record.getUuid(), record.getCount("all_time")));
+        rankIndex.rebuild(allTimeCounts);
+        leaderboards.rebuild(records);
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eIndexed &6" + rankIndex.size() + " &eplayers for the leaderboards."));
+    }
+    /**
+     * Starts resetting the periods on their boundaries. Must be called once the backend
+     * is ready, after resets missed while offline have been caught up.
+     *
+     * @param lastResets The start of each period as of its last reset, {@link TimeUtil#NONE} if never reset.
+     */
+    protected void startPeriodResets(Map<LeaderboardType, Long> lastResets) {
+        periodStarts.putAll(lastResets);
+        checkPeriodResets();
+    }
+    /**
+     * Resets every period whose boundary has passed and schedules the next check. The
+     * check runs at the next boundary, or within a minute so a changed system clock is
+     * picked up.
+     */
+    private void checkPeriodResets() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long nextCheck = now + TimeUnit.MINUTES.toMillis(1);
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            long periodStart = periodClock.getPeriodStart(period, now);
+            long endedStart = periodStarts.getOrDefault(period, TimeUtil.NONE);
+            if (periodStart > endedStart) {
+                periodStarts.put(period, periodStart);
+                resetPeriod(period, endedStart, periodStart).whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        periodStarts.replace(period, periodStart, endedStart);
+                    }
+                });
+            }
+            nextCheck = Math.min(nextCheck, periodClock.getNextPeriodStart(period, now));
+        }
         try {
-            connectDatabase();
-            initializeDatabase();
-        } catch (SQLException e) {
-            e.printStackTrace();
+            scheduler.schedule(this::checkPeriodResets, Math.max(1L, nextCheck - now), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down, missed resets are caught up on the next start
         }
     }
+    /**
+     * Starts writing checkpoints at the configured interval. Must be called once the
+     * backend is ready.
+     */
+    protected void startCheckpoints() {
+        if (checkpointInterval <= 0) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(() -> checkpoint().exceptionally(throwable -> {
+            throwable.printStackTrace();
+            return null;
+        }), checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+    }
+    /**
+     * Stores the claims and the vote party counter changed since the last checkpoint.
+     * Backends that store every change right away have nothing to do here.
+     *
+     * @return A future completed once the changes are stored.
+     */
+    protected CompletableFuture<Void> checkpoint() {
+        return CompletableFuture.completedFuture(null);
+    }
+    /**
+     * Checks whether the vote party counter changed since it was last stored and clears
+     * the flag. A caller that fails to store the counter must call
+     * {@link #markPartyCountChanged()}.
+     *
+     * @return True if the counter needs to be stored.
+     */
+    protected boolean takePartyCountChange() {
+        return partyCountChanged.getAndSet(false);
+    }
+    /**
+     * Marks the vote party counter as changed, so the next checkpoint stores it.
+     */
+    protected void markPartyCountChanged() {
+        partyCountChanged.set(true);
+    }
+    /**
+     * Clears a period's count of every player, including the cached counts and the
+     * leaderboard. If the future fails the next check retries the reset.
+     *
+     * @param period      The period to reset.
+     * @param endedStart  The start of the period that ended, {@link TimeUtil#NONE} if unknown.
+     * @param periodStart The start of the new period.
+     * @return A future completed once the period is reset.
+     */
+    protected abstract CompletableFuture<Void> resetPeriod(LeaderboardType period, long endedStart, long periodStart);
+    /**
+     * Gets a page of a leaderboard that reaches past the in-memory leaderboard.
+     *
+     * @param type   The leaderboard type.
+     * @param offset The number of players to skip.
+     * @param limit  The maximum number of players to return.
+     * @return A future completed with the players, best first.
+     */
+    protected abstract CompletableFuture<List<PlayerVoteData>> queryTopPlayers(LeaderboardType type, int offset, int limit);
+    /**
+     * Gets the count column of a leaderboard.
+     *
+     * @param type The leaderboard type.
+     * @return The count column, e.g. "daily_count".
+     */
+    protected static String getCountColumn(LeaderboardType type) {
+        return type.getIdentifier() + "_count";
+    }
 
+    /**
+     * Ignores the event, only the SQL backends keep a vote history.
+     *
+     * @param event The vote event
+     */
     @Override
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+    public void recordVoteEvent(VoteEvent event) {
+    }
+
+    /**
+     * Gets the key offline votes are queued under. Vote sites send the name as typed, so
+     * it is compared without case.
+     *
+     * @param playerName The name of the player
+     * @return The key
+     */
+    protected static String getOfflineKey(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void setCurrentGlobalVoteCount(int count) {
+        if (count <= 0) {
+            count = 0;
+        }
+
+        if (currentGlobalVoteCount.getAndSet(count) != count) {
+            markPartyCountChanged();
+        }
+    }
+
+    @Override
+    public int getCurrentGlobalVoteCount() {
+        return Math.max(currentGlobalVoteCount.get(), 0);
+    }
+
+    /**
+     * Only the SQL backends can share the vote party, their database is reachable by
+     * every server.
+     *
+     * @return False
+     */
+    @Override
+    public boolean supportsSharedParty() {
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<SharedPartyState> addSharedPartyVotes(int amount, int threshold) {
+        return unsupportedSharedParty();
+    }
+
+    @Override
+    public CompletableFuture<SharedPartyState> setSharedPartyVotes(int count, int threshold) {
+        return unsupportedSharedParty();
+    }
+
+    @Override
+    public CompletableFuture<SharedPartyState> readSharedParty() {
+        return unsupportedSharedParty();
+    }
+
+    /**
+     * Fails a shared vote party call on a backend that cannot share it.
+     *
+     * @return A failed future
+     */
+    private CompletableFuture<SharedPartyState> unsupportedSharedParty() {
+        CompletableFuture<SharedPartyState> future = new CompletableFuture<>();
+        future.completeExceptionally(new UnsupportedOperationException("This storage type cannot share the vote party"));
+        return future;
+    }
+
+    @Override
+    public List<PlayerVoteData> getTopPlayers(LeaderboardType type) {
+        return leaderboards.getTop(type);
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerVoteData>> getTopPlayers(LeaderboardType type, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        List<PlayerVoteData> topPlayers = leaderboards.getTop(type);
+        if (offset + limit <= topPlayers.size() || topPlayers.size() < leaderboards.getSize()) {
+            int from = Math.min(offset, topPlayers.size());
+            return CompletableFuture.completedFuture(new ArrayList<>(topPlayers.subList(from, Math.min(offset + limit, topPlayers.size()))));
+        }
+        return queryTopPlayers(type, offset, limit);
+    }
+
+    @Override
+    public PlayerVoteData getTopPlayerAt(LeaderboardType type, int position) {
+        List<PlayerVoteData> topPlayers = leaderboards.getTop(type);
+        if (position <= 0 || position > topPlayers.size()) {
+            return null;
+        }
+        return topPlayers.get(position - 1);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPlayerPosition(UUID playerId) {
+        return CompletableFuture.completedFuture(rankIndex.getRank(playerId));
+    }
+
+    /**
+     * Claims are kept in memory for every player unless a backend loads them per player.
+     *
+     * @param uuid UUID of the player
+     * @return A completed future
+     */
+    @Override
+    public CompletableFuture<Void> loadClaims(UUID uuid) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isMilestoneClaimed(UUID uuid, int milestoneId) {
+        return milestoneCache.contains(uuid, milestoneId);
+    }
+
+    @Override
+    public boolean isStreakClaimed(UUID uuid, int streakId) {
+        return streakCache.contains(uuid, streakId);
+    }
+    /**
+     * Creates the result of a claim whose ID cannot be stored.
+     *
+     * @param kind The kind of claim, for the message
+     * @param id The claim ID
+     * @return A failed future
+     */
+    protected static CompletableFuture<Void> invalidClaim(String kind, int id) {
+        return CompletableFuture.failedFuture(new IllegalArgumentException(kind + " ID " + id + " is outside 0-" + ClaimTable.MAX_ID));
+    }
+    /**
+     * Remembers a claimed milestone.
+     *
+     * @param uuid UUID of the player
+     * @param milestoneId ID of the milestone
+     * @return The player's milestone bitmask after the claim
+     */
+    protected long[] cacheMilestone(UUID uuid, int milestoneId) {
+        return milestoneCache.add(uuid, milestoneId);
+    }
+    /**
+     * Remembers a claimed streak reward.
+     *
+     * @param uuid UUID of the player
+     * @param streakId ID of the streak
+     * @return The player's streak bitmask after the claim
+     */
+    protected long[] cacheStreak(UUID uuid, int streakId) {
+        return streakCache.add(uuid, streakId);
+    }
+    /**
+     * Writes the cached milestone and streak claims to a backup.
+     *
+     * @param writer The backup writer.
+     */
+    protected void writeClaims(VoteBackupWriter writer) throws IOException {
+        for (Map.Entry<UUID, long[]> claims : milestoneCache.asMap().entrySet()) {
+            for (int milestoneId : ClaimTable.toIds(claims.getValue())) {
+                writer.writeMilestone(claims.getKey(), milestoneId);
+            }
+        }
+        for (Map.Entry<UUID, long[]> claims : streakCache.asMap().entrySet()) {
+            for (int streakId : ClaimTable.toIds(claims.getValue())) {
+                writer.writeStreak(claims.getKey(), streakId);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
+    /**
+     * Replaces the cached claims and the vote party counter with restored ones.
+     *
+     * @param restored The collected contents of a backup.
+     */
+    protected void replaceClaims(BackupCollector restored) {
+        milestoneCache.replaceWith(restored.getMilestones());
+        streakCache.replaceWith(restored.getStreaks());
+        currentGlobalVoteCount.set(restored.getPartyCount());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
 }
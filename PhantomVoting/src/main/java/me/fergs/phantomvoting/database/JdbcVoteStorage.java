@@ -0,0 +1,1871 @@
+package me.fergs.phantomvoting.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import me.fergs.phantomvoting.database.backup.JdbcBackup;
+import me.fergs.phantomvoting.database.backup.VoteBackupReader;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.database.buffer.VoteWriteBuffer;
+import me.fergs.phantomvoting.database.cache.LoadedPlayers;
+import me.fergs.phantomvoting.database.cache.PlayerVoteCache;
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.history.VoteEventLog;
+import me.fergs.phantomvoting.database.migration.CalendarPeriodMigration;
+import me.fergs.phantomvoting.database.migration.ClaimBitmapMigration;
+import me.fergs.phantomvoting.database.migration.EpochTimestampMigration;
+import me.fergs.phantomvoting.database.migration.Migration;
+import me.fergs.phantomvoting.database.migration.MigrationRunner;
+import me.fergs.phantomvoting.database.migration.SchemaUtil;
+import me.fergs.phantomvoting.database.migration.UuidLayoutMigration;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.database.period.VotePeriodReset;
+import me.fergs.phantomvoting.enums.HistoryPartition;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.enums.UuidFormat;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.objects.voteparty.SharedPartyState;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.TimeUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * The base of the SQL backends. Writes run on the database executor, votes are combined in
+ * the write buffer, online players are answered from the player cache and the schema is
+ * kept up to date by versioned migrations. Backends open the connections and supply the
+ * dialect's upsert statements.
+ */
+public abstract class JdbcVoteStorage extends AbstractVoteStorage {
+    /**
+     * The player_votes columns written by an import, in parameter order.
+     */
+    protected static final String[] IMPORT_COLUMNS = {"uuid", "daily_count", "weekly_count", "monthly_count",
+            "yearly_count", "all_time_count", "streak_count", "last_vote_day"};
+    private static final String IMPORT_META_PREFIX = "import.";
+    protected Connection connection;
+    protected HikariDataSource dataSource;
+    protected final SqlDialect dialect;
+    protected final ReadWriteLock layoutLock = new ReentrantReadWriteLock();
+    private final ThreadPoolExecutor databaseExecutor;
+    private final ThreadPoolExecutor readExecutor;
+    private final VoteWriteBuffer writeBuffer;
+    private final PlayerVoteCache playerCache;
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final VoteEventLog eventLog;
+    private final AtomicBoolean eventFlushQueued = new AtomicBoolean(false);
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private volatile UuidFormat uuidFormat = UuidFormat.TEXT;
+    private final UuidFormat requestedFormat;
+    private final int uuidMigrationBatchSize;
+    private final long uuidMigrationDelay;
+    private UuidLayoutMigration uuidMigration;
+    private final VotePeriodReset periodReset;
+    private String voteUpsertSQL, voteUpdateSQL, voteRemoveSQL;
+    private final Map<ImportMode, String> importUpsertSQL = new EnumMap<>(ImportMode.class);
+    private final Set<UUID> changedMilestones = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedStreaks = ConcurrentHashMap.newKeySet();
+    private final LoadedPlayers loadedClaims;
+    private final Object claimLock = new Object();
+    private final AtomicInteger claimWrites = new AtomicInteger(0);
+
+    /**
+     * Creates a new JdbcVoteStorage instance. Backends call {@link #open()} at the end of
+     * their constructor.
+     *
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     * @param dialect The SQL dialect.
+     * @param connections The number of connections the backend holds, one writes and the rest serve reads.
+     */
+    protected JdbcVoteStorage(ConfigurationSection storageSection, SqlDialect dialect, int connections) {
+        super(storageSection);
+        this.dialect = dialect;
+        int queueSize = storageSection.getInt("queue-size", 10000);
+        this.databaseExecutor = createExecutor("PhantomVoting-Database-", 1, queueSize);
+        this.readExecutor = connections > 1 ? createExecutor("PhantomVoting-Database-Reader-", connections - 1, queueSize) : null;
+
+        ConfigurationSection bufferSection = storageSection.getConfigurationSection("write-buffer");
+        if (bufferSection == null || bufferSection.getBoolean("enabled", true)) {
+            long flushInterval = Math.max(50L, bufferSection == null ? 1000L : bufferSection.getLong("flush-interval", 1000L));
+            int maxPending = bufferSection == null ? 500 : bufferSection.getInt("max-pending", 500);
+            this.writeBuffer = new VoteWriteBuffer(maxPending, this::requestFlush);
+            scheduler.scheduleWithFixedDelay(this::requestFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.writeBuffer = null;
+        }
+
+        ConfigurationSection historySection = storageSection.getConfigurationSection("history");
+        if (historySection == null || historySection.getBoolean("enabled", true)) {
+            HistoryPartition partition = HistoryPartition.fromName(historySection == null ? "MONTH" : historySection.getString("partition", "MONTH"), HistoryPartition.MONTH);
+            long flushInterval = Math.max(50L, historySection == null ? 5000L : historySection.getLong("flush-interval", 5000L));
+            int maxPending = historySection == null ? 500 : historySection.getInt("max-pending", 500);
+            int keepRawDays = historySection == null ? 90 : historySection.getInt("keep-raw-days", 90);
+            this.eventLog = new VoteEventLog(partition, periodClock, maxPending, keepRawDays, this::requestEventFlush);
+            scheduler.scheduleWithFixedDelay(this::requestEventFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay(() -> run(eventLog::compact), 1L, 60L, TimeUnit.MINUTES);
+        } else {
+            this.eventLog = null;
+        }
+
+        ConfigurationSection cacheSection = storageSection.getConfigurationSection("player-cache");
+        int maxCachedPlayers = cacheSection == null ? 5000 : cacheSection.getInt("max-size", 5000);
+        long expireAfterQuit = cacheSection == null ? 300L : cacheSection.getLong("expire-after-quit", 300L);
+        this.playerCache = new PlayerVoteCache(maxCachedPlayers, TimeUnit.SECONDS.toMillis(expireAfterQuit));
+        this.loadedClaims = new LoadedPlayers(TimeUnit.SECONDS.toMillis(expireAfterQuit));
+        scheduler.scheduleWithFixedDelay(this::evictExpired, 30L, 30L, TimeUnit.SECONDS);
+
+        ConfigurationSection periodSection = storageSection.getConfigurationSection("periods");
+        this.periodReset = new VotePeriodReset(periodSection != null && periodSection.getBoolean("archive", false));
+
+        this.requestedFormat = UuidFormat.fromName(storageSection.getString("uuid-format", "TEXT"), UuidFormat.TEXT);
+        ConfigurationSection migrationSection = storageSection.getConfigurationSection("uuid-migration");
+        this.uuidMigrationBatchSize = migrationSection == null ? 1000 : migrationSection.getInt("batch-size", 1000);
+        this.uuidMigrationDelay = migrationSection == null ? 50L : migrationSection.getLong("batch-delay", 50L);
+    }
+    /**
+     * Connects, brings the schema up to date, catches up missed period resets and starts
+     * the UUID migration if one was requested. Period resets are only scheduled once the
+     * start of every period was read, otherwise every period would count as ended and the
+     * current counts would be wiped as soon as the database answers.
+     */
+    protected final void open() {
+        this.voteUpsertSQL = buildVoteUpsertSQL();
+        this.voteUpdateSQL = buildVoteUpdateSQL();
+        this.voteRemoveSQL = buildVoteRemoveSQL();
+        for (ImportMode mode : ImportMode.values()) {
+            importUpsertSQL.put(mode, buildImportUpsertSQL(mode));
+        }
+        Map<LeaderboardType, Long> lastResets = null;
+        try {
+            connect();
+            withConnection(this::initializeDatabase);
+            uuidFormat = withConnection((SqlTask<UuidFormat>) UuidLayoutMigration::getFormat);
+            lastResets = withConnection(this::catchUpPeriodResets);
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eConnected to the &f" + dialect.getDisplayName() + "&e database."));
+            if (requestedFormat == UuidFormat.BINARY && uuidFormat == UuidFormat.TEXT) {
+                if (dialect.supportsUuidMigration()) {
+                    uuidMigration = new UuidLayoutMigration(dialect, uuidMigrationBatchSize);
+                } else {
+                    Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &f" + dialect.getDisplayName() + " &cstores UUIDs as &fTEXT&c, &fBINARY&c is not supported."));
+                }
+            } else if (requestedFormat == UuidFormat.TEXT && uuidFormat == UuidFormat.BINARY) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe database already stores UUIDs as &fBINARY&c, switching back to &fTEXT&c is not supported."));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        if (uuidMigration != null) {
+            run(uuidMigration::start).thenRun(this::continueUuidMigration);
+        }
+        if (lastResets != null) {
+            startPeriodResets(lastResets);
+        } else {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe period starts could not be read, the daily, weekly, monthly and yearly resets are paused until the next restart."));
+        }
+        startCheckpoints();
+    }
+    /**
+     * Opens the backend's connections, setting {@link #connection} for a single shared
+     * connection or {@link #dataSource} for a pool.
+     */
+    protected abstract void connect() throws SQLException;
+    /**
+     * Builds the statement that stores votes received from a vote site. The parameters
+     * are the UUID, the vote amount five times and the vote day, followed by the day
+     * before the vote twice for {@link #streakAssignment(String)}.
+     *
+     * @return The upsert statement
+     */
+    protected abstract String buildVoteUpsertSQL();
+    /**
+     * Builds the statement that stores a player's packed claim bitmask, inserting a record
+     * when the player has none. The parameters are the UUID and the packed bitmask.
+     *
+     * @param column The bitmask column
+     * @return The upsert statement
+     */
+    protected abstract String buildClaimSQL(String column);
+    /**
+     * Builds the statement that stores an imported record. The parameters are the UUID,
+     * the daily, weekly, monthly, yearly and all-time counts, the streak and the last vote
+     * day, in the order of {@link #IMPORT_COLUMNS}.
+     *
+     * @param mode How the record is combined with an existing one
+     * @return The upsert statement
+     */
+    protected abstract String buildImportUpsertSQL(ImportMode mode);
+    /**
+     * Builds the statement reading a page of a leaderboard. The parameters are the page
+     * size and the number of rows to skip.
+     *
+     * @param column The count column ordered by
+     * @return The page query
+     */
+    protected String buildTopPageSQL(String column) {
+        return "SELECT uuid, " + column + " FROM player_votes WHERE " + column + " > 0 ORDER BY " + column + " DESC, uuid LIMIT ? OFFSET ?";
+    }
+    /**
+     * Creates a database executor. Every write goes through a single writer thread, so
+     * the writes of a player are applied in the order they were made; pooled backends
+     * run their reads on a second executor with one thread per remaining connection.
+     *
+     * @param threadName The prefix of the thread names.
+     * @param threads The number of worker threads.
+     * @param queueSize The maximum number of queued operations.
+     * @return The executor.
+     */
+    private ThreadPoolExecutor createExecutor(String threadName, int threads, int queueSize) {
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadName + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int workers = Math.max(1, threads);
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+    /**
+     * Runs a database task on the database executor.
+     *
+     * @param task The task to run.
+     * @return A future completed with the task result.
+     */
+    protected <R> CompletableFuture<R> supply(SqlTask<R> task) {
+        return supply(task, layoutLock.readLock());
+    }
+    /**
+     * Runs a database task on the database executor while holding the given lock.
+     * Regular tasks share the read lock of the table layout, tasks that change the
+     * layout take the write lock so nothing else runs at the same time.
+     *
+     * @param task The task to run.
+     * @param lock The lock to hold while the task runs.
+     * @return A future completed with the task result.
+     */
+    protected <R> CompletableFuture<R> supply(SqlTask<R> task, Lock lock) {
+        return submit(databaseExecutor, lock, () -> withConnection(task));
+    }
+    /**
+     * Runs a task that only reads. Pooled backends run it on the read executor, so reads
+     * do not queue behind writes; backends with separate reader connections override this.
+     *
+     * @param task The task to run.
+     * @return A future completed with the task result.
+     */
+    protected <R> CompletableFuture<R> read(SqlTask<R> task) {
+        if (readExecutor == null) {
+            return supply(task);
+        }
+        return submit(readExecutor, layoutLock.readLock(), () -> withConnection(task));
+    }
+    /**
+     * Runs a task without a result that only reads.
+     *
+     * @param task The task to run.
+     * @return A future completed once the task has run.
+     */
+    protected CompletableFuture<Void> readAction(SqlAction task) {
+        return read(connection -> {
+            task.run(connection);
+            return null;
+        });
+    }
+    /**
+     * Runs a call on an executor while holding the given lock.
+     *
+     * @param executor The executor to run on.
+     * @param lock     The lock to hold while the call runs.
+     * @param call     The call to run.
+     * @return A future completed with the call result.
+     */
+    protected <R> CompletableFuture<R> submit(Executor executor, Lock lock, Callable<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                lock.lock();
+                try {
+                    future.complete(call.call());
+                } catch (Throwable throwable) {
+                    throwable.printStackTrace();
+                    future.completeExceptionally(throwable);
+                } finally {
+                    lock.unlock();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cDatabase queue is full, an operation was rejected."));
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    /**
+     * Runs a database task without a result on the database executor.
+     *
+     * @param task The task to run.
+     * @return A future completed once the task has run.
+     */
+    private CompletableFuture<Void> run(SqlAction task) {
+        return supply(connection -> {
+            task.run(connection);
+            return null;
+        });
+    }
+    /**
+     * Copies the next batch of the UUID migration and schedules the batch after it. Once
+     * every row is copied the tables are swapped while no other database task runs.
+     */
+    private void continueUuidMigration() {
+        if (databaseExecutor.isShutdown() || !uuidMigration.isActive()) {
+            return;
+        }
+        supply(uuidMigration::copyBatch).thenAccept(remaining -> {
+            if (remaining) {
+                try {
+                    scheduler.schedule(this::continueUuidMigration, uuidMigrationDelay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException ignored) {
+                    // Shutting down, the migration resumes on the next start
+                }
+                return;
+            }
+            supply(connection -> {
+                if (uuidMigration.finish(connection)) {
+                    uuidFormat = UuidFormat.BINARY;
+                }
+                return null;
+            }, layoutLock.writeLock());
+        });
+    }
+    /**
+     * Resets every period that ended while the server was offline. Runs once on startup,
+     * before any player data is loaded.
+     *
+     * @return The start of each period as of its last reset
+     */
+    private Map<LeaderboardType, Long> catchUpPeriodResets(Connection connection) throws SQLException {
+        Map<LeaderboardType, Long> periodStarts = VotePeriodReset.loadPeriodStarts(connection);
+        long now = System.currentTimeMillis();
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            long periodStart = periodClock.getPeriodStart(period, now);
+            long endedStart = periodStarts.get(period);
+            if (periodStart <= endedStart) {
+                continue;
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int cleared = periodReset.reset(connection, period, endedStart, periodStart, uuidFormat);
+                connection.commit();
+                periodStarts.put(period, periodStart);
+                Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eReset the &f" + period.getIdentifier() + " &evotes of &6" + cleared + " &eplayers."));
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return periodStarts;
+    }
+    /**
+     * Resets a period for every player. Votes cast until now are written first and the
+     * cached counts and leaderboards are cleared together with the buffer, so each vote
+     * lands either in the ended period or in the new one. The database part runs in one
+     * transaction while no other database task runs; if it fails the votes go back into
+     * the buffer and the next check retries the reset.
+     *
+     * @param period      The period to reset.
+     * @param endedStart  The start of the period that ended.
+     * @param periodStart The start of the new period.
+     * @return A future completed once the period is reset.
+     */
+    @Override
+    protected CompletableFuture<Void> resetPeriod(LeaderboardType period, long endedStart, long periodStart) {
+        return supply(connection -> {
+            flushLock.writeLock().lock();
+            try {
+                Map<UUID, VoteWriteBuffer.PendingVotes> drained;
+                periodLock.writeLock().lock();
+                try {
+                    drained = writeBuffer == null ? Collections.emptyMap() : writeBuffer.drain();
+                    playerCache.forEach(record -> record.resetCount(period));
+                    leaderboards.reset(period);
+                } finally {
+                    periodLock.writeLock().unlock();
+                }
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    writeVotes(connection, drained);
+                    int cleared = periodReset.reset(connection, period, endedStart, periodStart, uuidFormat);
+                    connection.commit();
+                    VoteWriteBuffer.markStored(drained);
+                    Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eReset the &f" + period.getIdentifier() + " &evotes of &6" + cleared + " &eplayers."));
+                    return null;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (writeBuffer != null) {
+                        writeBuffer.restore(drained);
+                    }
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+        }, layoutLock.writeLock());
+    }
+    /**
+     * Remembers a player written to while the UUID migration runs.
+     *
+     * @param playerUUID UUID of the player
+     */
+    private void markDirty(UUID playerUUID) {
+        if (uuidMigration != null) {
+            uuidMigration.markDirty(playerUUID);
+        }
+    }
+    /**
+     * Runs a task with a database connection. Pooled backends borrow a connection from
+     * the pool and return it afterwards, the others use the shared connection.
+     *
+     * @param task The task to run.
+     * @return The task result.
+     */
+    protected <R> R withConnection(SqlTask<R> task) throws SQLException {
+        if (dataSource == null) {
+            return task.run(connection);
+        }
+        try (Connection pooledConnection = dataSource.getConnection()) {
+            return task.run(pooledConnection);
+        }
+    }
+    /**
+     * Runs a task without a result with a database connection.
+     *
+     * @param task The task to run.
+     */
+    protected void withConnection(SqlAction task) throws SQLException {
+        withConnection(connection -> {
+            task.run(connection);
+            return null;
+        });
+    }
+    /**
+     * Brings the schema up to date by applying the pending migrations of the current dialect.
+     */
+    private void initializeDatabase(Connection connection) throws SQLException {
+        new MigrationRunner(dialect.getName())
+                .baseline(new Migration() {
+                    @Override
+                    public int getVersion() {
+                        return 0;
+                    }
+                    @Override
+                    public String getDescription() {
+                        return "Upgrade schema created before versioned migrations";
+                    }
+                    @Override
+                    public void migrate(Connection connection) throws SQLException {
+                        checkAndAddColumns(connection);
+                    }
+                })
+                .register(new EpochTimestampMigration(dialect))
+                .register(new CalendarPeriodMigration(periodClock, dialect))
+                .register(new ClaimBitmapMigration(dialect))
+                .migrate(connection);
+    }
+    /**
+     * Checks if the necessary columns exist in a database created before versioned
+     * migrations and adds them if they are missing.
+     */
+    private void checkAndAddColumns(Connection connection) throws SQLException {
+        if (!columnExists(connection, "player_votes", "streak_count")) {
+            String addStreakCountColumnQuery = "ALTER TABLE player_votes ADD COLUMN streak_count "
+                    + dialect.getIntegerType() + " DEFAULT 0";
+            try (PreparedStatement stmt = connection.prepareStatement(addStreakCountColumnQuery)) {
+                stmt.executeUpdate();
+            }
+        }
+        if (!columnExists(connection, "player_votes", "last_vote_date")) {
+            String addLastVoteDateColumnQuery = "ALTER TABLE player_votes ADD COLUMN last_vote_date "
+                    + dialect.getDateTimeType();
+            try (PreparedStatement stmt = connection.prepareStatement(addLastVoteDateColumnQuery)) {
+                stmt.executeUpdate();
+            }
+        }
+    }
+    /**
+     * Adds a vote to the specified player's record and updates the streak. Period counts
+     * are reset for everyone at the end of each period, so nothing is rolled over here.
+     * When the write buffer is enabled the vote is kept in memory until the next flush.
+     * @param playerUUID UUID of the player
+     * @return A future completed once the vote is stored or buffered
+     */
+    @Override
+    public CompletableFuture<Void> addVote(UUID playerUUID) {
+        long today = today();
+        markDirty(playerUUID);
+        periodLock.readLock().lock();
+        try {
+            rankIndex.add(playerUUID, 1, true);
+            leaderboards.addSiteVotes(playerUUID, 1, today);
+            if (writeBuffer != null) {
+                AtomicReference<CompletableFuture<Void>> stored = new AtomicReference<>();
+                playerCache.update(playerUUID, record -> record.addSiteVotes(1, today), () -> stored.set(writeBuffer.add(playerUUID, 1, today)));
+                return stored.get();
+            }
+            return writeThrough(playerUUID, record -> record.addSiteVotes(1, today), connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(voteUpsertSQL)) {
+                    bindVoteUpsert(pstmt, playerUUID, 1, today);
+                    pstmt.executeUpdate();
+                }
+            });
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+    /**
+     * Queues a received vote for the next batch written to the vote history.
+     *
+     * @param event The vote event
+     */
+    @Override
+    public void recordVoteEvent(VoteEvent event) {
+        if (eventLog != null) {
+            eventLog.add(event);
+        }
+    }
+    /**
+     * Inserts a vote for an offline player into the pending_votes table.
+     *
+     * @param event The vote, its UUID is null if the player is unknown
+     * @return A future completed once the vote is stored
+     */
+    @Override
+    public CompletableFuture<Void> queueOfflineVote(VoteEvent event) {
+        return run(connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement("INSERT INTO pending_votes (player_name, uuid_most, uuid_least, " +
+                    "service, address, received_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+                pstmt.setString(1, VoteEventLog.truncate(getOfflineKey(event.getUsername()), 32));
+                if (event.getUuid() == null) {
+                    pstmt.setNull(2, Types.BIGINT);
+                    pstmt.setNull(3, Types.BIGINT);
+                } else {
+                    pstmt.setLong(2, event.getUuid().getMostSignificantBits());
+                    pstmt.setLong(3, event.getUuid().getLeastSignificantBits());
+                }
+                pstmt.setString(4, event.getServiceName() == null ? "" : VoteEventLog.truncate(event.getServiceName(), 64));
+                pstmt.setString(5, VoteEventLog.truncate(event.getAddress(), 64));
+                pstmt.setLong(6, event.getTimestamp());
+                pstmt.executeUpdate();
+            }
+        });
+    }
+    /**
+     * Moves the queued votes of a player into the player's record. The rows are deleted
+     * and the votes added with a single upsert in one transaction. Only rows this delete
+     * removed are delivered, so a vote is delivered once even if the player joins two
+     * servers sharing the database at the same time. The cached record and the leaderboards are updated after
+     * the commit while no flush or period reset runs.
+     *
+     * @param playerUUID UUID of the player
+     * @param playerName The name of the player
+     * @return A future completed with the delivered votes, oldest first
+     */
+    @Override
+    public CompletableFuture<List<VoteEvent>> claimOfflineVotes(UUID playerUUID, String playerName) {
+        return supply(connection -> {
+            flushLock.writeLock().lock();
+            periodLock.readLock().lock();
+            try {
+                List<VoteEvent> votes = new ArrayList<>();
+                List<Long> ids = new ArrayList<>();
+                try (PreparedStatement pstmt = connection.prepareStatement("SELECT id, service, address, received_at FROM pending_votes " +
+                        "WHERE player_name = ? OR (uuid_most = ? AND uuid_least = ?) ORDER BY id")) {
+                    pstmt.setString(1, VoteEventLog.truncate(getOfflineKey(playerName), 32));
+                    pstmt.setLong(2, playerUUID.getMostSignificantBits());
+                    pstmt.setLong(3, playerUUID.getLeastSignificantBits());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong("id"));
+                            votes.add(new VoteEvent(playerUUID, playerName, rs.getString("service"), rs.getString("address"), rs.getLong("received_at")));
+                        }
+                    }
+                }
+                if (votes.isEmpty()) {
+                    return votes;
+                }
+                long today = today();
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM pending_votes WHERE id = ?")) {
+                        for (long id : ids) {
+                            pstmt.setLong(1, id);
+                            pstmt.addBatch();
+                        }
+                        int[] deleted = pstmt.executeBatch();
+                        for (int i = deleted.length - 1; i >= 0; i--) {
+                            if (deleted[i] == 0) {
+                                votes.remove(i);
+                            }
+                        }
+                    }
+                    if (votes.isEmpty()) {
+                        connection.commit();
+                        return votes;
+                    }
+                    try (PreparedStatement pstmt = connection.prepareStatement(voteUpsertSQL)) {
+                        bindVoteUpsert(pstmt, playerUUID, votes.size(), today);
+                        pstmt.executeUpdate();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+                markDirty(playerUUID);
+                rankIndex.add(playerUUID, votes.size(), true);
+                leaderboards.addSiteVotes(playerUUID, votes.size(), today);
+                playerCache.update(playerUUID, record -> record.addSiteVotes(votes.size(), today), () -> { });
+                return votes;
+            } finally {
+                periodLock.readLock().unlock();
+                flushLock.writeLock().unlock();
+            }
+        });
+    }
+    /**
+     * Adds multiple votes to the specified player's record and updates all vote counts.
+     * The rank index, the leaderboards and the cached record only change once the update
+     * matched a stored row, while no period reset runs.
+     *
+     * @param playerUUID UUID of the player
+     * @param voteAmount The number of votes to add
+     * @return A future completed once the votes are stored
+     */
+    @Override
+    public CompletableFuture<Void> addMultipleVotes(UUID playerUUID, int voteAmount) {
+        if (voteAmount <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        markDirty(playerUUID);
+        return run(connection -> {
+            flushIfPending(connection, playerUUID);
+            periodLock.readLock().lock();
+            try {
+                try (PreparedStatement pstmt = connection.prepareStatement(voteUpdateSQL)) {
+                    for (int i = 1; i <= 5; i++) {
+                        pstmt.setInt(i, voteAmount);
+                    }
+                    uuidFormat.bind(pstmt, 6, playerUUID);
+                    if (pstmt.executeUpdate() == 0) {
+                        Bukkit.getLogger().info(ConsoleUtil.translateColors("&4[&c!&4] &cPlayer &f" + playerUUID + " &chas no record in the database, please use test-vote to add a record."));
+                        return;
+                    }
+                }
+                rankIndex.add(playerUUID, voteAmount, false);
+                leaderboards.addVotes(playerUUID, voteAmount);
+                playerCache.update(playerUUID, record -> record.addVotes(voteAmount), () -> { });
+            } finally {
+                periodLock.readLock().unlock();
+            }
+        });
+    }
+    /**
+     * Applies a change to the player's cached record and runs the matching database write.
+     *
+     * @param playerUUID UUID of the player
+     * @param change The change to apply to the cached record
+     * @param write The database write
+     * @return A future completed once the write has run
+     */
+    private CompletableFuture<Void> writeThrough(UUID playerUUID, Consumer<PlayerVoteRecord> change, SqlAction write) {
+        markDirty(playerUUID);
+        playerCache.update(playerUUID, change, () -> { });
+        return run(write);
+    }
+    /**
+     * Loads a player's vote record into the cache, called before the player joins so
+     * placeholder and menu reads do not need the database.
+     *
+     * @param playerUUID UUID of the player
+     * @return A future completed once the record is cached
+     */
+    @Override
+    public CompletableFuture<Void> loadPlayer(UUID playerUUID) {
+        return readAction(connection -> {
+            flushLock.readLock().lock();
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT * FROM player_votes WHERE uuid = ?")) {
+                uuidFormat.bind(pstmt, 1, playerUUID);
+                ResultSet rs = pstmt.executeQuery();
+                boolean found = rs.next();
+                PlayerVoteRecord stored = found ? readRecord(playerUUID, rs) : new PlayerVoteRecord(playerUUID);
+                cacheClaims(playerUUID, found ? rs : null);
+                playerCache.load(playerUUID, uuid -> {
+                    VoteWriteBuffer.PendingVotes pending = writeBuffer == null ? null : writeBuffer.get(uuid);
+                    if (pending != null) {
+                        stored.addSiteVotes(pending.getAmount(), pending.getLastVoteDay());
+                    }
+                    return stored;
+                });
+            } finally {
+                flushLock.readLock().unlock();
+            }
+        });
+    }
+    /**
+     * Starts the expiry countdown of a player's cached record, called when the player leaves.
+     *
+     * @param playerUUID UUID of the player
+     */
+    @Override
+    public void unloadPlayer(UUID playerUUID) {
+        playerCache.markOffline(playerUUID);
+        loadedClaims.markOffline(playerUUID);
+    }
+    /**
+     * Removes the expired player records and claims. Claims with changes that are not
+     * stored yet stay cached until they are, and none are removed while a claim write
+     * has not committed, so a reload never reads older claims than the cache holds.
+     */
+    private void evictExpired() {
+        playerCache.evictExpired();
+        synchronized (claimLock) {
+            synchronized (milestoneCache) {
+                synchronized (streakCache) {
+                    if (claimWrites.get() > 0) {
+                        return;
+                    }
+                    for (UUID uuid : loadedClaims.removeExpired(uuid -> changedMilestones.contains(uuid) || changedStreaks.contains(uuid))) {
+                        milestoneCache.put(uuid, null);
+                        streakCache.put(uuid, null);
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Forgets every cached claim, used when the stored claims are replaced. Claims are
+     * loaded again the next time they are needed.
+     */
+    private void forgetClaims() {
+        synchronized (claimLock) {
+            synchronized (milestoneCache) {
+                synchronized (streakCache) {
+                    loadedClaims.clear();
+                    milestoneCache.clear();
+                    streakCache.clear();
+                    changedMilestones.clear();
+                    changedStreaks.clear();
+                }
+            }
+        }
+    }
+    /**
+     * Loads a player's claims if they are not loaded yet.
+     *
+     * @param uuid UUID of the player
+     * @return A future completed once the claims are loaded
+     */
+    @Override
+    public CompletableFuture<Void> loadClaims(UUID uuid) {
+        if (loadedClaims.contains(uuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return readAction(connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT " + ClaimBitmapMigration.MILESTONE_COLUMN + ", "
+                    + ClaimBitmapMigration.STREAK_COLUMN + " FROM player_votes WHERE uuid = ?")) {
+                uuidFormat.bind(pstmt, 1, uuid);
+                ResultSet rs = pstmt.executeQuery();
+                cacheClaims(uuid, rs.next() ? rs : null);
+            }
+        });
+    }
+    /**
+     * Caches a player's claims from their row, unless they are cached already, in which
+     * case the cache may hold claims the row does not have yet.
+     *
+     * @param uuid UUID of the player
+     * @param rs The result set positioned on the player's row, or null if there is none
+     */
+    private void cacheClaims(UUID uuid, ResultSet rs) throws SQLException {
+        long[] milestones = rs == null ? null : ClaimTable.fromBytes(rs.getBytes(ClaimBitmapMigration.MILESTONE_COLUMN));
+        long[] streaks = rs == null ? null : ClaimTable.fromBytes(rs.getBytes(ClaimBitmapMigration.STREAK_COLUMN));
+        synchronized (claimLock) {
+            if (!loadedClaims.contains(uuid)) {
+                milestoneCache.put(uuid, milestones);
+                streakCache.put(uuid, streaks);
+            }
+            loadedClaims.add(uuid);
+        }
+    }
+    /**
+     * Checks if a player has claimed a milestone. Callers load the claims first with
+     * {@link #loadClaims(UUID)}; if they were evicted since, loading them again is started
+     * and the milestone counts as claimed for now, so the main thread never waits.
+     *
+     * @param uuid UUID of the player
+     * @param milestoneId ID of the milestone
+     * @return True if the milestone is claimed or the claims are not loaded
+     */
+    @Override
+    public boolean isMilestoneClaimed(UUID uuid, int milestoneId) {
+        return !claimsLoaded(uuid) || super.isMilestoneClaimed(uuid, milestoneId);
+    }
+    /**
+     * Checks if a player has claimed a streak. Callers load the claims first with
+     * {@link #loadClaims(UUID)}; if they were evicted since, loading them again is started
+     * and the streak counts as claimed for now, so the main thread never waits.
+     *
+     * @param uuid UUID of the player
+     * @param streakId ID of the streak
+     * @return True if the streak is claimed or the claims are not loaded
+     */
+    @Override
+    public boolean isStreakClaimed(UUID uuid, int streakId) {
+        return !claimsLoaded(uuid) || super.isStreakClaimed(uuid, streakId);
+    }
+    /**
+     * Checks if a player's claims are loaded, starting to load them if not.
+     *
+     * @param uuid UUID of the player
+     * @return True if the claims are loaded
+     */
+    private boolean claimsLoaded(UUID uuid) {
+        if (loadedClaims.contains(uuid)) {
+            return true;
+        }
+        loadClaims(uuid).exceptionally(throwable -> {
+            throwable.printStackTrace();
+            return null;
+        });
+        return false;
+    }
+    /**
+     * Reads a player vote record from the current row of a result set.
+     *
+     * @param playerUUID UUID of the player
+     * @param rs The result set positioned on the player's row
+     * @return The player vote record
+     */
+    private PlayerVoteRecord readRecord(UUID playerUUID, ResultSet rs) throws SQLException {
+        int[] counts = new int[VOTE_PERIODS.length + 1];
+        for (int i = 0; i < VOTE_PERIODS.length; i++) {
+            counts[i] = rs.getInt(VOTE_PERIODS[i] + "_count");
+        }
+        counts[VOTE_PERIODS.length] = rs.getInt("all_time_count");
+        return new PlayerVoteRecord(playerUUID, counts, rs.getInt("streak_count"), readEpoch(rs, "last_vote_day"));
+    }
+    /**
+     * Reads an epoch day column.
+     *
+     * @param rs The result set positioned on the row
+     * @param column The column name
+     * @return The stored value, or {@link TimeUtil#NONE} if the column is null
+     */
+    private long readEpoch(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? TimeUtil.NONE : value;
+    }
+    /**
+     * Requests a flush of the write buffer unless one is already queued.
+     */
+    private void requestFlush() {
+        if (writeBuffer != null && !writeBuffer.isEmpty() && flushQueued.compareAndSet(false, true)) {
+            run(this::writePendingVotes).exceptionally(throwable -> {
+                flushQueued.set(false);
+                return null;
+            });
+        }
+    }
+    /**
+     * Requests a write of the queued vote events unless one is already queued.
+     */
+    private void requestEventFlush() {
+        if (eventLog != null && !eventLog.isEmpty() && eventFlushQueued.compareAndSet(false, true)) {
+            run(connection -> {
+                eventFlushQueued.set(false);
+                eventLog.write(connection);
+            }).exceptionally(throwable -> {
+                eventFlushQueued.set(false);
+                return null;
+            });
+        }
+    }
+    /**
+     * Writes every buffered vote in a single transaction. If the transaction fails the
+     * votes are put back into the buffer so the next flush can retry them. Readers that
+     * combine stored and pending counts wait for a running flush, so no vote is missed
+     * or counted twice.
+     */
+    private void writePendingVotes(Connection connection) throws SQLException {
+        flushQueued.set(false);
+        if (writeBuffer == null || writeBuffer.isEmpty()) {
+            return;
+        }
+        writeBuffered(connection, null);
+    }
+    /**
+     * Drains buffer entries and writes them in one transaction, putting them back if the
+     * write fails.
+     *
+     * @param playerUUID UUID of the only player to write, or null for every player
+     */
+    private void writeBuffered(Connection connection, UUID playerUUID) throws SQLException {
+        flushLock.writeLock().lock();
+        try {
+            Map<UUID, VoteWriteBuffer.PendingVotes> drained = playerUUID == null ? writeBuffer.drain() : writeBuffer.drain(playerUUID);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                writeVotes(connection, drained);
+                connection.commit();
+                VoteWriteBuffer.markStored(drained);
+            } catch (SQLException e) {
+                connection.rollback();
+                writeBuffer.restore(drained);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+    /**
+     * Writes drained buffer entries in one batch. The caller manages the transaction.
+     *
+     * @param drained The drained entries
+     */
+    private void writeVotes(Connection connection, Map<UUID, VoteWriteBuffer.PendingVotes> drained) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(voteUpsertSQL)) {
+            for (Map.Entry<UUID, VoteWriteBuffer.PendingVotes> entry : drained.entrySet()) {
+                bindVoteUpsert(pstmt, entry.getKey(), entry.getValue().getAmount(), entry.getValue().getLastVoteDay());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+    /**
+     * Writes the player's buffered votes when they have any, so reads and writes that
+     * cannot simply add the pending amount see the player's latest state. The votes of
+     * other players stay buffered.
+     *
+     * @param playerUUID UUID of the player
+     */
+    private void flushIfPending(Connection connection, UUID playerUUID) throws SQLException {
+        if (getPendingVotes(playerUUID) > 0) {
+            writeBuffered(connection, playerUUID);
+        }
+    }
+    /**
+     * Builds the assignments of the vote upsert. The votes are added to every count and
+     * the streak continues, resets or stays depending on the last vote day. Vote days are
+     * epoch days, so the streak check is an integer comparison. MySQL applies assignments
+     * left to right, so the streak is assigned before the last vote day.
+     *
+     * @param target The prefix of the stored columns, empty if unqualified
+     * @param inserted Maps a column to the expression of the inserted value
+     * @return The SQL assignments
+     */
+    protected String voteAssignments(String target, UnaryOperator<String> inserted) {
+        StringBuilder sql = new StringBuilder();
+        for (String period : VOTE_PERIODS) {
+            sql.append(period).append("_count = ").append(target).append(period).append("_count + ").append(inserted.apply(period + "_count")).append(", ");
+        }
+        sql.append("all_time_count = ").append(target).append("all_time_count + ").append(inserted.apply("all_time_count")).append(", ");
+        sql.append(streakAssignment(target)).append(", ");
+        sql.append("last_vote_day = ").append(inserted.apply("last_vote_day"));
+        return sql.toString();
+    }
+    /**
+     * Gets the assignment that continues, resets or keeps the streak. Both parameters are
+     * the epoch day before the vote.
+     *
+     * @param target The prefix of the stored columns, empty if unqualified
+     * @return The SQL assignment
+     */
+    protected String streakAssignment(String target) {
+        return "streak_count = CASE WHEN " + target + "last_vote_day IS NULL OR " + target + "last_vote_day < ? THEN 1 " +
+                "WHEN " + target + "last_vote_day = ? THEN " + target + "streak_count + 1 ELSE " + target + "streak_count END";
+    }
+    /**
+     * Builds the assignments of the import upsert. Replacing overwrites every column,
+     * adding sums the counts and keeps the streak of whichever side voted last. MySQL
+     * applies assignments left to right, so the streak is assigned before the last vote day.
+     *
+     * @param target The prefix of the stored columns, empty if unqualified
+     * @param inserted Maps a column to the expression of the inserted value
+     * @param mode How the record is combined with the stored one
+     * @return The SQL assignments
+     */
+    protected String importAssignments(String target, UnaryOperator<String> inserted, ImportMode mode) {
+        StringJoiner sql = new StringJoiner(", ");
+        String later = target + "last_vote_day IS NULL OR " + target + "last_vote_day < " + inserted.apply("last_vote_day");
+        for (int i = 1; i < IMPORT_COLUMNS.length; i++) {
+            String column = IMPORT_COLUMNS[i];
+            if (mode == ImportMode.REPLACE) {
+                sql.add(column + " = " + inserted.apply(column));
+            } else if (column.endsWith("_count") && !column.equals("streak_count")) {
+                sql.add(column + " = " + target + column + " + " + inserted.apply(column));
+            } else {
+                sql.add(column + " = CASE WHEN " + later + " THEN " + inserted.apply(column) + " ELSE " + target + column + " END");
+            }
+        }
+        return sql.toString();
+    }
+    /**
+     * Builds the statement that adds votes to an existing record without touching the streak.
+     *
+     * @return The update statement
+     */
+    private String buildVoteUpdateSQL() {
+        StringBuilder sql = new StringBuilder("UPDATE player_votes SET ");
+        for (String period : VOTE_PERIODS) {
+            sql.append(period).append("_count = ").append(period).append("_count + ?, ");
+        }
+        sql.append("all_time_count = all_time_count + ? WHERE uuid = ?");
+        return sql.toString();
+    }
+    /**
+     * Builds the statement that removes votes from every count of an existing record,
+     * no count goes below zero.
+     *
+     * @return The update statement
+     */
+    private String buildVoteRemoveSQL() {
+        StringBuilder sql = new StringBuilder("UPDATE player_votes SET ");
+        for (String period : VOTE_PERIODS) {
+            String column = period + "_count";
+            sql.append(column).append(" = CASE WHEN ").append(column).append(" > ? THEN ").append(column).append(" - ? ELSE 0 END, ");
+        }
+        sql.append("all_time_count = CASE WHEN all_time_count > ? THEN all_time_count - ? ELSE 0 END WHERE uuid = ?");
+        return sql.toString();
+    }
+    /**
+     * Binds the parameters of the vote upsert statement.
+     *
+     * @param pstmt The prepared upsert statement
+     * @param playerUUID UUID of the player
+     * @param voteAmount The number of votes to add
+     * @param voteDay The epoch day of the most recent vote
+     */
+    private void bindVoteUpsert(PreparedStatement pstmt, UUID playerUUID, int voteAmount, long voteDay) throws SQLException {
+        int index = 1;
+        uuidFormat.bind(pstmt, index++, playerUUID);
+        for (int i = 0; i < 5; i++) {
+            pstmt.setInt(index++, voteAmount);
+        }
+        pstmt.setLong(index++, voteDay);
+        pstmt.setLong(index++, voteDay - 1);
+        pstmt.setLong(index, voteDay - 1);
+    }
+    /**
+     * Removes votes from every count of the specified player's record, no count goes below
+     * zero. Like {@link #addMultipleVotes(UUID, int)} the in-memory state only changes once
+     * the update matched a stored row.
+     * @param playerUUID UUID of the player
+     * @param count The number of votes to remove
+     * @return A future completed once the votes are removed
+     */
+    @Override
+    public CompletableFuture<Void> removeVote(UUID playerUUID, int count) {
+        if (count <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        markDirty(playerUUID);
+        return run(connection -> {
+            flushIfPending(connection, playerUUID);
+            periodLock.readLock().lock();
+            try {
+                try (PreparedStatement pstmt = connection.prepareStatement(voteRemoveSQL)) {
+                    for (int i = 1; i <= 10; i++) {
+                        pstmt.setInt(i, count);
+                    }
+                    uuidFormat.bind(pstmt, 11, playerUUID);
+                    if (pstmt.executeUpdate() == 0) {
+                        return;
+                    }
+                }
+                rankIndex.add(playerUUID, -count, false);
+                leaderboards.removeVotes(playerUUID, count);
+                playerCache.update(playerUUID, record -> record.removeVotes(count), () -> { });
+            } finally {
+                periodLock.readLock().unlock();
+            }
+        });
+    }
+    /**
+     * Gets the specified vote count for a player.
+     * @param playerUUID UUID of the player
+     * @param type Type of vote count to retrieve ("daily", "weekly", "monthly", "yearly", "all_time")
+     * @return A future completed with the vote count
+     */
+    @Override
+    public CompletableFuture<Integer> getPlayerVoteCount(UUID playerUUID, String type) {
+        PlayerVoteRecord record = playerCache.get(playerUUID);
+        if (record != null) {
+            return CompletableFuture.completedFuture(record.getCount(type));
+        }
+        return read(connection -> {
+            String querySQL = "SELECT " + type + "_count FROM player_votes WHERE uuid = ?;";
+            flushLock.readLock().lock();
+            try (PreparedStatement pstmt = connection.prepareStatement(querySQL)) {
+                uuidFormat.bind(pstmt, 1, playerUUID);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return rs.getInt(type + "_count") + getPendingVotes(playerUUID);
+                }
+                return getPendingVotes(playerUUID);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+        });
+    }
+    /**
+     * Gets the number of buffered votes that have not been written for a player yet.
+     *
+     * @param playerUUID UUID of the player
+     * @return The number of pending votes
+     */
+    private int getPendingVotes(UUID playerUUID) {
+        return writeBuffer == null ? 0 : writeBuffer.getPending(playerUUID);
+    }
+    /**
+     * Saves the current global vote count to the database if it changed since the last
+     * checkpoint.
+     * @return A future completed once the count is saved
+     */
+    @Override
+    public CompletableFuture<Void> saveCurrentGlobalVoteCount() {
+        return run(this::writePartyCount);
+    }
+    /**
+     * Writes the current global vote count if it changed since it was last written.
+     *
+     * @return True if the count was written
+     */
+    private boolean writePartyCount(Connection connection) throws SQLException {
+        if (!takePartyCountChange()) {
+            return false;
+        }
+        final String updateSQL = "UPDATE vote_party SET current_vote_count = ?;";
+        final String insertSQL = "INSERT INTO vote_party (current_vote_count) VALUES (?);";
+
+        try {
+            try (PreparedStatement updateStmt = connection.prepareStatement(updateSQL)) {
+                updateStmt.setInt(1, currentGlobalVoteCount.get());
+                int rows = updateStmt.executeUpdate();
+                if (rows > 0) {
+                    return true;
+                }
+            }
+
+            try (PreparedStatement insertStmt = connection.prepareStatement(insertSQL)) {
+                insertStmt.setInt(1, currentGlobalVoteCount.get());
+                insertStmt.executeUpdate();
+            }
+            return true;
+        } catch (SQLException e) {
+            markPartyCountChanged();
+            throw e;
+        }
+    }
+    /**
+     * Writes the claims and the vote party counter changed since the last checkpoint in
+     * one transaction. If it fails the changes are marked again for the next checkpoint.
+     *
+     * @return A future completed once the changes are written
+     */
+    @Override
+    protected CompletableFuture<Void> checkpoint() {
+        return run(this::writeCheckpoint);
+    }
+    /**
+     * Writes the changed claims and the vote party counter in one transaction.
+     */
+    private void writeCheckpoint(Connection connection) throws SQLException {
+        boolean partyCountChanged = takePartyCountChange();
+        if (changedMilestones.isEmpty() && changedStreaks.isEmpty() && !partyCountChanged) {
+            return;
+        }
+        if (partyCountChanged) {
+            markPartyCountChanged();
+        }
+        List<UUID> milestones = Collections.emptyList(), streaks = Collections.emptyList();
+        boolean partyCount = false;
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        claimWrites.incrementAndGet();
+        try {
+            milestones = writeClaims(connection, ClaimBitmapMigration.MILESTONE_COLUMN, milestoneCache, changedMilestones, new ArrayList<>(changedMilestones));
+            streaks = writeClaims(connection, ClaimBitmapMigration.STREAK_COLUMN, streakCache, changedStreaks, new ArrayList<>(changedStreaks));
+            partyCount = writePartyCount(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            changedMilestones.addAll(milestones);
+            changedStreaks.addAll(streaks);
+            if (partyCount) {
+                markPartyCountChanged();
+            }
+            throw e;
+        } finally {
+            claimWrites.decrementAndGet();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Loads the current global vote count from the database.
+     * @return A future completed once the count is loaded
+     */
+    @Override
+    public CompletableFuture<Void> loadCurrentGlobalVoteCount() {
+        return readAction(connection -> {
+            String querySQL = "SELECT current_vote_count FROM vote_party;";
+            try (PreparedStatement pstmt = connection.prepareStatement(querySQL)) {
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    currentGlobalVoteCount.set(rs.getInt("current_vote_count"));
+                }
+            }
+        });
+    }
+    /**
+     * Every server using the database can reach the vote_party row.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsSharedParty() {
+        return true;
+    }
+    /**
+     * Adds votes to the vote_party row with a relative update, so concurrent additions
+     * from several servers are never lost.
+     *
+     * @param amount The number of votes to add
+     * @param threshold The votes needed for a vote party, 0 or less to claim none
+     * @return A future completed with the stored state after the change
+     */
+    @Override
+    public CompletableFuture<SharedPartyState> addSharedPartyVotes(int amount, int threshold) {
+        return supply(connection -> updateSharedParty(connection,
+                "UPDATE vote_party SET current_vote_count = current_vote_count + ?, revision = revision + 1", amount, threshold));
+    }
+    /**
+     * Sets the votes of the vote_party row.
+     *
+     * @param count The new vote count
+     * @param threshold The votes needed for a vote party, 0 or less to claim none
+     * @return A future completed with the stored state after the change
+     */
+    @Override
+    public CompletableFuture<SharedPartyState> setSharedPartyVotes(int count, int threshold) {
+        return supply(connection -> updateSharedParty(connection,
+                "UPDATE vote_party SET current_vote_count = ?, revision = revision + 1", Math.max(count, 0), threshold));
+    }
+    /**
+     * Reads the vote_party row on a reader connection and keeps the in-memory counter,
+     * which backups write, up to date with it.
+     *
+     * @return A future completed with the stored state
+     */
+    @Override
+    public CompletableFuture<SharedPartyState> readSharedParty() {
+        return read(connection -> {
+            SharedPartyState state = readSharedParty(connection, 0);
+            currentGlobalVoteCount.set(state.getVoteCount());
+            return state;
+        });
+    }
+    /**
+     * Changes the vote_party row and claims the vote parties the new count completes in
+     * one transaction. Each claim is a conditional update that only matches while the
+     * count still reaches the threshold, so when several servers cross it at once the
+     * database hands each party to exactly one of them.
+     *
+     * @param updateSQL The update changing the count, with the value as its only parameter.
+     * @param value     The value to bind.
+     * @param threshold The votes needed for a vote party, 0 or less to claim none.
+     * @return The stored state after the change.
+     */
+    private SharedPartyState updateSharedParty(Connection connection, String updateSQL, int value, int threshold) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement updateStmt = connection.prepareStatement(updateSQL)) {
+                updateStmt.setInt(1, value);
+                if (updateStmt.executeUpdate() == 0) {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.executeUpdate("INSERT INTO vote_party (current_vote_count) VALUES (0)");
+                    }
+                    updateStmt.executeUpdate();
+                }
+            }
+            int claimed = 0;
+            if (threshold > 0) {
+                try (PreparedStatement claimStmt = connection.prepareStatement("UPDATE vote_party SET current_vote_count = current_vote_count - ?, " +
+                        "party_count = party_count + 1 WHERE current_vote_count >= ?")) {
+                    claimStmt.setInt(1, threshold);
+                    claimStmt.setInt(2, threshold);
+                    while (claimStmt.executeUpdate() > 0) {
+                        claimed++;
+                    }
+                }
+            }
+            SharedPartyState state = readSharedParty(connection, claimed);
+            connection.commit();
+            currentGlobalVoteCount.set(state.getVoteCount());
+            return state;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Reads the vote_party row.
+     *
+     * @param claimed The number of vote parties claimed by the caller.
+     * @return The stored state, empty if there is no row yet.
+     */
+    private SharedPartyState readSharedParty(Connection connection, int claimed) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT current_vote_count, party_count, revision FROM vote_party")) {
+            if (!rs.next()) {
+                return new SharedPartyState(0, 0L, 0L, claimed);
+            }
+            return new SharedPartyState(rs.getInt(1), rs.getLong(2), rs.getLong(3), claimed);
+        }
+    }
+    /**
+     * Builds the rank index and the leaderboards from every stored player in a single scan.
+     * Called during startup, before votes are received, and kept up to date by every vote
+     * operation afterwards.
+     * @return A future completed once the rank index and leaderboards are built
+     */
+    @Override
+    public CompletableFuture<Void> loadLeaderboards() {
+        return readAction(connection -> {
+            List<PlayerVoteRecord> records = new ArrayList<>();
+            flushLock.readLock().lock();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT * FROM player_votes")) {
+                while (rs.next()) {
+                    UUID uuid = uuidFormat.read(rs, "uuid");
+                    PlayerVoteRecord record = readRecord(uuid, rs);
+                    VoteWriteBuffer.PendingVotes pending = writeBuffer == null ? null : writeBuffer.get(uuid);
+                    if (pending != null) {
+                        record.addSiteVotes(pending.getAmount(), pending.getLastVoteDay());
+                    }
+                    records.add(record);
+                }
+            } finally {
+                flushLock.readLock().unlock();
+            }
+            rebuildLeaderboards(records);
+        });
+    }
+    /**
+     * Reads a page of a leaderboard past the in-memory leaderboard. Buffered votes are
+     * written first so the page matches the in-memory counts.
+     *
+     * @param type   The leaderboard type.
+     * @param offset The number of players to skip.
+     * @param limit  The maximum number of players to return.
+     * @return A future completed with the players, best first.
+     */
+    @Override
+    protected CompletableFuture<List<PlayerVoteData>> queryTopPlayers(LeaderboardType type, int offset, int limit) {
+        String column = getCountColumn(type);
+        return supply(connection -> {
+            writePendingVotes(connection);
+            List<PlayerVoteData> topPlayers = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(buildTopPageSQL(column))) {
+                pstmt.setInt(1, limit);
+                pstmt.setInt(2, offset);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    topPlayers.add(new PlayerVoteData(uuidFormat.read(rs, "uuid"), rs.getInt(column)));
+                }
+            }
+            return topPlayers;
+        });
+    }
+    /**
+     * Sets the vote streak count for the player.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak The streak count to set
+     * @return A future completed once the streak is updated
+     */
+    @Override
+    public CompletableFuture<Void> setVoteStreak(UUID playerUUID, int streak) {
+        leaderboards.setStreak(playerUUID, streak);
+        return writeThrough(playerUUID, record -> record.setStreak(streak), connection -> {
+            flushIfPending(connection, playerUUID);
+            String updateSQL = "UPDATE player_votes SET streak_count = ? WHERE uuid = ?";
+            try (PreparedStatement pstmt = connection.prepareStatement(updateSQL)) {
+                pstmt.setInt(1, streak);
+                uuidFormat.bind(pstmt, 2, playerUUID);
+                pstmt.executeUpdate();
+            }
+        });
+    }
+    /**
+     * Increments the streak count for the player and updates the last vote date.
+     *
+     * @param playerUUID UUID of the player
+     * @param newStreakCount New streak count to set
+     * @param lastVoteDate The date of the last vote
+     * @return A future completed once the streak is updated
+     */
+    @Override
+    public CompletableFuture<Void> incrementStreak(UUID playerUUID, int newStreakCount, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, newStreakCount, lastVoteDay);
+        return writeThrough(playerUUID, record -> record.setStreak(newStreakCount, lastVoteDay), connection -> {
+            flushIfPending(connection, playerUUID);
+            writeStreak(connection, playerUUID, newStreakCount, lastVoteDay);
+        });
+    }
+    /**
+     * Writes the streak count and last vote day for the player.
+     *
+     * @param playerUUID UUID of the player
+     * @param newStreakCount New streak count to set
+     * @param lastVoteDay The epoch day of the last vote
+     */
+    private void writeStreak(Connection connection, UUID playerUUID, int newStreakCount, long lastVoteDay) throws SQLException {
+        String updateSQL = "UPDATE player_votes SET streak_count = ?, last_vote_day = ? WHERE uuid = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(updateSQL)) {
+            pstmt.setInt(1, newStreakCount);
+            pstmt.setLong(2, lastVoteDay);
+            uuidFormat.bind(pstmt, 3, playerUUID);
+            pstmt.executeUpdate();
+        }
+    }
+    /**
+     * Adds to the player's current streak count.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak The streak count to add
+     * @return A future completed once the streak is updated
+     */
+    @Override
+    public CompletableFuture<Void> addStreak(UUID playerUUID, int streak) {
+        leaderboards.addStreak(playerUUID, streak);
+        return writeThrough(playerUUID, record -> record.addStreak(streak), connection -> {
+            flushIfPending(connection, playerUUID);
+            String updateSQL = "UPDATE player_votes SET streak_count = streak_count + ? WHERE uuid = ?";
+            try (PreparedStatement pstmt = connection.prepareStatement(updateSQL)) {
+                pstmt.setInt(1, streak);
+                uuidFormat.bind(pstmt, 2, playerUUID);
+                pstmt.executeUpdate();
+            }
+        });
+    }
+    /**
+     * Resets the player's streak count and updates the last vote date.
+     *
+     * @param playerUUID UUID of the player
+     * @param lastVoteDate The date of the last vote
+     * @return A future completed once the streak is reset
+     */
+    @Override
+    public CompletableFuture<Void> resetStreak(UUID playerUUID, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, 1, lastVoteDay);
+        return writeThrough(playerUUID, record -> record.setStreak(1, lastVoteDay), connection -> {
+            flushIfPending(connection, playerUUID);
+            writeStreak(connection, playerUUID, 1, lastVoteDay);
+        });
+    }
+    /**
+     * Gets the current streak count for the player.
+     *
+     * @param playerUUID UUID of the player
+     * @return A future completed with the player's current streak count
+     */
+    @Override
+    public CompletableFuture<Integer> getPlayerStreak(UUID playerUUID) {
+        PlayerVoteRecord record = playerCache.get(playerUUID);
+        if (record != null) {
+            return CompletableFuture.completedFuture(record.getStreakCount());
+        }
+        return supply(connection -> {
+            flushIfPending(connection, playerUUID);
+            String querySQL = "SELECT streak_count FROM player_votes WHERE uuid = ?";
+            try (PreparedStatement pstmt = connection.prepareStatement(querySQL)) {
+                uuidFormat.bind(pstmt, 1, playerUUID);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return rs.getInt("streak_count");
+                }
+            }
+            return 0;
+        });
+    }
+    /**
+     * Claims a milestone for the specified player.
+     *
+     * @param uuid UUID of the player
+     * @param milestoneId ID of the milestone
+     * @return A future completed once the claim is stored
+     */
+    @Override
+    public CompletableFuture<Void> claimMilestone(UUID uuid, int milestoneId) {
+        if (!ClaimTable.isValidId(milestoneId)) {
+            return invalidClaim("Milestone", milestoneId);
+        }
+        synchronized (claimLock) {
+            if (!loadedClaims.contains(uuid)) {
+                return loadClaims(uuid).thenCompose(ignored -> claimMilestone(uuid, milestoneId));
+            }
+            cacheMilestone(uuid, milestoneId);
+            changedMilestones.add(uuid);
+        }
+        markDirty(uuid);
+
+        return run(connection -> writeClaims(connection, ClaimBitmapMigration.MILESTONE_COLUMN, milestoneCache, changedMilestones, Collections.singleton(uuid)));
+    }
+    /**
+     * Saves the milestones claimed since the last checkpoint to the database.
+     * @return A future completed once the milestones are saved
+     */
+    @Override
+    public CompletableFuture<Void> saveMilestones() {
+        return run(this::writeMilestones);
+    }
+    /**
+     * Writes the changed milestone bitmasks in one batch.
+     */
+    private void writeMilestones(Connection connection) throws SQLException {
+        List<UUID> written = writeClaims(connection, ClaimBitmapMigration.MILESTONE_COLUMN, milestoneCache, changedMilestones, new ArrayList<>(changedMilestones));
+
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eSaved &6" + written.size() + " &echanged player milestones to the database."));
+    }
+    /**
+     * Saves the streaks claimed since the last checkpoint to the database.
+     * @return A future completed once the streaks are saved
+     */
+    @Override
+    public CompletableFuture<Void> saveStreaks() {
+        return run(this::writeStreaks);
+    }
+    /**
+     * Writes the changed streak bitmasks in one batch.
+     */
+    private void writeStreaks(Connection connection) throws SQLException {
+        List<UUID> written = writeClaims(connection, ClaimBitmapMigration.STREAK_COLUMN, streakCache, changedStreaks, new ArrayList<>(changedStreaks));
+
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eSaved &6" + written.size() + " &echanged player streaks to the database."));
+    }
+    /**
+     * Claims a streak for the specified player.
+     *
+     * @param uuid UUID of the player
+     * @param streakId ID of the streak
+     * @return A future completed once the claim is stored
+     */
+    @Override
+    public CompletableFuture<Void> claimStreak(UUID uuid, int streakId) {
+        if (!ClaimTable.isValidId(streakId)) {
+            return invalidClaim("Streak", streakId);
+        }
+        synchronized (claimLock) {
+            if (!loadedClaims.contains(uuid)) {
+                return loadClaims(uuid).thenCompose(ignored -> claimStreak(uuid, streakId));
+            }
+            cacheStreak(uuid, streakId);
+            changedStreaks.add(uuid);
+        }
+        markDirty(uuid);
+
+        return run(connection -> writeClaims(connection, ClaimBitmapMigration.STREAK_COLUMN, streakCache, changedStreaks, Collections.singleton(uuid)));
+    }
+    /**
+     * Writes the current bitmasks of the players that are still marked as changed and
+     * clears their mark. The bitmasks are read and written while holding the claim table's
+     * lock, so a slower write never replaces a newer bitmask. If the write fails the
+     * players are marked again.
+     *
+     * @param column The bitmask column
+     * @param claims The claim cache
+     * @param changed The players whose claims changed since they were last written
+     * @param players The players to write
+     * @return The players that were written
+     */
+    private List<UUID> writeClaims(Connection connection, String column, ClaimTable claims, Set<UUID> changed, Collection<UUID> players) throws SQLException {
+        claimWrites.incrementAndGet();
+        try {
+            synchronized (claims) {
+                List<UUID> written = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(buildClaimSQL(column))) {
+                    for (UUID uuid : players) {
+                        if (!changed.remove(uuid)) {
+                            continue;
+                        }
+                        written.add(uuid);
+                        byte[] packed = ClaimTable.toBytes(claims.get(uuid));
+                        if (packed == null) {
+                            continue;
+                        }
+                        uuidFormat.bind(ps, 1, uuid);
+                        ps.setBytes(2, packed);
+                        ps.addBatch();
+                    }
+                    if (!written.isEmpty()) {
+                        ps.executeBatch();
+                    }
+                } catch (SQLException e) {
+                    changed.addAll(written);
+                    throw e;
+                }
+                return written;
+            }
+        } finally {
+            claimWrites.decrementAndGet();
+        }
+    }
+    /**
+     * Checks if a given column exists in the specified table.
+     *
+     * @param tableName  The table name.
+     * @param columnName The column name.
+     * @return true if the column exists, false otherwise.
+     * @throws SQLException If a database access error occurs.
+     */
+    private boolean columnExists(Connection connection, String tableName, String columnName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(null, null, tableName, columnName)) {
+            return rs.next();
+        }
+    }
+    /**
+     * Flushes the write buffer and stops the database executor, waiting for queued
+     * operations to finish, then closes the database connection.
+     */
+    @Override
+    public void close() {
+        super.close();
+        run(this::writePendingVotes);
+        run(this::writeCheckpoint);
+        if (eventLog != null) {
+            run(eventLog::write);
+        }
+        if (uuidMigration != null) {
+            run(uuidMigration::suspend);
+        }
+        shutdown(databaseExecutor);
+        if (readExecutor != null) {
+            shutdown(readExecutor);
+        }
+        disconnect();
+    }
+    /**
+     * Shuts an executor down and waits up to 30 seconds for its queued tasks.
+     *
+     * @param executor The executor.
+     */
+    private void shutdown(ThreadPoolExecutor executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cTimed out waiting for database operations to finish."));
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * Streams the vote tables into a backup. Buffered votes and the vote party counter are
+     * written first, then the tables are read like any other read so votes keep being
+     * stored meanwhile. The counter is read back from the database, which holds the
+     * latest count when the vote party is shared with other servers.
+     *
+     * @param writer The backup writer
+     * @return A future completed once everything is written
+     */
+    @Override
+    public CompletableFuture<Void> exportBackup(VoteBackupWriter writer) {
+        return run(connection -> {
+            writePendingVotes(connection);
+            writePartyCount(connection);
+        }).thenCompose(ignored -> readAction(connection -> {
+            try {
+                JdbcBackup.export(connection, dialect, uuidFormat, writer);
+                writer.writePartyCount(JdbcBackup.readPartyCount(connection));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+    /**
+     * Replaces the vote tables with a backup in one transaction while no other database
+     * task runs. Votes still buffered stay buffered and are written on top of the restored
+     * data, so no received vote is lost. The online players are loaded again afterwards.
+     *
+     * @param reader The backup reader
+     * @return A future completed with the number of restored rows
+     */
+    @Override
+    public CompletableFuture<Long> restoreBackup(VoteBackupReader reader) {
+        return supply(connection -> {
+            flushLock.writeLock().lock();
+            try {
+                long rows = JdbcBackup.restore(connection, uuidFormat, reader);
+                playerCache.clear();
+                forgetClaims();
+                currentGlobalVoteCount.set(JdbcBackup.readPartyCount(connection));
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+        }, layoutLock.writeLock()).thenCompose(rows -> {
+            Bukkit.getOnlinePlayers().forEach(player -> loadPlayer(player.getUniqueId()));
+            return loadLeaderboards().thenApply(ignored -> rows);
+        });
+    }
+    /**
+     * Stores a batch of imported records and the import position in one transaction. Each
+     * batch is a separate database task, so votes and reads keep being served between
+     * batches. Buffered votes are written first, so a replacing import overwrites them.
+     * Cached players in the batch are reloaded afterwards.
+     *
+     * @param importName The name of the import
+     * @param records The imported records
+     * @param mode How the records are combined with existing ones
+     * @param position The number of source rows read once this batch is stored
+     * @return A future completed once the batch is committed
+     */
+    @Override
+    public CompletableFuture<Void> importRecords(String importName, List<PlayerVoteRecord> records, ImportMode mode, long position) {
+        return run(connection -> {
+            flushLock.writeLock().lock();
+            try {
+                Map<UUID, VoteWriteBuffer.PendingVotes> drained = writeBuffer == null ? Collections.emptyMap() : writeBuffer.drain();
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement pstmt = connection.prepareStatement(importUpsertSQL.get(mode))) {
+                    writeVotes(connection, drained);
+                    for (PlayerVoteRecord record : records) {
+                        markDirty(record.getUuid());
+                        bindImport(pstmt, record);
+                        pstmt.addBatch();
+                    }
+                    if (!records.isEmpty()) {
+                        pstmt.executeBatch();
+                    }
+                    SchemaUtil.writeMeta(connection, IMPORT_META_PREFIX + importName, Long.toString(position));
+                    connection.commit();
+                    VoteWriteBuffer.markStored(drained);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (writeBuffer != null) {
+                        writeBuffer.restore(drained);
+                    }
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+        }).thenRun(() -> records.stream()
+                .map(PlayerVoteRecord::getUuid)
+                .filter(uuid -> playerCache.get(uuid) != null)
+                .forEach(this::loadPlayer));
+    }
+    /**
+     * Reads the position stored by the last batch of an import.
+     *
+     * @param importName The name of the import
+     * @return A future completed with the position, 0 if none is stored
+     */
+    @Override
+    public CompletableFuture<Long> getImportPosition(String importName) {
+        return read(connection -> {
+            String position = SchemaUtil.readMeta(connection).get(IMPORT_META_PREFIX + importName);
+            return position == null ? 0L : Long.parseLong(position);
+        });
+    }
+    /**
+     * Binds the parameters of the import upsert statement.
+     *
+     * @param pstmt The prepared upsert statement
+     * @param record The imported record
+     */
+    private void bindImport(PreparedStatement pstmt, PlayerVoteRecord record) throws SQLException {
+        uuidFormat.bind(pstmt, 1, record.getUuid());
+        int[] counts = record.getCounts();
+        for (int i = 0; i < counts.length; i++) {
+            pstmt.setInt(i + 2, counts[i]);
+        }
+        pstmt.setInt(7, record.getStreakCount());
+        if (record.getLastVoteDay() == TimeUtil.NONE) {
+            pstmt.setNull(8, Types.BIGINT);
+        } else {
+            pstmt.setLong(8, record.getLastVoteDay());
+        }
+    }
+    /**
+     * Closes the backend's connections once every queued operation has run.
+     */
+    protected void disconnect() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * A database task that produces a result using the given connection.
+     *
+     * @param <R> The result type.
+     */
+    @FunctionalInterface
+    protected interface SqlTask<R> {
+        R run(Connection connection) throws SQLException;
+    }
+    /**
+     * A database task without a result using the given connection.
+     */
+    @FunctionalInterface
+    protected interface SqlAction {
+        void run(Connection connection) throws SQLException;
+    }
+}
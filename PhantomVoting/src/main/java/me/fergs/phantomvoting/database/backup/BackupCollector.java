@@ -0,0 +1,55 @@
+package me.fergs.phantomvoting.database.backup;
+
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+
+import java.util.UUID;
+
+/**
+ * A visitor for backends that hold everything in memory. The claims and the vote party
+ * counter are collected here, the backend only decides where the records go, so the
+ * restored data can be built next to the live data and swapped in at once.
+ */
+public abstract class BackupCollector implements BackupVisitor {
+    private final ClaimTable milestones = new ClaimTable();
+    private final ClaimTable streaks = new ClaimTable();
+    private int partyCount;
+
+    @Override
+    public void visitMilestone(UUID uuid, int milestoneId) {
+        milestones.add(uuid, milestoneId);
+    }
+
+    @Override
+    public void visitStreak(UUID uuid, int streakId) {
+        streaks.add(uuid, streakId);
+    }
+
+    @Override
+    public void visitPartyCount(int count) {
+        partyCount = count;
+    }
+    /**
+     * Gets the collected milestone claims.
+     *
+     * @return The milestone claims of each player.
+     */
+    public ClaimTable getMilestones() {
+        return milestones;
+    }
+    /**
+     * Gets the collected streak claims.
+     *
+     * @return The streak claims of each player.
+     */
+    public ClaimTable getStreaks() {
+        return streaks;
+    }
+    /**
+     * Gets the collected vote party counter.
+     *
+     * @return The count, 0 if the backup has none.
+     */
+    public int getPartyCount() {
+        return partyCount;
+    }
+}
@@ -0,0 +1,52 @@
+package me.fergs.phantomvoting.database.backup;
+
+/**
+ * The sections of a backup file, written in this order. The tag is written to disk, so
+ * existing tags must never change.
+ */
+enum BackupSection {
+    /**
+     * The player_votes rows.
+     */
+    RECORDS(1),
+    /**
+     * The claimed milestones.
+     */
+    MILESTONES(2),
+    /**
+     * The claimed streak rewards.
+     */
+    STREAKS(3),
+    /**
+     * The vote party counter.
+     */
+    PARTY(4);
+
+    private final byte tag;
+
+    BackupSection(int tag) {
+        this.tag = (byte) tag;
+    }
+    /**
+     * Gets the tag written to disk.
+     *
+     * @return The tag.
+     */
+    byte getTag() {
+        return tag;
+    }
+    /**
+     * Gets the section with the given tag.
+     *
+     * @param tag The tag read from disk.
+     * @return The section, or null if the tag is unknown.
+     */
+    static BackupSection fromTag(byte tag) {
+        for (BackupSection section : values()) {
+            if (section.tag == tag) {
+                return section;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,143 @@
+package me.fergs.phantomvoting.database.backup;
+
+import me.fergs.phantomvoting.database.impl.h2.H2Impl;
+import me.fergs.phantomvoting.database.migration.MigrationRunner;
+import me.fergs.phantomvoting.database.migration.SchemaUtil;
+import me.fergs.phantomvoting.database.migration.UuidLayoutMigration;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.enums.UuidFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Backs up, restores and migrates SQL databases without a running server. Credentials are
+ * part of the JDBC URL, e.g. {@code jdbc:mysql://host/votes?user=name&password=secret}, and
+ * the JDBC driver must be on the class path next to the plugin jar, except for H2 which the
+ * plugin jar includes:
+ * <pre>
+ * java -cp PhantomVoting.jar:sqlite-jdbc.jar:mysql-connector-j.jar me.fergs.phantomvoting.database.backup.BackupTool export &lt;url&gt; &lt;file&gt;
+ * java -cp ... me.fergs.phantomvoting.database.backup.BackupTool restore &lt;file&gt; &lt;url&gt;
+ * java -cp ... me.fergs.phantomvoting.database.backup.BackupTool migrate &lt;source url&gt; &lt;target url&gt;
+ * </pre>
+ * Restores need the tables to exist, so the plugin must have been started once with the
+ * target database.
+ */
+public class BackupTool {
+    private static final int MINIMUM_SCHEMA_VERSION = 9;
+    /**
+     * Runs the tool.
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            printUsage();
+            System.exit(1);
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            long rows;
+            switch (args[0].toLowerCase()) {
+                case "export":
+                    rows = export(args[1], Paths.get(args[2]));
+                    break;
+                case "restore":
+                    rows = restore(Paths.get(args[1]), args[2]);
+                    break;
+                case "migrate":
+                    Path temporary = Files.createTempFile("phantomvoting-", ".pvb");
+                    try {
+                        export(args[1], temporary);
+                        rows = restore(temporary, args[2]);
+                    } finally {
+                        Files.deleteIfExists(temporary);
+                    }
+                    break;
+                default:
+                    printUsage();
+                    System.exit(1);
+                    return;
+            }
+            System.out.println("Copied " + rows + " rows in " + (System.nanoTime() - started) / 1_000_000L + "ms.");
+        } catch (IOException | SQLException | IllegalArgumentException e) {
+            System.err.println("Failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+    /**
+     * Writes a backup of a database.
+     *
+     * @param url  The JDBC URL of the database.
+     * @param file The backup file.
+     * @return The number of rows written.
+     */
+    private static long export(String url, Path file) throws IOException, SQLException {
+        SqlDialect dialect = getDialect(url);
+        try (Connection connection = DriverManager.getConnection(url);
+             VoteBackupWriter writer = new VoteBackupWriter(file)) {
+            checkSchema(connection, url);
+            JdbcBackup.export(connection, dialect, UuidLayoutMigration.getFormat(connection), writer);
+            writer.writePartyCount(JdbcBackup.readPartyCount(connection));
+            return writer.getRows();
+        }
+    }
+    /**
+     * Replaces the contents of a database with a backup.
+     *
+     * @param file The backup file.
+     * @param url  The JDBC URL of the database.
+     * @return The number of rows restored.
+     */
+    private static long restore(Path file, String url) throws IOException, SQLException {
+        getDialect(url);
+        try (Connection connection = DriverManager.getConnection(url);
+             VoteBackupReader reader = new VoteBackupReader(file)) {
+            checkSchema(connection, url);
+            UuidFormat uuidFormat = UuidLayoutMigration.getFormat(connection);
+            return JdbcBackup.restore(connection, uuidFormat, reader);
+        }
+    }
+    /**
+     * Gets the dialect of a JDBC URL and registers the shaded H2 driver for H2 URLs.
+     *
+     * @param url The JDBC URL.
+     * @return The dialect.
+     */
+    private static SqlDialect getDialect(String url) {
+        SqlDialect dialect = SqlDialect.fromUrl(url);
+        if (dialect == null) {
+            throw new IllegalArgumentException("Unsupported database " + url + ", use a jdbc:sqlite:, jdbc:mysql:, jdbc:mariadb: or jdbc:h2: URL");
+        }
+        if (dialect == SqlDialect.H2) {
+            H2Impl.registerDriver();
+        }
+        return dialect;
+    }
+    /**
+     * Checks that the plugin has created its tables in a database and that they store
+     * vote days as epoch days.
+     *
+     * @param connection The connection.
+     * @param url        The JDBC URL, for the error message.
+     */
+    private static void checkSchema(Connection connection, String url) throws SQLException {
+        if (!SchemaUtil.tableExists(connection, "schema_version") || MigrationRunner.getCurrentVersion(connection) < MINIMUM_SCHEMA_VERSION) {
+            throw new IllegalArgumentException("The PhantomVoting tables in " + url + " are missing or outdated, start the server once with this database first");
+        }
+    }
+    /**
+     * Prints how to run the tool.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: BackupTool export <jdbc url> <file>");
+        System.err.println("       BackupTool restore <file> <jdbc url>");
+        System.err.println("       BackupTool migrate <source jdbc url> <target jdbc url>");
+    }
+}
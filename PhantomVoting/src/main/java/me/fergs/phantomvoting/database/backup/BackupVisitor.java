@@ -0,0 +1,40 @@
+package me.fergs.phantomvoting.database.backup;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Receives the rows of a backup while it is read.
+ */
+public interface BackupVisitor {
+    /**
+     * Visits a player's vote record.
+     *
+     * @param mostBits    The most significant bits of the UUID.
+     * @param leastBits   The least significant bits of the UUID.
+     * @param counts      The daily, weekly, monthly, yearly and all-time counts. The array is reused for the next record.
+     * @param streak      The vote streak.
+     * @param lastVoteDay The epoch day of the last vote, or {@code TimeUtil.NONE}.
+     */
+    void visitRecord(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay) throws SQLException;
+    /**
+     * Visits a claimed milestone.
+     *
+     * @param uuid        UUID of the player
+     * @param milestoneId ID of the milestone
+     */
+    void visitMilestone(UUID uuid, int milestoneId) throws SQLException;
+    /**
+     * Visits a claimed streak reward.
+     *
+     * @param uuid     UUID of the player
+     * @param streakId ID of the streak
+     */
+    void visitStreak(UUID uuid, int streakId) throws SQLException;
+    /**
+     * Visits the vote party counter.
+     *
+     * @param count The count.
+     */
+    void visitPartyCount(int count) throws SQLException;
+}
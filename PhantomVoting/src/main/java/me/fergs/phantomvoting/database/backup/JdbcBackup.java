@@ -0,0 +1,231 @@
+package me.fergs.phantomvoting.database.backup;
+
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.migration.ClaimBitmapMigration;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.enums.UuidFormat;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.UUID;
+
+/**
+ * Streams the vote tables of a SQL database into a backup and back. Reads use forward-only
+ * statements with a streaming fetch size and restores use large batches in a single
+ * transaction, so neither holds more than one batch in memory. Used by the SQL backends
+ * and by {@link BackupTool}, so nothing here depends on a running server.
+ */
+public class JdbcBackup {
+    private static final int BATCH_SIZE = 5000;
+    private static final String[] TABLES = {"player_votes"};
+    /**
+     * Writes every vote record and claim. The vote party counter is left to the caller,
+     * which may hold a newer count than the database.
+     *
+     * @param connection The connection.
+     * @param dialect    The SQL dialect.
+     * @param uuidFormat The stored UUID format.
+     * @param writer     The backup writer.
+     */
+    public static void export(Connection connection, SqlDialect dialect, UuidFormat uuidFormat, VoteBackupWriter writer) throws SQLException, IOException {
+        try (Statement stmt = createStreamingStatement(connection, dialect);
+             ResultSet rs = stmt.executeQuery("SELECT uuid, daily_count, weekly_count, monthly_count, yearly_count, " +
+                     "all_time_count, streak_count, last_vote_day FROM player_votes")) {
+            int[] counts = new int[5];
+            while (rs.next()) {
+                UUID uuid = uuidFormat.read(rs, "uuid");
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = rs.getInt(i + 2);
+                }
+                int streak = rs.getInt("streak_count");
+                long lastVoteDay = rs.getLong("last_vote_day");
+                writer.writeRecord(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), counts, streak,
+                        rs.wasNull() ? TimeUtil.NONE : lastVoteDay);
+            }
+        }
+        try (Statement stmt = createStreamingStatement(connection, dialect);
+             ResultSet rs = stmt.executeQuery("SELECT uuid, " + ClaimBitmapMigration.MILESTONE_COLUMN + " FROM player_votes WHERE "
+                     + ClaimBitmapMigration.MILESTONE_COLUMN + " IS NOT NULL")) {
+            while (rs.next()) {
+                UUID uuid = uuidFormat.read(rs, "uuid");
+                for (int milestoneId : ClaimTable.toIds(unpack(rs.getBytes(2)))) {
+                    writer.writeMilestone(uuid, milestoneId);
+                }
+            }
+        }
+        try (Statement stmt = createStreamingStatement(connection, dialect);
+             ResultSet rs = stmt.executeQuery("SELECT uuid, " + ClaimBitmapMigration.STREAK_COLUMN + " FROM player_votes WHERE "
+                     + ClaimBitmapMigration.STREAK_COLUMN + " IS NOT NULL")) {
+            while (rs.next()) {
+                UUID uuid = uuidFormat.read(rs, "uuid");
+                for (int streakId : ClaimTable.toIds(unpack(rs.getBytes(2)))) {
+                    writer.writeStreak(uuid, streakId);
+                }
+            }
+        }
+    }
+    /**
+     * Reads the stored vote party counter.
+     *
+     * @param connection The connection.
+     * @return The count, 0 if none is stored.
+     */
+    public static int readPartyCount(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT current_vote_count FROM vote_party")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    /**
+     * Replaces the contents of the vote tables with a backup in one transaction. If the
+     * backup is damaged nothing is changed. Claims are collected into bitmasks and written
+     * for {@value #BATCH_SIZE} players at a time; every backup lists the claims of a player
+     * together, so a player's bitmask is complete when it is written. The vote party row is updated in place and its revision
+     * raised, so servers sharing the vote party pick up the restored count.
+     *
+     * @param connection The connection.
+     * @param uuidFormat The stored UUID format.
+     * @param reader     The backup reader.
+     * @return The number of restored rows.
+     */
+    public static long restore(Connection connection, UuidFormat uuidFormat, VoteBackupReader reader) throws SQLException, IOException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement records = connection.prepareStatement("INSERT INTO player_votes (uuid, daily_count, weekly_count, " +
+                "monthly_count, yearly_count, all_time_count, streak_count, last_vote_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement party = connection.prepareStatement("UPDATE vote_party SET current_vote_count = ?, revision = revision + 1")) {
+            try (Statement stmt = connection.createStatement()) {
+                for (String table : TABLES) {
+                    stmt.executeUpdate("DELETE FROM " + table);
+                }
+            }
+            int[] pending = new int[1];
+            ClaimTable milestones = new ClaimTable();
+            ClaimTable streaks = new ClaimTable();
+            long rows = reader.read(new BackupVisitor() {
+                @Override
+                public void visitRecord(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay) throws SQLException {
+                    uuidFormat.bind(records, 1, new UUID(mostBits, leastBits));
+                    for (int i = 0; i < counts.length; i++) {
+                        records.setInt(i + 2, counts[i]);
+                    }
+                    records.setInt(7, streak);
+                    if (lastVoteDay == TimeUtil.NONE) {
+                        records.setNull(8, Types.BIGINT);
+                    } else {
+                        records.setLong(8, lastVoteDay);
+                    }
+                    addBatch(records, pending, 0);
+                }
+
+                @Override
+                public void visitMilestone(UUID uuid, int milestoneId) throws SQLException {
+                    addClaim(connection, records, pending, ClaimBitmapMigration.MILESTONE_COLUMN, milestones, uuid, milestoneId, uuidFormat);
+                }
+
+                @Override
+                public void visitStreak(UUID uuid, int streakId) throws SQLException {
+                    addClaim(connection, records, pending, ClaimBitmapMigration.STREAK_COLUMN, streaks, uuid, streakId, uuidFormat);
+                }
+
+                @Override
+                public void visitPartyCount(int count) throws SQLException {
+                    party.setInt(1, count);
+                    if (party.executeUpdate() == 0) {
+                        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO vote_party (current_vote_count) VALUES (?)")) {
+                            insert.setInt(1, count);
+                            insert.executeUpdate();
+                        }
+                    }
+                }
+            });
+            writeClaims(connection, records, pending, ClaimBitmapMigration.MILESTONE_COLUMN, milestones, uuidFormat);
+            writeClaims(connection, records, pending, ClaimBitmapMigration.STREAK_COLUMN, streaks, uuidFormat);
+            connection.commit();
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Adds a restored claim to the bitmasks of the current batch, writing the batch first
+     * once it is full and the claim belongs to a player not in it yet.
+     *
+     * @param connection The connection.
+     * @param records    The record insert, run first so every claimed player has a row.
+     * @param pending    The number of batched rows of each statement.
+     * @param column     The bitmask column.
+     * @param claims     The bitmasks of the current batch.
+     * @param uuid       The player.
+     * @param id         The claim ID.
+     * @param uuidFormat The stored UUID format.
+     */
+    private static void addClaim(Connection connection, PreparedStatement records, int[] pending, String column, ClaimTable claims,
+                                 UUID uuid, int id, UuidFormat uuidFormat) throws SQLException {
+        if (claims.size() >= BATCH_SIZE && claims.get(uuid) == null) {
+            writeClaims(connection, records, pending, column, claims, uuidFormat);
+        }
+        claims.add(uuid, id);
+    }
+    /**
+     * Writes the bitmasks of the current batch and empties it.
+     *
+     * @param connection The connection.
+     * @param records    The record insert, run first so every claimed player has a row.
+     * @param pending    The number of batched rows of each statement.
+     * @param column     The bitmask column.
+     * @param claims     The bitmasks of the current batch.
+     * @param uuidFormat The stored UUID format.
+     */
+    private static void writeClaims(Connection connection, PreparedStatement records, int[] pending, String column, ClaimTable claims,
+                                    UuidFormat uuidFormat) throws SQLException {
+        if (pending[0] > 0) {
+            records.executeBatch();
+            pending[0] = 0;
+        }
+        if (claims.size() > 0) {
+            ClaimBitmapMigration.writeColumn(connection, "player_votes", column, claims, uuidFormat);
+            claims.clear();
+        }
+    }
+    /**
+     * Adds the bound parameters to a batch and runs the batch once it is full.
+     *
+     * @param statement The statement.
+     * @param pending   The number of batched rows of each statement.
+     * @param index     The index of the statement in {@code pending}.
+     */
+    private static void addBatch(PreparedStatement statement, int[] pending, int index) throws SQLException {
+        statement.addBatch();
+        if (++pending[index] >= BATCH_SIZE) {
+            statement.executeBatch();
+            pending[index] = 0;
+        }
+    }
+    /**
+     * Unpacks a stored bitmask.
+     *
+     * @param packed The packed bytes.
+     * @return The bitmask, empty if nothing is set.
+     */
+    private static long[] unpack(byte[] packed) {
+        long[] words = ClaimTable.fromBytes(packed);
+        return words == null ? new long[0] : words;
+    }
+    /**
+     * Creates a statement whose queries stream their rows.
+     *
+     * @param connection The connection.
+     * @param dialect    The SQL dialect.
+     * @return The statement.
+     */
+    private static Statement createStreamingStatement(Connection connection, SqlDialect dialect) throws SQLException {
+        Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(dialect.getStreamingFetchSize());
+        return stmt;
+    }
+}
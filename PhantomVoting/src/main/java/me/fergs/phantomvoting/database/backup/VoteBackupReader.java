@@ -0,0 +1,100 @@
+package me.fergs.phantomvoting.database.backup;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a backup file written by {@link VoteBackupWriter}, handing each row to a visitor
+ * as it is decoded.
+ */
+public class VoteBackupReader implements Closeable {
+    private final DataInputStream in;
+    private final long createdAt;
+    /**
+     * Creates a new VoteBackupReader instance and checks the header.
+     *
+     * @param file The backup file.
+     */
+    public VoteBackupReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16));
+        try {
+            if (in.readInt() != VoteBackupWriter.MAGIC) {
+                throw new IOException("Not a vote backup: " + file);
+            }
+            int version = in.readInt();
+            if (version > VoteBackupWriter.FORMAT_VERSION) {
+                throw new IOException("Backup format V" + version + " is newer than this plugin supports: " + file);
+            }
+            this.createdAt = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+    /**
+     * Reads every row. A truncated or damaged file fails with an exception, possibly after
+     * some rows were visited, so callers apply the rows in a way they can undo.
+     *
+     * @param visitor Receives each row.
+     * @return The number of rows read.
+     */
+    public long read(BackupVisitor visitor) throws IOException, SQLException {
+        long rows = 0;
+        int[] counts = new int[5];
+        byte tag;
+        while ((tag = in.readByte()) != VoteBackupWriter.END) {
+            BackupSection section = BackupSection.fromTag(tag);
+            if (section == null) {
+                throw new IOException("Unknown backup section " + tag);
+            }
+            long sectionRows = 0;
+            byte marker;
+            while ((marker = in.readByte()) == VoteBackupWriter.ROW) {
+                switch (section) {
+                    case RECORDS:
+                        long mostBits = in.readLong(), leastBits = in.readLong();
+                        for (int i = 0; i < counts.length; i++) {
+                            counts[i] = in.readInt();
+                        }
+                        visitor.visitRecord(mostBits, leastBits, counts, in.readInt(), in.readLong());
+                        break;
+                    case MILESTONES:
+                        visitor.visitMilestone(new UUID(in.readLong(), in.readLong()), in.readInt());
+                        break;
+                    case STREAKS:
+                        visitor.visitStreak(new UUID(in.readLong(), in.readLong()), in.readInt());
+                        break;
+                    case PARTY:
+                        visitor.visitPartyCount(in.readInt());
+                        break;
+                }
+                sectionRows++;
+            }
+            if (marker != VoteBackupWriter.END || in.readLong() != sectionRows) {
+                throw new IOException("The backup section " + section + " is damaged");
+            }
+            rows += sectionRows;
+        }
+        if (in.read() != -1) {
+            throw new IOException("Unexpected data after the end of the backup");
+        }
+        return rows;
+    }
+    /**
+     * Gets the time the backup was written.
+     *
+     * @return The epoch milliseconds.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,149 @@
+package me.fergs.phantomvoting.database.backup;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a backup file one row at a time, so memory use does not depend on the number of
+ * rows. The file is a gzip stream holding a versioned header followed by the sections in
+ * {@link BackupSection} order. Each row starts with a marker byte, and each section ends
+ * with its row count so a truncated file is detected when it is restored.
+ */
+public class VoteBackupWriter implements Closeable {
+    static final int MAGIC = 0x50564231;
+    static final int FORMAT_VERSION = 1;
+    static final byte ROW = 1;
+    static final byte END = 0;
+    private final DataOutputStream out;
+    private BackupSection section;
+    private long sectionRows;
+    private long rows;
+    /**
+     * Creates a new VoteBackupWriter instance and writes the header.
+     *
+     * @param file The backup file, replaced if it exists.
+     */
+    public VoteBackupWriter(Path file) throws IOException {
+        OutputStream stream = new GZIPOutputStream(Files.newOutputStream(file), 1 << 16) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(System.currentTimeMillis());
+    }
+    /**
+     * Writes a player's vote record.
+     *
+     * @param mostBits    The most significant bits of the UUID.
+     * @param leastBits   The least significant bits of the UUID.
+     * @param counts      The daily, weekly, monthly, yearly and all-time counts.
+     * @param streak      The vote streak.
+     * @param lastVoteDay The epoch day of the last vote, or {@code TimeUtil.NONE}.
+     */
+    public void writeRecord(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay) throws IOException {
+        beginRow(BackupSection.RECORDS);
+        out.writeLong(mostBits);
+        out.writeLong(leastBits);
+        for (int i = 0; i < 5; i++) {
+            out.writeInt(counts[i]);
+        }
+        out.writeInt(streak);
+        out.writeLong(lastVoteDay);
+    }
+    /**
+     * Writes a claimed milestone. Every record must be written first.
+     *
+     * @param uuid        UUID of the player
+     * @param milestoneId ID of the milestone
+     */
+    public void writeMilestone(UUID uuid, int milestoneId) throws IOException {
+        writeClaim(BackupSection.MILESTONES, uuid, milestoneId);
+    }
+    /**
+     * Writes a claimed streak reward. Every milestone must be written first.
+     *
+     * @param uuid     UUID of the player
+     * @param streakId ID of the streak
+     */
+    public void writeStreak(UUID uuid, int streakId) throws IOException {
+        writeClaim(BackupSection.STREAKS, uuid, streakId);
+    }
+    /**
+     * Writes the vote party counter, the last row of a backup.
+     *
+     * @param count The count.
+     */
+    public void writePartyCount(int count) throws IOException {
+        beginRow(BackupSection.PARTY);
+        out.writeInt(count);
+    }
+    /**
+     * Gets the number of rows written so far.
+     *
+     * @return The number of rows.
+     */
+    public long getRows() {
+        return rows;
+    }
+    /**
+     * Ends the last section and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            endSection();
+            out.writeByte(END);
+        } finally {
+            out.close();
+        }
+    }
+    /**
+     * Writes a claim row.
+     *
+     * @param claimSection The claim section.
+     * @param uuid         UUID of the player
+     * @param id           ID of the claim
+     */
+    private void writeClaim(BackupSection claimSection, UUID uuid, int id) throws IOException {
+        beginRow(claimSection);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeInt(id);
+    }
+    /**
+     * Writes the marker of a new row, starting its section first if needed.
+     *
+     * @param rowSection The section of the row.
+     */
+    private void beginRow(BackupSection rowSection) throws IOException {
+        if (section != rowSection) {
+            if (section != null && rowSection.ordinal() < section.ordinal()) {
+                throw new IllegalStateException("Backup section " + rowSection + " written after " + section);
+            }
+            endSection();
+            out.writeByte(rowSection.getTag());
+            section = rowSection;
+            sectionRows = 0;
+        }
+        out.writeByte(ROW);
+        sectionRows++;
+        rows++;
+    }
+    /**
+     * Ends the current section, if any, with its row count.
+     */
+    private void endSection() throws IOException {
+        if (section != null) {
+            out.writeByte(END);
+            out.writeLong(sectionRows);
+            section = null;
+        }
+    }
+}
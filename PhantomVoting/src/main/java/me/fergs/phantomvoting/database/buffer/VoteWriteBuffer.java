@@ -0,0 +1,173 @@
+package me.fergs.phantomvoting.database.buffer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects votes in memory so they can be written to the database in batches.
+ * Votes for the same player are summed into a single pending entry, which completes the
+ * futures of all its votes once a flush has committed it.
+ */
+public class VoteWriteBuffer {
+    private final Map<UUID, PendingVotes> pendingVotes = new ConcurrentHashMap<>();
+    private final int maxPendingPlayers;
+    private final Runnable flushTrigger;
+    /**
+     * Creates a new VoteWriteBuffer instance.
+     *
+     * @param maxPendingPlayers The number of players with pending votes that triggers an early flush.
+     * @param flushTrigger      The action that requests a flush.
+     */
+    public VoteWriteBuffer(int maxPendingPlayers, Runnable flushTrigger) {
+        this.maxPendingPlayers = Math.max(1, maxPendingPlayers);
+        this.flushTrigger = flushTrigger;
+    }
+    /**
+     * Adds votes for a player to the buffer.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes to add
+     * @param voteDay    The epoch day of the most recent vote
+     * @return A future completed once the votes are written
+     */
+    public CompletableFuture<Void> add(UUID playerUUID, int amount, long voteDay) {
+        PendingVotes added = new PendingVotes(amount, voteDay);
+        pendingVotes.merge(playerUUID, added, PendingVotes::combine);
+        if (pendingVotes.size() >= maxPendingPlayers) {
+            flushTrigger.run();
+        }
+        return added.stored;
+    }
+    /**
+     * Gets the number of votes that have not been written yet for a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The number of pending votes
+     */
+    public int getPending(UUID playerUUID) {
+        PendingVotes pending = pendingVotes.get(playerUUID);
+        return pending == null ? 0 : pending.getAmount();
+    }
+    /**
+     * Gets the pending entry of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The pending entry, or null if the player has no pending votes
+     */
+    public PendingVotes get(UUID playerUUID) {
+        return pendingVotes.get(playerUUID);
+    }
+    /**
+     * Removes and returns every pending entry.
+     *
+     * @return The pending votes per player
+     */
+    public Map<UUID, PendingVotes> drain() {
+        Map<UUID, PendingVotes> drained = new HashMap<>();
+        for (UUID playerUUID : pendingVotes.keySet()) {
+            PendingVotes pending = pendingVotes.remove(playerUUID);
+            if (pending != null) {
+                drained.put(playerUUID, pending);
+            }
+        }
+        return drained;
+    }
+    /**
+     * Removes and returns the pending entry of one player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The pending votes of the player, empty if there are none
+     */
+    public Map<UUID, PendingVotes> drain(UUID playerUUID) {
+        PendingVotes pending = pendingVotes.remove(playerUUID);
+        Map<UUID, PendingVotes> drained = new HashMap<>();
+        if (pending != null) {
+            drained.put(playerUUID, pending);
+        }
+        return drained;
+    }
+    /**
+     * Completes the futures of drained entries, called once they are committed or
+     * deliberately discarded.
+     *
+     * @param drained The drained entries
+     */
+    public static void markStored(Map<UUID, PendingVotes> drained) {
+        drained.values().forEach(pending -> pending.stored.complete(null));
+    }
+    /**
+     * Puts drained entries back into the buffer, used when a flush fails.
+     *
+     * @param drained The entries to restore
+     */
+    public void restore(Map<UUID, PendingVotes> drained) {
+        drained.forEach((playerUUID, pending) -> pendingVotes.merge(playerUUID, pending, PendingVotes::combine));
+    }
+    /**
+     * Checks whether the buffer holds any pending votes.
+     *
+     * @return True if there are no pending votes
+     */
+    public boolean isEmpty() {
+        return pendingVotes.isEmpty();
+    }
+    /**
+     * The votes waiting to be written for a single player.
+     */
+    public static final class PendingVotes {
+        private final int amount;
+        private final long lastVoteDay;
+        private final CompletableFuture<Void> stored;
+        /**
+         * Creates a new pending entry.
+         *
+         * @param amount      The number of votes
+         * @param lastVoteDay The epoch day of the most recent vote
+         */
+        public PendingVotes(int amount, long lastVoteDay) {
+            this(amount, lastVoteDay, new CompletableFuture<>());
+        }
+        /**
+         * Creates a pending entry completing an existing future.
+         *
+         * @param amount      The number of votes
+         * @param lastVoteDay The epoch day of the most recent vote
+         * @param stored      Completed once the votes are written
+         */
+        private PendingVotes(int amount, long lastVoteDay, CompletableFuture<Void> stored) {
+            this.amount = amount;
+            this.lastVoteDay = lastVoteDay;
+            this.stored = stored;
+        }
+        /**
+         * Gets the number of votes.
+         *
+         * @return The number of votes
+         */
+        public int getAmount() {
+            return amount;
+        }
+        /**
+         * Gets the day of the most recent vote.
+         *
+         * @return The epoch day of the most recent vote
+         */
+        public long getLastVoteDay() {
+            return lastVoteDay;
+        }
+        /**
+         * Combines two pending entries for the same player. The future of the other entry
+         * completes together with this one's.
+         *
+         * @param other The other entry
+         * @return The combined entry
+         */
+        private PendingVotes combine(PendingVotes other) {
+            stored.thenRun(() -> other.stored.complete(null));
+            return new PendingVotes(amount + other.amount, Math.max(lastVoteDay, other.lastVoteDay), stored);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package me.fergs.phantomvoting.database.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Tracks the players whose per-player state is loaded. Players stay loaded while online,
+ * players that left expire after a configurable time, like the records of
+ * {@link PlayerVoteCache}.
+ */
+public class LoadedPlayers {
+    private final Map<UUID, Long> expiries = new ConcurrentHashMap<>();
+    private final long expireAfterQuitMillis;
+    /**
+     * Creates a new LoadedPlayers instance.
+     *
+     * @param expireAfterQuitMillis How long a player stays loaded after leaving.
+     */
+    public LoadedPlayers(long expireAfterQuitMillis) {
+        this.expireAfterQuitMillis = Math.max(0L, expireAfterQuitMillis);
+    }
+    /**
+     * Checks if a player is loaded.
+     *
+     * @param playerUUID UUID of the player
+     * @return True if the player is loaded
+     */
+    public boolean contains(UUID playerUUID) {
+        return expiries.containsKey(playerUUID);
+    }
+    /**
+     * Marks a player as loaded and online, stopping the expiry countdown if the player
+     * had left.
+     *
+     * @param playerUUID UUID of the player
+     */
+    public void add(UUID playerUUID) {
+        expiries.put(playerUUID, Long.MAX_VALUE);
+    }
+    /**
+     * Marks a player as offline, starting the expiry countdown.
+     *
+     * @param playerUUID UUID of the player
+     */
+    public void markOffline(UUID playerUUID) {
+        expiries.computeIfPresent(playerUUID, (uuid, expiresAt) -> System.currentTimeMillis() + expireAfterQuitMillis);
+    }
+    /**
+     * Removes every player whose expiry time has passed, except pinned ones.
+     *
+     * @param pinned Players that must stay loaded for now
+     * @return The removed players
+     */
+    public List<UUID> removeExpired(Predicate<UUID> pinned) {
+        long now = System.currentTimeMillis();
+        List<UUID> removed = new ArrayList<>();
+        expiries.entrySet().removeIf(entry -> {
+            if (entry.getValue() > now || pinned.test(entry.getKey())) {
+                return false;
+            }
+            removed.add(entry.getKey());
+            return true;
+        });
+        return removed;
+    }
+    /**
+     * Removes every player, used when the stored data is replaced.
+     */
+    public void clear() {
+        expiries.clear();
+    }
+    /**
+     * Gets the number of loaded players.
+     *
+     * @return The number of loaded players
+     */
+    public int size() {
+        return expiries.size();
+    }
+}
@@ -0,0 +1,136 @@
+package me.fergs.phantomvoting.database.cache;
+
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A size bounded cache of player vote records. Records of online players stay cached,
+ * records of players that left expire after a configurable time.
+ */
+public class PlayerVoteCache {
+    private final Map<UUID, CachedRecord> records = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long expireAfterQuitMillis;
+    /**
+     * Creates a new PlayerVoteCache instance.
+     *
+     * @param maxSize               The maximum number of cached records.
+     * @param expireAfterQuitMillis How long a record stays cached after the player leaves.
+     */
+    public PlayerVoteCache(int maxSize, long expireAfterQuitMillis) {
+        this.maxSize = Math.max(1, maxSize);
+        this.expireAfterQuitMillis = Math.max(0L, expireAfterQuitMillis);
+    }
+    /**
+     * Gets the cached record of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The record, or null if the player is not cached
+     */
+    public PlayerVoteRecord get(UUID playerUUID) {
+        CachedRecord cached = records.get(playerUUID);
+        return cached == null ? null : cached.record;
+    }
+    /**
+     * Caches a freshly loaded record for an online player. The loader runs atomically with
+     * {@link #update(UUID, Consumer, Runnable)} for the same player, so
+     * no update can slip in between reading pending changes and publishing the record.
+     *
+     * @param playerUUID UUID of the player
+     * @param loader     Creates the record from the loaded row
+     * @return True if the record was cached, false if the cache is full
+     */
+    public boolean load(UUID playerUUID, Function<UUID, PlayerVoteRecord> loader) {
+        if (!records.containsKey(playerUUID) && records.size() >= maxSize && !evictOne()) {
+            return false;
+        }
+        records.compute(playerUUID, (uuid, existing) -> new CachedRecord(loader.apply(uuid)));
+        return true;
+    }
+    /**
+     * Runs a write for a player while holding the player's cache entry, and applies the
+     * same change to the cached record if there is one.
+     *
+     * @param playerUUID UUID of the player
+     * @param change     The change to apply to the cached record
+     * @param write      The write to perform, runs whether or not the player is cached
+     */
+    public void update(UUID playerUUID, Consumer<PlayerVoteRecord> change, Runnable write) {
+        records.compute(playerUUID, (uuid, cached) -> {
+            write.run();
+            if (cached != null) {
+                change.accept(cached.record);
+            }
+            return cached;
+        });
+    }
+    /**
+     * Applies a change to every cached record.
+     *
+     * @param change The change to apply
+     */
+    public void forEach(Consumer<PlayerVoteRecord> change) {
+        records.values().forEach(cached -> change.accept(cached.record));
+    }
+    /**
+     * Marks a player as offline, starting the expiry countdown of the record.
+     *
+     * @param playerUUID UUID of the player
+     */
+    public void markOffline(UUID playerUUID) {
+        CachedRecord cached = records.get(playerUUID);
+        if (cached != null) {
+            cached.expiresAt = System.currentTimeMillis() + expireAfterQuitMillis;
+        }
+    }
+    /**
+     * Removes every record whose expiry time has passed.
+     */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        records.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now);
+    }
+    /**
+     * Removes every record, used when the stored data is replaced.
+     */
+    public void clear() {
+        records.clear();
+    }
+    /**
+     * Gets the number of cached records.
+     *
+     * @return The number of cached records
+     */
+    public int size() {
+        return records.size();
+    }
+    /**
+     * Evicts the offline record that expires first.
+     *
+     * @return True if a record was evicted
+     */
+    private boolean evictOne() {
+        return records.entrySet().stream()
+                .filter(entry -> entry.getValue().expiresAt != Long.MAX_VALUE)
+                .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                .map(entry -> records.remove(entry.getKey()) != null)
+                .orElse(false);
+    }
+    /**
+     * A cached record with its expiry time.
+     */
+    private static final class CachedRecord {
+        private final PlayerVoteRecord record;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private CachedRecord(PlayerVoteRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package me.fergs.phantomvoting.database.claims;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The claimed milestone or streak rewards of every player, held as one bitmask per player.
+ * Bit {@code id % 64} of word {@code id / 64} is set when the ID is claimed, so IDs below
+ * 64 take a single long. The word arrays are never changed once stored, a claim replaces
+ * the player's array, so readers need no locking and arrays can be shared with copies.
+ */
+public class ClaimTable {
+    /**
+     * The highest claim ID that can be stored, which keeps a packed bitmask within 512 bytes.
+     */
+    public static final int MAX_ID = 4095;
+    private final Map<UUID, long[]> claims = new ConcurrentHashMap<>();
+    /**
+     * Checks whether a player has claimed an ID.
+     *
+     * @param uuid UUID of the player
+     * @param id   The claim ID.
+     * @return True if claimed.
+     */
+    public boolean contains(UUID uuid, int id) {
+        long[] words = claims.get(uuid);
+        return words != null && contains(words, id);
+    }
+    /**
+     * Marks an ID as claimed by a player.
+     *
+     * @param uuid UUID of the player
+     * @param id   The claim ID, from 0 to {@link #MAX_ID}.
+     * @return The player's bitmask after the claim.
+     */
+    public long[] add(UUID uuid, int id) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Claim ID " + id + " is outside 0-" + MAX_ID);
+        }
+        return claims.compute(uuid, (key, words) -> {
+            if (words != null && contains(words, id)) {
+                return words;
+            }
+            long[] updated = words == null ? new long[(id >>> 6) + 1] : Arrays.copyOf(words, Math.max(words.length, (id >>> 6) + 1));
+            updated[id >>> 6] |= 1L << id;
+            return updated;
+        });
+    }
+    /**
+     * Gets a player's bitmask. The array must not be changed.
+     *
+     * @param uuid UUID of the player
+     * @return The bitmask, or null if the player has no claims.
+     */
+    public long[] get(UUID uuid) {
+        return claims.get(uuid);
+    }
+    /**
+     * Replaces a player's bitmask. The array must not be changed afterwards.
+     *
+     * @param uuid  UUID of the player
+     * @param words The bitmask, an empty or null one removes the player.
+     */
+    public void put(UUID uuid, long[] words) {
+        if (words == null || isEmpty(words)) {
+            claims.remove(uuid);
+        } else {
+            claims.put(uuid, words);
+        }
+    }
+    /**
+     * Replaces every bitmask with the ones of another table.
+     *
+     * @param other The table to copy.
+     */
+    public void replaceWith(ClaimTable other) {
+        claims.clear();
+        claims.putAll(other.claims);
+    }
+    /**
+     * Removes every claim.
+     */
+    public void clear() {
+        claims.clear();
+    }
+    /**
+     * Gets the number of players with claims.
+     *
+     * @return The number of players.
+     */
+    public int size() {
+        return claims.size();
+    }
+    /**
+     * Gets the number of claims of every player together.
+     *
+     * @return The number of claims.
+     */
+    public long countClaims() {
+        long count = 0;
+        for (long[] words : claims.values()) {
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+    /**
+     * Gets a read-only view of the bitmasks.
+     *
+     * @return The bitmask of each player.
+     */
+    public Map<UUID, long[]> asMap() {
+        return Collections.unmodifiableMap(claims);
+    }
+    /**
+     * Creates a copy that shares the bitmasks, which are never changed in place.
+     *
+     * @return The copy.
+     */
+    public ClaimTable copy() {
+        ClaimTable copy = new ClaimTable();
+        copy.claims.putAll(claims);
+        return copy;
+    }
+    /**
+     * Checks whether an ID can be stored.
+     *
+     * @param id The claim ID.
+     * @return True if the ID is from 0 to {@link #MAX_ID}.
+     */
+    public static boolean isValidId(int id) {
+        return id >= 0 && id <= MAX_ID;
+    }
+    /**
+     * Checks whether a bitmask contains an ID.
+     *
+     * @param words The bitmask.
+     * @param id    The claim ID.
+     * @return True if the bit is set.
+     */
+    public static boolean contains(long[] words, int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & 1L << id) != 0;
+    }
+    /**
+     * Gets the IDs set in a bitmask, in ascending order.
+     *
+     * @param words The bitmask.
+     * @return The claim IDs.
+     */
+    public static int[] toIds(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        int[] ids = new int[count];
+        int index = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                ids[index++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+    /**
+     * Packs a bitmask into little-endian bytes for the database, leaving out trailing empty
+     * words.
+     *
+     * @param words The bitmask.
+     * @return The packed bytes, or null if no bit is set.
+     */
+    public static byte[] toBytes(long[] words) {
+        int length = words == null ? 0 : words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < length; i++) {
+            buffer.putLong(words[i]);
+        }
+        return buffer.array();
+    }
+    /**
+     * Unpacks bytes written by {@link #toBytes(long[])}.
+     *
+     * @param bytes The packed bytes, may be null.
+     * @return The bitmask, or null if no bit is set.
+     */
+    public static long[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long[] words = new long[(bytes.length + Long.BYTES - 1) / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.remaining() >= Long.BYTES ? buffer.getLong() : readPartial(buffer);
+        }
+        return isEmpty(words) ? null : words;
+    }
+    /**
+     * Reads a word that was cut short, treating the missing high bytes as zero.
+     *
+     * @param buffer The buffer holding fewer than eight bytes.
+     * @return The word.
+     */
+    private static long readPartial(ByteBuffer buffer) {
+        long word = 0;
+        for (int shift = 0; buffer.hasRemaining(); shift += 8) {
+            word |= (buffer.get() & 0xFFL) << shift;
+        }
+        return word;
+    }
+    /**
+     * Checks whether a bitmask has no bit set.
+     *
+     * @param words The bitmask.
+     * @return True if empty.
+     */
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,306 @@
+package me.fergs.phantomvoting.database.history;
+
+import me.fergs.phantomvoting.database.migration.SchemaUtil;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.HistoryPartition;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a row for every received vote in the vote_events tables, one table per day or month.
+ * Events are collected in memory and inserted in batches, so the vote path only adds to a
+ * queue. Partitions older than the raw retention are rolled into per-day totals in
+ * vote_event_daily and dropped as a whole, so the history does not grow without bound and
+ * compaction never deletes rows one by one.
+ */
+public class VoteEventLog {
+    private final Queue<VoteEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+    private final HistoryPartition partition;
+    private final VotePeriodClock periodClock;
+    private final int maxPending;
+    private final int keepRawDays;
+    private final Runnable flushTrigger;
+    /**
+     * Creates a new VoteEventLog instance.
+     *
+     * @param partition    How the vote_events tables are split.
+     * @param periodClock  The clock giving the day of each vote.
+     * @param maxPending   The number of pending events that triggers an early flush.
+     * @param keepRawDays  The number of days raw events are kept before they are compacted.
+     * @param flushTrigger The action that requests a flush.
+     */
+    public VoteEventLog(HistoryPartition partition, VotePeriodClock periodClock, int maxPending, int keepRawDays, Runnable flushTrigger) {
+        this.partition = partition;
+        this.periodClock = periodClock;
+        this.maxPending = Math.max(1, maxPending);
+        this.keepRawDays = Math.max(1, keepRawDays);
+        this.flushTrigger = flushTrigger;
+    }
+    /**
+     * Queues an event for the next flush.
+     *
+     * @param event The vote event.
+     */
+    public void add(VoteEvent event) {
+        pendingEvents.add(event);
+        if (pendingCount.incrementAndGet() >= maxPending) {
+            flushTrigger.run();
+        }
+    }
+    /**
+     * Checks if no events are waiting to be written.
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return pendingCount.get() == 0;
+    }
+    /**
+     * Writes every queued event in one transaction. If the transaction fails the events are
+     * queued again so the next flush can retry them.
+     *
+     * @param connection The connection.
+     */
+    public synchronized void write(Connection connection) throws SQLException {
+        List<VoteEvent> drained = drain();
+        if (drained.isEmpty()) {
+            return;
+        }
+        Map<String, List<VoteEvent>> byPartition = new LinkedHashMap<>();
+        try {
+            for (VoteEvent event : drained) {
+                LocalDate day = LocalDate.ofEpochDay(periodClock.toEpochDay(event.getTimestamp()));
+                String table = partition.getTableName(day);
+                if (!byPartition.containsKey(table)) {
+                    ensurePartition(connection, table, day);
+                }
+                byPartition.computeIfAbsent(table, k -> new ArrayList<>()).add(event);
+            }
+        } catch (SQLException e) {
+            restore(drained);
+            throw e;
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (Map.Entry<String, List<VoteEvent>> entry : byPartition.entrySet()) {
+                insertEvents(connection, entry.getKey(), entry.getValue());
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            restore(drained);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Rolls every partition older than the raw retention into daily totals and drops it.
+     * The totals and the compacted flag are committed together, so a crash before the drop
+     * only leaves a table that the next run drops without counting it again.
+     *
+     * @param connection The connection.
+     */
+    public synchronized void compact(Connection connection) throws SQLException {
+        long cutoff = periodClock.toEpochDay(System.currentTimeMillis()) - keepRawDays;
+        Map<String, Boolean> expired = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT table_name, compacted FROM vote_event_partitions WHERE last_day < ? ORDER BY first_day")) {
+            pstmt.setLong(1, cutoff);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                expired.put(rs.getString("table_name"), rs.getBoolean("compacted"));
+            }
+        }
+        for (Map.Entry<String, Boolean> entry : expired.entrySet()) {
+            String table = entry.getKey();
+            if (!entry.getValue()) {
+                compactPartition(connection, table);
+            }
+            dropPartition(connection, table);
+        }
+    }
+    /**
+     * Adds the totals of one partition to vote_event_daily and marks it compacted.
+     *
+     * @param connection The connection.
+     * @param table      The partition table.
+     */
+    private void compactPartition(Connection connection, String table) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            int events = 0, days = 0;
+            String totalsSQL = "SELECT event_day, service, SUM(votes) AS vote_count, COUNT(*) AS player_count FROM " +
+                    "(SELECT event_day, service, COUNT(*) AS votes FROM " + table + " GROUP BY event_day, service, uuid_most, uuid_least) grouped " +
+                    "GROUP BY event_day, service";
+            try (PreparedStatement select = connection.prepareStatement(totalsSQL);
+                 PreparedStatement update = connection.prepareStatement(
+                         "UPDATE vote_event_daily SET vote_count = vote_count + ?, player_count = player_count + ? WHERE event_day = ? AND service = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO vote_event_daily (event_day, service, vote_count, player_count) VALUES (?, ?, ?, ?)")) {
+                ResultSet rs = select.executeQuery();
+                while (rs.next()) {
+                    long day = rs.getLong("event_day");
+                    String service = rs.getString("service");
+                    int votes = rs.getInt("vote_count");
+                    int players = rs.getInt("player_count");
+                    update.setInt(1, votes);
+                    update.setInt(2, players);
+                    update.setLong(3, day);
+                    update.setString(4, service);
+                    if (update.executeUpdate() == 0) {
+                        insert.setLong(1, day);
+                        insert.setString(2, service);
+                        insert.setInt(3, votes);
+                        insert.setInt(4, players);
+                        insert.executeUpdate();
+                    }
+                    events += votes;
+                    days++;
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement("UPDATE vote_event_partitions SET compacted = ? WHERE table_name = ?")) {
+                pstmt.setBoolean(1, true);
+                pstmt.setString(2, table);
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eCompacted &6" + events + " &evote events of &f" + table + " &einto &6" + days + " &edaily totals."));
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Drops a compacted partition and forgets it.
+     *
+     * @param connection The connection.
+     * @param table      The partition table.
+     */
+    private void dropPartition(Connection connection, String table) throws SQLException {
+        knownPartitions.remove(table);
+        SchemaUtil.execute(connection, "DROP TABLE IF EXISTS " + table);
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM vote_event_partitions WHERE table_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.executeUpdate();
+        }
+    }
+    /**
+     * Creates the partition table of a day if it does not exist yet and registers it. A late
+     * event for a partition that was compacted but not dropped replaces the table, its
+     * events are already counted in the daily totals.
+     *
+     * @param connection The connection.
+     * @param table      The partition table.
+     * @param day        A day of the partition.
+     */
+    private void ensurePartition(Connection connection, String table, LocalDate day) throws SQLException {
+        if (knownPartitions.contains(table)) {
+            return;
+        }
+        Boolean compacted = null;
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT compacted FROM vote_event_partitions WHERE table_name = ?")) {
+            pstmt.setString(1, table);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                compacted = rs.getBoolean("compacted");
+            }
+        }
+        if (compacted != null && compacted) {
+            dropPartition(connection, table);
+            compacted = null;
+        }
+        SchemaUtil.execute(connection, "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "event_time BIGINT NOT NULL," +
+                "event_day BIGINT NOT NULL," +
+                "uuid_most BIGINT NOT NULL," +
+                "uuid_least BIGINT NOT NULL," +
+                "username VARCHAR(16)," +
+                "service VARCHAR(64) NOT NULL," +
+                "address VARCHAR(64))");
+        if (compacted == null) {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO vote_event_partitions (table_name, first_day, last_day, compacted) VALUES (?, ?, ?, ?)")) {
+                pstmt.setString(1, table);
+                pstmt.setLong(2, partition.getFirstDay(day).toEpochDay());
+                pstmt.setLong(3, partition.getLastDay(day).toEpochDay());
+                pstmt.setBoolean(4, false);
+                pstmt.executeUpdate();
+            }
+        }
+        knownPartitions.add(table);
+    }
+    /**
+     * Inserts the events of one partition in a batch. The caller manages the transaction.
+     *
+     * @param connection The connection.
+     * @param table      The partition table.
+     * @param events     The events.
+     */
+    private void insertEvents(Connection connection, String table, List<VoteEvent> events) throws SQLException {
+        String insertSQL = "INSERT INTO " + table + " (event_time, event_day, uuid_most, uuid_least, username, service, address) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(insertSQL)) {
+            for (VoteEvent event : events) {
+                pstmt.setLong(1, event.getTimestamp());
+                pstmt.setLong(2, periodClock.toEpochDay(event.getTimestamp()));
+                pstmt.setLong(3, event.getUuid().getMostSignificantBits());
+                pstmt.setLong(4, event.getUuid().getLeastSignificantBits());
+                pstmt.setString(5, truncate(event.getUsername(), 16));
+                pstmt.setString(6, event.getServiceName() == null ? "" : truncate(event.getServiceName(), 64));
+                pstmt.setString(7, truncate(event.getAddress(), 64));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+    /**
+     * Takes every queued event.
+     *
+     * @return The events, oldest first.
+     */
+    private List<VoteEvent> drain() {
+        List<VoteEvent> drained = new ArrayList<>();
+        VoteEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            drained.add(event);
+        }
+        pendingCount.addAndGet(-drained.size());
+        return drained;
+    }
+    /**
+     * Queues events again after a failed write.
+     *
+     * @param events The events.
+     */
+    private void restore(List<VoteEvent> events) {
+        pendingEvents.addAll(events);
+        pendingCount.addAndGet(events.size());
+    }
+    /**
+     * Shortens a value to fit its column.
+     *
+     * @param value     The value, may be null.
+     * @param maxLength The column length.
+     * @return The value, cut to the column length.
+     */
+    public static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
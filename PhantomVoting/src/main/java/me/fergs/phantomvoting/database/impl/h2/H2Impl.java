@@ -0,0 +1,66 @@
+package me.fergs.phantomvoting.database.impl.h2;
+
+import me.fergs.phantomvoting.database.JdbcVoteStorage;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Stores the votes in an embedded H2 database in the plugin folder. H2 runs in MySQL
+ * compatibility mode for the shared statements, while upserts use its own MERGE forms.
+ */
+public class H2Impl extends JdbcVoteStorage {
+    private final String databaseUrl;
+    /**
+     * Creates a new H2Impl instance and opens the database.
+     *
+     * @param dataFolder The plugin's data folder.
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    public H2Impl(String dataFolder, ConfigurationSection storageSection) {
+        super(storageSection, SqlDialect.H2, 1);
+        this.databaseUrl = "jdbc:h2:./plugins/" + dataFolder + "/votes;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        open();
+    }
+
+    /**
+     * Registers the H2 driver shaded into the plugin jar. The server does not look for JDBC
+     * drivers in plugin jars, so it must be registered before a jdbc:h2: URL is opened.
+     */
+    public static void registerDriver() {
+        org.h2.Driver.load();
+    }
+
+    @Override
+    protected void connect() throws SQLException {
+        registerDriver();
+        connection = DriverManager.getConnection(databaseUrl);
+    }
+
+    @Override
+    protected String buildVoteUpsertSQL() {
+        return "MERGE INTO player_votes t USING (VALUES (CAST(? AS VARCHAR(36)), CAST(? AS INT), CAST(? AS INT), " +
+                "CAST(? AS INT), CAST(? AS INT), CAST(? AS INT), CAST(? AS BIGINT))) " +
+                "s(uuid, daily_count, weekly_count, monthly_count, yearly_count, all_time_count, last_vote_day) ON t.uuid = s.uuid " +
+                "WHEN MATCHED THEN UPDATE SET " + voteAssignments("t.", column -> "s." + column) + " " +
+                "WHEN NOT MATCHED THEN INSERT (uuid, daily_count, weekly_count, monthly_count, yearly_count, all_time_count, streak_count, last_vote_day) " +
+                "VALUES (s.uuid, s.daily_count, s.weekly_count, s.monthly_count, s.yearly_count, s.all_time_count, 1, s.last_vote_day)";
+    }
+
+    @Override
+    protected String buildClaimSQL(String column) {
+        return "MERGE INTO player_votes (uuid, " + column + ") KEY (uuid) VALUES (?, ?);";
+    }
+
+    @Override
+    protected String buildImportUpsertSQL(ImportMode mode) {
+        return "MERGE INTO player_votes t USING (VALUES (CAST(? AS VARCHAR(36)), CAST(? AS INT), CAST(? AS INT), CAST(? AS INT), " +
+                "CAST(? AS INT), CAST(? AS INT), CAST(? AS INT), CAST(? AS BIGINT))) s(" + String.join(", ", IMPORT_COLUMNS) + ") ON t.uuid = s.uuid " +
+                "WHEN MATCHED THEN UPDATE SET " + importAssignments("t.", column -> "s." + column, mode) + " " +
+                "WHEN NOT MATCHED THEN INSERT (" + String.join(", ", IMPORT_COLUMNS) + ") " +
+                "VALUES (s." + String.join(", s.", IMPORT_COLUMNS) + ")";
+    }
+}
@@ -0,0 +1,631 @@
+package me.fergs.phantomvoting.database.impl.log;
+
+import me.fergs.phantomvoting.database.AbstractVoteStorage;
+import me.fergs.phantomvoting.database.backup.BackupCollector;
+import me.fergs.phantomvoting.database.backup.VoteBackupReader;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.TimeUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the votes without a database, for single servers. Every record lives in memory in
+ * a {@link VoteRecordTable}, and every change is appended to a memory-mapped {@link VoteLog}
+ * before it is acknowledged. A {@link VoteSnapshot} of the whole state is written
+ * periodically and on shutdown, after which the older log files are deleted, so a start
+ * reads one snapshot and replays only the log written since.
+ */
+public class LogImpl extends AbstractVoteStorage {
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private final Path directory;
+    private final VoteLog log;
+    private final Map<LeaderboardType, Long> periodResets = new EnumMap<>(LeaderboardType.class);
+    private final Map<UUID, Long> importPositions = new HashMap<>();
+    private final Map<UUID, List<Long>> offlineVotes = new HashMap<>();
+    private final Object snapshotLock = new Object();
+    private VoteRecordTable table = new VoteRecordTable(1024);
+    /**
+     * Creates a new LogImpl instance, loading the snapshot and replaying the log.
+     *
+     * @param dataFolder The plugin's data folder.
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    public LogImpl(String dataFolder, ConfigurationSection storageSection) {
+        super(storageSection);
+        ConfigurationSection logSection = storageSection.getConfigurationSection("log");
+        long syncInterval = Math.max(50L, logSection == null ? 1000L : logSection.getLong("sync-interval", 1000L));
+        long snapshotInterval = Math.max(10L, logSection == null ? 300L : logSection.getLong("snapshot-interval", 300L));
+        long segmentSize = (logSection == null ? 16L : logSection.getLong("segment-size", 16L)) << 20;
+        this.directory = Paths.get("plugins", dataFolder, "votes-log");
+        this.log = new VoteLog(directory, segmentSize);
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            periodResets.put(period, TimeUtil.NONE);
+        }
+
+        long replayed = 0;
+        try {
+            replayed = open();
+            catchUpPeriodResets();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        startPeriodResets(new EnumMap<>(periodResets));
+        startCheckpoints();
+        if (replayed > 0) {
+            scheduler.execute(this::compact);
+        }
+        scheduler.scheduleWithFixedDelay(log::force, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::compact, snapshotInterval, snapshotInterval, TimeUnit.SECONDS);
+    }
+    /**
+     * Loads the latest snapshot, replays the log generations written after it and starts
+     * a new generation for appends.
+     *
+     * @return The number of replayed log entries.
+     */
+    private long open() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        VoteSnapshot snapshot = VoteSnapshot.read(directory.resolve(SNAPSHOT_FILE));
+        long generation = 0;
+        if (snapshot != null) {
+            generation = snapshot.getGeneration();
+            table = snapshot.getTable();
+            milestoneCache.replaceWith(snapshot.getMilestones());
+            streakCache.replaceWith(snapshot.getStreaks());
+            currentGlobalVoteCount.set(snapshot.getPartyCount());
+            periodResets.putAll(snapshot.getPeriodStarts());
+            importPositions.putAll(snapshot.getImportPositions());
+            offlineVotes.putAll(snapshot.getOfflineVotes());
+        }
+        log.deleteBefore(generation);
+
+        long replayed = 0;
+        long lastGeneration = generation - 1;
+        for (long logGeneration : log.listGenerations()) {
+            replayed += log.replay(logGeneration, (operation, mostBits, leastBits, value, extra) ->
+                    apply(operation, new UUID(mostBits, leastBits), value, extra));
+            lastGeneration = logGeneration;
+        }
+        log.start(lastGeneration + 1);
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eLoaded &6" + table.size() + " &eplayers from the vote log in &6"
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms &e(&6" + replayed + " &elog entries replayed)."));
+        return replayed;
+    }
+    /**
+     * Resets every period that ended while the server was offline.
+     */
+    private void catchUpPeriodResets() throws IOException {
+        long now = System.currentTimeMillis();
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            long periodStart = periodClock.getPeriodStart(period, now);
+            if (periodStart > periodResets.get(period)) {
+                synchronized (this) {
+                    append(LogOperation.RESET_PERIOD, null, period.ordinal(), periodStart);
+                }
+                Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eReset the &f" + period.getIdentifier() + " &evotes of &6" + table.size() + " &eplayers."));
+            }
+        }
+    }
+    /**
+     * Applies an operation to the in-memory state, both for live changes and on replay.
+     *
+     * @param operation  The operation.
+     * @param playerUUID UUID of the player.
+     * @param value      The int field.
+     * @param extra      The long field.
+     */
+    private void apply(LogOperation operation, UUID playerUUID, int value, long extra) {
+        switch (operation) {
+            case SITE_VOTES:
+                table.addSiteVotes(playerUUID, value, extra);
+                break;
+            case ADD_VOTES:
+                table.addVotes(playerUUID, value);
+                break;
+            case REMOVE_VOTES:
+                table.removeVotes(playerUUID, value);
+                break;
+            case VOTE_DAY:
+                table.recordVoteDay(playerUUID, extra);
+                break;
+            case SET_STREAK:
+                table.setStreak(playerUUID, value, extra);
+                break;
+            case ADD_STREAK:
+                table.addStreak(playerUUID, value);
+                break;
+            case RESET_PERIOD:
+                LeaderboardType period = LeaderboardType.values()[value];
+                table.resetColumn(VoteRecordTable.getColumn(period.getIdentifier()));
+                periodResets.put(period, extra);
+                break;
+            case CLAIM_MILESTONE:
+                if (ClaimTable.isValidId(value)) {
+                    cacheMilestone(playerUUID, value);
+                }
+                break;
+            case CLAIM_STREAK:
+                if (ClaimTable.isValidId(value)) {
+                    cacheStreak(playerUUID, value);
+                }
+                break;
+            case PARTY_COUNT:
+                currentGlobalVoteCount.set(value);
+                break;
+            case SET_COUNT:
+                table.setCount(playerUUID, (int) extra, value);
+                break;
+            case IMPORT_STREAK:
+                table.importStreak(playerUUID, value, extra);
+                break;
+            case IMPORT_POSITION:
+                importPositions.put(playerUUID, extra);
+                break;
+            case OFFLINE_VOTE:
+                offlineVotes.computeIfAbsent(playerUUID, key -> new ArrayList<>()).add(extra);
+                break;
+            case OFFLINE_VOTES_CLAIMED:
+                List<Long> queued = offlineVotes.get(playerUUID);
+                if (queued != null) {
+                    queued.subList(0, Math.min(value, queued.size())).clear();
+                    if (queued.isEmpty()) {
+                        offlineVotes.remove(playerUUID);
+                    }
+                }
+                break;
+        }
+    }
+    /**
+     * Applies an operation and appends it to the log. The caller holds the lock on this storage.
+     *
+     * @param operation  The operation.
+     * @param playerUUID UUID of the player, null if the operation has none.
+     * @param value      The int field.
+     * @param extra      The long field.
+     */
+    private void append(LogOperation operation, UUID playerUUID, int value, long extra) throws IOException {
+        log.append(operation, playerUUID, value, extra);
+        apply(operation, playerUUID, value, extra);
+    }
+    /**
+     * Applies and logs an operation.
+     *
+     * @param operation  The operation.
+     * @param playerUUID UUID of the player, null if the operation has none.
+     * @param value      The int field.
+     * @param extra      The long field.
+     * @return A future completed once the operation is logged.
+     */
+    private CompletableFuture<Void> record(LogOperation operation, UUID playerUUID, int value, long extra) {
+        try {
+            synchronized (this) {
+                append(operation, playerUUID, value, extra);
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+    /**
+     * Writes a snapshot of the current state and deletes the log generations it contains.
+     * The state is copied while holding the lock, the file is written without it.
+     */
+    private void compact() {
+        synchronized (snapshotLock) {
+            writeSnapshot(false);
+        }
+    }
+    /**
+     * Writes a snapshot if anything was logged since the last one. The caller holds the
+     * snapshot lock.
+     *
+     * @param force True to write the snapshot even if nothing was logged.
+     */
+    private void writeSnapshot(boolean force) {
+        VoteSnapshot snapshot;
+        try {
+            synchronized (this) {
+                if (!force && log.getEntries() == 0) {
+                    return;
+                }
+                long generation = log.roll();
+                snapshot = new VoteSnapshot(generation, table.copy(), milestoneCache.copy(), streakCache.copy(),
+                        currentGlobalVoteCount.get(), new EnumMap<>(periodResets), new HashMap<>(importPositions), copyOfflineVotes());
+            }
+            long started = System.nanoTime();
+            snapshot.write(directory.resolve(SNAPSHOT_FILE));
+            log.deleteBefore(snapshot.getGeneration());
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eWrote a snapshot of &6" + snapshot.getTable().size()
+                    + " &eplayers in &6" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + "ms&e."));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> addVote(UUID playerUUID) {
+        long today = today();
+        periodLock.readLock().lock();
+        try {
+            rankIndex.add(playerUUID, 1, true);
+            leaderboards.addSiteVotes(playerUUID, 1, today);
+            return record(LogOperation.SITE_VOTES, playerUUID, 1, today);
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the queued offline votes for a snapshot. The caller holds the lock on this storage.
+     *
+     * @return The copy.
+     */
+    private Map<UUID, List<Long>> copyOfflineVotes() {
+        Map<UUID, List<Long>> copy = new HashMap<>();
+        offlineVotes.forEach((key, receivedAt) -> copy.put(key, new ArrayList<>(receivedAt)));
+        return copy;
+    }
+
+    @Override
+    public CompletableFuture<Void> queueOfflineVote(VoteEvent event) {
+        return record(LogOperation.OFFLINE_VOTE, getOfflineVoteKey(event.getUsername()), 0, event.getTimestamp());
+    }
+    /**
+     * Logs the delivered votes as site votes of the player followed by the removal of the
+     * queue, both appended while holding the lock so no vote arrives in between.
+     *
+     * @param playerUUID UUID of the player
+     * @param playerName The name of the player
+     * @return A future completed with the delivered votes, oldest first
+     */
+    @Override
+    public CompletableFuture<List<VoteEvent>> claimOfflineVotes(UUID playerUUID, String playerName) {
+        UUID key = getOfflineVoteKey(playerName);
+        long today = today();
+        periodLock.readLock().lock();
+        try {
+            List<VoteEvent> votes = new ArrayList<>();
+            synchronized (this) {
+                List<Long> queued = offlineVotes.get(key);
+                if (queued == null || queued.isEmpty()) {
+                    return CompletableFuture.completedFuture(votes);
+                }
+                for (long receivedAt : queued) {
+                    votes.add(new VoteEvent(playerUUID, playerName, null, null, receivedAt));
+                }
+                append(LogOperation.SITE_VOTES, playerUUID, votes.size(), today);
+                append(LogOperation.OFFLINE_VOTES_CLAIMED, key, votes.size(), 0L);
+            }
+            rankIndex.add(playerUUID, votes.size(), true);
+            leaderboards.addSiteVotes(playerUUID, votes.size(), today);
+            return CompletableFuture.completedFuture(votes);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+    /**
+     * Gets the UUID the offline votes of a player are logged under.
+     *
+     * @param playerName The name of the player.
+     * @return The UUID.
+     */
+    private static UUID getOfflineVoteKey(String playerName) {
+        return UUID.nameUUIDFromBytes(("offline:" + getOfflineKey(playerName)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public CompletableFuture<Void> addMultipleVotes(UUID playerUUID, int voteAmount) {
+        if (voteAmount <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        periodLock.readLock().lock();
+        try {
+            synchronized (this) {
+                if (!table.contains(playerUUID)) {
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+            rankIndex.add(playerUUID, voteAmount, false);
+            leaderboards.addVotes(playerUUID, voteAmount);
+            return record(LogOperation.ADD_VOTES, playerUUID, voteAmount, 0L);
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeVote(UUID playerUUID, int count) {
+        if (count <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        rankIndex.add(playerUUID, -count, false);
+        leaderboards.removeVotes(playerUUID, count);
+        return record(LogOperation.REMOVE_VOTES, playerUUID, count, 0L);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Integer> getPlayerVoteCount(UUID playerUUID, String type) {
+        return CompletableFuture.completedFuture(table.getCount(playerUUID, VoteRecordTable.getColumn(type)));
+    }
+
+    @Override
+    public CompletableFuture<Void> loadPlayer(UUID playerUUID) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void unloadPlayer(UUID playerUUID) {
+    }
+
+    @Override
+    public CompletableFuture<Void> setVoteStreak(UUID playerUUID, int streak) {
+        leaderboards.setStreak(playerUUID, streak);
+        return record(LogOperation.SET_STREAK, playerUUID, streak, TimeUtil.NONE);
+    }
+
+    @Override
+    public CompletableFuture<Void> incrementStreak(UUID playerUUID, int newStreakCount, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, newStreakCount, lastVoteDay);
+        return record(LogOperation.SET_STREAK, playerUUID, newStreakCount, lastVoteDay);
+    }
+
+    @Override
+    public CompletableFuture<Void> addStreak(UUID playerUUID, int streak) {
+        leaderboards.addStreak(playerUUID, streak);
+        return record(LogOperation.ADD_STREAK, playerUUID, streak, 0L);
+    }
+
+    @Override
+    public CompletableFuture<Void> resetStreak(UUID playerUUID, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, 1, lastVoteDay);
+        return record(LogOperation.SET_STREAK, playerUUID, 1, lastVoteDay);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Integer> getPlayerStreak(UUID playerUUID) {
+        return CompletableFuture.completedFuture(table.getStreak(playerUUID));
+    }
+
+    @Override
+    public CompletableFuture<Void> claimMilestone(UUID uuid, int milestoneId) {
+        if (!ClaimTable.isValidId(milestoneId)) {
+            return invalidClaim("Milestone", milestoneId);
+        }
+        return record(LogOperation.CLAIM_MILESTONE, uuid, milestoneId, 0L);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveMilestones() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> claimStreak(UUID uuid, int streakId) {
+        if (!ClaimTable.isValidId(streakId)) {
+            return invalidClaim("Streak", streakId);
+        }
+        return record(LogOperation.CLAIM_STREAK, uuid, streakId, 0L);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveStreaks() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveCurrentGlobalVoteCount() {
+        return checkpoint();
+    }
+    /**
+     * Logs the vote party counter if it changed since it was last logged. Claims are
+     * logged as they are made, so the counter is the only state left to write.
+     *
+     * @return A future completed once the counter is logged.
+     */
+    @Override
+    protected CompletableFuture<Void> checkpoint() {
+        if (!takePartyCountChange()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = record(LogOperation.PARTY_COUNT, null, getCurrentGlobalVoteCount(), 0L);
+        if (future.isCompletedExceptionally()) {
+            markPartyCountChanged();
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> loadCurrentGlobalVoteCount() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> loadLeaderboards() {
+        List<PlayerVoteRecord> records;
+        synchronized (this) {
+            records = table.toRecords();
+        }
+        rebuildLeaderboards(records);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    protected CompletableFuture<Void> resetPeriod(LeaderboardType period, long endedStart, long periodStart) {
+        int players;
+        periodLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                append(LogOperation.RESET_PERIOD, null, period.ordinal(), periodStart);
+                players = table.size();
+            }
+            leaderboards.reset(period);
+        } catch (IOException e) {
+            e.printStackTrace();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        } finally {
+            periodLock.writeLock().unlock();
+        }
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eReset the &f" + period.getIdentifier() + " &evotes of &6" + players + " &eplayers."));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> exportBackup(VoteBackupWriter writer) {
+        VoteRecordTable copy;
+        int partyCount;
+        synchronized (this) {
+            copy = table.copy();
+            partyCount = getCurrentGlobalVoteCount();
+        }
+        try {
+            IOException[] failure = new IOException[1];
+            copy.forEach((mostBits, leastBits, counts, streak, lastVoteDay) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    writer.writeRecord(mostBits, leastBits, counts, streak, lastVoteDay);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writeClaims(writer);
+            writer.writePartyCount(partyCount);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    /**
+     * Reads the backup into a new table next to the live one, swaps it in and writes a
+     * snapshot right away so the log generations from before the restore are dropped.
+     *
+     * @param reader The backup reader.
+     * @return A future completed with the number of restored rows.
+     */
+    @Override
+    public CompletableFuture<Long> restoreBackup(VoteBackupReader reader) {
+        VoteRecordTable restoredTable = new VoteRecordTable(1024);
+        BackupCollector restored = new BackupCollector() {
+            @Override
+            public void visitRecord(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay) {
+                restoredTable.put(mostBits, leastBits, counts, streak, lastVoteDay);
+            }
+        };
+        long rows;
+        try {
+            rows = reader.read(restored);
+        } catch (IOException | SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        synchronized (snapshotLock) {
+            periodLock.writeLock().lock();
+            try {
+                synchronized (this) {
+                    table = restoredTable;
+                    replaceClaims(restored);
+                }
+            } finally {
+                periodLock.writeLock().unlock();
+            }
+            writeSnapshot(true);
+        }
+        return loadLeaderboards().thenApply(ignored -> rows);
+    }
+
+    /**
+     * Logs the imported records as absolute counts and streaks, combined with the existing
+     * records at logging time so a replay gives the same result, followed by the position.
+     *
+     * @param importName The name of the import.
+     * @param records    The imported records.
+     * @param mode       How the records are combined with existing ones.
+     * @param position   The number of source rows read once this batch is stored.
+     * @return A future completed once the batch is logged.
+     */
+    @Override
+    public CompletableFuture<Void> importRecords(String importName, List<PlayerVoteRecord> records, ImportMode mode, long position) {
+        try {
+            synchronized (this) {
+                for (PlayerVoteRecord imported : records) {
+                    UUID uuid = imported.getUuid();
+                    int[] counts = imported.getCounts();
+                    long storedDay = table.getLastVoteDay(uuid);
+                    for (int column = 0; column < counts.length; column++) {
+                        int count = mode == ImportMode.ADD ? table.getCount(uuid, column) + counts[column] : counts[column];
+                        append(LogOperation.SET_COUNT, uuid, count, column);
+                    }
+                    if (mode == ImportMode.REPLACE || storedDay == TimeUtil.NONE || storedDay < imported.getLastVoteDay()) {
+                        append(LogOperation.IMPORT_STREAK, uuid, imported.getStreakCount(), imported.getLastVoteDay());
+                    }
+                }
+                append(LogOperation.IMPORT_POSITION, getImportKey(importName), 0, position);
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public synchronized CompletableFuture<Long> getImportPosition(String importName) {
+        return CompletableFuture.completedFuture(importPositions.getOrDefault(getImportKey(importName), 0L));
+    }
+    /**
+     * Gets the UUID an import's position is logged under.
+     *
+     * @param importName The name of the import.
+     * @return The UUID.
+     */
+    private static UUID getImportKey(String importName) {
+        return UUID.nameUUIDFromBytes(("import:" + importName).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected synchronized CompletableFuture<List<PlayerVoteData>> queryTopPlayers(LeaderboardType type, int offset, int limit) {
+        return CompletableFuture.completedFuture(table.getTop(type, offset, limit));
+    }
+    /**
+     * Stops the background tasks, writes a final snapshot and closes the log.
+     */
+    @Override
+    public void close() {
+        super.close();
+        compact();
+        log.close();
+    }
+}
@@ -0,0 +1,99 @@
+package me.fergs.phantomvoting.database.impl.log;
+
+/**
+ * The operations stored in the vote log. Each entry carries a player UUID, an int and a
+ * long, unused fields are zero. The code is written to disk, so existing codes must never
+ * change.
+ */
+public enum LogOperation {
+    /**
+     * Votes received from a vote site. Value: the amount, extra: the epoch day of the vote.
+     */
+    SITE_VOTES(1),
+    /**
+     * Votes given by an administrator. Value: the amount.
+     */
+    ADD_VOTES(2),
+    /**
+     * Votes removed from the all-time count. Value: the amount.
+     */
+    REMOVE_VOTES(3),
+    /**
+     * A vote counted towards the streak. Extra: the epoch day of the vote.
+     */
+    VOTE_DAY(4),
+    /**
+     * The streak set. Value: the streak, extra: the last vote day or {@code TimeUtil.NONE} to keep it.
+     */
+    SET_STREAK(5),
+    /**
+     * The streak raised. Value: the amount.
+     */
+    ADD_STREAK(6),
+    /**
+     * A period reset for every player. Value: the ordinal of the period, extra: the start of the new period.
+     */
+    RESET_PERIOD(7),
+    /**
+     * A milestone claimed. Value: the milestone ID.
+     */
+    CLAIM_MILESTONE(8),
+    /**
+     * A streak reward claimed. Value: the streak ID.
+     */
+    CLAIM_STREAK(9),
+    /**
+     * The vote party counter saved. Value: the count.
+     */
+    PARTY_COUNT(10),
+    /**
+     * A vote count set by an import, creating the record if needed. Value: the count, extra: the count column.
+     */
+    SET_COUNT(11),
+    /**
+     * The streak of an imported record, creating the record if needed. Value: the streak, extra: the last vote day.
+     */
+    IMPORT_STREAK(12),
+    /**
+     * The position an import has reached. UUID: derived from the import name, extra: the position.
+     */
+    IMPORT_POSITION(13),
+    /**
+     * A vote queued for an offline player. UUID: derived from the player name, extra: the epoch milliseconds it was received.
+     */
+    OFFLINE_VOTE(14),
+    /**
+     * Queued offline votes delivered. UUID: derived from the player name, value: the number of delivered votes.
+     */
+    OFFLINE_VOTES_CLAIMED(15);
+
+    private static final LogOperation[] BY_CODE = new LogOperation[16];
+    private final byte code;
+
+    static {
+        for (LogOperation operation : values()) {
+            BY_CODE[operation.code] = operation;
+        }
+    }
+
+    LogOperation(int code) {
+        this.code = (byte) code;
+    }
+    /**
+     * Gets the code written to disk.
+     *
+     * @return The code.
+     */
+    public byte getCode() {
+        return code;
+    }
+    /**
+     * Gets the operation with the given code.
+     *
+     * @param code The code read from disk.
+     * @return The operation, or null if the code is unknown.
+     */
+    public static LogOperation fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,241 @@
+package me.fergs.phantomvoting.database.impl.log;
+
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of vote operations, split into numbered generation files. Entries have
+ * a fixed size and are written into a memory-mapped region of the current file, so an append
+ * is a copy into the page cache with no system call. The region grows by one segment when
+ * full, and {@link #force()} flushes it to disk. Each entry carries a checksum, so a torn
+ * write at the end of a file is detected and ignored on replay.
+ */
+public class VoteLog {
+    /**
+     * The size of an entry: code, UUID, value, extra and checksum.
+     */
+    public static final int ENTRY_SIZE = 1 + 8 + 8 + 4 + 8 + 4;
+    private static final String SUFFIX = ".log";
+    private final Path directory;
+    private final long segmentSize;
+    private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+    private final CRC32 checksum = new CRC32();
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long entries;
+    /**
+     * Creates a new VoteLog instance.
+     *
+     * @param directory   The directory holding the log files.
+     * @param segmentSize The number of bytes the mapped region grows by.
+     */
+    public VoteLog(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = Math.max(ENTRY_SIZE * 1024L, segmentSize);
+    }
+    /**
+     * Lists the generations stored in the directory.
+     *
+     * @return The generations, oldest first.
+     */
+    public List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not a log file
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+    /**
+     * Reads every entry of a generation. Reading stops at the end of the written entries,
+     * or at the first damaged entry left by a crash during a write.
+     *
+     * @param generation The generation to read.
+     * @param visitor    Receives each entry.
+     * @return The number of entries read.
+     */
+    public long replay(long generation, EntryVisitor visitor) throws IOException {
+        long count = 0;
+        byte[] bytes = new byte[ENTRY_SIZE];
+        ByteBuffer read = ByteBuffer.wrap(bytes);
+        try (FileChannel file = FileChannel.open(getFile(generation), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            while (mapped.remaining() >= ENTRY_SIZE) {
+                mapped.get(bytes);
+                if (bytes[0] == 0) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(bytes, 0, ENTRY_SIZE - 4);
+                LogOperation operation = LogOperation.fromCode(bytes[0]);
+                if (operation == null || (int) checksum.getValue() != read.getInt(ENTRY_SIZE - 4)) {
+                    Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cIgnoring a damaged entry at the end of vote log &f" + generation + "&c."));
+                    break;
+                }
+                visitor.visit(operation, read.getLong(1), read.getLong(9), read.getInt(17), read.getLong(21));
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+     * Starts appending to a new, empty generation.
+     *
+     * @param generation The generation.
+     */
+    public synchronized void start(long generation) throws IOException {
+        FileChannel next = FileChannel.open(getFile(generation), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer mapped = next.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        closeChannel();
+        this.channel = next;
+        this.buffer = mapped;
+        this.generation = generation;
+        this.entries = 0;
+    }
+    /**
+     * Appends an entry to the current generation.
+     *
+     * @param operation The operation.
+     * @param uuid      UUID of the player, null if the operation has none.
+     * @param value     The int field.
+     * @param extra     The long field.
+     */
+    public synchronized void append(LogOperation operation, UUID uuid, int value, long extra) throws IOException {
+        if (channel == null) {
+            throw new IOException("The vote log is not open");
+        }
+        if (buffer.remaining() < ENTRY_SIZE) {
+            int position = buffer.position();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity() + segmentSize);
+            buffer.position(position);
+        }
+        entry.clear();
+        entry.put(operation.getCode());
+        entry.putLong(uuid == null ? 0L : uuid.getMostSignificantBits());
+        entry.putLong(uuid == null ? 0L : uuid.getLeastSignificantBits());
+        entry.putInt(value);
+        entry.putLong(extra);
+        checksum.reset();
+        checksum.update(entry.array(), 0, ENTRY_SIZE - 4);
+        entry.putInt((int) checksum.getValue());
+        entry.flip();
+        buffer.put(entry);
+        entries++;
+    }
+    /**
+     * Writes the appended entries through to disk. Entries already survive a crash of the
+     * server process once appended, this protects them against a crash of the machine.
+     */
+    public synchronized void force() {
+        if (buffer != null && entries > 0) {
+            buffer.force();
+        }
+    }
+    /**
+     * Flushes the current generation and starts the next one.
+     *
+     * @return The new generation.
+     */
+    public synchronized long roll() throws IOException {
+        force();
+        start(generation + 1);
+        return generation;
+    }
+    /**
+     * Gets the number of entries appended to the current generation.
+     *
+     * @return The number of entries.
+     */
+    public synchronized long getEntries() {
+        return entries;
+    }
+    /**
+     * Deletes the generations older than the given one. Files still mapped on platforms
+     * that refuse to delete them are skipped, they are deleted on the next start.
+     *
+     * @param generation The oldest generation to keep.
+     */
+    public void deleteBefore(long generation) throws IOException {
+        for (long old : listGenerations()) {
+            if (old >= generation) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(getFile(old));
+            } catch (IOException ignored) {
+                // Retried on the next start
+            }
+        }
+    }
+    /**
+     * Flushes and closes the current generation.
+     */
+    public synchronized void close() {
+        force();
+        closeChannel();
+        buffer = null;
+    }
+    /**
+     * Closes the channel of the current generation, if any. The mapped region stays valid
+     * until it is collected.
+     */
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+    /**
+     * Gets the file of a generation.
+     *
+     * @param generation The generation.
+     * @return The file.
+     */
+    private Path getFile(long generation) {
+        return directory.resolve(generation + SUFFIX);
+    }
+    /**
+     * Receives the entries of a replayed log.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        /**
+         * Visits an entry.
+         *
+         * @param operation The operation.
+         * @param mostBits  The most significant bits of the UUID.
+         * @param leastBits The least significant bits of the UUID.
+         * @param value     The int field.
+         * @param extra     The long field.
+         */
+        void visit(LogOperation operation, long mostBits, long leastBits, int value, long extra);
+    }
+}
@@ -0,0 +1,474 @@
+package me.fergs.phantomvoting.database.impl.log;
+
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Every player's vote record held in primitive arrays, keyed by the two halves of the UUID
+ * in an open addressing hash table. Updates follow the same rules as {@link PlayerVoteRecord}
+ * and the SQL statements, without an object per player. Not thread safe, callers synchronize.
+ */
+public class VoteRecordTable {
+    /**
+     * The count columns, in the order of {@link PlayerVoteRecord}'s counts.
+     */
+    public static final int DAILY = 0, WEEKLY = 1, MONTHLY = 2, YEARLY = 3, ALL_TIME = 4;
+    private static final int COUNT_COLUMNS = 5;
+    private long[] mostBits, leastBits, lastVoteDays;
+    private int[][] counts;
+    private int[] streaks;
+    private boolean[] used;
+    private int size, threshold;
+    /**
+     * Creates a new VoteRecordTable instance.
+     *
+     * @param expectedSize The number of players expected, the table grows past it as needed.
+     */
+    public VoteRecordTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    /**
+     * Applies votes received from a vote site, creating the record if needed.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes
+     * @param voteDay    The epoch day of the most recent vote
+     */
+    public void addSiteVotes(UUID playerUUID, int amount, long voteDay) {
+        int slot = find(playerUUID);
+        if (slot < 0) {
+            slot = insert(playerUUID);
+            for (int column = 0; column < COUNT_COLUMNS; column++) {
+                counts[column][slot] = amount;
+            }
+            streaks[slot] = 1;
+            lastVoteDays[slot] = voteDay;
+            return;
+        }
+        applyVotes(slot, amount);
+        recordVoteDay(slot, voteDay);
+    }
+    /**
+     * Applies votes given by an administrator. Nothing changes if the player has no record.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes
+     * @return True if the player has a record
+     */
+    public boolean addVotes(UUID playerUUID, int amount) {
+        int slot = find(playerUUID);
+        if (slot >= 0) {
+            applyVotes(slot, amount);
+        }
+        return slot >= 0;
+    }
+    /**
+     * Removes votes from the all-time count.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes to remove
+     */
+    public void removeVotes(UUID playerUUID, int amount) {
+        int slot = find(playerUUID);
+        if (slot >= 0) {
+            for (int column = 0; column < COUNT_COLUMNS; column++) {
+                counts[column][slot] = Math.max(0, counts[column][slot] - amount);
+            }
+        }
+    }
+    /**
+     * Continues, resets or keeps the streak for a vote on the given day, creating the record
+     * if needed.
+     *
+     * @param playerUUID UUID of the player
+     * @param today      The epoch day of the vote
+     */
+    public void recordVoteDay(UUID playerUUID, long today) {
+        int slot = find(playerUUID);
+        if (slot < 0) {
+            slot = insert(playerUUID);
+        }
+        recordVoteDay(slot, today);
+    }
+    /**
+     * Sets the streak count and, unless {@link TimeUtil#NONE}, the last vote day.
+     *
+     * @param playerUUID  UUID of the player
+     * @param streak      The streak count
+     * @param lastVoteDay The epoch day of the last vote, {@link TimeUtil#NONE} to keep it
+     */
+    public void setStreak(UUID playerUUID, int streak, long lastVoteDay) {
+        int slot = find(playerUUID);
+        if (slot >= 0) {
+            streaks[slot] = streak;
+            if (lastVoteDay != TimeUtil.NONE) {
+                lastVoteDays[slot] = lastVoteDay;
+            }
+        }
+    }
+    /**
+     * Sets a vote count, creating the record if needed.
+     *
+     * @param playerUUID UUID of the player
+     * @param column     The count column
+     * @param count      The vote count
+     */
+    public void setCount(UUID playerUUID, int column, int count) {
+        int slot = find(playerUUID);
+        if (slot < 0) {
+            slot = insert(playerUUID);
+        }
+        counts[column][slot] = count;
+    }
+    /**
+     * Sets the streak count and the last vote day, creating the record if needed.
+     *
+     * @param playerUUID  UUID of the player
+     * @param streak      The streak count
+     * @param lastVoteDay The epoch day of the last vote, {@link TimeUtil#NONE} if unknown
+     */
+    public void importStreak(UUID playerUUID, int streak, long lastVoteDay) {
+        int slot = find(playerUUID);
+        if (slot < 0) {
+            slot = insert(playerUUID);
+        }
+        streaks[slot] = streak;
+        lastVoteDays[slot] = lastVoteDay;
+    }
+    /**
+     * Adds to the streak count.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak     The amount to add
+     */
+    public void addStreak(UUID playerUUID, int streak) {
+        int slot = find(playerUUID);
+        if (slot >= 0) {
+            streaks[slot] += streak;
+        }
+    }
+    /**
+     * Clears a count column of every player.
+     *
+     * @param column The count column
+     */
+    public void resetColumn(int column) {
+        Arrays.fill(counts[column], 0);
+    }
+    /**
+     * Gets a vote count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param column     The count column
+     * @return The vote count, 0 if the player has no record
+     */
+    public int getCount(UUID playerUUID, int column) {
+        int slot = find(playerUUID);
+        return slot < 0 ? 0 : counts[column][slot];
+    }
+    /**
+     * Gets the streak count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The streak count, 0 if the player has no record
+     */
+    public int getStreak(UUID playerUUID) {
+        int slot = find(playerUUID);
+        return slot < 0 ? 0 : streaks[slot];
+    }
+    /**
+     * Gets the last vote day of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return The epoch day, {@link TimeUtil#NONE} if the player has no record or never voted
+     */
+    public long getLastVoteDay(UUID playerUUID) {
+        int slot = find(playerUUID);
+        return slot < 0 ? TimeUtil.NONE : lastVoteDays[slot];
+    }
+    /**
+     * Checks if a player has a record.
+     *
+     * @param playerUUID UUID of the player
+     * @return True if the player has a record
+     */
+    public boolean contains(UUID playerUUID) {
+        return find(playerUUID) >= 0;
+    }
+    /**
+     * Gets the number of players.
+     *
+     * @return The number of records
+     */
+    public int size() {
+        return size;
+    }
+    /**
+     * Stores a complete record, as read from a snapshot.
+     *
+     * @param mostBits     The most significant bits of the UUID
+     * @param leastBits    The least significant bits of the UUID
+     * @param recordCounts The daily, weekly, monthly, yearly and all-time counts
+     * @param streak       The streak count
+     * @param lastVoteDay  The epoch day of the last vote
+     */
+    public void put(long mostBits, long leastBits, int[] recordCounts, int streak, long lastVoteDay) {
+        UUID uuid = new UUID(mostBits, leastBits);
+        int slot = find(uuid);
+        if (slot < 0) {
+            slot = insert(uuid);
+        }
+        for (int column = 0; column < COUNT_COLUMNS; column++) {
+            counts[column][slot] = recordCounts[column];
+        }
+        streaks[slot] = streak;
+        lastVoteDays[slot] = lastVoteDay;
+    }
+    /**
+     * Copies the table, so a snapshot can be written while updates continue.
+     *
+     * @return The copy
+     */
+    public VoteRecordTable copy() {
+        VoteRecordTable copy = new VoteRecordTable(0);
+        copy.mostBits = mostBits.clone();
+        copy.leastBits = leastBits.clone();
+        copy.lastVoteDays = lastVoteDays.clone();
+        copy.counts = new int[COUNT_COLUMNS][];
+        for (int column = 0; column < COUNT_COLUMNS; column++) {
+            copy.counts[column] = counts[column].clone();
+        }
+        copy.streaks = streaks.clone();
+        copy.used = used.clone();
+        copy.size = size;
+        copy.threshold = threshold;
+        return copy;
+    }
+    /**
+     * Passes every record to a visitor.
+     *
+     * @param visitor The visitor
+     */
+    public void forEach(RecordVisitor visitor) {
+        int[] recordCounts = new int[COUNT_COLUMNS];
+        for (int slot = 0; slot < used.length; slot++) {
+            if (!used[slot]) {
+                continue;
+            }
+            for (int column = 0; column < COUNT_COLUMNS; column++) {
+                recordCounts[column] = counts[column][slot];
+            }
+            visitor.visit(mostBits[slot], leastBits[slot], recordCounts, streaks[slot], lastVoteDays[slot]);
+        }
+    }
+    /**
+     * Creates a record object for every player, used to build the leaderboards.
+     *
+     * @return The records
+     */
+    public List<PlayerVoteRecord> toRecords() {
+        List<PlayerVoteRecord> records = new ArrayList<>(size);
+        forEach((most, least, recordCounts, streak, lastVoteDay) ->
+                records.add(new PlayerVoteRecord(new UUID(most, least), recordCounts.clone(), streak, lastVoteDay)));
+        return records;
+    }
+    /**
+     * Gets a page of a leaderboard.
+     *
+     * @param type   The leaderboard type
+     * @param offset The number of players to skip
+     * @param limit  The maximum number of players to return
+     * @return The players, best first
+     */
+    public List<PlayerVoteData> getTop(LeaderboardType type, int offset, int limit) {
+        int[] values = type == LeaderboardType.STREAK ? streaks : counts[getColumn(type.getIdentifier())];
+        List<PlayerVoteData> entries = new ArrayList<>();
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot] && values[slot] > 0) {
+                entries.add(new PlayerVoteData(new UUID(mostBits[slot], leastBits[slot]), values[slot]));
+            }
+        }
+        entries.sort(Comparator.comparingInt(PlayerVoteData::getVoteCount).reversed().thenComparing(PlayerVoteData::getUuid));
+        if (offset >= entries.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(entries.subList(offset, Math.min(entries.size(), offset + limit)));
+    }
+    /**
+     * Gets the count column of a period.
+     *
+     * @param type The period ("daily", "weekly", "monthly", "yearly", "all_time")
+     * @return The count column
+     */
+    public static int getColumn(String type) {
+        switch (type) {
+            case "daily":
+                return DAILY;
+            case "weekly":
+                return WEEKLY;
+            case "monthly":
+                return MONTHLY;
+            case "yearly":
+                return YEARLY;
+            default:
+                return ALL_TIME;
+        }
+    }
+    /**
+     * Adds votes to every period and the all-time count.
+     *
+     * @param slot   The record slot
+     * @param amount The number of votes
+     */
+    private void applyVotes(int slot, int amount) {
+        for (int column = 0; column < COUNT_COLUMNS; column++) {
+            counts[column][slot] += amount;
+        }
+    }
+    /**
+     * Continues, resets or keeps the streak of a record for a vote on the given day.
+     *
+     * @param slot  The record slot
+     * @param today The epoch day of the vote
+     */
+    private void recordVoteDay(int slot, long today) {
+        long yesterday = today - 1;
+        if (lastVoteDays[slot] < yesterday) {
+            streaks[slot] = 1;
+        } else if (lastVoteDays[slot] == yesterday) {
+            streaks[slot]++;
+        }
+        lastVoteDays[slot] = today;
+    }
+    /**
+     * Finds the slot of a player's record.
+     *
+     * @param uuid UUID of the player
+     * @return The slot, or -1 if the player has no record
+     */
+    private int find(UUID uuid) {
+        long most = uuid.getMostSignificantBits(), least = uuid.getLeastSignificantBits();
+        int mask = used.length - 1;
+        for (int slot = hash(most, least) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    /**
+     * Adds an empty record for a player without one.
+     *
+     * @param uuid UUID of the player
+     * @return The slot of the new record
+     */
+    private int insert(UUID uuid) {
+        if (size >= threshold) {
+            grow();
+        }
+        long most = uuid.getMostSignificantBits(), least = uuid.getLeastSignificantBits();
+        int mask = used.length - 1;
+        int slot = hash(most, least) & mask;
+        while (used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        mostBits[slot] = most;
+        leastBits[slot] = least;
+        lastVoteDays[slot] = TimeUtil.NONE;
+        size++;
+        return slot;
+    }
+    /**
+     * Doubles the capacity and re-inserts every record.
+     */
+    private void grow() {
+        long[] oldMost = mostBits, oldLeast = leastBits, oldDays = lastVoteDays;
+        int[][] oldCounts = counts;
+        int[] oldStreaks = streaks;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length * 2);
+        int mask = used.length - 1;
+        for (int old = 0; old < oldUsed.length; old++) {
+            if (!oldUsed[old]) {
+                continue;
+            }
+            int slot = hash(oldMost[old], oldLeast[old]) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            mostBits[slot] = oldMost[old];
+            leastBits[slot] = oldLeast[old];
+            lastVoteDays[slot] = oldDays[old];
+            streaks[slot] = oldStreaks[old];
+            for (int column = 0; column < COUNT_COLUMNS; column++) {
+                counts[column][slot] = oldCounts[column][old];
+            }
+            size++;
+        }
+    }
+    /**
+     * Replaces the arrays with empty ones of the given capacity.
+     *
+     * @param capacity The capacity, a power of two
+     */
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        lastVoteDays = new long[capacity];
+        counts = new int[COUNT_COLUMNS][capacity];
+        streaks = new int[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        threshold = (int) (capacity * 0.6f);
+    }
+    /**
+     * Gets the smallest capacity holding the expected number of records below the load factor.
+     *
+     * @param expectedSize The expected number of records
+     * @return The capacity, a power of two
+     */
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 0.6f < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    /**
+     * Spreads the bits of a UUID over the slot index.
+     *
+     * @param most  The most significant bits
+     * @param least The least significant bits
+     * @return The hash
+     */
+    private static int hash(long most, long least) {
+        long mixed = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+    /**
+     * Receives the records of a {@link VoteRecordTable}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Visits a record. The counts array is reused between calls.
+         *
+         * @param mostBits    The most significant bits of the UUID
+         * @param leastBits   The least significant bits of the UUID
+         * @param counts      The daily, weekly, monthly, yearly and all-time counts
+         * @param streak      The streak count
+         * @param lastVoteDay The epoch day of the last vote
+         */
+        void visit(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay);
+    }
+}
@@ -0,0 +1,269 @@
+package me.fergs.phantomvoting.database.impl.log;
+
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compacted copy of the whole vote state: every record, the claims, the vote party
+ * counter, the period starts, the positions of imports and the queued offline votes. A snapshot of generation N holds every operation logged
+ * before generation N, so startup loads the snapshot and replays generation N onwards.
+ * Snapshots are written to a temporary file and moved into place, so a crash while writing
+ * leaves the previous snapshot intact.
+ */
+public class VoteSnapshot {
+    private static final int MAGIC = 0x50565331;
+    private final long generation;
+    private final VoteRecordTable table;
+    private final ClaimTable milestones, streaks;
+    private final int partyCount;
+    private final Map<LeaderboardType, Long> periodStarts;
+    private final Map<UUID, Long> importPositions;
+    private final Map<UUID, List<Long>> offlineVotes;
+    /**
+     * Creates a new VoteSnapshot instance.
+     *
+     * @param generation   The first log generation not contained in the snapshot.
+     * @param table        The records.
+     * @param milestones   The claimed milestones of each player.
+     * @param streaks      The claimed streak rewards of each player.
+     * @param partyCount   The vote party counter.
+     * @param periodStarts The start of each period as of its last reset.
+     * @param importPositions The position reached by each import, keyed by the UUID of its name.
+     * @param offlineVotes The receive times of the queued offline votes, keyed by the UUID of the player name.
+     */
+    public VoteSnapshot(long generation, VoteRecordTable table, ClaimTable milestones,
+                        ClaimTable streaks, int partyCount, Map<LeaderboardType, Long> periodStarts,
+                        Map<UUID, Long> importPositions, Map<UUID, List<Long>> offlineVotes) {
+        this.generation = generation;
+        this.table = table;
+        this.milestones = milestones;
+        this.streaks = streaks;
+        this.partyCount = partyCount;
+        this.periodStarts = periodStarts;
+        this.importPositions = importPositions;
+        this.offlineVotes = offlineVotes;
+    }
+    /**
+     * Reads a snapshot through a memory mapping of the file.
+     *
+     * @param file The snapshot file.
+     * @return The snapshot, or null if the file does not exist.
+     */
+    public static VoteSnapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a vote snapshot: " + file);
+            }
+            long generation = buffer.getLong();
+            int partyCount = buffer.getInt();
+            Map<LeaderboardType, Long> periodStarts = new EnumMap<>(LeaderboardType.class);
+            for (LeaderboardType period : VotePeriodClock.PERIODS) {
+                periodStarts.put(period, buffer.getLong());
+            }
+            int size = buffer.getInt();
+            VoteRecordTable table = new VoteRecordTable(size);
+            int[] counts = new int[5];
+            for (int i = 0; i < size; i++) {
+                long mostBits = buffer.getLong(), leastBits = buffer.getLong();
+                for (int column = 0; column < counts.length; column++) {
+                    counts[column] = buffer.getInt();
+                }
+                table.put(mostBits, leastBits, counts, buffer.getInt(), buffer.getLong());
+            }
+            ClaimTable milestones = readClaims(buffer);
+            ClaimTable streaks = readClaims(buffer);
+            Map<UUID, Long> importPositions = new HashMap<>();
+            if (buffer.hasRemaining()) {
+                int imports = buffer.getInt();
+                for (int i = 0; i < imports; i++) {
+                    importPositions.put(new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong());
+                }
+            }
+            Map<UUID, List<Long>> offlineVotes = new HashMap<>();
+            if (buffer.hasRemaining()) {
+                int players = buffer.getInt();
+                for (int i = 0; i < players; i++) {
+                    UUID key = new UUID(buffer.getLong(), buffer.getLong());
+                    List<Long> receivedAt = new ArrayList<>();
+                    for (int votes = buffer.getInt(); votes > 0; votes--) {
+                        receivedAt.add(buffer.getLong());
+                    }
+                    offlineVotes.put(key, receivedAt);
+                }
+            }
+            return new VoteSnapshot(generation, table, milestones, streaks, partyCount, periodStarts, importPositions, offlineVotes);
+        }
+    }
+    /**
+     * Writes the snapshot, replacing the existing one once the new file is on disk.
+     *
+     * @param file The snapshot file.
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(generation);
+            out.writeInt(partyCount);
+            for (LeaderboardType period : VotePeriodClock.PERIODS) {
+                out.writeLong(periodStarts.get(period));
+            }
+            out.writeInt(table.size());
+            IOException[] failure = new IOException[1];
+            table.forEach((mostBits, leastBits, counts, streak, lastVoteDay) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    out.writeLong(mostBits);
+                    out.writeLong(leastBits);
+                    for (int count : counts) {
+                        out.writeInt(count);
+                    }
+                    out.writeInt(streak);
+                    out.writeLong(lastVoteDay);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writeClaims(out, milestones);
+            writeClaims(out, streaks);
+            out.writeInt(importPositions.size());
+            for (Map.Entry<UUID, Long> entry : importPositions.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeLong(entry.getValue());
+            }
+            out.writeInt(offlineVotes.size());
+            for (Map.Entry<UUID, List<Long>> entry : offlineVotes.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeInt(entry.getValue().size());
+                for (long receivedAt : entry.getValue()) {
+                    out.writeLong(receivedAt);
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    /**
+     * Reads a claim section.
+     *
+     * @param buffer The buffer positioned on the section.
+     * @return The claims of each player.
+     */
+    private static ClaimTable readClaims(MappedByteBuffer buffer) {
+        int size = buffer.getInt();
+        ClaimTable claims = new ClaimTable();
+        for (int i = 0; i < size; i++) {
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            int id = buffer.getInt();
+            if (ClaimTable.isValidId(id)) {
+                claims.add(uuid, id);
+            }
+        }
+        return claims;
+    }
+    /**
+     * Writes a claim section, one entry per claim.
+     *
+     * @param out    The output.
+     * @param claims The claims of each player.
+     */
+    private static void writeClaims(DataOutputStream out, ClaimTable claims) throws IOException {
+        out.writeInt(Math.toIntExact(claims.countClaims()));
+        for (Map.Entry<UUID, long[]> claim : claims.asMap().entrySet()) {
+            for (int id : ClaimTable.toIds(claim.getValue())) {
+                out.writeLong(claim.getKey().getMostSignificantBits());
+                out.writeLong(claim.getKey().getLeastSignificantBits());
+                out.writeInt(id);
+            }
+        }
+    }
+    /**
+     * Gets the first log generation not contained in the snapshot.
+     *
+     * @return The generation.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+    /**
+     * Gets the records.
+     *
+     * @return The record table.
+     */
+    public VoteRecordTable getTable() {
+        return table;
+    }
+    /**
+     * Gets the claimed milestones.
+     *
+     * @return The milestone claims of each player.
+     */
+    public ClaimTable getMilestones() {
+        return milestones;
+    }
+    /**
+     * Gets the claimed streak rewards.
+     *
+     * @return The streak claims of each player.
+     */
+    public ClaimTable getStreaks() {
+        return streaks;
+    }
+    /**
+     * Gets the vote party counter.
+     *
+     * @return The count.
+     */
+    public int getPartyCount() {
+        return partyCount;
+    }
+    /**
+     * Gets the start of each period as of its last reset.
+     *
+     * @return The period starts.
+     */
+    public Map<LeaderboardType, Long> getPeriodStarts() {
+        return periodStarts;
+    }
+    /**
+     * Gets the position reached by each import. Snapshots written before imports existed
+     * have none.
+     *
+     * @return The positions, keyed by the UUID of the import name.
+     */
+    public Map<UUID, Long> getImportPositions() {
+        return importPositions;
+    }
+    /**
+     * Gets the queued offline votes. Snapshots written before offline votes were queued
+     * have none.
+     *
+     * @return The receive times of the queued votes, keyed by the UUID of the player name.
+     */
+    public Map<UUID, List<Long>> getOfflineVotes() {
+        return offlineVotes;
+    }
+}
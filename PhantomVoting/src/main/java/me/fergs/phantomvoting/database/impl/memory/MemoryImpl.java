@@ -0,0 +1,328 @@
+package me.fergs.phantomvoting.database.impl.memory;
+
+import me.fergs.phantomvoting.database.AbstractVoteStorage;
+import me.fergs.phantomvoting.database.backup.BackupCollector;
+import me.fergs.phantomvoting.database.backup.VoteBackupReader;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every vote in memory only, so nothing survives a restart. Every operation
+ * completes on the calling thread, which makes it the baseline for benchmarks and a
+ * backend for test servers.
+ */
+public class MemoryImpl extends AbstractVoteStorage {
+    private final Map<UUID, PlayerVoteRecord> records = new ConcurrentHashMap<>();
+    private final Map<String, Long> importPositions = new ConcurrentHashMap<>();
+    private final Map<String, List<VoteEvent>> offlineVotes = new ConcurrentHashMap<>();
+    /**
+     * Creates a new MemoryImpl instance.
+     *
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    public MemoryImpl(ConfigurationSection storageSection) {
+        super(storageSection);
+        Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUsing the &fMEMORY &cstorage, votes are lost when the server stops."));
+        long now = System.currentTimeMillis();
+        Map<LeaderboardType, Long> periodStarts = new EnumMap<>(LeaderboardType.class);
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            periodStarts.put(period, periodClock.getPeriodStart(period, now));
+        }
+        startPeriodResets(periodStarts);
+    }
+    /**
+     * Applies a change to the player's record while no period reset runs.
+     *
+     * @param playerUUID UUID of the player
+     * @param createIfAbsent Whether to create the record if the player has none
+     * @param change The change to apply
+     * @return A completed future
+     */
+    private CompletableFuture<Void> update(UUID playerUUID, boolean createIfAbsent, Consumer<PlayerVoteRecord> change) {
+        periodLock.readLock().lock();
+        try {
+            PlayerVoteRecord record = createIfAbsent ? records.computeIfAbsent(playerUUID, PlayerVoteRecord::new) : records.get(playerUUID);
+            if (record != null) {
+                change.accept(record);
+            }
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> addVote(UUID playerUUID) {
+        long today = today();
+        periodLock.readLock().lock();
+        try {
+            rankIndex.add(playerUUID, 1, true);
+            leaderboards.addSiteVotes(playerUUID, 1, today);
+            return update(playerUUID, true, record -> record.addSiteVotes(1, today));
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> queueOfflineVote(VoteEvent event) {
+        offlineVotes.computeIfAbsent(getOfflineKey(event.getUsername()), key -> Collections.synchronizedList(new ArrayList<>())).add(event);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<VoteEvent>> claimOfflineVotes(UUID playerUUID, String playerName) {
+        List<VoteEvent> queued = offlineVotes.remove(getOfflineKey(playerName));
+        if (queued == null || queued.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        List<VoteEvent> votes = new ArrayList<>();
+        synchronized (queued) {
+            for (VoteEvent event : queued) {
+                votes.add(new VoteEvent(playerUUID, playerName, event.getServiceName(), event.getAddress(), event.getTimestamp()));
+            }
+        }
+        long today = today();
+        periodLock.readLock().lock();
+        try {
+            rankIndex.add(playerUUID, votes.size(), true);
+            leaderboards.addSiteVotes(playerUUID, votes.size(), today);
+            update(playerUUID, true, record -> record.addSiteVotes(votes.size(), today));
+        } finally {
+            periodLock.readLock().unlock();
+        }
+        return CompletableFuture.completedFuture(votes);
+    }
+
+    @Override
+    public CompletableFuture<Void> addMultipleVotes(UUID playerUUID, int voteAmount) {
+        if (voteAmount <= 0 || !records.containsKey(playerUUID)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        periodLock.readLock().lock();
+        try {
+            rankIndex.add(playerUUID, voteAmount, false);
+            leaderboards.addVotes(playerUUID, voteAmount);
+            return update(playerUUID, false, record -> record.addVotes(voteAmount));
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeVote(UUID playerUUID, int count) {
+        if (count <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        rankIndex.add(playerUUID, -count, false);
+        leaderboards.removeVotes(playerUUID, count);
+        return update(playerUUID, false, record -> record.removeVotes(count));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPlayerVoteCount(UUID playerUUID, String type) {
+        PlayerVoteRecord record = records.get(playerUUID);
+        return CompletableFuture.completedFuture(record == null ? 0 : record.getCount(type));
+    }
+
+    @Override
+    public CompletableFuture<Void> loadPlayer(UUID playerUUID) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void unloadPlayer(UUID playerUUID) {
+    }
+
+    @Override
+    public CompletableFuture<Void> setVoteStreak(UUID playerUUID, int streak) {
+        leaderboards.setStreak(playerUUID, streak);
+        return update(playerUUID, false, record -> record.setStreak(streak));
+    }
+
+    @Override
+    public CompletableFuture<Void> incrementStreak(UUID playerUUID, int newStreakCount, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, newStreakCount, lastVoteDay);
+        return update(playerUUID, false, record -> record.setStreak(newStreakCount, lastVoteDay));
+    }
+
+    @Override
+    public CompletableFuture<Void> addStreak(UUID playerUUID, int streak) {
+        leaderboards.addStreak(playerUUID, streak);
+        return update(playerUUID, false, record -> record.addStreak(streak));
+    }
+
+    @Override
+    public CompletableFuture<Void> resetStreak(UUID playerUUID, LocalDate lastVoteDate) {
+        long lastVoteDay = lastVoteDate.toEpochDay();
+        leaderboards.setStreak(playerUUID, 1, lastVoteDay);
+        return update(playerUUID, false, record -> record.setStreak(1, lastVoteDay));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPlayerStreak(UUID playerUUID) {
+        PlayerVoteRecord record = records.get(playerUUID);
+        return CompletableFuture.completedFuture(record == null ? 0 : record.getStreakCount());
+    }
+
+    @Override
+    public CompletableFuture<Void> claimMilestone(UUID uuid, int milestoneId) {
+        if (!ClaimTable.isValidId(milestoneId)) {
+            return invalidClaim("Milestone", milestoneId);
+        }
+        cacheMilestone(uuid, milestoneId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveMilestones() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> claimStreak(UUID uuid, int streakId) {
+        if (!ClaimTable.isValidId(streakId)) {
+            return invalidClaim("Streak", streakId);
+        }
+        cacheStreak(uuid, streakId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveStreaks() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveCurrentGlobalVoteCount() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> loadCurrentGlobalVoteCount() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> loadLeaderboards() {
+        rebuildLeaderboards(records.values());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> exportBackup(VoteBackupWriter writer) {
+        try {
+            int[] counts = new int[VOTE_PERIODS.length + 1];
+            for (PlayerVoteRecord record : records.values()) {
+                for (int i = 0; i < VOTE_PERIODS.length; i++) {
+                    counts[i] = record.getCount(VOTE_PERIODS[i]);
+                }
+                counts[VOTE_PERIODS.length] = record.getCount("all_time");
+                writer.writeRecord(record.getUuid().getMostSignificantBits(), record.getUuid().getLeastSignificantBits(),
+                        counts, record.getStreakCount(), record.getLastVoteDay());
+            }
+            writeClaims(writer);
+            writer.writePartyCount(getCurrentGlobalVoteCount());
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> restoreBackup(VoteBackupReader reader) {
+        Map<UUID, PlayerVoteRecord> restoredRecords = new HashMap<>();
+        BackupCollector restored = new BackupCollector() {
+            @Override
+            public void visitRecord(long mostBits, long leastBits, int[] counts, int streak, long lastVoteDay) {
+                UUID uuid = new UUID(mostBits, leastBits);
+                restoredRecords.put(uuid, new PlayerVoteRecord(uuid, counts.clone(), streak, lastVoteDay));
+            }
+        };
+        long rows;
+        try {
+            rows = reader.read(restored);
+        } catch (IOException | SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        periodLock.writeLock().lock();
+        try {
+            records.clear();
+            records.putAll(restoredRecords);
+            replaceClaims(restored);
+        } finally {
+            periodLock.writeLock().unlock();
+        }
+        rebuildLeaderboards(records.values());
+        return CompletableFuture.completedFuture(rows);
+    }
+
+    @Override
+    public CompletableFuture<Void> importRecords(String importName, List<PlayerVoteRecord> importedRecords, ImportMode mode, long position) {
+        periodLock.readLock().lock();
+        try {
+            for (PlayerVoteRecord imported : importedRecords) {
+                if (mode == ImportMode.REPLACE) {
+                    records.put(imported.getUuid(), new PlayerVoteRecord(imported.getUuid(), imported.getCounts(),
+                            imported.getStreakCount(), imported.getLastVoteDay()));
+                } else {
+                    records.computeIfAbsent(imported.getUuid(), PlayerVoteRecord::new).merge(imported);
+                }
+            }
+            importPositions.put(importName, position);
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            periodLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> getImportPosition(String importName) {
+        return CompletableFuture.completedFuture(importPositions.getOrDefault(importName, 0L));
+    }
+
+    @Override
+    protected CompletableFuture<Void> resetPeriod(LeaderboardType period, long endedStart, long periodStart) {
+        periodLock.writeLock().lock();
+        try {
+            records.values().forEach(record -> record.resetCount(period));
+            leaderboards.reset(period);
+        } finally {
+            periodLock.writeLock().unlock();
+        }
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eReset the &f" + period.getIdentifier() + " &evotes of &6" + records.size() + " &eplayers."));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    protected CompletableFuture<List<PlayerVoteData>> queryTopPlayers(LeaderboardType type, int offset, int limit) {
+        String identifier = type.getIdentifier();
+        List<PlayerVoteData> topPlayers = records.values().stream()
+                .map(record -> new PlayerVoteData(record.getUuid(), type == LeaderboardType.STREAK ? record.getStreakCount() : record.getCount(identifier)))
+                .filter(data -> data.getVoteCount() > 0)
+                .sorted(Comparator.comparingInt(PlayerVoteData::getVoteCount).reversed().thenComparing(PlayerVoteData::getUuid))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+        return CompletableFuture.completedFuture(topPlayers);
+    }
+}
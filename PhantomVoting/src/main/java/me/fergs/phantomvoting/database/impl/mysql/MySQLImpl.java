@@ -1,4 +1,103 @@
 package me.fergs.phantomvoting.database.impl.mysql;
 
-public class MySQLImpl {
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import me.fergs.phantomvoting.database.JdbcVoteStorage;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Stores the votes in a MySQL or MariaDB database through a connection pool. Writes run
+ * on a single database thread so they stay in order, reads use the other pooled connections.
+ */
+public class MySQLImpl extends JdbcVoteStorage {
+    private final String databaseUrl, username, password;
+    private final ConfigurationSection poolSection;
+    /**
+     * Creates a new MySQLImpl instance and opens the connection pool.
+     *
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    public MySQLImpl(ConfigurationSection storageSection) {
+        super(storageSection, SqlDialect.MYSQL, getPoolSize(storageSection.getConfigurationSection("pool")));
+        String host = storageSection.getString("host", "");
+        String port = storageSection.getString("port", "");
+        String database = storageSection.getString("database", "");
+        this.databaseUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false";
+        this.username = storageSection.getString("username", "");
+        this.password = storageSection.getString("password", "");
+        this.poolSection = storageSection.getConfigurationSection("pool");
+        open();
+    }
+    /**
+     * Gets the maximum number of pooled connections.
+     *
+     * @param poolSection The pool settings, may be null.
+     * @return The pool size.
+     */
+    private static int getPoolSize(ConfigurationSection poolSection) {
+        return poolSection == null ? 10 : poolSection.getInt("maximum-pool-size", 10);
+    }
+
+    @Override
+    protected void connect() {
+        dataSource = new HikariDataSource(createPoolConfig());
+    }
+    /**
+     * Creates the connection pool configuration from the pool settings.
+     *
+     * @return The pool configuration.
+     */
+    private HikariConfig createPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("PhantomVoting-Pool");
+        config.setJdbcUrl(databaseUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        if (poolSection == null) {
+            return config;
+        }
+
+        config.setMinimumIdle(poolSection.getInt("minimum-idle", 2));
+        config.setMaximumPoolSize(getPoolSize(poolSection));
+        config.setConnectionTimeout(poolSection.getLong("connection-timeout", 30000L));
+        config.setValidationTimeout(poolSection.getLong("validation-timeout", 5000L));
+        config.setIdleTimeout(poolSection.getLong("idle-timeout", 600000L));
+        config.setMaxLifetime(poolSection.getLong("max-lifetime", 1800000L));
+        config.setKeepaliveTime(poolSection.getLong("keepalive-time", 0L));
+        config.setLeakDetectionThreshold(poolSection.getLong("leak-detection-threshold", 0L));
+        String testQuery = poolSection.getString("connection-test-query", "");
+        if (!testQuery.isEmpty()) {
+            config.setConnectionTestQuery(testQuery);
+        }
+
+        if (poolSection.getBoolean("statement-cache.enabled", true)) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(poolSection.getInt("statement-cache.size", 250)));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(poolSection.getInt("statement-cache.sql-limit", 2048)));
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        return config;
+    }
+
+    @Override
+    protected String buildVoteUpsertSQL() {
+        return "INSERT INTO player_votes(uuid, daily_count, weekly_count, monthly_count, yearly_count, " +
+                "all_time_count, streak_count, last_vote_day) VALUES (?, ?, ?, ?, ?, ?, 1, ?) " +
+                "ON DUPLICATE KEY UPDATE " + voteAssignments("", column -> "VALUES(" + column + ")");
+    }
+
+    @Override
+    protected String buildClaimSQL(String column) {
+        return "INSERT INTO player_votes (uuid, " + column + ") " +
+                "VALUES (?, ?) ON DUPLICATE KEY UPDATE " + column + " = VALUES(" + column + ");";
+    }
+
+    @Override
+    protected String buildImportUpsertSQL(ImportMode mode) {
+        return "INSERT INTO player_votes(" + String.join(", ", IMPORT_COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE " + importAssignments("", column -> "VALUES(" + column + ")", mode);
+    }
 }
@@ -1,4 +1,80 @@
 package me.fergs.phantomvoting.database.impl.sqlite;
 
-public class SQLiteImpl {
+import me.fergs.phantomvoting.database.JdbcVoteStorage;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stores the votes in a SQLite file in the plugin folder. A single connection writes on
+ * one thread; with the write-ahead log enabled, reads run on separate reader connections.
+ */
+public class SQLiteImpl extends JdbcVoteStorage {
+    private final String databaseUrl;
+    private final SQLiteProfile profile;
+    private final SQLiteReaderPool readerPool;
+    /**
+     * Creates a new SQLiteImpl instance and opens the database.
+     *
+     * @param dataFolder The plugin's data folder.
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     */
+    public SQLiteImpl(String dataFolder, ConfigurationSection storageSection) {
+        super(storageSection, SqlDialect.SQLITE, 1);
+        this.databaseUrl = "jdbc:sqlite:plugins/" + dataFolder + "/votes.db";
+        this.profile = SQLiteProfile.fromConfig(storageSection.getConfigurationSection("sqlite"));
+        this.readerPool = profile.isWal() ? new SQLiteReaderPool(databaseUrl, profile, storageSection.getInt("queue-size", 10000)) : null;
+        open();
+    }
+
+    @Override
+    protected void connect() throws SQLException {
+        connection = DriverManager.getConnection(databaseUrl);
+        profile.configureWriter(connection);
+    }
+    /**
+     * Runs a task that only reads. With the write-ahead log it runs on a reader connection,
+     * so it does not queue behind vote writes; otherwise it runs like any other database task.
+     *
+     * @param task The task to run.
+     * @return A future completed with the task result.
+     */
+    @Override
+    protected <R> CompletableFuture<R> read(SqlTask<R> task) {
+        if (readerPool == null) {
+            return supply(task);
+        }
+        return submit(readerPool, layoutLock.readLock(), () -> task.run(readerPool.getConnection()));
+    }
+
+    @Override
+    protected String buildVoteUpsertSQL() {
+        return "INSERT INTO player_votes(uuid, daily_count, weekly_count, monthly_count, yearly_count, " +
+                "all_time_count, streak_count, last_vote_day) VALUES (?, ?, ?, ?, ?, ?, 1, ?) " +
+                "ON CONFLICT(uuid) DO UPDATE SET " + voteAssignments("", column -> "excluded." + column);
+    }
+
+    @Override
+    protected String buildClaimSQL(String column) {
+        return "INSERT INTO player_votes (uuid, " + column + ") " +
+                "VALUES (?, ?) ON CONFLICT(uuid) DO UPDATE SET " + column + " = excluded." + column + ";";
+    }
+
+    @Override
+    protected String buildImportUpsertSQL(ImportMode mode) {
+        return "INSERT INTO player_votes(" + String.join(", ", IMPORT_COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT(uuid) DO UPDATE SET " + importAssignments("", column -> "excluded." + column, mode);
+    }
+
+    @Override
+    protected void disconnect() {
+        if (readerPool != null) {
+            readerPool.close(30);
+        }
+        super.disconnect();
+    }
 }
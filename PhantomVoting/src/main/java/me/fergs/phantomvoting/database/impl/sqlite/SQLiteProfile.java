@@ -0,0 +1,121 @@
+package me.fergs.phantomvoting.database.impl.sqlite;
+
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * The SQLite connection settings. With write-ahead logging enabled, one connection writes
+ * while readers use their own read-only connections and read the last committed state
+ * without waiting for the writer.
+ */
+public class SQLiteProfile {
+    private static final String[] SYNCHRONOUS_MODES = {"OFF", "NORMAL", "FULL", "EXTRA"};
+    private final boolean wal;
+    private final String synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final int busyTimeout;
+    private final int readerConnections;
+    /**
+     * Creates a new SQLiteProfile instance.
+     *
+     * @param wal               True to use write-ahead logging with separate reader connections.
+     * @param synchronous       The synchronous mode used with write-ahead logging.
+     * @param cacheSize         The page cache of each connection in KiB.
+     * @param mmapSize          The bytes of the database file mapped into memory, 0 to disable.
+     * @param busyTimeout       The milliseconds to wait for a locked database.
+     * @param readerConnections The number of read-only connections.
+     */
+    public SQLiteProfile(boolean wal, String synchronous, int cacheSize, long mmapSize, int busyTimeout, int readerConnections) {
+        this.wal = wal;
+        this.synchronous = synchronous;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.busyTimeout = busyTimeout;
+        this.readerConnections = readerConnections;
+    }
+    /**
+     * Reads the profile from the "sqlite" storage settings. A missing section keeps the
+     * rollback journal and the single shared connection.
+     *
+     * @param section The settings, may be null.
+     * @return The SQLite profile.
+     */
+    public static SQLiteProfile fromConfig(ConfigurationSection section) {
+        if (section == null) {
+            return new SQLiteProfile(false, "FULL", 2000, 0L, 5000, 0);
+        }
+        String synchronous = section.getString("synchronous", "NORMAL").toUpperCase();
+        if (!Arrays.asList(SYNCHRONOUS_MODES).contains(synchronous)) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUnknown SQLite synchronous mode &f" + synchronous + "&c, using &fNORMAL&c."));
+            synchronous = "NORMAL";
+        }
+        return new SQLiteProfile(section.getBoolean("wal", true), synchronous,
+                Math.max(0, section.getInt("cache-size", 8192)),
+                Math.max(0L, section.getLong("mmap-size", 134217728L)),
+                Math.max(0, section.getInt("busy-timeout", 5000)),
+                Math.max(1, section.getInt("reader-connections", 2)));
+    }
+    /**
+     * Checks whether write-ahead logging is used, in which case reads go to a
+     * {@link SQLiteReaderPool}.
+     *
+     * @return True if write-ahead logging is used.
+     */
+    public boolean isWal() {
+        return wal;
+    }
+    /**
+     * Gets the number of read-only connections.
+     *
+     * @return The number of reader connections.
+     */
+    public int getReaderConnections() {
+        return readerConnections;
+    }
+    /**
+     * Configures the connection that performs every write. The journal mode is stored in
+     * the database file, so it is set back to the rollback journal when the profile is off.
+     *
+     * @param connection The writer connection.
+     */
+    public void configureWriter(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = " + (wal ? "WAL" : "DELETE"));
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeout);
+            if (wal) {
+                stmt.execute("PRAGMA synchronous = " + synchronous);
+                applyCache(stmt);
+            }
+        }
+    }
+    /**
+     * Configures a read-only connection. Writes on it fail, so a task sent to the wrong
+     * connection cannot bypass the writer.
+     *
+     * @param connection The reader connection.
+     */
+    public void configureReader(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeout);
+            stmt.execute("PRAGMA query_only = ON");
+            applyCache(stmt);
+        }
+    }
+    /**
+     * Sets the page cache and memory map size. A negative cache size is read by SQLite
+     * as KiB instead of pages.
+     *
+     * @param stmt A statement of the connection.
+     */
+    private void applyCache(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA cache_size = " + -cacheSize);
+        stmt.execute("PRAGMA mmap_size = " + mmapSize);
+    }
+}
@@ -0,0 +1,85 @@
+package me.fergs.phantomvoting.database.impl.sqlite;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of reader threads, each owning one read-only SQLite connection. With
+ * write-ahead logging the readers see the last committed state and never wait for the
+ * writer thread, so loading players and leaderboards runs alongside vote writes.
+ */
+public class SQLiteReaderPool implements Executor {
+    private final String databaseUrl;
+    private final SQLiteProfile profile;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Connection> threadConnection = new ThreadLocal<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    /**
+     * Creates a new SQLiteReaderPool instance.
+     *
+     * @param databaseUrl The SQLite JDBC url.
+     * @param profile     The profile the reader connections are configured with.
+     * @param queueSize   The maximum number of queued reads.
+     */
+    public SQLiteReaderPool(String databaseUrl, SQLiteProfile profile, int queueSize) {
+        this.databaseUrl = databaseUrl;
+        this.profile = profile;
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "PhantomVoting-Reader-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int readers = profile.getReaderConnections();
+        this.executor = new ThreadPoolExecutor(readers, readers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+    /**
+     * Gets the connection of the calling reader thread, opening it on first use.
+     *
+     * @return The read-only connection.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection connection = threadConnection.get();
+        if (connection == null || connection.isClosed()) {
+            connection = DriverManager.getConnection(databaseUrl);
+            profile.configureReader(connection);
+            threadConnection.set(connection);
+            connections.add(connection);
+        }
+        return connection;
+    }
+    /**
+     * Lets queued reads finish, then closes every reader connection.
+     *
+     * @param timeoutSeconds The seconds to wait for queued reads.
+     */
+    public void close(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        connections.clear();
+    }
+}
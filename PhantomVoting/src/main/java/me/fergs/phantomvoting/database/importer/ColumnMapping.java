@@ -0,0 +1,218 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.utils.TimeUtil;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Maps the columns or keys of another plugin's vote data to a vote record. Each format has
+ * default names, which the import configuration can override. Values are read leniently,
+ * since several plugins store their counts as text.
+ */
+public class ColumnMapping {
+    /**
+     * The configuration keys of the mapped values, in the order of the constructor arguments.
+     */
+    public static final String[] KEYS = {"uuid", "daily", "weekly", "monthly", "yearly", "all-time", "streak", "last-vote"};
+    private static final int UUID_COLUMN = 0, FIRST_COUNT_COLUMN = 1, STREAK_COLUMN = 6, LAST_VOTE_COLUMN = 7;
+    private static final long EPOCH_SECONDS_FROM = 100_000_000L, EPOCH_MILLIS_FROM = 100_000_000_000L;
+    private final String[] columns;
+    /**
+     * Creates a new ColumnMapping instance.
+     *
+     * @param columns The source names of the UUID, the daily, weekly, monthly, yearly and
+     *                all-time counts, the streak and the last vote time, null for values the
+     *                source does not have.
+     */
+    public ColumnMapping(String... columns) {
+        if (columns.length != KEYS.length) {
+            throw new IllegalArgumentException("Expected " + KEYS.length + " columns, got " + columns.length);
+        }
+        this.columns = columns.clone();
+    }
+    /**
+     * Creates a copy with the names set in a configuration section. An empty name or
+     * "none" means the value is not imported.
+     *
+     * @param section The "columns" section of the import, may be null.
+     * @return The mapping.
+     */
+    public ColumnMapping withOverrides(ConfigurationSection section) {
+        String[] overridden = columns.clone();
+        if (section != null) {
+            for (int i = 0; i < KEYS.length; i++) {
+                if (section.contains(KEYS[i])) {
+                    String column = section.getString(KEYS[i], "").trim();
+                    overridden[i] = column.isEmpty() || column.equalsIgnoreCase("none") ? null : column;
+                }
+            }
+        }
+        return new ColumnMapping(overridden);
+    }
+    /**
+     * Gets the source name of the UUID.
+     *
+     * @return The name, or null if the source has none.
+     */
+    public String getUuidColumn() {
+        return columns[UUID_COLUMN];
+    }
+    /**
+     * Gets the source names of every mapped value.
+     *
+     * @return The names, without duplicates.
+     */
+    public Collection<String> getColumns() {
+        Set<String> mapped = new LinkedHashSet<>();
+        for (String column : columns) {
+            if (column != null) {
+                mapped.add(column);
+            }
+        }
+        return mapped;
+    }
+    /**
+     * Maps a row to a vote record.
+     *
+     * @param values Reads a value of the row by its source name.
+     * @return The record, or null if the row has no valid UUID.
+     */
+    public PlayerVoteRecord toRecord(ValueSource values) throws SQLException {
+        return toRecord(columns[UUID_COLUMN] == null ? null : parseUuid(values.get(columns[UUID_COLUMN])), values);
+    }
+    /**
+     * Maps a row whose UUID is known from elsewhere, e.g. the file name, to a vote record.
+     *
+     * @param uuid   The UUID, null if unknown.
+     * @param values Reads a value of the row by its source name.
+     * @return The record, or null if the UUID is null.
+     */
+    public PlayerVoteRecord toRecord(UUID uuid, ValueSource values) throws SQLException {
+        if (uuid == null) {
+            return null;
+        }
+        int[] counts = new int[5];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = readInt(values, columns[FIRST_COUNT_COLUMN + i]);
+        }
+        long lastVoteDay = columns[LAST_VOTE_COLUMN] == null ? TimeUtil.NONE : parseEpochDay(values.get(columns[LAST_VOTE_COLUMN]));
+        return new PlayerVoteRecord(uuid, counts, readInt(values, columns[STREAK_COLUMN]), lastVoteDay);
+    }
+    /**
+     * Parses a UUID stored as text, with or without dashes, or as 16 bytes.
+     *
+     * @param value The stored value.
+     * @return The UUID, or null if the value is not one.
+     */
+    public static UUID parseUuid(Object value) {
+        if (value instanceof byte[] && ((byte[]) value).length == 16) {
+            ByteBuffer buffer = ByteBuffer.wrap((byte[]) value);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        if (text.length() == 32) {
+            text = text.substring(0, 8) + "-" + text.substring(8, 12) + "-" + text.substring(12, 16) + "-"
+                    + text.substring(16, 20) + "-" + text.substring(20);
+        }
+        try {
+            return text.length() == 36 ? UUID.fromString(text) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    /**
+     * Reads a count, treating missing or unreadable values as 0.
+     *
+     * @param values The row.
+     * @param column The source name, null if not mapped.
+     * @return The count.
+     */
+    private static int readInt(ValueSource values, String column) throws SQLException {
+        if (column == null) {
+            return 0;
+        }
+        Object value = values.get(column);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return (int) Double.parseDouble(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    /**
+     * Converts a stored vote time to an epoch day. Numbers are read as epoch milliseconds,
+     * epoch seconds or epoch days depending on their size, text as a number or an ISO date.
+     *
+     * @param value The stored value.
+     * @return The epoch day, or {@link TimeUtil#NONE} if the value is missing or unreadable.
+     */
+    private static long parseEpochDay(Object value) {
+        ZoneId zone = ZoneId.systemDefault();
+        if (value instanceof Date) {
+            return Instant.ofEpochMilli(((Date) value).getTime()).atZone(zone).toLocalDate().toEpochDay();
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate().toEpochDay();
+        }
+        if (value instanceof Number) {
+            return numberToEpochDay(((Number) value).longValue(), zone);
+        }
+        if (value == null || value.toString().trim().isEmpty()) {
+            return TimeUtil.NONE;
+        }
+        String text = value.toString().trim();
+        try {
+            return numberToEpochDay(Long.parseLong(text), zone);
+        } catch (NumberFormatException ignored) {
+            // Not a number, try a date.
+        }
+        try {
+            return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return TimeUtil.NONE;
+        }
+    }
+    /**
+     * Converts a number to an epoch day.
+     *
+     * @param number The epoch milliseconds, epoch seconds or epoch day.
+     * @param zone   The time zone of the day.
+     * @return The epoch day, or {@link TimeUtil#NONE} if the number is not positive.
+     */
+    private static long numberToEpochDay(long number, ZoneId zone) {
+        if (number <= 0) {
+            return TimeUtil.NONE;
+        }
+        if (number >= EPOCH_MILLIS_FROM) {
+            return Instant.ofEpochMilli(number).atZone(zone).toLocalDate().toEpochDay();
+        }
+        if (number >= EPOCH_SECONDS_FROM) {
+            return Instant.ofEpochSecond(number).atZone(zone).toLocalDate().toEpochDay();
+        }
+        return number;
+    }
+    /**
+     * Reads the values of a source row by name.
+     */
+    @FunctionalInterface
+    public interface ValueSource {
+        Object get(String column) throws SQLException;
+    }
+}
@@ -0,0 +1,116 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a comma separated file whose first line names the columns. Values may be quoted,
+ * with doubled quotes inside quoted values, but may not span lines.
+ */
+public class CsvImportSource implements ImportSource {
+    private final Path file;
+    private final ColumnMapping mapping;
+    private final BufferedReader reader;
+    private final Map<String, Integer> header = new HashMap<>();
+    private List<String> row;
+    /**
+     * Creates a new CsvImportSource instance and reads the header line.
+     *
+     * @param file    The file.
+     * @param mapping The column mapping, matched against the header ignoring case.
+     */
+    public CsvImportSource(Path file, ColumnMapping mapping) throws IOException {
+        this.file = file;
+        this.mapping = mapping;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            reader.close();
+            throw new IOException("The file " + file + " is empty");
+        }
+        List<String> names = parseLine(headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine);
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : mapping.getColumns()) {
+            if (!header.containsKey(column.toLowerCase(Locale.ROOT))) {
+                reader.close();
+                throw new IOException("The file " + file + " has no column " + column);
+            }
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        String line = reader.readLine();
+        row = line == null ? null : parseLine(line);
+        return line != null;
+    }
+
+    @Override
+    public PlayerVoteRecord read() throws SQLException {
+        return mapping.toRecord(column -> {
+            Integer index = header.get(column.toLowerCase(Locale.ROOT));
+            return index == null || index >= row.size() ? null : row.get(index);
+        });
+    }
+
+    @Override
+    public long estimateSize() {
+        return -1L;
+    }
+
+    @Override
+    public String getDescription() {
+        return file.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    /**
+     * Splits a line into its values.
+     *
+     * @param line The line.
+     * @return The values, unquoted.
+     */
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
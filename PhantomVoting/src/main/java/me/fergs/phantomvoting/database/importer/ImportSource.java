@@ -0,0 +1,49 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Reads the rows of another plugin's vote data one at a time, in the same order on every
+ * run so an import can resume at a row position.
+ */
+public interface ImportSource extends Closeable {
+    /**
+     * Moves to the next row.
+     *
+     * @return False once every row was read.
+     */
+    boolean next() throws IOException, SQLException;
+    /**
+     * Maps the current row to a vote record.
+     *
+     * @return The record, or null if the row has no valid player UUID.
+     */
+    PlayerVoteRecord read() throws IOException, SQLException;
+    /**
+     * Skips rows read by an earlier run of the import.
+     *
+     * @param rows The number of rows to skip.
+     */
+    default void skip(long rows) throws IOException, SQLException {
+        for (long i = 0; i < rows && next(); i++) {
+            // The rows were imported already.
+        }
+    }
+    /**
+     * Gets the number of rows in the source, for progress reports. Called before the
+     * first row is read.
+     *
+     * @return The number of rows, or -1 if unknown.
+     */
+    long estimateSize() throws IOException, SQLException;
+    /**
+     * Gets a description of the source for log messages.
+     *
+     * @return The description.
+     */
+    String getDescription();
+}
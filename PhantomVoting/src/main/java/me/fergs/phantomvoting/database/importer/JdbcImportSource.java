@@ -0,0 +1,100 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.database.impl.h2.H2Impl;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+
+import java.sql.*;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the rows of a table in another plugin's database, ordered by the UUID column so
+ * every run reads them in the same order. The source gets its own connection, so reading
+ * it never blocks the plugin's own storage.
+ */
+public class JdbcImportSource implements ImportSource {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+(\\.[A-Za-z0-9_]+)?");
+    private final String url, table;
+    private final ColumnMapping mapping;
+    private final Connection connection;
+    private Statement statement;
+    private ResultSet resultSet;
+    /**
+     * Creates a new JdbcImportSource instance and connects to the source database.
+     *
+     * @param url     The JDBC URL of the source database, including the credentials.
+     * @param table   The source table.
+     * @param mapping The column mapping.
+     */
+    public JdbcImportSource(String url, String table, ColumnMapping mapping) throws SQLException {
+        if (mapping.getUuidColumn() == null) {
+            throw new IllegalArgumentException("The uuid column must be set");
+        }
+        checkIdentifier(table);
+        mapping.getColumns().forEach(JdbcImportSource::checkIdentifier);
+        this.url = url;
+        this.table = table;
+        this.mapping = mapping;
+        if (SqlDialect.fromUrl(url) == SqlDialect.H2) {
+            H2Impl.registerDriver();
+        }
+        this.connection = DriverManager.getConnection(url);
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (resultSet == null) {
+            SqlDialect dialect = SqlDialect.fromUrl(url);
+            statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(dialect == null ? 1000 : dialect.getStreamingFetchSize());
+            resultSet = statement.executeQuery("SELECT " + String.join(", ", mapping.getColumns()) + " FROM " + table
+                    + " ORDER BY " + mapping.getUuidColumn());
+        }
+        return resultSet.next();
+    }
+
+    @Override
+    public PlayerVoteRecord read() throws SQLException {
+        return mapping.toRecord(resultSet::getObject);
+    }
+
+    @Override
+    public long estimateSize() throws SQLException {
+        try (Statement countStatement = connection.createStatement();
+             ResultSet rs = countStatement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : -1L;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        int parameters = url.indexOf('?');
+        return (parameters < 0 ? url : url.substring(0, parameters)) + " (" + table + ")";
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            if (statement != null) {
+                statement.close();
+            }
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    /**
+     * Rejects table and column names that are not plain identifiers, since they are
+     * written into the query.
+     *
+     * @param identifier The name.
+     */
+    private static void checkIdentifier(String identifier) {
+        if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("Invalid table or column name " + identifier);
+        }
+    }
+}
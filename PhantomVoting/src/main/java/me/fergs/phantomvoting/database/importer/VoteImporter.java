@@ -0,0 +1,175 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies the rows of an import source into the vote storage in batches. Each batch is
+ * stored together with the number of source rows read so far, so a stopped or failed
+ * import continues after the last stored batch when it is started again. Runs on the
+ * calling thread and waits for each batch, so only one batch is held in memory.
+ */
+public class VoteImporter {
+    /**
+     * The position stored once every row of an import was stored.
+     */
+    public static final long FINISHED = -1L;
+    private final String name;
+    private final ImportSource source;
+    private final VoteStorage storage;
+    private final ImportMode mode;
+    private final int batchSize;
+    private final long progressInterval;
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long position, imported, skipped, total = -1L;
+    private volatile boolean cancelled;
+    /**
+     * Creates a new VoteImporter instance.
+     *
+     * @param name             The name of the import, under which its position is stored.
+     * @param source           The source.
+     * @param storage          The vote storage.
+     * @param mode             How the rows are combined with existing records.
+     * @param batchSize        The number of records stored per batch.
+     * @param progressInterval The milliseconds between progress messages in the console.
+     */
+    public VoteImporter(String name, ImportSource source, VoteStorage storage, ImportMode mode, int batchSize, long progressInterval) {
+        this.name = name;
+        this.source = source;
+        this.storage = storage;
+        this.mode = mode;
+        this.batchSize = Math.max(1, batchSize);
+        this.progressInterval = progressInterval;
+    }
+    /**
+     * Runs the import until every row is stored or it is cancelled.
+     *
+     * @return True if every row was stored, false if the import was cancelled.
+     */
+    public boolean run() throws IOException, SQLException {
+        long resumeAt = storage.getImportPosition(name).join();
+        if (resumeAt == FINISHED) {
+            throw new IllegalStateException("The import " + name + " has finished already, restart it to import again");
+        }
+        total = source.estimateSize();
+        if (resumeAt > 0) {
+            source.skip(resumeAt);
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eResuming the import &f" + name + " &eafter &6" + resumeAt + " &erows."));
+        }
+        position = resumeAt;
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eImporting &f" + source.getDescription() + " &eas &f" + name + "&e."));
+
+        List<PlayerVoteRecord> batch = new ArrayList<>(batchSize);
+        long nextReport = System.currentTimeMillis() + progressInterval;
+        while (!cancelled && source.next()) {
+            PlayerVoteRecord record = source.read();
+            if (record == null) {
+                skipped++;
+            } else {
+                batch.add(record);
+            }
+            position++;
+            if (batch.size() >= batchSize) {
+                store(batch, position);
+                batch.clear();
+            }
+            if (System.currentTimeMillis() >= nextReport) {
+                logProgress();
+                nextReport = System.currentTimeMillis() + progressInterval;
+            }
+        }
+        store(batch, cancelled ? position : FINISHED);
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eThe import &f" + name + (cancelled ? " &ewas stopped after &6" : " &efinished after &6")
+                + position + " &erows, &6" + imported + " &eplayers imported and &6" + skipped + " &erows without a valid UUID skipped."));
+        return !cancelled;
+    }
+    /**
+     * Stops the import after the current batch. The rows read so far are stored.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    /**
+     * Stores a batch and waits for it to be committed.
+     *
+     * @param batch         The records.
+     * @param batchPosition The position to store with the batch.
+     */
+    private void store(List<PlayerVoteRecord> batch, long batchPosition) {
+        storage.importRecords(name, new ArrayList<>(batch), mode, batchPosition).join();
+        imported += batch.size();
+    }
+    /**
+     * Logs how far the import has come.
+     */
+    private void logProgress() {
+        long seconds = Math.max(1L, (System.currentTimeMillis() - startedAt) / 1000L);
+        String percent = total > 0 ? " &e(&6" + Math.min(100L, position * 100L / total) + "%&e)" : "";
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eImport &f" + name + "&e: &6" + position + " &erows read" + percent
+                + ", &6" + imported + " &eplayers imported, &6" + imported / seconds + " &eper second."));
+    }
+    /**
+     * Gets the name of the import.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * Gets the number of source rows read, including rows read by earlier runs.
+     *
+     * @return The number of rows.
+     */
+    public long getPosition() {
+        return position;
+    }
+    /**
+     * Gets the number of records stored by this run.
+     *
+     * @return The number of records.
+     */
+    public long getImported() {
+        return imported;
+    }
+    /**
+     * Gets the number of rows skipped by this run because they had no valid UUID.
+     *
+     * @return The number of rows.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+    /**
+     * Gets the number of rows in the source.
+     *
+     * @return The number of rows, or -1 if unknown.
+     */
+    public long getTotal() {
+        return total;
+    }
+    /**
+     * Gets the time this run started.
+     *
+     * @return The epoch milliseconds.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+    /**
+     * Checks whether the import was cancelled.
+     *
+     * @return True if cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,72 @@
+package me.fergs.phantomvoting.database.importer;
+
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reads a folder holding one YAML file per player, as written by flat file vote storages.
+ * The files are read in name order. The UUID is read from the mapped key, or from the file
+ * name if the key is not mapped or missing.
+ */
+public class YamlImportSource implements ImportSource {
+    private final File folder;
+    private final ColumnMapping mapping;
+    private final String[] files;
+    private int index = -1;
+    /**
+     * Creates a new YamlImportSource instance and lists the files.
+     *
+     * @param folder  The folder.
+     * @param mapping The key mapping.
+     */
+    public YamlImportSource(File folder, ColumnMapping mapping) throws IOException {
+        String[] names = folder.list((directory, name) -> name.endsWith(".yml"));
+        if (names == null) {
+            throw new IOException("The folder " + folder + " does not exist");
+        }
+        Arrays.sort(names);
+        this.folder = folder;
+        this.mapping = mapping;
+        this.files = names;
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < files.length;
+    }
+
+    @Override
+    public PlayerVoteRecord read() throws SQLException {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(new File(folder, files[index]));
+        UUID uuid = mapping.getUuidColumn() == null ? null : ColumnMapping.parseUuid(yaml.get(mapping.getUuidColumn()));
+        if (uuid == null) {
+            uuid = ColumnMapping.parseUuid(files[index].substring(0, files[index].length() - ".yml".length()));
+        }
+        return mapping.toRecord(uuid, yaml::get);
+    }
+
+    @Override
+    public void skip(long rows) {
+        index = (int) Math.min(files.length, index + rows);
+    }
+
+    @Override
+    public long estimateSize() {
+        return files.length;
+    }
+
+    @Override
+    public String getDescription() {
+        return folder.getPath();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,209 @@
+package me.fergs.phantomvoting.database.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * An in-memory rank index over all-time vote counts. A treap ordered by vote count stores
+ * how many players have each count and how many players each subtree holds, so the rank of
+ * a player is answered in O(log n) without touching the database. Memory grows with the
+ * number of distinct counts, never with the size of a count.
+ */
+public class VoteRankIndex {
+    private final Map<UUID, Integer> counts = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    /**
+     * Replaces the contents of the index.
+     *
+     * @param allTimeCounts The all-time vote count of every player.
+     */
+    public synchronized void rebuild(Map<UUID, Integer> allTimeCounts) {
+        counts.clear();
+        root = null;
+        allTimeCounts.forEach((uuid, count) -> {
+            counts.put(uuid, count);
+            update(bucket(count), 1);
+        });
+    }
+    /**
+     * Changes the all-time count of a player by the given amount, the count does not go
+     * below zero.
+     *
+     * @param playerUUID     UUID of the player
+     * @param delta          The change in votes
+     * @param createIfAbsent Whether to add the player if they are not indexed yet
+     */
+    public synchronized void add(UUID playerUUID, int delta, boolean createIfAbsent) {
+        Integer current = counts.get(playerUUID);
+        if (current == null && !createIfAbsent) {
+            return;
+        }
+        set(playerUUID, Math.max(0, (current == null ? 0 : current) + delta));
+    }
+    /**
+     * Sets the all-time count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param count      The new all-time count
+     */
+    public synchronized void set(UUID playerUUID, int count) {
+        Integer previous = counts.put(playerUUID, count);
+        if (previous != null) {
+            update(bucket(previous), -1);
+        }
+        update(bucket(count), 1);
+    }
+    /**
+     * Gets the rank of a player, one plus the number of players with more votes.
+     * Players that are not indexed are ranked as if they had no votes.
+     *
+     * @param playerUUID UUID of the player
+     * @return The rank of the player
+     */
+    public synchronized int getRank(UUID playerUUID) {
+        return countAbove(bucket(counts.getOrDefault(playerUUID, 0))) + 1;
+    }
+    /**
+     * Gets the number of indexed players.
+     *
+     * @return The number of indexed players
+     */
+    public synchronized int size() {
+        return counts.size();
+    }
+    /**
+     * Maps a vote count to its bucket, negative counts share the bucket of zero.
+     *
+     * @param count The vote count
+     * @return The bucket
+     */
+    private int bucket(int count) {
+        return Math.max(0, count);
+    }
+    /**
+     * Changes the number of players with a count, adding the count to the tree or
+     * removing it once no player has it.
+     *
+     * @param count The vote count
+     * @param delta The change in players
+     */
+    private void update(int count, int delta) {
+        Node[] below = split(root, count, false);
+        Node[] rest = split(below[1], count, true);
+        Node node = rest[0];
+        if (node == null) {
+            node = new Node(count, random.nextInt());
+        }
+        node.players += delta;
+        node.total = node.players;
+        root = merge(merge(below[0], node.players > 0 ? node : null), rest[1]);
+    }
+    /**
+     * Counts the players with a higher count than the given one.
+     *
+     * @param count The vote count
+     * @return The number of players
+     */
+    private int countAbove(int count) {
+        int sum = 0;
+        Node node = root;
+        while (node != null) {
+            if (count < node.count) {
+                sum += node.players + total(node.right);
+                node = node.left;
+            } else if (count > node.count) {
+                node = node.right;
+            } else {
+                sum += total(node.right);
+                break;
+            }
+        }
+        return sum;
+    }
+    /**
+     * Splits a tree by count.
+     *
+     * @param node      The root of the tree
+     * @param count     The count to split at
+     * @param inclusive Whether the count itself goes to the left tree
+     * @return The tree with the lower counts and the tree with the rest
+     */
+    private Node[] split(Node node, int count, boolean inclusive) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.count < count || (inclusive && node.count == count)) {
+            Node[] parts = split(node.right, count, inclusive);
+            node.right = parts[0];
+            parts[0] = node.update();
+            return parts;
+        }
+        Node[] parts = split(node.left, count, inclusive);
+        node.left = parts[1];
+        parts[1] = node.update();
+        return parts;
+    }
+    /**
+     * Joins two trees where every count of the left tree is lower than the counts of the
+     * right tree.
+     *
+     * @param left  The tree with the lower counts
+     * @param right The tree with the higher counts
+     * @return The root of the joined tree
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+    /**
+     * Gets the number of players in a tree.
+     *
+     * @param node The root of the tree
+     * @return The number of players
+     */
+    private static int total(Node node) {
+        return node == null ? 0 : node.total;
+    }
+    /**
+     * A vote count with the number of players that have it.
+     */
+    private static final class Node {
+        private final int count;
+        private final int priority;
+        private int players;
+        private int total;
+        private Node left, right;
+        /**
+         * Creates a new node without players.
+         *
+         * @param count    The vote count
+         * @param priority The random heap priority
+         */
+        private Node(int count, int priority) {
+            this.count = count;
+            this.priority = priority;
+        }
+        /**
+         * Recomputes the number of players in this subtree.
+         *
+         * @return This node
+         */
+        private Node update() {
+            total = players + total(left) + total(right);
+            return this;
+        }
+    }
+}
@@ -1,14 +1,319 @@
 package me.fergs.phantomvoting.database.interfaces;
 
-import java.sql.SQLException;
+import me.fergs.phantomvoting.database.backup.VoteBackupReader;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.objects.voteparty.SharedPartyState;
+
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * TODO: Complete the implementation of the VoteStorage interface.
+ * The storage backend of the plugin. Implementations keep vote counts, streaks, milestone
+ * and streak claims and the vote party counter, and answer leaderboard and rank lookups.
+ * Methods returning a future may run on a background thread, the others answer from memory.
  */
 public interface VoteStorage {
-    void connectDatabase() throws SQLException;
-    void initializeDatabase() throws SQLException;
-    void addVote(UUID playerUUID);
-    void closeConnection();
-}
\ No newline at end of file
+    /**
+     * Adds a vote received from a vote site, counting towards every period and the streak.
+     *
+     * @param playerUUID UUID of the player
+     * @return A future completed once the vote is stored, after the batch holding it is committed if votes are buffered
+     */
+    CompletableFuture<Void> addVote(UUID playerUUID);
+    /**
+     * Records a received vote in the vote history. Backends without a history ignore it.
+     *
+     * @param event The vote event
+     */
+    void recordVoteEvent(VoteEvent event);
+    /**
+     * Queues a vote received for a player who is not online. Queued votes are added to
+     * the player's record by {@link #claimOfflineVotes(UUID, String)} once they join.
+     *
+     * @param event The vote, its UUID is null if the player is unknown
+     * @return A future completed once the vote is stored
+     */
+    CompletableFuture<Void> queueOfflineVote(VoteEvent event);
+    /**
+     * Removes the queued votes of a player, matched by UUID or name, and adds them to the
+     * player's record in one write.
+     *
+     * @param playerUUID UUID of the player
+     * @param playerName The name of the player
+     * @return A future completed with the delivered votes, oldest first
+     */
+    CompletableFuture<List<VoteEvent>> claimOfflineVotes(UUID playerUUID, String playerName);
+    /**
+     * Adds votes to every count without touching the streak.
+     *
+     * @param playerUUID UUID of the player
+     * @param voteAmount The number of votes to add
+     * @return A future completed once the votes are stored
+     */
+    CompletableFuture<Void> addMultipleVotes(UUID playerUUID, int voteAmount);
+    /**
+     * Removes votes from every count of a player, no count goes below zero. Nothing
+     * changes if the number of votes is not positive.
+     *
+     * @param playerUUID UUID of the player
+     * @param count The number of votes to remove
+     * @return A future completed once the votes are removed
+     */
+    CompletableFuture<Void> removeVote(UUID playerUUID, int count);
+    /**
+     * Gets a vote count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param type Type of vote count to retrieve ("daily", "weekly", "monthly", "yearly", "all_time")
+     * @return A future completed with the vote count
+     */
+    CompletableFuture<Integer> getPlayerVoteCount(UUID playerUUID, String type);
+    /**
+     * Loads a player's data ahead of the join so later reads are answered from memory.
+     *
+     * @param playerUUID UUID of the player
+     * @return A future completed once the data is loaded
+     */
+    CompletableFuture<Void> loadPlayer(UUID playerUUID);
+    /**
+     * Tells the storage the player left, so their data may be released.
+     *
+     * @param playerUUID UUID of the player
+     */
+    void unloadPlayer(UUID playerUUID);
+    /**
+     * Sets the streak count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak The streak count to set
+     * @return A future completed once the streak is updated
+     */
+    CompletableFuture<Void> setVoteStreak(UUID playerUUID, int streak);
+    /**
+     * Sets the streak count and the last vote date of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param newStreakCount New streak count to set
+     * @param lastVoteDate The date of the last vote
+     * @return A future completed once the streak is updated
+     */
+    CompletableFuture<Void> incrementStreak(UUID playerUUID, int newStreakCount, LocalDate lastVoteDate);
+    /**
+     * Adds to the streak count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak The streak count to add
+     * @return A future completed once the streak is updated
+     */
+    CompletableFuture<Void> addStreak(UUID playerUUID, int streak);
+    /**
+     * Restarts the streak of a player at one.
+     *
+     * @param playerUUID UUID of the player
+     * @param lastVoteDate The date of the last vote
+     * @return A future completed once the streak is reset
+     */
+    CompletableFuture<Void> resetStreak(UUID playerUUID, LocalDate lastVoteDate);
+    /**
+     * Gets the streak count of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @return A future completed with the streak count
+     */
+    CompletableFuture<Integer> getPlayerStreak(UUID playerUUID);
+    /**
+     * Loads a player's milestone and streak claims if they are not loaded yet. They are
+     * also loaded by {@link #loadPlayer(UUID)}.
+     *
+     * @param uuid UUID of the player
+     * @return A future completed once the claims are loaded
+     */
+    CompletableFuture<Void> loadClaims(UUID uuid);
+    /**
+     * Checks if a player has claimed a milestone. Load the player's claims with
+     * {@link #loadClaims(UUID)} first; while they are not loaded the milestone counts as
+     * claimed, so a reward is never given twice.
+     *
+     * @param uuid UUID of the player
+     * @param milestoneId ID of the milestone
+     * @return True if the milestone is claimed
+     */
+    boolean isMilestoneClaimed(UUID uuid, int milestoneId);
+    /**
+     * Claims a milestone for a player, loading the player's claims first if needed.
+     *
+     * @param uuid UUID of the player
+     * @param milestoneId ID of the milestone
+     * @return A future completed once the claim is stored
+     */
+    CompletableFuture<Void> claimMilestone(UUID uuid, int milestoneId);
+    /**
+     * Stores the milestone claims not stored yet.
+     *
+     * @return A future completed once the claims are stored
+     */
+    CompletableFuture<Void> saveMilestones();
+    /**
+     * Checks if a player has claimed a streak reward. Load the player's claims with
+     * {@link #loadClaims(UUID)} first; while they are not loaded the streak counts as
+     * claimed, so a reward is never given twice.
+     *
+     * @param uuid UUID of the player
+     * @param streakId ID of the streak
+     * @return True if the streak is claimed
+     */
+    boolean isStreakClaimed(UUID uuid, int streakId);
+    /**
+     * Claims a streak reward for a player, loading the player's claims first if needed.
+     *
+     * @param uuid UUID of the player
+     * @param streakId ID of the streak
+     * @return A future completed once the claim is stored
+     */
+    CompletableFuture<Void> claimStreak(UUID uuid, int streakId);
+    /**
+     * Stores the streak claims not stored yet.
+     *
+     * @return A future completed once the claims are stored
+     */
+    CompletableFuture<Void> saveStreaks();
+    /**
+     * Sets the vote party counter.
+     *
+     * @param count The current global vote count
+     */
+    void setCurrentGlobalVoteCount(int count);
+    /**
+     * Gets the vote party counter.
+     *
+     * @return The current global vote count
+     */
+    int getCurrentGlobalVoteCount();
+    /**
+     * Stores the vote party counter if it changed since it was last stored.
+     *
+     * @return A future completed once the count is stored
+     */
+    CompletableFuture<Void> saveCurrentGlobalVoteCount();
+    /**
+     * Loads the vote party counter.
+     *
+     * @return A future completed once the count is loaded
+     */
+    CompletableFuture<Void> loadCurrentGlobalVoteCount();
+    /**
+     * Checks if the backend can share the vote party between servers using the same
+     * database.
+     *
+     * @return True if the shared vote party methods are supported
+     */
+    boolean supportsSharedParty();
+    /**
+     * Atomically adds votes to the shared vote party and claims every vote party they
+     * complete, so each party is claimed by exactly one server.
+     *
+     * @param amount The number of votes to add
+     * @param threshold The votes needed for a vote party, 0 or less to claim none
+     * @return A future completed with the stored state after the change
+     */
+    CompletableFuture<SharedPartyState> addSharedPartyVotes(int amount, int threshold);
+    /**
+     * Sets the votes of the shared vote party and claims every vote party the new count
+     * completes.
+     *
+     * @param count The new vote count
+     * @param threshold The votes needed for a vote party, 0 or less to claim none
+     * @return A future completed with the stored state after the change
+     */
+    CompletableFuture<SharedPartyState> setSharedPartyVotes(int count, int threshold);
+    /**
+     * Reads the shared vote party, used to notice the changes made by other servers.
+     *
+     * @return A future completed with the stored state
+     */
+    CompletableFuture<SharedPartyState> readSharedParty();
+    /**
+     * Builds the leaderboards and the rank index from the stored players.
+     *
+     * @return A future completed once the leaderboards are built
+     */
+    CompletableFuture<Void> loadLeaderboards();
+    /**
+     * Gets the top players of a leaderboard, answered from memory.
+     *
+     * @param type The leaderboard type
+     * @return The top players, best first
+     */
+    List<PlayerVoteData> getTopPlayers(LeaderboardType type);
+    /**
+     * Gets a page of a leaderboard. Pages within the in-memory leaderboard are answered
+     * from memory, deeper pages are read from the backend.
+     *
+     * @param type The leaderboard type
+     * @param offset The number of players to skip
+     * @param limit The maximum number of players to return
+     * @return A future completed with the players, best first
+     */
+    CompletableFuture<List<PlayerVoteData>> getTopPlayers(LeaderboardType type, int offset, int limit);
+    /**
+     * Gets the player at a position of a leaderboard.
+     *
+     * @param type The leaderboard type
+     * @param position The position (1-based index)
+     * @return The player at the position, or null if out of bounds
+     */
+    PlayerVoteData getTopPlayerAt(LeaderboardType type, int position);
+    /**
+     * Gets the position of a player in the all-time leaderboard.
+     *
+     * @param playerId UUID of the player
+     * @return A future completed with the position
+     */
+    CompletableFuture<Integer> getPlayerPosition(UUID playerId);
+    /**
+     * Writes every vote record, claim and the vote party counter to a backup.
+     *
+     * @param writer The backup writer, closed by the caller
+     * @return A future completed once everything is written
+     */
+    CompletableFuture<Void> exportBackup(VoteBackupWriter writer);
+    /**
+     * Replaces every vote record, claim and the vote party counter with the contents of a
+     * backup and rebuilds the leaderboards. A damaged backup leaves the stored data unchanged.
+     *
+     * @param reader The backup reader, closed by the caller
+     * @return A future completed with the number of restored rows
+     */
+    CompletableFuture<Long> restoreBackup(VoteBackupReader reader);
+    /**
+     * Stores a batch of records imported from another plugin together with the import's
+     * position in its source, atomically where the backend allows it, so an interrupted
+     * import resumes after the last stored batch. An empty batch only stores the position.
+     * The leaderboards are not updated, callers reload them once the import ends.
+     *
+     * @param importName The name of the import
+     * @param records    The imported records
+     * @param mode       How the records are combined with existing ones
+     * @param position   The number of source rows read once this batch is stored
+     * @return A future completed once the batch is stored
+     */
+    CompletableFuture<Void> importRecords(String importName, List<PlayerVoteRecord> records, ImportMode mode, long position);
+    /**
+     * Gets the position stored by the last batch of an import.
+     *
+     * @param importName The name of the import
+     * @return A future completed with the position, 0 if the import never stored a batch
+     */
+    CompletableFuture<Long> getImportPosition(String importName);
+    /**
+     * Writes everything still held in memory and releases the backend.
+     */
+    void close();
+}
@@ -0,0 +1,490 @@
+package me.fergs.phantomvoting.database.journal;
+
+import me.fergs.phantomvoting.database.history.VoteEventLog;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A journal of received votes that have not been stored or rewarded yet. Each vote is
+ * appended with a sequence number into a memory-mapped file the moment it arrives. It is
+ * marked as stored once the vote storage has committed it and as rewarded once its reward
+ * commands ran, and is applied once both happened, so it survives a crash of the server
+ * process as soon as it is appended and a crash of the machine after {@link #force()}.
+ * Votes still pending when the server stopped are handed back by
+ * {@link #open(PendingVisitor)} with what is left to do. A detailed journal also keeps the
+ * player name, vote site and address of each vote and is applied in one step.
+ * <p>
+ * Entries have a fixed size and rising sequence numbers, and each carries a checksum of
+ * everything but its state byte. Reading stops at the first empty or damaged entry, or one
+ * whose sequence number does not rise. Once every entry is applied the file is reused from
+ * the start and the older entries behind the new ones are ignored. When the file fills up
+ * while votes are still pending, only the pending entries are copied to the start of a
+ * second file, which becomes the journal; the two files take turns, so the journal only
+ * grows as far as the votes waiting at the same time need. Of the two, the one holding the
+ * latest entries is read on open.
+ */
+public class VoteJournal {
+    /**
+     * The size of an entry: state, sequence, UUID, receive time and checksum.
+     */
+    public static final int ENTRY_SIZE = 1 + 8 + 8 + 8 + 8 + 4;
+    /**
+     * The size of an entry that also keeps the player name, vote site and address, each
+     * as a length followed by a fixed number of characters.
+     */
+    public static final int DETAILED_ENTRY_SIZE = ENTRY_SIZE + (1 + 32 * 2) + (1 + 64 * 2) + (1 + 64 * 2);
+    private static final int NAME_LENGTH = 32;
+    private static final int DETAIL_LENGTH = 64;
+    private static final int DETAILS_OFFSET = 33;
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte APPLIED = 2;
+    private static final byte STORED = 3;
+    private static final byte REWARDED = 4;
+    private final Path[] files;
+    private final long segmentSize;
+    private final boolean detailed;
+    private final int entrySize;
+    private final ByteBuffer entry;
+    private final CRC32 checksum = new CRC32();
+    private final FileChannel[] channels = new FileChannel[2];
+    private final MappedByteBuffer[] buffers = new MappedByteBuffer[2];
+    private int active;
+    private int writeOffset;
+    private long nextSequence = 1;
+    private long pending;
+    private boolean dirty;
+    /**
+     * Creates a new VoteJournal instance.
+     *
+     * @param file        The journal file, the second file is kept next to it.
+     * @param segmentSize The number of bytes the mapped region grows by.
+     * @param detailed    Whether entries keep the player name, vote site and address.
+     */
+    public VoteJournal(Path file, long segmentSize, boolean detailed) {
+        this.files = new Path[]{file, file.resolveSibling(file.getFileName() + ".1")};
+        this.detailed = detailed;
+        this.entrySize = detailed ? DETAILED_ENTRY_SIZE : ENTRY_SIZE;
+        this.entry = ByteBuffer.allocate(entrySize);
+        this.segmentSize = Math.max(entrySize * 1024L, segmentSize);
+    }
+    /**
+     * Opens the journal and hands every pending entry to a visitor, which must mark each
+     * one as stored and rewarded, or as applied, once that is done.
+     *
+     * @param visitor Receives each pending entry.
+     * @return The number of pending entries.
+     */
+    public synchronized long open(PendingVisitor visitor) throws IOException {
+        Files.createDirectories(files[0].toAbsolutePath().getParent());
+        List<PendingEntry> chosen = null;
+        for (int index = 0; index < files.length; index++) {
+            if (index > 0 && !Files.exists(files[index])) {
+                continue;
+            }
+            channels[index] = FileChannel.open(files[index], StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffers[index] = channels[index].map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channels[index].size(), segmentSize));
+            List<PendingEntry> entries = readEntries(buffers[index]);
+            if (chosen == null || isNewer(entries, chosen)) {
+                if (chosen != null && !chosen.isEmpty()) {
+                    buffers[active].put(0, EMPTY);
+                }
+                chosen = entries;
+                active = index;
+            } else if (!entries.isEmpty()) {
+                buffers[index].put(0, EMPTY);
+            }
+        }
+
+        MappedByteBuffer buffer = buffers[active];
+        List<PendingEntry> pendingEntries = new ArrayList<>();
+        for (PendingEntry read : chosen) {
+            if (read.state != APPLIED) {
+                pendingEntries.add(read);
+            }
+        }
+        nextSequence = chosen.isEmpty() ? 1 : chosen.get(chosen.size() - 1).sequence + 1;
+        pending = pendingEntries.size();
+        writeOffset = pending == 0 ? 0 : chosen.size() * entrySize;
+        for (int clear = writeOffset; clear + entrySize <= buffer.capacity() && buffer.get(clear) != EMPTY; clear += entrySize) {
+            buffer.put(clear, EMPTY);
+        }
+        for (MappedByteBuffer mapped : buffers) {
+            if (mapped != null) {
+                mapped.force();
+            }
+        }
+        for (PendingEntry pendingEntry : pendingEntries) {
+            visitor.visit(pendingEntry.sequence, pendingEntry.vote,
+                    pendingEntry.state == STORED, pendingEntry.state == REWARDED);
+        }
+        return pendingEntries.size();
+    }
+    /**
+     * Reads the run of entries with rising sequence numbers at the start of a journal file.
+     *
+     * @param buffer The mapped file.
+     * @return The entries, in order.
+     */
+    private List<PendingEntry> readEntries(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[entrySize];
+        ByteBuffer read = ByteBuffer.wrap(bytes);
+        List<PendingEntry> entries = new ArrayList<>();
+        int offset = 0;
+        long lastSequence = 0;
+        while (offset + entrySize <= buffer.capacity()) {
+            buffer.position(offset);
+            buffer.get(bytes);
+            if (bytes[0] == EMPTY) {
+                break;
+            }
+            long sequence = read.getLong(1);
+            checksum.reset();
+            checksum.update(bytes, 1, entrySize - 5);
+            if ((int) checksum.getValue() != read.getInt(entrySize - 4)) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cIgnoring a damaged entry at the end of the vote journal."));
+                break;
+            }
+            if (sequence <= lastSequence) {
+                break;
+            }
+            UUID uuid = new UUID(read.getLong(9), read.getLong(17));
+            VoteEvent vote;
+            if (detailed) {
+                read.position(DETAILS_OFFSET);
+                String name = readString(read, NAME_LENGTH);
+                String serviceName = readString(read, DETAIL_LENGTH);
+                String address = readString(read, DETAIL_LENGTH);
+                vote = new VoteEvent(uuid.getMostSignificantBits() == 0 && uuid.getLeastSignificantBits() == 0 ? null : uuid,
+                        name, serviceName, address, read.getLong(25));
+            } else {
+                vote = new VoteEvent(uuid, null, null, null, read.getLong(25));
+            }
+            entries.add(new PendingEntry(sequence, bytes[0], vote));
+            lastSequence = sequence;
+            offset += entrySize;
+        }
+        return entries;
+    }
+    /**
+     * Checks if a run of entries is newer than another, the one with the later last entry
+     * and, if both end on the same entry, the shorter copy.
+     *
+     * @param entries The entries of one file.
+     * @param other   The entries of the other file.
+     * @return True if the first run is newer.
+     */
+    private static boolean isNewer(List<PendingEntry> entries, List<PendingEntry> other) {
+        if (entries.isEmpty() || other.isEmpty()) {
+            return other.isEmpty() && !entries.isEmpty();
+        }
+        long last = entries.get(entries.size() - 1).sequence;
+        long otherLast = other.get(other.size() - 1).sequence;
+        return last != otherLast ? last > otherLast : entries.size() < other.size();
+    }
+    /**
+     * Appends a received vote.
+     *
+     * @param uuid       UUID of the player
+     * @param receivedAt The epoch milliseconds the vote was received
+     * @return The sequence number of the entry, used to mark it as applied.
+     */
+    public long append(UUID uuid, long receivedAt) throws IOException {
+        return append(new VoteEvent(uuid, null, null, null, receivedAt));
+    }
+    /**
+     * Appends a received vote. A detailed journal also keeps the player name, vote site
+     * and address, cut to 32, 64 and 64 characters, and the UUID may be null.
+     *
+     * @param vote The vote.
+     * @return The sequence number of the entry, used to mark it as applied.
+     */
+    public long append(VoteEvent vote) throws IOException {
+        return append(vote, PENDING);
+    }
+    /**
+     * Appends a vote the vote storage has already committed, whose rewards are still to
+     * run.
+     *
+     * @param uuid       UUID of the player
+     * @param receivedAt The epoch milliseconds the vote was received
+     * @return The sequence number of the entry, used to mark it as rewarded.
+     */
+    public long appendStored(UUID uuid, long receivedAt) throws IOException {
+        return append(new VoteEvent(uuid, null, null, null, receivedAt), STORED);
+    }
+    /**
+     * Appends a vote in the given state.
+     *
+     * @param vote  The vote.
+     * @param state The state of the new entry.
+     * @return The sequence number of the entry.
+     */
+    private synchronized long append(VoteEvent vote, byte state) throws IOException {
+        if (buffers[active] == null) {
+            throw new IOException("The vote journal is not open");
+        }
+        if (writeOffset + entrySize > buffers[active].capacity()) {
+            if (pending == 0 && buffers[active].capacity() <= segmentSize) {
+                writeOffset = 0;
+            } else {
+                rollOver();
+            }
+        }
+        long sequence = nextSequence++;
+        entry.clear();
+        entry.put(state);
+        entry.putLong(sequence);
+        entry.putLong(vote.getUuid() == null ? 0L : vote.getUuid().getMostSignificantBits());
+        entry.putLong(vote.getUuid() == null ? 0L : vote.getUuid().getLeastSignificantBits());
+        entry.putLong(vote.getTimestamp());
+        if (detailed) {
+            putString(vote.getUsername(), NAME_LENGTH);
+            putString(vote.getServiceName(), DETAIL_LENGTH);
+            putString(vote.getAddress(), DETAIL_LENGTH);
+        }
+        checksum.reset();
+        checksum.update(entry.array(), 1, entrySize - 5);
+        entry.putInt((int) checksum.getValue());
+        entry.flip();
+        buffers[active].position(writeOffset);
+        buffers[active].put(entry);
+        writeOffset += entrySize;
+        pending++;
+        dirty = true;
+        return sequence;
+    }
+    /**
+     * Writes a string into the entry as its length, or -1 for null, followed by a fixed
+     * number of characters.
+     *
+     * @param value     The string.
+     * @param maxLength The number of characters kept.
+     */
+    private void putString(String value, int maxLength) {
+        String kept = VoteEventLog.truncate(value, maxLength);
+        entry.put((byte) (kept == null ? -1 : kept.length()));
+        int end = entry.position() + maxLength * 2;
+        if (kept != null) {
+            for (int index = 0; index < kept.length(); index++) {
+                entry.putChar(kept.charAt(index));
+            }
+        }
+        while (entry.position() < end) {
+            entry.putChar((char) 0);
+        }
+    }
+    /**
+     * Reads a string written by {@link #putString(String, int)}.
+     *
+     * @param read      The entry, positioned at the string.
+     * @param maxLength The number of characters kept.
+     * @return The string, or null.
+     */
+    private static String readString(ByteBuffer read, int maxLength) {
+        int length = read.get();
+        int end = read.position() + maxLength * 2;
+        StringBuilder value = new StringBuilder();
+        for (int index = 0; index < Math.min(length, maxLength); index++) {
+            value.append(read.getChar());
+        }
+        read.position(end);
+        return length < 0 ? null : value.toString();
+    }
+    /**
+     * Copies the pending entries to the start of the other file and makes it the journal.
+     * The other file is mapped at least twice as large as these entries, in whole segments.
+     * The copy is written through to disk before the current file is emptied, so a crash in
+     * between leaves the copy to be read on open.
+     */
+    private void rollOver() throws IOException {
+        MappedByteBuffer source = buffers[active];
+        long size = segmentSize;
+        while (size < (pending + 1) * entrySize * 2) {
+            size += segmentSize;
+        }
+
+        int target = 1 - active;
+        if (channels[target] == null) {
+            channels[target] = FileChannel.open(files[target], StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        MappedByteBuffer copy = channels[target].map(FileChannel.MapMode.READ_WRITE, 0, size);
+        ByteBuffer pendingEntry = source.duplicate();
+        copy.position(0);
+        for (int offset = 0; offset < writeOffset; offset += entrySize) {
+            if (source.get(offset) != APPLIED) {
+                pendingEntry.limit(offset + entrySize);
+                pendingEntry.position(offset);
+                copy.put(pendingEntry);
+            }
+        }
+        int copied = copy.position();
+        copy.put(copied, EMPTY);
+        copy.force();
+
+        source.put(0, EMPTY);
+        source.force();
+        buffers[target] = copy;
+        active = target;
+        writeOffset = copied;
+        dirty = false;
+    }
+    /**
+     * Marks an entry as applied, so it is not handed back on the next start. Marking an
+     * entry twice has no effect.
+     *
+     * @param sequence The sequence number of the entry.
+     */
+    public void markApplied(long sequence) {
+        advance(sequence, APPLIED);
+    }
+    /**
+     * Marks the vote of an entry as committed by the vote storage. The entry is applied
+     * if its rewards already ran.
+     *
+     * @param sequence The sequence number of the entry.
+     */
+    public void markStored(long sequence) {
+        advance(sequence, STORED);
+    }
+    /**
+     * Marks the rewards of an entry as run. The entry is applied if its vote is already
+     * stored.
+     *
+     * @param sequence The sequence number of the entry.
+     */
+    public void markRewarded(long sequence) {
+        advance(sequence, REWARDED);
+    }
+    /**
+     * Records that a step of an entry is done. Once both the store and the rewards are
+     * done, or the entry is applied directly, it no longer counts as pending.
+     *
+     * @param sequence The sequence number of the entry.
+     * @param done     {@link #STORED}, {@link #REWARDED} or {@link #APPLIED}.
+     */
+    private synchronized void advance(long sequence, byte done) {
+        MappedByteBuffer buffer = buffers[active];
+        int offset = buffer == null ? -1 : findOffset(sequence);
+        if (offset < 0) {
+            return;
+        }
+        byte state = buffer.get(offset);
+        if (state == APPLIED || state == EMPTY || state == done) {
+            return;
+        }
+        byte next = done == APPLIED || state != PENDING ? APPLIED : done;
+        buffer.put(offset, next);
+        if (next == APPLIED) {
+            pending--;
+        }
+        dirty = true;
+    }
+    /**
+     * Writes the journal through to disk. Entries already survive a crash of the server
+     * process once appended, this protects them against a crash of the machine.
+     */
+    public synchronized void force() {
+        if (buffers[active] != null && dirty) {
+            buffers[active].force();
+            dirty = false;
+        }
+    }
+    /**
+     * Gets the number of entries that are not applied yet.
+     *
+     * @return The number of pending entries.
+     */
+    public synchronized long getPending() {
+        return pending;
+    }
+    /**
+     * Flushes and closes the journal. The mapped regions stay valid until they are collected.
+     */
+    public synchronized void close() {
+        force();
+        for (int index = 0; index < channels.length; index++) {
+            buffers[index] = null;
+            if (channels[index] == null) {
+                continue;
+            }
+            try {
+                channels[index].close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            channels[index] = null;
+        }
+    }
+    /**
+     * Finds an entry in the journal file, whose sequence numbers rise from the start.
+     *
+     * @param sequence The sequence number of the entry.
+     * @return The offset in bytes, or -1 if the entry is no longer in the file.
+     */
+    private int findOffset(long sequence) {
+        MappedByteBuffer buffer = buffers[active];
+        int low = 0;
+        int high = writeOffset / entrySize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long found = buffer.getLong(middle * entrySize + 1);
+            if (found < sequence) {
+                low = middle + 1;
+            } else if (found > sequence) {
+                high = middle - 1;
+            } else {
+                return middle * entrySize;
+            }
+        }
+        return -1;
+    }
+    /**
+     * Receives the pending entries of a reopened journal.
+     */
+    @FunctionalInterface
+    public interface PendingVisitor {
+        /**
+         * Visits a pending entry.
+         *
+         * @param sequence The sequence number of the entry.
+         * @param vote     The vote, with only its UUID and receive time unless the journal is detailed.
+         * @param stored   Whether the vote storage already committed the vote.
+         * @param rewarded Whether the rewards of the vote already ran.
+         */
+        void visit(long sequence, VoteEvent vote, boolean stored, boolean rewarded);
+    }
+    /**
+     * An entry read from a journal file.
+     */
+    private static final class PendingEntry {
+        private final long sequence;
+        private final byte state;
+        private final VoteEvent vote;
+        /**
+         * Creates a new read entry.
+         *
+         * @param sequence The sequence number of the entry.
+         * @param state    The state of the entry.
+         * @param vote     The journaled vote.
+         */
+        private PendingEntry(long sequence, byte state, VoteEvent vote) {
+            this.sequence = sequence;
+            this.state = state;
+            this.vote = vote;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package me.fergs.phantomvoting.database.leaderboard;
+
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * A single top-N board kept in memory. Every known entry is stored by player, while a
+ * bounded sorted set holds the current top entries so a vote only costs O(log n).
+ * The set is only recomputed from all entries when a top entry drops.
+ */
+public class Leaderboard {
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::getCount).reversed()
+            .thenComparing(Entry::getUuid);
+    private final int size;
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> top = new TreeSet<>(ORDER);
+    private boolean incomplete;
+    private boolean changed;
+    private List<PlayerVoteData> snapshot = Collections.emptyList();
+    /**
+     * Creates a new Leaderboard instance.
+     *
+     * @param size The number of top entries to keep.
+     */
+    public Leaderboard(int size) {
+        this.size = Math.max(1, size);
+    }
+    /**
+     * Replaces the contents of the leaderboard.
+     *
+     * @param loaded The entries to load
+     */
+    public synchronized void rebuild(Collection<Entry> loaded) {
+        entries.clear();
+        for (Entry entry : loaded) {
+            entries.put(entry.getUuid(), entry);
+        }
+        refill();
+    }
+    /**
+     * Removes every entry, called when the period of the leaderboard ends.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        top.clear();
+        incomplete = false;
+        changed = true;
+    }
+    /**
+     * Changes the entry of a player.
+     *
+     * @param playerUUID UUID of the player
+     * @param change     Maps the current entry, null if there is none, to the new entry.
+     *                   Returning null leaves the entry unchanged.
+     */
+    public synchronized void update(UUID playerUUID, UnaryOperator<Entry> change) {
+        Entry previous = entries.get(playerUUID);
+        Entry updated = change.apply(previous);
+        if (updated == null || updated == previous) {
+            return;
+        }
+        entries.put(playerUUID, updated);
+        boolean wasTop = previous != null && top.remove(previous);
+        if (wasTop && ORDER.compare(updated, previous) > 0) {
+            incomplete = true;
+            changed = true;
+            return;
+        }
+        if (updated.getCount() > 0 && (top.size() < size || ORDER.compare(updated, top.last()) < 0)) {
+            top.add(updated);
+            if (top.size() > size) {
+                top.pollLast();
+            }
+            changed = true;
+        }
+    }
+    /**
+     * Checks whether a player has an entry.
+     *
+     * @param playerUUID UUID of the player
+     * @return True if the player has an entry
+     */
+    public synchronized boolean contains(UUID playerUUID) {
+        return entries.containsKey(playerUUID);
+    }
+    /**
+     * Gets the top entries, best first.
+     *
+     * @return The top entries
+     */
+    public synchronized List<PlayerVoteData> getTop() {
+        if (incomplete) {
+            refill();
+        }
+        if (changed) {
+            snapshot = Collections.unmodifiableList(top.stream()
+                    .map(entry -> new PlayerVoteData(entry.getUuid(), entry.getCount()))
+                    .collect(Collectors.toList()));
+            changed = false;
+        }
+        return snapshot;
+    }
+    /**
+     * Recomputes the top entries from every entry.
+     */
+    private void refill() {
+        top.clear();
+        for (Entry entry : entries.values()) {
+            if (entry.getCount() > 0) {
+                top.add(entry);
+                if (top.size() > size) {
+                    top.pollLast();
+                }
+            }
+        }
+        incomplete = false;
+        changed = true;
+    }
+    /**
+     * The count of a player on a leaderboard.
+     */
+    public static final class Entry {
+        private final UUID uuid;
+        private final int count;
+        private final long since;
+        /**
+         * Creates a new entry.
+         *
+         * @param uuid  The UUID.
+         * @param count The count.
+         * @param since The epoch day of the last vote for streaks, {@link TimeUtil#NONE} otherwise.
+         */
+        public Entry(UUID uuid, int count, long since) {
+            this.uuid = uuid;
+            this.count = count;
+            this.since = since;
+        }
+        /**
+         * Gets the UUID.
+         *
+         * @return The UUID.
+         */
+        public UUID getUuid() {
+            return uuid;
+        }
+        /**
+         * Gets the count.
+         *
+         * @return The count.
+         */
+        public int getCount() {
+            return count;
+        }
+        /**
+         * Gets the epoch day of the last vote for streaks.
+         *
+         * @return The epoch day, {@link TimeUtil#NONE} if unset.
+         */
+        public long getSince() {
+            return since;
+        }
+    }
+}
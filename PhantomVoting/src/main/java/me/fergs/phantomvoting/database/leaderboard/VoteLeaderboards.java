@@ -0,0 +1,179 @@
+package me.fergs.phantomvoting.database.leaderboard;
+
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.objects.PlayerVoteData;
+import me.fergs.phantomvoting.objects.PlayerVoteRecord;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.util.*;
+
+/**
+ * The in-memory leaderboards of every period. The boards are loaded once at startup,
+ * afterwards follow each vote operation with the same rules the database statements use
+ * and are cleared when their period is reset, so reading a leaderboard never needs a query.
+ */
+public class VoteLeaderboards {
+    private final Map<LeaderboardType, Leaderboard> boards = new EnumMap<>(LeaderboardType.class);
+    private final int size;
+    /**
+     * Creates a new VoteLeaderboards instance.
+     *
+     * @param size The number of players kept on each leaderboard.
+     */
+    public VoteLeaderboards(int size) {
+        this.size = Math.max(1, size);
+        for (LeaderboardType type : LeaderboardType.values()) {
+            boards.put(type, new Leaderboard(size));
+        }
+    }
+    /**
+     * Replaces the contents of every leaderboard.
+     *
+     * @param records The vote record of every stored player
+     */
+    public void rebuild(Collection<PlayerVoteRecord> records) {
+        Map<LeaderboardType, List<Leaderboard.Entry>> loaded = new EnumMap<>(LeaderboardType.class);
+        for (LeaderboardType type : LeaderboardType.values()) {
+            loaded.put(type, new ArrayList<>(records.size()));
+        }
+        for (PlayerVoteRecord record : records) {
+            UUID uuid = record.getUuid();
+            for (LeaderboardType period : VotePeriodClock.PERIODS) {
+                int count = record.getCount(period.getIdentifier());
+                if (count != 0) {
+                    loaded.get(period).add(new Leaderboard.Entry(uuid, count, TimeUtil.NONE));
+                }
+            }
+            loaded.get(LeaderboardType.ALL_TIME).add(new Leaderboard.Entry(uuid, record.getCount("all_time"), TimeUtil.NONE));
+            loaded.get(LeaderboardType.STREAK).add(new Leaderboard.Entry(uuid, record.getStreakCount(), record.getLastVoteDay()));
+        }
+        loaded.forEach((type, entries) -> boards.get(type).rebuild(entries));
+    }
+    /**
+     * Applies votes received from a vote site, mirroring the vote upsert.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes
+     * @param voteDay    The epoch day of the most recent vote
+     */
+    public void addSiteVotes(UUID playerUUID, int amount, long voteDay) {
+        applyVotes(playerUUID, amount);
+        recordVoteDay(playerUUID, voteDay);
+    }
+    /**
+     * Applies votes given by an administrator. Nothing changes for players without a stored record.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes
+     */
+    public void addVotes(UUID playerUUID, int amount) {
+        if (boards.get(LeaderboardType.ALL_TIME).contains(playerUUID)) {
+            applyVotes(playerUUID, amount);
+        }
+    }
+    /**
+     * Removes votes from every period and the all-time count, no count goes below zero.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes to remove
+     */
+    public void removeVotes(UUID playerUUID, int amount) {
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            boards.get(period).update(playerUUID, previous -> previous == null ? null
+                    : new Leaderboard.Entry(playerUUID, Math.max(0, previous.getCount() - amount), TimeUtil.NONE));
+        }
+        boards.get(LeaderboardType.ALL_TIME).update(playerUUID, previous -> previous == null ? null
+                : new Leaderboard.Entry(playerUUID, Math.max(0, previous.getCount() - amount), TimeUtil.NONE));
+    }
+    /**
+     * Continues, resets or keeps the streak for a vote on the given day.
+     *
+     * @param playerUUID UUID of the player
+     * @param today      The epoch day of the vote
+     */
+    public void recordVoteDay(UUID playerUUID, long today) {
+        boards.get(LeaderboardType.ALL_TIME).update(playerUUID, previous -> previous != null ? null
+                : new Leaderboard.Entry(playerUUID, 0, TimeUtil.NONE));
+        boards.get(LeaderboardType.STREAK).update(playerUUID, previous -> {
+            long lastVoteDay = previous == null ? TimeUtil.NONE : previous.getSince();
+            int streak = previous == null ? 0 : previous.getCount();
+            if (lastVoteDay < today - 1) {
+                streak = 1;
+            } else if (lastVoteDay == today - 1) {
+                streak++;
+            }
+            return new Leaderboard.Entry(playerUUID, streak, today);
+        });
+    }
+    /**
+     * Sets the streak count.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak     The streak count
+     */
+    public void setStreak(UUID playerUUID, int streak) {
+        boards.get(LeaderboardType.STREAK).update(playerUUID, previous -> previous == null ? null
+                : new Leaderboard.Entry(playerUUID, streak, previous.getSince()));
+    }
+    /**
+     * Adds to the streak count.
+     *
+     * @param playerUUID UUID of the player
+     * @param streak     The amount to add
+     */
+    public void addStreak(UUID playerUUID, int streak) {
+        boards.get(LeaderboardType.STREAK).update(playerUUID, previous -> previous == null ? null
+                : new Leaderboard.Entry(playerUUID, previous.getCount() + streak, previous.getSince()));
+    }
+    /**
+     * Sets the streak count and the last vote date.
+     *
+     * @param playerUUID   UUID of the player
+     * @param streak       The streak count
+     * @param lastVoteDay  The epoch day of the last vote
+     */
+    public void setStreak(UUID playerUUID, int streak, long lastVoteDay) {
+        boards.get(LeaderboardType.STREAK).update(playerUUID, previous -> previous == null ? null
+                : new Leaderboard.Entry(playerUUID, streak, lastVoteDay));
+    }
+    /**
+     * Clears the leaderboard of a period that has ended.
+     *
+     * @param period The period
+     */
+    public void reset(LeaderboardType period) {
+        boards.get(period).clear();
+    }
+    /**
+     * Gets the top players of a leaderboard, best first.
+     *
+     * @param type The leaderboard type
+     * @return The top players
+     */
+    public List<PlayerVoteData> getTop(LeaderboardType type) {
+        return boards.get(type).getTop();
+    }
+    /**
+     * Adds votes to every period and the all-time count.
+     *
+     * @param playerUUID UUID of the player
+     * @param amount     The number of votes
+     */
+    private void applyVotes(UUID playerUUID, int amount) {
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            boards.get(period).update(playerUUID, previous ->
+                    new Leaderboard.Entry(playerUUID, (previous == null ? 0 : previous.getCount()) + amount, TimeUtil.NONE));
+        }
+        boards.get(LeaderboardType.ALL_TIME).update(playerUUID, previous ->
+                new Leaderboard.Entry(playerUUID, (previous == null ? 0 : previous.getCount()) + amount, TimeUtil.NONE));
+    }
+    /**
+     * Gets the number of players kept on each leaderboard.
+     *
+     * @return The leaderboard size.
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,66 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.database.period.VotePeriodClock;
+import me.fergs.phantomvoting.database.period.VotePeriodReset;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.enums.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Moves from rolling per-player periods to calendar periods that reset for everyone at
+ * once. Counts whose rolling window started before the current calendar period are
+ * cleared, the per-player period starts are dropped and the current period starts are
+ * recorded as the last reset.
+ */
+public class CalendarPeriodMigration implements Migration {
+    private static final String[] TABLES = {"player_votes", "player_votes" + UuidLayoutMigration.TARGET_SUFFIX};
+    private final VotePeriodClock clock;
+    private final SqlDialect dialect;
+    /**
+     * Creates a new CalendarPeriodMigration instance.
+     *
+     * @param clock    The clock calculating the calendar periods.
+     * @param dialect  The SQL dialect.
+     */
+    public CalendarPeriodMigration(VotePeriodClock clock, SqlDialect dialect) {
+        this.clock = clock;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public int getVersion() {
+        return 6;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Reset vote periods on calendar boundaries";
+    }
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        long now = System.currentTimeMillis();
+        for (String table : TABLES) {
+            if (!SchemaUtil.tableExists(connection, table)) {
+                continue;
+            }
+            String[] startColumns = new String[VotePeriodClock.PERIODS.length];
+            for (int i = 0; i < VotePeriodClock.PERIODS.length; i++) {
+                String period = VotePeriodClock.PERIODS[i].getIdentifier();
+                startColumns[i] = period + "_start";
+                String update = "UPDATE " + table + " SET " + period + "_count = 0 WHERE " + period + "_start IS NULL OR " + period + "_start < ?";
+                try (PreparedStatement pstmt = connection.prepareStatement(update)) {
+                    pstmt.setLong(1, clock.getPeriodStart(VotePeriodClock.PERIODS[i], now));
+                    pstmt.executeUpdate();
+                }
+            }
+            SchemaUtil.dropColumns(connection, dialect, table, startColumns);
+        }
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            SchemaUtil.writeMeta(connection, VotePeriodReset.META_PREFIX + period.getIdentifier(), String.valueOf(clock.getPeriodStart(period, now)));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.database.claims.ClaimTable;
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.enums.UuidFormat;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Replaces the player_milestones and player_streaks tables, which hold one row per claim,
+ * with the packed "milestone_claims" and "streak_claims" bitmask columns of player_votes.
+ * Players with claims but no vote record get a record with no votes. The UUID shadow table
+ * of an unfinished UUID migration gets the columns as well, filled from the original
+ * claim tables.
+ */
+public class ClaimBitmapMigration implements Migration {
+    public static final String MILESTONE_COLUMN = "milestone_claims";
+    public static final String STREAK_COLUMN = "streak_claims";
+    /**
+     * The claim tables, their ID columns and the bitmask columns they become.
+     */
+    private static final String[][] CLAIMS = {
+            {"player_milestones", "milestone_id", MILESTONE_COLUMN},
+            {"player_streaks", "streak_id", STREAK_COLUMN}
+    };
+    private static final String SHADOW_TABLE = "player_votes" + UuidLayoutMigration.TARGET_SUFFIX;
+    private final SqlDialect dialect;
+    /**
+     * Creates a new ClaimBitmapMigration instance.
+     *
+     * @param dialect The SQL dialect.
+     */
+    public ClaimBitmapMigration(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    public int getVersion() {
+        return 8;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Store milestone and streak claims as packed bitmasks";
+    }
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        UuidFormat uuidFormat = UuidLayoutMigration.getFormat(connection);
+        boolean shadow = SchemaUtil.tableExists(connection, SHADOW_TABLE);
+        String columnType = dialect.getBinaryType((ClaimTable.MAX_ID / 64 + 1) * Long.BYTES);
+        for (String[] claim : CLAIMS) {
+            SchemaUtil.execute(connection, "ALTER TABLE player_votes ADD COLUMN " + claim[2] + " " + columnType);
+            if (shadow) {
+                SchemaUtil.execute(connection, "ALTER TABLE " + SHADOW_TABLE + " ADD COLUMN " + claim[2] + " " + columnType);
+            }
+            if (!SchemaUtil.tableExists(connection, claim[0])) {
+                continue;
+            }
+            ClaimTable claims = readClaims(connection, claim[0], claim[1], uuidFormat);
+            writeColumn(connection, "player_votes", claim[2], claims, uuidFormat);
+            if (shadow) {
+                writeColumn(connection, SHADOW_TABLE, claim[2], claims, UuidFormat.BINARY);
+            }
+            SchemaUtil.execute(connection, "DROP TABLE " + claim[0]);
+            if (SchemaUtil.tableExists(connection, claim[0] + UuidLayoutMigration.TARGET_SUFFIX)) {
+                SchemaUtil.execute(connection, "DROP TABLE " + claim[0] + UuidLayoutMigration.TARGET_SUFFIX);
+            }
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eConverted the &f" + claim[0] + " &eof &6"
+                    + claims.size() + " &eplayers to bitmasks."));
+        }
+    }
+    /**
+     * Stores a bitmask column for every player in a claim table. Players without a row in
+     * the table get one holding only the UUID and the bitmask.
+     *
+     * @param connection The connection.
+     * @param table      The player_votes table or its UUID shadow table.
+     * @param column     The bitmask column.
+     * @param claims     The claims.
+     * @param uuidFormat The UUID format of the table.
+     */
+    public static void writeColumn(Connection connection, String table, String column, ClaimTable claims, UuidFormat uuidFormat) throws SQLException {
+        List<UUID> missing = new ArrayList<>();
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + table + " SET " + column + " = ? WHERE uuid = ?")) {
+            List<UUID> batch = new ArrayList<>();
+            for (Map.Entry<UUID, long[]> entry : claims.asMap().entrySet()) {
+                update.setBytes(1, ClaimTable.toBytes(entry.getValue()));
+                uuidFormat.bind(update, 2, entry.getKey());
+                update.addBatch();
+                batch.add(entry.getKey());
+            }
+            int[] updated = update.executeBatch();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    missing.add(batch.get(i));
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (uuid, " + column + ") VALUES (?, ?)")) {
+            for (UUID uuid : missing) {
+                uuidFormat.bind(insert, 1, uuid);
+                insert.setBytes(2, ClaimTable.toBytes(claims.get(uuid)));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+    /**
+     * Reads the claimed IDs of a claim table. IDs that cannot be stored in a bitmask are
+     * left out with a warning.
+     *
+     * @param connection The connection.
+     * @param table      The claim table.
+     * @param idColumn   The claim ID column.
+     * @param uuidFormat The UUID format of the table.
+     * @return The claims.
+     */
+    private ClaimTable readClaims(Connection connection, String table, String idColumn, UuidFormat uuidFormat) throws SQLException {
+        ClaimTable claims = new ClaimTable();
+        int skipped = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT uuid, " + idColumn + " FROM " + table + " WHERE claimed = TRUE")) {
+            while (rs.next()) {
+                int id = rs.getInt(idColumn);
+                UUID uuid;
+                try {
+                    uuid = uuidFormat.read(rs, "uuid");
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    continue;
+                }
+                if (ClaimTable.isValidId(id)) {
+                    claims.add(uuid, id);
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cSkipped &f" + skipped + " &cclaims in &f" + table
+                    + " &cwith an invalid UUID or an ID outside 0-" + ClaimTable.MAX_ID + "."));
+        }
+        return claims;
+    }
+}
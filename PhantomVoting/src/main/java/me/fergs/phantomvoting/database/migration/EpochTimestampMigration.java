@@ -0,0 +1,129 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.TimeUtil;
+import org.bukkit.Bukkit;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the date-time columns of player_votes with numeric ones. The period timestamps
+ * become epoch milliseconds in the "&lt;period&gt;_start" columns and the last vote date
+ * becomes an epoch day in "last_vote_day", so the vote path compares integers instead of
+ * parsing and formatting dates. Existing values are read in the server's time zone, the
+ * same zone they were written in.
+ */
+public class EpochTimestampMigration implements Migration {
+    private static final String[] PERIODS = {"daily", "weekly", "monthly", "yearly"};
+    private static final String[] TABLES = {"player_votes", "player_votes" + UuidLayoutMigration.TARGET_SUFFIX};
+    private final SqlDialect dialect;
+    /**
+     * Creates a new EpochTimestampMigration instance.
+     *
+     * @param dialect The SQL dialect.
+     */
+    public EpochTimestampMigration(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    public int getVersion() {
+        return 4;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Store vote periods as epoch milliseconds and vote days as epoch days";
+    }
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        for (String table : TABLES) {
+            if (SchemaUtil.tableExists(connection, table)) {
+                convert(connection, table);
+            }
+        }
+    }
+    /**
+     * Adds the numeric columns to a table, fills them from the old columns and drops the old ones.
+     * The UUID shadow table of an unfinished UUID migration is converted as well, so both keep
+     * the same columns.
+     *
+     * @param connection The connection.
+     * @param table      The table to convert.
+     */
+    private void convert(Connection connection, String table) throws SQLException {
+        for (String period : PERIODS) {
+            SchemaUtil.execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + period + "_start BIGINT");
+        }
+        SchemaUtil.execute(connection, "ALTER TABLE " + table + " ADD COLUMN last_vote_day " + dialect.getIntegerType());
+
+        List<Object> keys = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT uuid, daily_timestamp, weekly_timestamp, monthly_timestamp, yearly_timestamp, last_vote_date FROM " + table)) {
+            while (rs.next()) {
+                long[] row = new long[PERIODS.length + 1];
+                for (int i = 0; i < PERIODS.length; i++) {
+                    LocalDateTime start = readTime(rs, PERIODS[i] + "_timestamp");
+                    row[i] = start == null ? TimeUtil.NONE : TimeUtil.toEpochMillis(start);
+                }
+                LocalDateTime lastVote = readTime(rs, "last_vote_date");
+                row[PERIODS.length] = lastVote == null ? TimeUtil.NONE : lastVote.toLocalDate().toEpochDay();
+                keys.add(rs.getObject("uuid"));
+                values.add(row);
+            }
+        }
+
+        String update = "UPDATE " + table + " SET daily_start = ?, weekly_start = ?, monthly_start = ?, yearly_start = ?, last_vote_day = ? WHERE uuid = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(update)) {
+            for (int i = 0; i < keys.size(); i++) {
+                long[] row = values.get(i);
+                for (int column = 0; column < row.length; column++) {
+                    if (row[column] == TimeUtil.NONE) {
+                        pstmt.setNull(column + 1, Types.BIGINT);
+                    } else {
+                        pstmt.setLong(column + 1, row[column]);
+                    }
+                }
+                pstmt.setObject(row.length + 1, keys.get(i));
+                pstmt.addBatch();
+                if ((i + 1) % 1000 == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+
+        SchemaUtil.dropColumns(connection, dialect, table, "daily_timestamp", "weekly_timestamp", "monthly_timestamp", "yearly_timestamp", "last_vote_date");
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eConverted the vote times of &6" + keys.size() + " &erows in &f" + table + "&e."));
+    }
+    /**
+     * Reads a stored date-time. SQLite holds ISO text, or a plain date for the last vote date,
+     * MySQL and H2 hold DATETIME values.
+     *
+     * @param rs     The result set positioned on the row.
+     * @param column The column name.
+     * @return The stored time, or null if there is no value.
+     */
+    private LocalDateTime readTime(ResultSet rs, String column) throws SQLException {
+        if (dialect != SqlDialect.SQLITE) {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+        String value = rs.getString(column);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String normalized = value.replace(' ', 'T');
+        if (normalized.length() == 10) {
+            return LocalDate.parse(normalized).atStartOfDay();
+        }
+        return LocalDateTime.parse(normalized);
+    }
+}
@@ -0,0 +1,29 @@
+package me.fergs.phantomvoting.database.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A single versioned change to the database schema or data.
+ */
+public interface Migration {
+    /**
+     * Gets the version this migration upgrades the schema to.
+     *
+     * @return The version, starting at 1.
+     */
+    int getVersion();
+    /**
+     * Gets a short description that is stored in the schema_version table.
+     *
+     * @return The description.
+     */
+    String getDescription();
+    /**
+     * Applies the migration. The runner manages the transaction.
+     *
+     * @param connection The connection to migrate.
+     * @throws SQLException If the migration fails.
+     */
+    void migrate(Connection connection) throws SQLException;
+}
@@ -0,0 +1,176 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies versioned migrations and records them in the schema_version table.
+ * SQL migrations are loaded from "migrations/&lt;dialect&gt;/V&lt;version&gt;.sql" on the
+ * classpath, starting at V1 and stopping at the first version that has neither a script
+ * nor a registered Java migration.
+ */
+public class MigrationRunner {
+    private final String dialect;
+    private final List<Migration> migrations = new ArrayList<>();
+    private Migration legacyUpgrade;
+    /**
+     * Creates a new MigrationRunner instance.
+     *
+     * @param dialect The dialect folder name, for example "sqlite" or "mysql".
+     */
+    public MigrationRunner(String dialect) {
+        this.dialect = dialect;
+    }
+    /**
+     * Registers a migration implemented in Java.
+     *
+     * @param migration The migration.
+     * @return This runner.
+     */
+    public MigrationRunner register(Migration migration) {
+        migrations.add(migration);
+        return this;
+    }
+    /**
+     * Configures how databases created before versioned migrations are adopted. When the
+     * schema_version table is empty but player_votes exists, the legacy upgrade runs once
+     * before the regular migrations and is recorded under its own version, usually 0.
+     *
+     * @param legacyUpgrade Brings a legacy schema to the shape the first migration expects.
+     * @return This runner.
+     */
+    public MigrationRunner baseline(Migration legacyUpgrade) {
+        this.legacyUpgrade = legacyUpgrade;
+        return this;
+    }
+    /**
+     * Applies every migration newer than the current schema version. Each migration runs in
+     * its own transaction together with its schema_version row. MySQL commits DDL
+     * implicitly, so there SQL scripts skip the indexes and columns that already exist and
+     * a script that failed halfway runs again on the next start.
+     *
+     * @param connection The connection to migrate.
+     * @throws SQLException If a migration fails.
+     */
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY," +
+                    "description VARCHAR(255) NOT NULL," +
+                    "installed_at VARCHAR(32) NOT NULL)");
+        }
+
+        if (legacyUpgrade != null && !hasAppliedMigrations(connection) && tableExists(connection, "player_votes")) {
+            applyInTransaction(connection, legacyUpgrade, legacyUpgrade.getVersion(), legacyUpgrade.getDescription());
+        }
+        int currentVersion = getCurrentVersion(connection);
+
+        loadScripts();
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+            applyInTransaction(connection, migration, migration.getVersion(), migration.getDescription());
+            currentVersion = migration.getVersion();
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eApplied database migration &fV" + migration.getVersion() + " &e(" + migration.getDescription() + ")."));
+        }
+    }
+    /**
+     * Gets the highest applied version.
+     *
+     * @param connection The connection.
+     * @return The schema version, or 0 if nothing is applied.
+     */
+    public static int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    /**
+     * Checks whether any migration has been recorded.
+     *
+     * @param connection The connection.
+     * @return True if schema_version has rows.
+     */
+    private boolean hasAppliedMigrations(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+    /**
+     * Runs a migration and records the version in one transaction.
+     *
+     * @param connection  The connection.
+     * @param migration   The migration to run.
+     * @param version     The version to record.
+     * @param description The description to record.
+     */
+    private void applyInTransaction(Connection connection, Migration migration, int version, String description) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            migration.migrate(connection);
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, installed_at) VALUES (?, ?, ?)")) {
+                pstmt.setInt(1, version);
+                pstmt.setString(2, description);
+                pstmt.setString(3, LocalDateTime.now().toString());
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cDatabase migration &fV" + version + " &cfailed."));
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Loads the SQL migrations of the dialect from the classpath, skipping versions that
+     * are taken by registered Java migrations.
+     */
+    private void loadScripts() {
+        for (int version = 1; ; version++) {
+            final int scriptVersion = version;
+            if (migrations.stream().anyMatch(migration -> migration.getVersion() == scriptVersion)) {
+                continue;
+            }
+            String path = "migrations/" + dialect + "/V" + version + ".sql";
+            try (InputStream input = MigrationRunner.class.getClassLoader().getResourceAsStream(path)) {
+                if (input == null) {
+                    return;
+                }
+                migrations.add(new SqlScriptMigration(version, new String(input.readAllBytes(), StandardCharsets.UTF_8), dialect.equals("mysql")));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+    /**
+     * Checks if a table exists.
+     *
+     * @param connection The connection.
+     * @param tableName  The table name.
+     * @return True if the table exists.
+     */
+    private boolean tableExists(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(null, null, tableName, null)) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements shared by the Java migrations and the jobs that change stored data in bulk.
+ */
+public class SchemaUtil {
+    /**
+     * Runs a statement without parameters.
+     *
+     * @param connection The connection.
+     * @param sql        The statement.
+     */
+    public static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+    /**
+     * Checks if a table exists in the current database.
+     *
+     * @param connection The connection.
+     * @param tableName  The table name.
+     * @return True if the table exists.
+     */
+    public static boolean tableExists(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, tableName, null)) {
+            return rs.next();
+        }
+    }
+    /**
+     * Checks if an index exists on a table of the current MySQL database.
+     *
+     * @param connection The connection.
+     * @param tableName  The table name.
+     * @param indexName  The index name.
+     * @return True if the index exists.
+     */
+    public static boolean indexExists(Connection connection, String tableName, String indexName) throws SQLException {
+        return exists(connection, "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                tableName, indexName);
+    }
+    /**
+     * Checks if a column exists on a table of the current MySQL database.
+     *
+     * @param connection The connection.
+     * @param tableName  The table name.
+     * @param columnName The column name.
+     * @return True if the column exists.
+     */
+    public static boolean columnExists(Connection connection, String tableName, String columnName) throws SQLException {
+        return exists(connection, "SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                tableName, columnName);
+    }
+    /**
+     * Checks if a query returns a row.
+     *
+     * @param connection The connection.
+     * @param sql        The query.
+     * @param parameters The string parameters.
+     * @return True if there is a row.
+     */
+    private static boolean exists(Connection connection, String sql, String... parameters) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    /**
+     * Drops columns from a table. SQLite only supports dropping columns since 3.35, older
+     * versions keep the columns and a warning is logged.
+     *
+     * @param connection The connection.
+     * @param dialect    The SQL dialect.
+     * @param table      The table.
+     * @param columns    The columns to drop.
+     */
+    public static void dropColumns(Connection connection, SqlDialect dialect, String table, String... columns) throws SQLException {
+        if (dialect == SqlDialect.MYSQL) {
+            StringBuilder sql = new StringBuilder("ALTER TABLE ").append(table);
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? " " : ", ").append("DROP COLUMN ").append(columns[i]);
+            }
+            execute(connection, sql.toString());
+            return;
+        }
+        if (dialect == SqlDialect.SQLITE) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            int major = metaData.getDatabaseMajorVersion();
+            int minor = metaData.getDatabaseMinorVersion();
+            if (major < 3 || (major == 3 && minor < 35)) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cSQLite &f" + metaData.getDatabaseProductVersion()
+                        + " &ccannot drop columns, the old columns of &f" + table + " &care kept but no longer used."));
+                return;
+            }
+        }
+        for (String column : columns) {
+            execute(connection, "ALTER TABLE " + table + " DROP COLUMN " + column);
+        }
+    }
+    /**
+     * Reads every storage_meta entry.
+     *
+     * @param connection The connection.
+     * @return The entries by key.
+     */
+    public static Map<String, String> readMeta(Connection connection) throws SQLException {
+        Map<String, String> meta = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT meta_key, meta_value FROM storage_meta")) {
+            while (rs.next()) {
+                meta.put(rs.getString("meta_key"), rs.getString("meta_value"));
+            }
+        }
+        return meta;
+    }
+    /**
+     * Stores a storage_meta entry.
+     *
+     * @param connection The connection.
+     * @param key        The key.
+     * @param value      The value.
+     */
+    public static void writeMeta(Connection connection, String key, String value) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("REPLACE INTO storage_meta (meta_key, meta_value) VALUES (?, ?)")) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+    }
+}
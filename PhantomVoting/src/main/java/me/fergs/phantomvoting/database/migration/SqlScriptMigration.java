@@ -0,0 +1,101 @@
+package me.fergs.phantomvoting.database.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A migration read from a SQL script. Statements are separated by a semicolon at the
+ * end of a line and lines starting with "--" are comments. The first comment line is
+ * used as the description.
+ * <p>
+ * MySQL commits DDL implicitly, so a script that fails halfway cannot be rolled back there.
+ * With schema checks on, CREATE INDEX and ALTER TABLE ... ADD COLUMN statements are skipped
+ * when the index or column already exists, so the script can run again on the next start.
+ */
+public class SqlScriptMigration implements Migration {
+    private static final Pattern CREATE_INDEX = Pattern.compile("^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ADD_COLUMN = Pattern.compile("^ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+COLUMN\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final boolean checkSchema;
+    /**
+     * Creates a new migration from a script.
+     *
+     * @param version     The version of the migration.
+     * @param script      The script contents.
+     * @param checkSchema Whether to skip indexes and columns that exist already, using
+     *                    MySQL's information_schema.
+     */
+    public SqlScriptMigration(int version, String script, boolean checkSchema) {
+        this.version = version;
+        this.checkSchema = checkSchema;
+        String scriptDescription = "V" + version;
+        List<String> parsedStatements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("--")) {
+                if (scriptDescription.equals("V" + version) && trimmed.length() > 2) {
+                    scriptDescription = trimmed.substring(2).trim();
+                }
+                continue;
+            }
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                parsedStatements.add(current.toString().trim().replaceAll(";$", ""));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            parsedStatements.add(current.toString().trim());
+        }
+        this.description = scriptDescription;
+        this.statements = parsedStatements;
+    }
+    @Override
+    public int getVersion() {
+        return version;
+    }
+    @Override
+    public String getDescription() {
+        return description;
+    }
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : statements) {
+                if (checkSchema && isApplied(connection, statement)) {
+                    continue;
+                }
+                stmt.execute(statement);
+            }
+        }
+    }
+    /**
+     * Checks if a statement adds an index or column that already exists.
+     *
+     * @param connection The connection.
+     * @param statement  The statement.
+     * @return True if the statement can be skipped.
+     */
+    private static boolean isApplied(Connection connection, String statement) throws SQLException {
+        Matcher index = CREATE_INDEX.matcher(statement);
+        if (index.find()) {
+            return SchemaUtil.indexExists(connection, index.group(2), index.group(1));
+        }
+        Matcher column = ADD_COLUMN.matcher(statement);
+        if (column.find()) {
+            return SchemaUtil.columnExists(connection, column.group(1), column.group(2));
+        }
+        return false;
+    }
+}
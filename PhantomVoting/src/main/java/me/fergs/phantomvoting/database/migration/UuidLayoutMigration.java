@@ -0,0 +1,465 @@
+package me.fergs.phantomvoting.database.migration;
+
+import me.fergs.phantomvoting.enums.SqlDialect;
+import me.fergs.phantomvoting.enums.UuidFormat;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves the player tables from text UUID keys to 16 byte binary keys while the server keeps
+ * running. Rows are copied in small batches into shadow tables, the position is stored in
+ * storage_meta after every batch so a restart continues where it stopped. Players written to
+ * during the copy are remembered and copied again right before the shadow tables replace the
+ * originals, which happens while no other database operation runs. Rows with an invalid UUID
+ * are skipped and counted, so the row count check before the swap still adds up.
+ */
+public class UuidLayoutMigration {
+    private static final String FORMAT_KEY = "uuid_format";
+    private static final String TABLE_KEY = "uuid_migration.table";
+    private static final String CURSOR_KEY = "uuid_migration.cursor";
+    private static final String CURSOR_ID_KEY = "uuid_migration.cursor_id";
+    private static final String CLEAN_STOP_KEY = "uuid_migration.clean_stop";
+    private static final String SKIPPED_KEY = "uuid_migration.skipped.";
+    public static final String TARGET_SUFFIX = "_bin";
+    /**
+     * The migrated tables and the second primary key column of each, if any.
+     */
+    private static final String[][] TABLES = {
+            {"player_votes", null}
+    };
+    private final SqlDialect dialect;
+    private final int batchSize;
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private volatile boolean active;
+    private int tableIndex;
+    private String cursor;
+    private int cursorId;
+    private final long[] skipped = new long[TABLES.length];
+    /**
+     * Creates a new UuidLayoutMigration instance.
+     *
+     * @param dialect   The SQL dialect, SQLite or MySQL.
+     * @param batchSize The number of rows copied per batch.
+     */
+    public UuidLayoutMigration(SqlDialect dialect, int batchSize) {
+        this.dialect = dialect;
+        this.batchSize = Math.max(1, batchSize);
+    }
+    /**
+     * Gets the UUID format the player tables currently use.
+     *
+     * @param connection The connection.
+     * @return The stored format, TEXT if none was recorded.
+     */
+    public static UuidFormat getFormat(Connection connection) throws SQLException {
+        return UuidFormat.fromName(SchemaUtil.readMeta(connection).get(FORMAT_KEY), UuidFormat.TEXT);
+    }
+    /**
+     * Starts or resumes the migration. A migration that was not stopped cleanly may have
+     * missed writes to rows it already copied, so it starts over.
+     *
+     * @param connection The connection.
+     */
+    public void start(Connection connection) throws SQLException {
+        Map<String, String> meta = SchemaUtil.readMeta(connection);
+        boolean resume = meta.containsKey(TABLE_KEY) && "true".equals(meta.get(CLEAN_STOP_KEY));
+        if (resume) {
+            tableIndex = Integer.parseInt(meta.get(TABLE_KEY));
+            cursor = meta.getOrDefault(CURSOR_KEY, "");
+            cursorId = Integer.parseInt(meta.getOrDefault(CURSOR_ID_KEY, String.valueOf(Integer.MIN_VALUE)));
+            for (int i = 0; i < TABLES.length; i++) {
+                skipped[i] = Long.parseLong(meta.getOrDefault(SKIPPED_KEY + TABLES[i][0], "0"));
+            }
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT uuid FROM uuid_migration_dirty")) {
+                while (rs.next()) {
+                    dirtyPlayers.add(UUID.fromString(rs.getString("uuid")));
+                }
+            }
+        } else {
+            tableIndex = 0;
+            cursor = "";
+            cursorId = Integer.MIN_VALUE;
+            Arrays.fill(skipped, 0L);
+        }
+        for (String[] table : TABLES) {
+            String target = table[0] + TARGET_SUFFIX;
+            if (!resume && SchemaUtil.tableExists(connection, target)) {
+                SchemaUtil.execute(connection, "DROP TABLE " + target);
+            }
+            if (!SchemaUtil.tableExists(connection, target)) {
+                createTarget(connection, table[0], target);
+            }
+        }
+        SchemaUtil.execute(connection, "DELETE FROM uuid_migration_dirty");
+        SchemaUtil.writeMeta(connection, TABLE_KEY, String.valueOf(tableIndex));
+        SchemaUtil.writeMeta(connection, CURSOR_KEY, cursor);
+        SchemaUtil.writeMeta(connection, CURSOR_ID_KEY, String.valueOf(cursorId));
+        for (int i = 0; i < TABLES.length; i++) {
+            SchemaUtil.writeMeta(connection, SKIPPED_KEY + TABLES[i][0], String.valueOf(skipped[i]));
+        }
+        SchemaUtil.writeMeta(connection, CLEAN_STOP_KEY, "false");
+        active = true;
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &e" + (resume ? "Resuming" : "Starting")
+                + " the migration of player UUIDs to &fBINARY&e storage."));
+    }
+    /**
+     * Copies the next batch of rows and stores the new position and the number of skipped
+     * rows in the same transaction.
+     *
+     * @param connection The connection.
+     * @return True if rows remain to be copied.
+     */
+    public boolean copyBatch(Connection connection) throws SQLException {
+        if (tableIndex >= TABLES.length) {
+            return false;
+        }
+        int copiedTable = tableIndex;
+        String table = TABLES[copiedTable][0];
+        String idColumn = TABLES[copiedTable][1];
+        String query = idColumn == null
+                ? "SELECT * FROM " + table + " WHERE uuid > ? ORDER BY uuid LIMIT ?"
+                : "SELECT * FROM " + table + " WHERE uuid > ? OR (uuid = ? AND " + idColumn + " > ?) ORDER BY uuid, " + idColumn + " LIMIT ?";
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            int copied = 0;
+            int skippedRows = 0;
+            String lastUuid = cursor;
+            int lastId = cursorId;
+            try (PreparedStatement select = connection.prepareStatement(query)) {
+                int index = 1;
+                select.setString(index++, cursor);
+                if (idColumn != null) {
+                    select.setString(index++, cursor);
+                    select.setInt(index++, cursorId);
+                }
+                select.setInt(index, batchSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    PreparedStatement insert = null;
+                    try {
+                        while (rs.next()) {
+                            if (insert == null) {
+                                insert = connection.prepareStatement(buildInsert(table + TARGET_SUFFIX, rs.getMetaData()));
+                            }
+                            if (copyRow(rs, insert)) {
+                                insert.addBatch();
+                            } else {
+                                skippedRows++;
+                            }
+                            lastUuid = rs.getString("uuid");
+                            lastId = idColumn == null ? Integer.MIN_VALUE : rs.getInt(idColumn);
+                            copied++;
+                        }
+                        if (insert != null) {
+                            insert.executeBatch();
+                        }
+                    } finally {
+                        if (insert != null) {
+                            insert.close();
+                        }
+                    }
+                }
+            }
+
+            if (copied < batchSize) {
+                tableIndex++;
+                cursor = "";
+                cursorId = Integer.MIN_VALUE;
+            } else {
+                cursor = lastUuid;
+                cursorId = lastId;
+            }
+            SchemaUtil.writeMeta(connection, TABLE_KEY, String.valueOf(tableIndex));
+            SchemaUtil.writeMeta(connection, CURSOR_KEY, cursor);
+            SchemaUtil.writeMeta(connection, CURSOR_ID_KEY, String.valueOf(cursorId));
+            SchemaUtil.writeMeta(connection, SKIPPED_KEY + table, String.valueOf(skipped[copiedTable] + skippedRows));
+            connection.commit();
+            skipped[copiedTable] += skippedRows;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return tableIndex < TABLES.length;
+    }
+    /**
+     * Copies the players written to during the migration again, checks the row counts and
+     * replaces the original tables. Rows skipped for an invalid UUID are left out of the
+     * count. Must run while no other database operation runs.
+     *
+     * @param connection The connection.
+     * @return True if the tables now use binary UUIDs.
+     */
+    public boolean finish(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String[] table : TABLES) {
+                recopy(connection, table[0]);
+            }
+            for (int i = 0; i < TABLES.length; i++) {
+                String[] table = TABLES[i];
+                long source = count(connection, table[0]) - skipped[i];
+                long target = count(connection, table[0] + TARGET_SUFFIX);
+                if (source != target) {
+                    connection.rollback();
+                    SchemaUtil.writeMeta(connection, CLEAN_STOP_KEY, "false");
+                    connection.commit();
+                    active = false;
+                    Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUUID migration of &f" + table[0]
+                            + "&c copied " + target + " of " + source + " rows, it will start over on the next restart."));
+                    return false;
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        if (dialect == SqlDialect.MYSQL) {
+            swapMySQL(connection);
+        } else {
+            swapSQLite(connection);
+        }
+        dirtyPlayers.clear();
+        active = false;
+        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &ePlayer UUIDs are now stored as &fBINARY&e."));
+        return true;
+    }
+    /**
+     * Remembers a player whose rows are written while the migration runs.
+     *
+     * @param playerUUID UUID of the player
+     */
+    public void markDirty(UUID playerUUID) {
+        if (active) {
+            dirtyPlayers.add(playerUUID);
+        }
+    }
+    /**
+     * Stores the players written to so far and marks the stop as clean, so the next start
+     * can resume instead of starting over.
+     *
+     * @param connection The connection.
+     */
+    public void suspend(Connection connection) throws SQLException {
+        if (!active) {
+            return;
+        }
+        String insert = (dialect == SqlDialect.MYSQL ? "INSERT IGNORE INTO " : "INSERT OR IGNORE INTO ") + "uuid_migration_dirty (uuid) VALUES (?)";
+        try (PreparedStatement ps = connection.prepareStatement(insert)) {
+            for (UUID playerUUID : dirtyPlayers) {
+                ps.setString(1, playerUUID.toString());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        SchemaUtil.writeMeta(connection, CLEAN_STOP_KEY, "true");
+        active = false;
+    }
+    /**
+     * Checks whether the migration is running.
+     *
+     * @return True if rows are being copied.
+     */
+    public boolean isActive() {
+        return active;
+    }
+    /**
+     * Replaces the rows of every dirty player in a shadow table with the current rows.
+     *
+     * @param connection The connection.
+     * @param table      The original table.
+     */
+    private void recopy(Connection connection, String table) throws SQLException {
+        if (dirtyPlayers.isEmpty()) {
+            return;
+        }
+        String target = table + TARGET_SUFFIX;
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + target + " WHERE uuid = ?");
+             PreparedStatement select = connection.prepareStatement("SELECT * FROM " + table + " WHERE uuid = ?")) {
+            PreparedStatement insert = null;
+            try {
+                for (UUID playerUUID : dirtyPlayers) {
+                    UuidFormat.BINARY.bind(delete, 1, playerUUID);
+                    delete.addBatch();
+                    UuidFormat.TEXT.bind(select, 1, playerUUID);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            if (insert == null) {
+                                insert = connection.prepareStatement(buildInsert(target, rs.getMetaData()));
+                            }
+                            if (copyRow(rs, insert)) {
+                                insert.addBatch();
+                            }
+                        }
+                    }
+                }
+                delete.executeBatch();
+                if (insert != null) {
+                    insert.executeBatch();
+                }
+            } finally {
+                if (insert != null) {
+                    insert.close();
+                }
+            }
+        }
+    }
+    /**
+     * Copies the current row into the insert statement, converting the UUID column.
+     *
+     * @param rs     The source row.
+     * @param insert The insert statement built by {@link #buildInsert(String, ResultSetMetaData)}.
+     * @return False if the row holds an invalid UUID and was skipped.
+     */
+    private boolean copyRow(ResultSet rs, PreparedStatement insert) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if ("uuid".equalsIgnoreCase(metaData.getColumnName(column))) {
+                String value = rs.getString(column);
+                try {
+                    UuidFormat.BINARY.bind(insert, column, UUID.fromString(value));
+                } catch (IllegalArgumentException e) {
+                    Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cSkipping row with invalid UUID &f" + value + "&c."));
+                    return false;
+                }
+            } else {
+                insert.setObject(column, rs.getObject(column));
+            }
+        }
+        return true;
+    }
+    /**
+     * Builds an insert for every column of a result set.
+     *
+     * @param table    The target table.
+     * @param metaData The result set metadata.
+     * @return The insert statement.
+     */
+    private String buildInsert(String table, ResultSetMetaData metaData) throws SQLException {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            columns.add(metaData.getColumnName(column));
+            values.add("?");
+        }
+        return "REPLACE INTO " + table + " (" + columns + ") VALUES (" + values + ")";
+    }
+    /**
+     * Creates a shadow table with the same columns as the original and a binary UUID column.
+     * MySQL copies the indexes as well, SQLite indexes are recreated when the tables are swapped.
+     *
+     * @param connection The connection.
+     * @param table      The original table.
+     * @param target     The shadow table.
+     */
+    private void createTarget(Connection connection, String table, String target) throws SQLException {
+        if (dialect == SqlDialect.MYSQL) {
+            SchemaUtil.execute(connection, "CREATE TABLE " + target + " LIKE " + table);
+            SchemaUtil.execute(connection, "ALTER TABLE " + target + " MODIFY uuid BINARY(16) NOT NULL");
+            return;
+        }
+        String definition;
+        try (PreparedStatement ps = connection.prepareStatement("SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Table " + table + " does not exist");
+                }
+                definition = rs.getString("sql");
+            }
+        }
+        definition = definition
+                .replaceFirst("(?is)^CREATE\\s+TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?[\"`\\[]?" + table + "[\"`\\]]?", "CREATE TABLE " + target)
+                .replaceFirst("(?i)\\buuid\\s+TEXT\\b", "uuid BLOB");
+        SchemaUtil.execute(connection, definition);
+    }
+    /**
+     * Replaces the MySQL tables in one atomic rename, then drops the originals.
+     *
+     * @param connection The connection.
+     */
+    private void swapMySQL(Connection connection) throws SQLException {
+        StringJoiner renames = new StringJoiner(", ", "RENAME TABLE ", "");
+        for (String[] table : TABLES) {
+            renames.add(table[0] + " TO " + table[0] + "_text, " + table[0] + TARGET_SUFFIX + " TO " + table[0]);
+        }
+        SchemaUtil.execute(connection, renames.toString());
+        SchemaUtil.writeMeta(connection, FORMAT_KEY, UuidFormat.BINARY.name());
+        clearProgress(connection);
+        for (String[] table : TABLES) {
+            SchemaUtil.execute(connection, "DROP TABLE " + table[0] + "_text");
+        }
+    }
+    /**
+     * Replaces the SQLite tables in one transaction, recreating the indexes of the originals.
+     *
+     * @param connection The connection.
+     */
+    private void swapSQLite(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (String[] table : TABLES) {
+                List<String> indexes = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "SELECT sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL")) {
+                    ps.setString(1, table[0]);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            indexes.add(rs.getString("sql"));
+                        }
+                    }
+                }
+                SchemaUtil.execute(connection, "DROP TABLE " + table[0]);
+                SchemaUtil.execute(connection, "ALTER TABLE " + table[0] + TARGET_SUFFIX + " RENAME TO " + table[0]);
+                for (String index : indexes) {
+                    SchemaUtil.execute(connection, index);
+                }
+            }
+            SchemaUtil.writeMeta(connection, FORMAT_KEY, UuidFormat.BINARY.name());
+            clearProgress(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    /**
+     * Removes the migration position from storage_meta.
+     *
+     * @param connection The connection.
+     */
+    private void clearProgress(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM storage_meta WHERE meta_key LIKE 'uuid_migration.%'")) {
+            ps.executeUpdate();
+        }
+        SchemaUtil.execute(connection, "DELETE FROM uuid_migration_dirty");
+    }
+    /**
+     * Counts the rows of a table.
+     *
+     * @param connection The connection.
+     * @param table      The table.
+     * @return The number of rows.
+     */
+    private long count(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+}
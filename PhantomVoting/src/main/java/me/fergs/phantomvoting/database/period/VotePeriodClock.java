@@ -0,0 +1,109 @@
+package me.fergs.phantomvoting.database.period;
+
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.time.*;
+
+/**
+ * Calculates the calendar periods votes are counted in. Days start at midnight in the
+ * configured time zone, weeks on the configured day, months on the first of the month and
+ * years on the first of January.
+ */
+public class VotePeriodClock {
+    /**
+     * The leaderboards that are reset at the end of every period.
+     */
+    public static final LeaderboardType[] PERIODS = {LeaderboardType.DAILY, LeaderboardType.WEEKLY, LeaderboardType.MONTHLY, LeaderboardType.YEARLY};
+    private final ZoneId zone;
+    private final DayOfWeek firstDayOfWeek;
+    /**
+     * Creates a new VotePeriodClock instance.
+     *
+     * @param zone           The time zone periods are aligned to.
+     * @param firstDayOfWeek The day weeks start on.
+     */
+    public VotePeriodClock(ZoneId zone, DayOfWeek firstDayOfWeek) {
+        this.zone = zone;
+        this.firstDayOfWeek = firstDayOfWeek;
+    }
+    /**
+     * Creates a clock from the period settings. Invalid values fall back to the server's
+     * time zone and Monday.
+     *
+     * @param section The period settings, may be null.
+     * @return The clock.
+     */
+    public static VotePeriodClock fromConfig(ConfigurationSection section) {
+        ZoneId zone = ZoneId.systemDefault();
+        DayOfWeek firstDayOfWeek = DayOfWeek.MONDAY;
+        if (section == null) {
+            return new VotePeriodClock(zone, firstDayOfWeek);
+        }
+        String zoneName = section.getString("time-zone", "");
+        if (!zoneName.isEmpty()) {
+            try {
+                zone = ZoneId.of(zoneName);
+            } catch (DateTimeException e) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUnknown time zone &f" + zoneName + "&c, using the server time zone."));
+            }
+        }
+        String dayName = section.getString("first-day-of-week", "MONDAY");
+        try {
+            firstDayOfWeek = DayOfWeek.valueOf(dayName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUnknown day &f" + dayName + "&c, weeks start on &fMONDAY&c."));
+        }
+        return new VotePeriodClock(zone, firstDayOfWeek);
+    }
+    /**
+     * Gets the start of the period containing a time.
+     *
+     * @param period The period.
+     * @param now    The time in epoch milliseconds.
+     * @return The period start in epoch milliseconds.
+     */
+    public long getPeriodStart(LeaderboardType period, long now) {
+        return toEpochMillis(period.getPeriodStart(toDate(now), firstDayOfWeek));
+    }
+    /**
+     * Gets the start of the period after the one containing a time.
+     *
+     * @param period The period.
+     * @param now    The time in epoch milliseconds.
+     * @return The next period start in epoch milliseconds.
+     */
+    public long getNextPeriodStart(LeaderboardType period, long now) {
+        return toEpochMillis(period.getNextPeriodStart(period.getPeriodStart(toDate(now), firstDayOfWeek)));
+    }
+    /**
+     * Gets the day of a time, used for vote streaks.
+     *
+     * @param epochMillis The time in epoch milliseconds.
+     * @return The epoch day.
+     */
+    public long toEpochDay(long epochMillis) {
+        int offsetSeconds = zone.getRules().getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        return Math.floorDiv(epochMillis + offsetSeconds * 1000L, 86_400_000L);
+    }
+    /**
+     * Gets the date of a time.
+     *
+     * @param epochMillis The time in epoch milliseconds.
+     * @return The date.
+     */
+    private LocalDate toDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+    }
+    /**
+     * Gets the time a day starts at.
+     *
+     * @param day The day.
+     * @return The start of the day in epoch milliseconds.
+     */
+    private long toEpochMillis(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,113 @@
+package me.fergs.phantomvoting.database.period;
+
+import me.fergs.phantomvoting.database.migration.SchemaUtil;
+import me.fergs.phantomvoting.database.migration.UuidLayoutMigration;
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.enums.UuidFormat;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.sql.*;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resets a vote period for every player at once. The counts are cleared with a single
+ * set-based update, optionally after copying them into vote_period_archive, and the start
+ * of the new period is recorded in storage_meta so resets missed while the server was
+ * offline are caught up on the next start.
+ */
+public class VotePeriodReset {
+    /**
+     * The storage_meta key prefix holding the start of each period's last reset.
+     */
+    public static final String META_PREFIX = "period_reset.";
+    private static final String SHADOW_TABLE = "player_votes" + UuidLayoutMigration.TARGET_SUFFIX;
+    private final boolean archive;
+    /**
+     * Creates a new VotePeriodReset instance.
+     *
+     * @param archive True to copy the counts into vote_period_archive before clearing them.
+     */
+    public VotePeriodReset(boolean archive) {
+        this.archive = archive;
+    }
+    /**
+     * Loads the start of the current period of every vote period as of its last reset.
+     *
+     * @param connection The connection.
+     * @return The period starts in epoch milliseconds, {@link TimeUtil#NONE} for periods never reset.
+     */
+    public static Map<LeaderboardType, Long> loadPeriodStarts(Connection connection) throws SQLException {
+        Map<String, String> meta = SchemaUtil.readMeta(connection);
+        Map<LeaderboardType, Long> periodStarts = new EnumMap<>(LeaderboardType.class);
+        for (LeaderboardType period : VotePeriodClock.PERIODS) {
+            String value = meta.get(META_PREFIX + period.getIdentifier());
+            periodStarts.put(period, value == null ? TimeUtil.NONE : Long.parseLong(value));
+        }
+        return periodStarts;
+    }
+    /**
+     * Archives and clears the counts of a period. The caller manages the transaction.
+     *
+     * @param connection  The connection.
+     * @param period      The period to reset.
+     * @param endedStart  The start of the period that ended, {@link TimeUtil#NONE} if unknown.
+     * @param newStart    The start of the new period.
+     * @param uuidFormat  The format player_votes stores UUIDs in.
+     * @return The number of players whose count was cleared.
+     */
+    public int reset(Connection connection, LeaderboardType period, long endedStart, long newStart, UuidFormat uuidFormat) throws SQLException {
+        String column = period.getIdentifier() + "_count";
+        if (archive && endedStart != TimeUtil.NONE) {
+            archive(connection, period, endedStart, uuidFormat);
+        }
+        int cleared = clear(connection, "player_votes", column);
+        if (SchemaUtil.tableExists(connection, SHADOW_TABLE)) {
+            clear(connection, SHADOW_TABLE, column);
+        }
+        SchemaUtil.writeMeta(connection, META_PREFIX + period.getIdentifier(), String.valueOf(newStart));
+        return cleared;
+    }
+    /**
+     * Clears a count column. The condition is split so the leaderboard index on the column
+     * can be used instead of scanning every row.
+     *
+     * @param connection The connection.
+     * @param table      The table.
+     * @param column     The count column.
+     * @return The number of cleared rows.
+     */
+    private int clear(Connection connection, String table, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            return stmt.executeUpdate("UPDATE " + table + " SET " + column + " = 0 WHERE " + column + " > 0 OR " + column + " < 0");
+        }
+    }
+    /**
+     * Copies every non-zero count of a period into vote_period_archive.
+     *
+     * @param connection  The connection.
+     * @param period      The period.
+     * @param periodStart The start of the archived period.
+     * @param uuidFormat  The format player_votes stores UUIDs in.
+     */
+    private void archive(Connection connection, LeaderboardType period, long periodStart, UuidFormat uuidFormat) throws SQLException {
+        String column = period.getIdentifier() + "_count";
+        String insert = "REPLACE INTO vote_period_archive (period, period_start, uuid, vote_count) VALUES (?, ?, ?, ?)";
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT uuid, " + column + " FROM player_votes WHERE " + column + " > 0");
+             PreparedStatement pstmt = connection.prepareStatement(insert)) {
+            int batched = 0;
+            while (rs.next()) {
+                pstmt.setString(1, period.getIdentifier());
+                pstmt.setLong(2, periodStart);
+                pstmt.setString(3, uuidFormat.read(rs, "uuid").toString());
+                pstmt.setInt(4, rs.getInt(column));
+                pstmt.addBatch();
+                if (++batched % 1000 == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package me.fergs.phantomvoting.enums;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public enum HistoryPartition {
+    /**
+     * One vote_events table per day.
+     */
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd")) {
+        @Override
+        public LocalDate getFirstDay(LocalDate day) {
+            return day;
+        }
+
+        @Override
+        public LocalDate getLastDay(LocalDate day) {
+            return day;
+        }
+    },
+    /**
+     * One vote_events table per month.
+     */
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM")) {
+        @Override
+        public LocalDate getFirstDay(LocalDate day) {
+            return day.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate getLastDay(LocalDate day) {
+            return day.withDayOfMonth(day.lengthOfMonth());
+        }
+    };
+
+    private final DateTimeFormatter suffixFormat;
+
+    HistoryPartition(DateTimeFormatter suffixFormat) {
+        this.suffixFormat = suffixFormat;
+    }
+    /**
+     * Gets the first day of the partition holding a day.
+     *
+     * @param day The day.
+     * @return The first day.
+     */
+    public abstract LocalDate getFirstDay(LocalDate day);
+    /**
+     * Gets the last day of the partition holding a day.
+     *
+     * @param day The day.
+     * @return The last day.
+     */
+    public abstract LocalDate getLastDay(LocalDate day);
+    /**
+     * Gets the table of the partition holding a day.
+     *
+     * @param day The day.
+     * @return The table name, e.g. "vote_events_202601".
+     */
+    public String getTableName(LocalDate day) {
+        return "vote_events_" + suffixFormat.format(day);
+    }
+    /**
+     * Gets the partition with the given name, ignoring case.
+     *
+     * @param name     The configured name.
+     * @param fallback The partition to use if the name is unknown.
+     * @return The partition.
+     */
+    public static HistoryPartition fromName(String name, HistoryPartition fallback) {
+        for (HistoryPartition partition : values()) {
+            if (partition.name().equalsIgnoreCase(name)) {
+                return partition;
+            }
+        }
+        return fallback;
+    }
+}
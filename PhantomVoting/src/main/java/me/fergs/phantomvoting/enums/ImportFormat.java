@@ -0,0 +1,104 @@
+package me.fergs.phantomvoting.enums;
+
+import me.fergs.phantomvoting.database.importer.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+public enum ImportFormat {
+    /**
+     * VotingPlugin's MySQL or SQLite user table. Its SQLite table is named "Users".
+     */
+    VOTINGPLUGIN("VotingPlugin_Users", new ColumnMapping("uuid", "DailyTotal", "WeeklyTotal", "MonthTotal", null, "AllTimeTotal", "DayVoteStreak", null)) {
+        @Override
+        public ImportSource create(String source, String table, ColumnMapping mapping) throws IOException, SQLException {
+            return new JdbcImportSource(source, table, mapping);
+        }
+    },
+    /**
+     * VotingPlugin's flat file storage, one YAML file per player named by UUID.
+     */
+    VOTINGPLUGIN_FLATFILE("", new ColumnMapping(null, "DailyTotal", "WeeklyTotal", "MonthTotal", null, "AllTimeTotal", "DayVoteStreak", null)) {
+        @Override
+        public ImportSource create(String source, String table, ColumnMapping mapping) throws IOException {
+            return new YamlImportSource(new File(source), mapping);
+        }
+    },
+    /**
+     * SuperbVote's MySQL table, which only keeps the all-time count and the last vote.
+     */
+    SUPERBVOTE("votes", new ColumnMapping("uuid", null, null, null, null, "votes", null, "last_vote")) {
+        @Override
+        public ImportSource create(String source, String table, ColumnMapping mapping) throws IOException, SQLException {
+            return new JdbcImportSource(source, table, mapping);
+        }
+    },
+    /**
+     * Any SQL table, using PhantomVoting's own column names unless configured otherwise.
+     */
+    SQL("player_votes", new ColumnMapping("uuid", "daily_count", "weekly_count", "monthly_count", "yearly_count", "all_time_count", "streak_count", "last_vote_day")) {
+        @Override
+        public ImportSource create(String source, String table, ColumnMapping mapping) throws IOException, SQLException {
+            return new JdbcImportSource(source, table, mapping);
+        }
+    },
+    /**
+     * A comma separated file with a header line, using PhantomVoting's column names unless
+     * configured otherwise.
+     */
+    CSV("", new ColumnMapping("uuid", "daily_count", "weekly_count", "monthly_count", "yearly_count", "all_time_count", "streak_count", "last_vote_day")) {
+        @Override
+        public ImportSource create(String source, String table, ColumnMapping mapping) throws IOException {
+            return new CsvImportSource(Paths.get(source), mapping);
+        }
+    };
+
+    private final String defaultTable;
+    private final ColumnMapping defaultMapping;
+
+    ImportFormat(String defaultTable, ColumnMapping defaultMapping) {
+        this.defaultTable = defaultTable;
+        this.defaultMapping = defaultMapping;
+    }
+    /**
+     * Opens a source of this format.
+     *
+     * @param source  The JDBC URL of SQL formats, the file or folder of flat file formats.
+     * @param table   The table of SQL formats.
+     * @param mapping The column mapping.
+     * @return The source.
+     */
+    public abstract ImportSource create(String source, String table, ColumnMapping mapping) throws IOException, SQLException;
+    /**
+     * Gets the table read when none is configured.
+     *
+     * @return The table, empty for flat file formats.
+     */
+    public String getDefaultTable() {
+        return defaultTable;
+    }
+    /**
+     * Gets the column names used when none are configured.
+     *
+     * @return The mapping.
+     */
+    public ColumnMapping getDefaultMapping() {
+        return defaultMapping;
+    }
+    /**
+     * Gets the import format from its name.
+     *
+     * @param name The name, case insensitive.
+     * @return The format, or null if none matches.
+     */
+    public static ImportFormat fromName(String name) {
+        for (ImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package me.fergs.phantomvoting.enums;
+
+public enum ImportMode {
+    /**
+     * Imported votes are added to the player's existing counts, and the streak of
+     * whichever side voted last is kept.
+     */
+    ADD,
+    /**
+     * Imported records overwrite the player's existing record.
+     */
+    REPLACE;
+    /**
+     * Gets the import mode from its name.
+     *
+     * @param name         The name, case insensitive.
+     * @param defaultValue The mode to use if the name is unknown.
+     * @return The import mode.
+     */
+    public static ImportMode fromName(String name, ImportMode defaultValue) {
+        for (ImportMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        return defaultValue;
+    }
+}
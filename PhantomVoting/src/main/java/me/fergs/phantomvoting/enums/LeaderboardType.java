@@ -0,0 +1,125 @@
+package me.fergs.phantomvoting.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum LeaderboardType {
+    /**
+     * The leaderboard of the daily vote count.
+     */
+    DAILY("daily") {
+        @Override
+        public LocalDate getPeriodStart(LocalDate day, DayOfWeek firstDayOfWeek) {
+            return day;
+        }
+
+        @Override
+        public LocalDate getNextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusDays(1);
+        }
+    },
+    /**
+     * The leaderboard of the weekly vote count.
+     */
+    WEEKLY("weekly") {
+        @Override
+        public LocalDate getPeriodStart(LocalDate day, DayOfWeek firstDayOfWeek) {
+            return day.with(TemporalAdjusters.previousOrSame(firstDayOfWeek));
+        }
+
+        @Override
+        public LocalDate getNextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusWeeks(1);
+        }
+    },
+    /**
+     * The leaderboard of the monthly vote count.
+     */
+    MONTHLY("monthly") {
+        @Override
+        public LocalDate getPeriodStart(LocalDate day, DayOfWeek firstDayOfWeek) {
+            return day.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate getNextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusMonths(1);
+        }
+    },
+    /**
+     * The leaderboard of the yearly vote count.
+     */
+    YEARLY("yearly") {
+        @Override
+        public LocalDate getPeriodStart(LocalDate day, DayOfWeek firstDayOfWeek) {
+            return day.withDayOfYear(1);
+        }
+
+        @Override
+        public LocalDate getNextPeriodStart(LocalDate periodStart) {
+            return periodStart.plusYears(1);
+        }
+    },
+    /**
+     * The leaderboard of the all-time vote count.
+     */
+    ALL_TIME("all_time"),
+    /**
+     * The leaderboard of the vote streak.
+     */
+    STREAK("streak");
+    /**
+     * The identifier for the leaderboard.
+     */
+    private final String identifier;
+    /**
+     * Creates a new leaderboard type.
+     *
+     * @param identifier The identifier for the leaderboard.
+     */
+    LeaderboardType(String identifier) {
+        this.identifier = identifier;
+    }
+    /**
+     * Gets the identifier for the leaderboard.
+     *
+     * @return The identifier for the leaderboard.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+    /**
+     * Gets the first day of the calendar period containing a day.
+     *
+     * @param day            The day.
+     * @param firstDayOfWeek The day weeks start on.
+     * @return The first day of the period, or null if the leaderboard is not reset periodically.
+     */
+    public LocalDate getPeriodStart(LocalDate day, DayOfWeek firstDayOfWeek) {
+        return null;
+    }
+    /**
+     * Gets the first day of the period after the one starting on the given day.
+     *
+     * @param periodStart The first day of a period.
+     * @return The first day of the next period, or null if the leaderboard is not reset periodically.
+     */
+    public LocalDate getNextPeriodStart(LocalDate periodStart) {
+        return null;
+    }
+    /**
+     * Gets the leaderboard type from an identifier.
+     *
+     * @param identifier The identifier to get the leaderboard type for.
+     * @return The leaderboard type, or null if not found.
+     */
+    public static LeaderboardType fromIdentifier(String identifier) {
+        for (LeaderboardType type : values()) {
+            if (type.getIdentifier().equalsIgnoreCase(identifier)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
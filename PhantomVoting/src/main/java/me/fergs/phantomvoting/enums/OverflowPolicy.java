@@ -0,0 +1,32 @@
+package me.fergs.phantomvoting.enums;
+
+public enum OverflowPolicy {
+    /**
+     * The vote is processed right away on the thread that received it, like before the
+     * vote pipeline existed. No vote is lost, but a burst slows that thread down.
+     */
+    CALLER_RUNS,
+    /**
+     * The new vote is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * The vote that has waited longest is dropped to make room for the new one.
+     */
+    DROP_OLDEST;
+    /**
+     * Gets the overflow policy from its name.
+     *
+     * @param name         The name, case insensitive.
+     * @param defaultValue The policy to use if the name is unknown.
+     * @return The overflow policy.
+     */
+    public static OverflowPolicy fromName(String name, OverflowPolicy defaultValue) {
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,39 @@
+package me.fergs.phantomvoting.enums;
+
+public enum PipelineStage {
+    /**
+     * Waiting in the queue for the pipeline worker.
+     */
+    QUEUE("queue"),
+    /**
+     * Checking the vote sent by the vote site.
+     */
+    VALIDATE("validate"),
+    /**
+     * Waiting for the vote storage to commit the vote, handed over by the worker.
+     */
+    STORE("store"),
+    /**
+     * Waiting for the main thread.
+     */
+    MAIN_THREAD("main-thread"),
+    /**
+     * Picking the reward commands and queuing them with the messages and sound, on the
+     * main thread.
+     */
+    PLAN("plan");
+
+    private final String identifier;
+
+    PipelineStage(String identifier) {
+        this.identifier = identifier;
+    }
+    /**
+     * Gets the name shown in the pipeline status.
+     *
+     * @return The identifier.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+}
@@ -1,19 +1,21 @@
 package me.fergs.phantomvoting.enums;
 
-import me.fergs.phantomvoting.database.VoteStorage;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
 import me.fergs.phantomvoting.managers.VotePartyManager;
 import me.fergs.phantomvoting.objects.PlayerVoteData;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.concurrent.CompletableFuture;
+
 public enum PlaceholderType {
     /**
      * The placeholder type for the player's total vote count.
      */
     DAILY_VOTES("daily_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerVoteCount(player.getUniqueId(), "daily"));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerVoteCount(player.getUniqueId(), "daily").thenApply(String::valueOf);
         }
     },
     /**
@@ -21,8 +23,8 @@ public enum PlaceholderType {
      */
     WEEKLY_VOTES("weekly_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerVoteCount(player.getUniqueId(), "weekly"));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerVoteCount(player.getUniqueId(), "weekly").thenApply(String::valueOf);
         }
     },
     /**
@@ -30,8 +32,8 @@ public enum PlaceholderType {
      */
     MONTHLY_VOTES("monthly_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerVoteCount(player.getUniqueId(), "monthly"));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerVoteCount(player.getUniqueId(), "monthly").thenApply(String::valueOf);
         }
     },
     /**
@@ -39,8 +41,8 @@ public enum PlaceholderType {
      */
     YEARLY_VOTES("yearly_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerVoteCount(player.getUniqueId(), "yearly"));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerVoteCount(player.getUniqueId(), "yearly").thenApply(String::valueOf);
         }
     },
     /**
@@ -48,8 +50,8 @@ public enum PlaceholderType {
      */
     ALL_TIME_VOTES("all_time_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerVoteCount(player.getUniqueId(), "all_time"));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerVoteCount(player.getUniqueId(), "all_time").thenApply(String::valueOf);
         }
     },
     /**
@@ -57,8 +59,8 @@ public enum PlaceholderType {
      */
     VOTE_PARTY_COUNT("vote_party_count") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(votePartyManager.getCurrentVoteCount());
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return CompletableFuture.completedFuture(String.valueOf(votePartyManager.getCurrentVoteCount()));
         }
     },
     /**
@@ -66,8 +68,8 @@ public enum PlaceholderType {
      */
     VOTE_STREAK("vote_streak") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerStreak(player.getUniqueId()));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerStreak(player.getUniqueId()).thenApply(String::valueOf);
         }
     },
     /**
@@ -75,8 +77,8 @@ public enum PlaceholderType {
      */
     PLAYER_POSITION("player_position") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(voteStorage.getPlayerPosition(player.getUniqueId()));
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return voteStorage.getPlayerPosition(player.getUniqueId()).thenApply(String::valueOf);
         }
     },
     /**
@@ -84,8 +86,8 @@ public enum PlaceholderType {
      */
     VOTE_PARTY_THRESHOLD("vote_party_threshold") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(votePartyManager.getVoteThreshold());
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return CompletableFuture.completedFuture(String.valueOf(votePartyManager.getVoteThreshold()));
         }
     },
     /**
@@ -93,40 +95,30 @@ public enum PlaceholderType {
      */
     VOTE_UNTIL_PARTY("vote_until_party") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            return String.valueOf(votePartyManager.getVoteThreshold() - votePartyManager.getCurrentVoteCount());
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            return CompletableFuture.completedFuture(String.valueOf(votePartyManager.getVoteThreshold() - votePartyManager.getCurrentVoteCount()));
         }
     },
     /**
-     * The placeholder type for the top player's name at a specific position.
+     * The placeholder type for the top player's name at a specific position,
+     * e.g. top_player_3 for all-time or top_player_weekly_3 for a single leaderboard.
      */
     TOP_PLAYER("top_player") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            if (extra == null) return "None";
-            try {
-                int position = Integer.parseInt(extra);
-                PlayerVoteData data = voteStorage.getTopPlayerAt(position);
-                return data != null ? Bukkit.getOfflinePlayer(data.getUuid()).getName() : "None";
-            } catch (NumberFormatException e) {
-                return "None";
-            }
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            PlayerVoteData data = getTopEntry(voteStorage, extra);
+            return CompletableFuture.completedFuture(data != null ? Bukkit.getOfflinePlayer(data.getUuid()).getName() : "None");
         }
     },
     /**
-     * The placeholder type for the top player's vote count at a specific position.
+     * The placeholder type for the top player's vote count at a specific position,
+     * e.g. top_votes_3 for all-time or top_votes_weekly_3 for a single leaderboard.
      */
     TOP_VOTES("top_votes") {
         @Override
-        public String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
-            if (extra == null) return "None";
-            try {
-                int position = Integer.parseInt(extra);
-                PlayerVoteData data = voteStorage.getTopPlayerAt(position);
-                return data != null ? String.valueOf(data.getVoteCount()) : "0";
-            } catch (NumberFormatException e) {
-                return "0";
-            }
+        public CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra) {
+            PlayerVoteData data = getTopEntry(voteStorage, extra);
+            return CompletableFuture.completedFuture(data != null ? String.valueOf(data.getVoteCount()) : "0");
         }
     };
     /**
@@ -156,9 +148,9 @@ public enum PlaceholderType {
      * @param votePartyManager The vote party manager instance.
      * @param player           The player to get the value for.
      * @param extra            Any extra data to use.
-     * @return The value for the placeholder.
+     * @return A future completed with the value for the placeholder.
      */
-    public abstract String getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra);
+    public abstract CompletableFuture<String> getValue(VoteStorage voteStorage, VotePartyManager votePartyManager, Player player, String extra);
     /**
      * Gets the placeholder type from an identifier.
      *
@@ -173,4 +165,22 @@ public enum PlaceholderType {
         }
         return null;
     }
+    /**
+     * Gets the leaderboard entry referenced by a top placeholder.
+     *
+     * @param voteStorage The vote storage instance.
+     * @param extra       The leaderboard and position, e.g. "3" or "weekly_3".
+     * @return The entry, or null if the placeholder is invalid or the position is empty.
+     */
+    private static PlayerVoteData getTopEntry(VoteStorage voteStorage, String extra) {
+        if (extra == null) return null;
+        int separator = extra.lastIndexOf('_');
+        LeaderboardType type = separator < 0 ? LeaderboardType.ALL_TIME : LeaderboardType.fromIdentifier(extra.substring(0, separator));
+        if (type == null) return null;
+        try {
+            return voteStorage.getTopPlayerAt(type, Integer.parseInt(extra.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
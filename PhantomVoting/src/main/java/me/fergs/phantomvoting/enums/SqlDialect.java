@@ -0,0 +1,102 @@
+package me.fergs.phantomvoting.enums;
+
+public enum SqlDialect {
+    /**
+     * SQLite, stored in a single file in the plugin folder.
+     */
+    SQLITE("sqlite", "SQLite"),
+    /**
+     * MySQL and MariaDB.
+     */
+    MYSQL("mysql", "MySQL"),
+    /**
+     * Embedded H2, running in MySQL compatibility mode so the shared REPLACE INTO
+     * statements work unchanged. Vote upserts use MERGE ... USING instead of the
+     * INSERT forms of the other dialects.
+     */
+    H2("h2", "H2");
+
+    private final String name;
+    private final String displayName;
+
+    SqlDialect(String name, String displayName) {
+        this.name = name;
+        this.displayName = displayName;
+    }
+    /**
+     * Gets the name of the folder holding the dialect's migration scripts.
+     *
+     * @return The dialect name.
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * Gets the name shown in log messages.
+     *
+     * @return The display name.
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+    /**
+     * Gets the column type used for integers.
+     *
+     * @return The integer column type.
+     */
+    public String getIntegerType() {
+        return this == SQLITE ? "INTEGER" : "INT";
+    }
+    /**
+     * Gets the column type used for date-times in schemas created before epoch timestamps.
+     *
+     * @return The date-time column type.
+     */
+    public String getDateTimeType() {
+        return this == SQLITE ? "TEXT" : "DATETIME";
+    }
+    /**
+     * Gets the column type used for packed binary values.
+     *
+     * @param maxBytes The longest value stored.
+     * @return The binary column type.
+     */
+    public String getBinaryType(int maxBytes) {
+        return this == SQLITE ? "BLOB" : "VARBINARY(" + maxBytes + ")";
+    }
+    /**
+     * Checks whether the player UUIDs can be migrated to binary storage.
+     *
+     * @return True if the UUID migration supports the dialect.
+     */
+    public boolean supportsUuidMigration() {
+        return this != H2;
+    }
+    /**
+     * Gets the fetch size that makes a query stream its rows instead of reading them all
+     * into memory. MySQL Connector/J only streams with {@link Integer#MIN_VALUE}.
+     *
+     * @return The fetch size.
+     */
+    public int getStreamingFetchSize() {
+        return this == MYSQL ? Integer.MIN_VALUE : 1000;
+    }
+    /**
+     * Gets the dialect of a JDBC URL.
+     *
+     * @param url The JDBC URL.
+     * @return The dialect, or null if the URL is not for a supported database.
+     */
+    public static SqlDialect fromUrl(String url) {
+        if (url.startsWith("jdbc:sqlite:")) {
+            return SQLITE;
+        }
+        if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            return MYSQL;
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return H2;
+        }
+        return null;
+    }
+}
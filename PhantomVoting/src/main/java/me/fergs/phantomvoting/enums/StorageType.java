@@ -0,0 +1,108 @@
+package me.fergs.phantomvoting.enums;
+
+import me.fergs.phantomvoting.config.YamlConfigFile;
+import me.fergs.phantomvoting.database.impl.h2.H2Impl;
+import me.fergs.phantomvoting.database.impl.log.LogImpl;
+import me.fergs.phantomvoting.database.impl.memory.MemoryImpl;
+import me.fergs.phantomvoting.database.impl.mysql.MySQLImpl;
+import me.fergs.phantomvoting.database.impl.sqlite.SQLiteImpl;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+public enum StorageType {
+    /**
+     * A SQLite file in the plugin folder.
+     */
+    SQLITE("SQLITE") {
+        @Override
+        public VoteStorage create(String dataFolder, ConfigurationSection storageSection) {
+            return new SQLiteImpl(dataFolder, storageSection);
+        }
+    },
+    /**
+     * A MySQL or MariaDB server.
+     */
+    SQL("SQL", "MYSQL", "MARIADB") {
+        @Override
+        public VoteStorage create(String dataFolder, ConfigurationSection storageSection) {
+            return new MySQLImpl(storageSection);
+        }
+    },
+    /**
+     * An embedded H2 database in the plugin folder.
+     */
+    H2("H2") {
+        @Override
+        public VoteStorage create(String dataFolder, ConfigurationSection storageSection) {
+            return new H2Impl(dataFolder, storageSection);
+        }
+    },
+    /**
+     * An append-only vote log with snapshots in the plugin folder.
+     */
+    LOG("LOG") {
+        @Override
+        public VoteStorage create(String dataFolder, ConfigurationSection storageSection) {
+            return new LogImpl(dataFolder, storageSection);
+        }
+    },
+    /**
+     * Memory only, nothing is stored across restarts.
+     */
+    MEMORY("MEMORY") {
+        @Override
+        public VoteStorage create(String dataFolder, ConfigurationSection storageSection) {
+            return new MemoryImpl(storageSection);
+        }
+    };
+
+    private final String[] names;
+
+    StorageType(String... names) {
+        this.names = names;
+    }
+    /**
+     * Creates the storage backend of this type.
+     *
+     * @param dataFolder     The plugin's data folder.
+     * @param storageSection The "Storage-Settings" section of the storage configuration.
+     * @return The storage backend.
+     */
+    public abstract VoteStorage create(String dataFolder, ConfigurationSection storageSection);
+    /**
+     * Gets the storage type with the given configured name, ignoring case.
+     *
+     * @param name The configured name.
+     * @return The storage type, or null if none matches.
+     */
+    public static StorageType fromName(String name) {
+        for (StorageType type : values()) {
+            for (String typeName : type.names) {
+                if (typeName.equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+    /**
+     * Creates the storage backend configured in the storage configuration, falling back to
+     * SQLite if the configured type is unknown.
+     *
+     * @param dataFolder    The plugin's data folder.
+     * @param storageConfig The storage configuration.
+     * @return The storage backend.
+     */
+    public static VoteStorage create(String dataFolder, YamlConfigFile storageConfig) {
+        ConfigurationSection storageSection = storageConfig.getConfigurationSection("Storage-Settings");
+        String name = storageSection.getString("type", "SQLITE");
+        StorageType type = fromName(name);
+        if (type == null) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUnknown storage type &f" + name + "&c, using &fSQLITE&c."));
+            type = SQLITE;
+        }
+        return type.create(dataFolder, storageSection);
+    }
+}
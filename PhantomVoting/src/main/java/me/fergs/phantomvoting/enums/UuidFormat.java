@@ -0,0 +1,93 @@
+package me.fergs.phantomvoting.enums;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public enum UuidFormat {
+    /**
+     * UUIDs stored as their 36 character string form.
+     */
+    TEXT {
+        @Override
+        public void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+            statement.setString(index, uuid.toString());
+        }
+
+        @Override
+        public UUID read(ResultSet resultSet, String column) throws SQLException {
+            return UUID.fromString(resultSet.getString(column));
+        }
+    },
+    /**
+     * UUIDs stored as 16 raw bytes, most significant bits first.
+     */
+    BINARY {
+        @Override
+        public void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+            statement.setBytes(index, toBytes(uuid));
+        }
+
+        @Override
+        public UUID read(ResultSet resultSet, String column) throws SQLException {
+            return fromBytes(resultSet.getBytes(column));
+        }
+    };
+    /**
+     * Binds a UUID to a statement parameter.
+     *
+     * @param statement The statement.
+     * @param index     The parameter index.
+     * @param uuid      The UUID to bind.
+     * @throws SQLException If the parameter cannot be set.
+     */
+    public abstract void bind(PreparedStatement statement, int index, UUID uuid) throws SQLException;
+    /**
+     * Reads a UUID from the current row of a result set.
+     *
+     * @param resultSet The result set.
+     * @param column    The column holding the UUID.
+     * @return The UUID.
+     * @throws SQLException If the column cannot be read.
+     */
+    public abstract UUID read(ResultSet resultSet, String column) throws SQLException;
+    /**
+     * Converts a UUID to its 16 byte form.
+     *
+     * @param uuid The UUID.
+     * @return The bytes.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+    /**
+     * Converts 16 bytes back to a UUID.
+     *
+     * @param bytes The bytes.
+     * @return The UUID.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    /**
+     * Gets the UUID format from its name.
+     *
+     * @param name         The name, case insensitive.
+     * @param defaultValue The format to use if the name is unknown.
+     * @return The UUID format.
+     */
+    public static UuidFormat fromName(String name, UuidFormat defaultValue) {
+        for (UuidFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -2,6 +2,7 @@ package me.fergs.phantomvoting.inventories;
 
 import me.fergs.phantomvoting.PhantomVoting;
 import me.fergs.phantomvoting.config.YamlConfigFile;
+import me.fergs.phantomvoting.enums.LeaderboardType;
 import me.fergs.phantomvoting.inventories.holders.LeaderboardInventoryHolder;
 import me.fergs.phantomvoting.inventories.interfaces.InventoryInterface;
 import me.fergs.phantomvoting.objects.InventoryFiller;
@@ -31,7 +32,8 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
     private List<InventoryFiller> fillers = new ArrayList<>();
     private ItemStack nullHeadItem;
     private YamlConfigFile config;
-    private List<PlayerVoteData> cachedTopPlayers = new ArrayList<>();
+    private Map<Integer, LeaderboardType> tabSlots = new HashMap<>();
+    private Map<LeaderboardType, List<PlayerVoteData>> cachedTopPlayers = new EnumMap<>(LeaderboardType.class);
     private final Map<UUID, String> playerNameCache = new HashMap<>();
     /**
      * Creates a new leaderboard inventory.
@@ -55,6 +57,25 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
         this.nullHeadItem = InventoryUtil.createItem(config, "Leaderboard.null-head");
 
         loadFillers();
+        loadTabs();
+    }
+    /**
+     * Loads the leaderboard tabs from the configuration.
+     */
+    private void loadTabs() {
+        tabSlots = new HashMap<>();
+        ConfigurationSection tabsSection = config.getConfigurationSection("Leaderboard.tabs");
+        if (tabsSection == null) {
+            return;
+        }
+        for (String tabKey : tabsSection.getKeys(false)) {
+            LeaderboardType type = LeaderboardType.fromIdentifier(tabKey);
+            if (type == null) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cUnknown leaderboard tab &f" + tabKey + "&c in menus/leaderboard.yml."));
+                continue;
+            }
+            tabSlots.put(tabsSection.getInt(tabKey + ".slot"), type);
+        }
     }
     /**
      * Creates the inventory.
@@ -64,20 +85,35 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
      */
     @Override
     public Inventory createInventory(Player player) {
-        LeaderboardInventoryHolder holder = new LeaderboardInventoryHolder(inventoryTitle);
+        return createInventory(player, LeaderboardType.ALL_TIME);
+    }
+    /**
+     * Creates the inventory showing a leaderboard.
+     *
+     * @param player The player.
+     * @param type   The leaderboard to show.
+     * @return The inventory.
+     */
+    public Inventory createInventory(Player player, LeaderboardType type) {
+        LeaderboardInventoryHolder holder = new LeaderboardInventoryHolder(inventoryTitle, type);
         Inventory inventory = Bukkit.createInventory(holder, inventorySize, inventoryTitle);
         fillers.forEach(filler -> {
             filler.getSlots().forEach(slots -> {
                 slots.forEach(slot -> inventory.setItem(slot, filler.getItem()));
             });
         });
+        tabSlots.forEach((slot, tabType) -> inventory.setItem(slot, InventoryUtil.createItem(
+                config,
+                "Leaderboard.tabs." + tabType.getIdentifier(),
+                "%status%", config.getString(tabType == type ? "Leaderboard.tab-status.selected" : "Leaderboard.tab-status.unselected", ""))));
+        List<PlayerVoteData> topPlayers = cachedTopPlayers.getOrDefault(type, Collections.emptyList());
         int slotIndex = 0;
         for (String slotRange : playerSlots) {
             List<Integer> slots = InventoryUtil.parseSlotRange(slotRange);
             for (Integer slot : slots) {
-                if (slotIndex < cachedTopPlayers.size()) {
-                    PlayerVoteData playerData = cachedTopPlayers.get(slotIndex);
-                    ItemStack playerItem = createPlayerItem(playerData);
+                if (slotIndex < topPlayers.size()) {
+                    PlayerVoteData playerData = topPlayers.get(slotIndex);
+                    ItemStack playerItem = createPlayerItem(playerData, slotIndex + 1);
                     inventory.setItem(slot, playerItem);
                 } else {
                     inventory.setItem(slot, nullHeadItem != null ? nullHeadItem : new ItemStack(Material.BEDROCK));
@@ -85,16 +121,35 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
                 slotIndex++;
             }
         }
-        int playerPosition = plugin.getVoteStorage().getPlayerPosition(player.getUniqueId());
-        ItemStack positionItem = InventoryUtil.createItem(
-                config,
-                "Leaderboard.player-position",
-                "%position%", String.valueOf(playerPosition),
-                "%refresh_time%", FormatUtil.formatTimeStamp((getNextRefreshTime() - (System.currentTimeMillis() / 1000))),
-                "%player%", getPlayerName(player.getUniqueId()));
-        inventory.setItem(config.getInt("Leaderboard.player-position.slot"), positionItem);
+        plugin.getVoteStorage().getPlayerPosition(player.getUniqueId()).thenAcceptAsync(playerPosition -> {
+            ItemStack positionItem = InventoryUtil.createItem(
+                    config,
+                    "Leaderboard.player-position",
+                    "%position%", String.valueOf(playerPosition),
+                    "%refresh_time%", FormatUtil.formatTimeStamp((getNextRefreshTime() - (System.currentTimeMillis() / 1000))),
+                    "%player%", getPlayerName(player.getUniqueId()));
+            inventory.setItem(config.getInt("Leaderboard.player-position.slot"), positionItem);
+        }, SchedulerUtil.mainThread(plugin));
         return inventory;
     }
+    /**
+     * Opens a leaderboard for the player.
+     *
+     * @param player The player.
+     * @param type   The leaderboard to show.
+     */
+    public void open(Player player, LeaderboardType type) {
+        player.openInventory(createInventory(player, type));
+    }
+    /**
+     * Gets the leaderboard shown by the tab in a slot.
+     *
+     * @param slot The slot.
+     * @return The leaderboard type, or null if the slot holds no tab.
+     */
+    public LeaderboardType getTab(int slot) {
+        return tabSlots.get(slot);
+    }
     /**
      * Starts refreshing the leaderboard.
      */
@@ -104,13 +159,18 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
             public void run() {
                 refreshLeaderboardData();
             }
-        }.runTaskTimerAsynchronously(plugin, 0L, refreshInterval * 20L);
+        }.runTaskTimer(plugin, 0L, refreshInterval * 20L);
     }
     /**
-     * Refreshes the leaderboard data and updates the cached top players.
+     * Refreshes the leaderboard data and updates the cached top players of every leaderboard.
+     * The leaderboards are kept in memory by the vote storage, so this does not query the database.
      */
     private void refreshLeaderboardData() {
-        cachedTopPlayers = plugin.getVoteStorage().getTopPlayers();
+        Map<LeaderboardType, List<PlayerVoteData>> topPlayers = new EnumMap<>(LeaderboardType.class);
+        for (LeaderboardType type : LeaderboardType.values()) {
+            topPlayers.put(type, plugin.getVoteStorage().getTopPlayers(type));
+        }
+        cachedTopPlayers = topPlayers;
         plugin.getMessageManager().broadcastMessage("LEADERBOARD_REFRESH");
         lastRefreshTime = System.currentTimeMillis();
     }
@@ -118,12 +178,12 @@ public class LeaderboardInventory<T extends PhantomVoting> implements InventoryI
      * Creates a player item for the leaderboard.
      *
      * @param playerData The player data.
+     * @param position   The position on the leaderboard.
      * @return The player item.
      */
-    private ItemStack createPlayerItem(PlayerVoteData playerData) {
+    private ItemStack createPlayerItem(PlayerVoteData playerData, int position) {
         UUID uuid = playerData.getUuid();
         String playerName = getPlayerName(uuid);
-        int position = cachedTopPlayers.indexOf(playerData) + 1;
         int votes    = playerData.getVoteCount();
 
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
@@ -8,6 +8,7 @@ import me.fergs.phantomvoting.objects.InventoryFiller;
 import me.fergs.phantomvoting.utils.Color;
 import me.fergs.phantomvoting.utils.InventoryUtil;
 import me.fergs.phantomvoting.utils.ItemBuilder;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
@@ -97,29 +98,6 @@ public class MilestonesInventory implements InventoryInterface {
                         range.forEach(idx -> inv.setItem(idx, filler.getItem()))
                 ));
 
-        List<Runnable> tasks = new ArrayList<>();
-        int playerVotes = plugin.getVoteStorage().getPlayerVoteCount(playerUUID, "all_time");
-
-        for (String key : menuSec.getKeys(false)) {
-            ConfigurationSection ms = menuSec.getConfigurationSection(key);
-            int page = ms.getInt("page",1);
-            if (page != currentPage) continue;
-
-            int required = ms.getInt("required-votes");
-            boolean claimed = plugin.getVoteStorage()
-                    .isMilestoneClaimed(playerUUID, Integer.parseInt(key.substring(1)));
-            String state = claimed ? "Claimed"
-                    : (playerVotes >= required ? "Available" : "Locked");
-            ConfigurationSection itemSec = ms.getConfigurationSection(state);
-            if (itemSec == null) continue;
-
-            ItemStack item = loadItem(itemSec, required);
-            int slot = ms.getInt("slot", -1);
-            if (slot >= 0 && slot < inventorySize) {
-                tasks.add(() -> inv.setItem(slot, item));
-            }
-        }
-
         if (isPagesEnabled) {
             inv.setItem(PREV_SLOT, prevPageItem);
             inv.setItem(NEXT_SLOT, nextPageItem);
@@ -128,17 +106,42 @@ public class MilestonesInventory implements InventoryInterface {
         boolean useDelay = config.getBoolean("Milestones.settings.use-delay", false);
         long delayTicks = config.getLong("Milestones.settings.delay-ticks", 10L);
 
-        if (useDelay) {
-            new BukkitRunnable() {
-                int i = 0;
-                @Override public void run() {
-                    if (i >= tasks.size()) { cancel(); return; }
-                    tasks.get(i++).run();
+        plugin.getVoteStorage().loadClaims(playerUUID)
+                .thenCompose(ignored -> plugin.getVoteStorage().getPlayerVoteCount(playerUUID, "all_time"))
+                .thenAcceptAsync(playerVotes -> {
+            List<Runnable> tasks = new ArrayList<>();
+            for (String key : menuSec.getKeys(false)) {
+                ConfigurationSection ms = menuSec.getConfigurationSection(key);
+                int page = ms.getInt("page",1);
+                if (page != currentPage) continue;
+
+                int required = ms.getInt("required-votes");
+                boolean claimed = plugin.getVoteStorage()
+                        .isMilestoneClaimed(playerUUID, Integer.parseInt(key.substring(1)));
+                String state = claimed ? "Claimed"
+                        : (playerVotes >= required ? "Available" : "Locked");
+                ConfigurationSection itemSec = ms.getConfigurationSection(state);
+                if (itemSec == null) continue;
+
+                ItemStack item = loadItem(itemSec, required);
+                int slot = ms.getInt("slot", -1);
+                if (slot >= 0 && slot < inventorySize) {
+                    tasks.add(() -> inv.setItem(slot, item));
                 }
-            }.runTaskTimerAsynchronously(plugin, 0, delayTicks);
-        } else {
-            tasks.forEach(Runnable::run);
-        }
+            }
+
+            if (useDelay) {
+                new BukkitRunnable() {
+                    int i = 0;
+                    @Override public void run() {
+                        if (i >= tasks.size()) { cancel(); return; }
+                        tasks.get(i++).run();
+                    }
+                }.runTaskTimer(plugin, 0, delayTicks);
+            } else {
+                tasks.forEach(Runnable::run);
+            }
+        }, SchedulerUtil.mainThread(plugin));
 
         return inv;
     }
@@ -8,6 +8,7 @@ import me.fergs.phantomvoting.objects.InventoryFiller;
 import me.fergs.phantomvoting.utils.Color;
 import me.fergs.phantomvoting.utils.InventoryUtil;
 import me.fergs.phantomvoting.utils.ItemBuilder;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
@@ -115,9 +116,10 @@ public class StreaksInventory implements InventoryInterface {
         boolean delayEnabled = config.getBoolean("Streaks.settings.use-delay", false);
         long delayTicks = config.getLong("Streaks.settings.delay-ticks", 10L);
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        plugin.getVoteStorage().loadClaims(playerUUID)
+                .thenCompose(ignored -> plugin.getVoteStorage().getPlayerStreak(playerUUID))
+                .thenAcceptAsync(playerStreak -> {
             List<Runnable> tasks = new ArrayList<>();
-            int playerStreak = plugin.getVoteStorage().getPlayerStreak(playerUUID);
             for (String key : menuSec.getKeys(false)) {
                 ConfigurationSection milestoneConfig = menuSec.getConfigurationSection(key);
                 int page = milestoneConfig.getInt("page",1);
@@ -140,25 +142,23 @@ public class StreaksInventory implements InventoryInterface {
                 }
             }
 
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                if (delayEnabled) {
-                    new BukkitRunnable() {
-                        private int index = 0;
-                        @Override
-                        public void run() {
-                            if (index >= tasks.size()) {
-                                cancel();
-                                return;
-                            }
-                            tasks.get(index).run();
-                            index++;
+            if (delayEnabled) {
+                new BukkitRunnable() {
+                    private int index = 0;
+                    @Override
+                    public void run() {
+                        if (index >= tasks.size()) {
+                            cancel();
+                            return;
                         }
-                    }.runTaskTimerAsynchronously(plugin, 0, delayTicks);
-                } else {
-                    tasks.forEach(Runnable::run);
-                }
-            });
-        });
+                        tasks.get(index).run();
+                        index++;
+                    }
+                }.runTaskTimer(plugin, 0, delayTicks);
+            } else {
+                tasks.forEach(Runnable::run);
+            }
+        }, SchedulerUtil.mainThread(plugin));
         return inv;
     }
     /**
@@ -1,18 +1,30 @@
 package me.fergs.phantomvoting.inventories.holders;
 
+import me.fergs.phantomvoting.enums.LeaderboardType;
 import org.bukkit.event.Listener;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 
 public class LeaderboardInventoryHolder implements InventoryHolder, Listener {
     private final String title;
+    private final LeaderboardType type;
     /**
      * Creates a new leaderboard inventory holder.
      *
      * @param title The title of the inventory.
+     * @param type  The leaderboard shown in the inventory.
      */
-    public LeaderboardInventoryHolder(String title) {
+    public LeaderboardInventoryHolder(String title, LeaderboardType type) {
         this.title = title;
+        this.type = type;
+    }
+    /**
+     * Gets the leaderboard shown in the inventory.
+     *
+     * @return The leaderboard type.
+     */
+    public LeaderboardType getType() {
+        return type;
     }
     /**
      * Gets the title of the inventory.
@@ -1,9 +1,11 @@
 package me.fergs.phantomvoting.listeners;
 
 import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.enums.LeaderboardType;
 import me.fergs.phantomvoting.inventories.holders.LeaderboardInventoryHolder;
 import me.fergs.phantomvoting.inventories.holders.MilestonesInventoryHolder;
 import me.fergs.phantomvoting.inventories.holders.StreaksInventoryHolder;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -14,7 +16,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.sql.SQLException;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -28,6 +29,7 @@ public class InventoryClickListener implements Listener {
     public void onInventoryClick(InventoryClickEvent event) {
         if (event.getView().getTopInventory().getHolder() instanceof LeaderboardInventoryHolder) {
             event.setCancelled(true);
+            handleLeaderboardClick(event);
             return;
         }
 
@@ -40,6 +42,22 @@ public class InventoryClickListener implements Listener {
             handleStreakClick(event);
         }
     }
+    /**
+     * Handles clicks in the Leaderboard inventory, switching tabs.
+     *
+     * @param event The InventoryClickEvent.
+     */
+    private void handleLeaderboardClick(InventoryClickEvent event) {
+        if (event.getClickedInventory() != event.getView().getTopInventory()) return;
+
+        LeaderboardInventoryHolder holder = (LeaderboardInventoryHolder) event.getView().getTopInventory().getHolder();
+        LeaderboardType type = PhantomVoting.getInstance().getLeaderboardInventory().getTab(event.getSlot());
+        if (type == null || type == holder.getType()) return;
+
+        final Player player = (Player) event.getWhoClicked();
+        PhantomVoting.getInstance().getLeaderboardInventory().open(player, type);
+        player.playSound(player, Sound.BLOCK_LEVER_CLICK, 0.7f, 0.5f);
+    }
     /**
      * Handles clicks in the Milestones inventory.
      *
@@ -76,7 +94,6 @@ public class InventoryClickListener implements Listener {
 
         int clickedSlot = event.getSlot();
         if (clickedSlot < 0) return;
-        int playerVotes = plugin.getVoteStorage().getPlayerVoteCount(playerUUID, "all_time");
 
         menuSection.getKeys(false).stream()
                 .map(menuSection::getConfigurationSection)
@@ -84,34 +101,34 @@ public class InventoryClickListener implements Listener {
                 .filter( milestoneConfig -> milestoneConfig.getInt("page", 1) == holder.getPage())
                 .filter(milestoneConfig -> milestoneConfig.getInt("slot", -1) == clickedSlot)
                 .findFirst()
-                .ifPresent(milestoneConfig -> {
-                    try {
-                        int requiredVotes = milestoneConfig.getInt("required-votes");
-                        int milestoneIndex = Integer.parseInt(milestoneConfig.getName().substring(1));
-                        boolean isClaimed = plugin.getVoteStorage().isMilestoneClaimed(playerUUID, milestoneIndex);
-                        if (isClaimed) {
-                            plugin.getMessageManager().sendMessage(player, "MILESTONE_ALREADY_CLAIMED");
-                        } else if (playerVotes < requiredVotes) {
-                            plugin.getMessageManager().sendMessage(player, "MILESTONE_NOT_ENOUGH_VOTES", "%required_votes%", String.valueOf(requiredVotes));
-                        } else {
-                            milestoneConfig.getStringList("Available.commands").forEach(command ->
-                                    plugin.getServer().dispatchCommand(
-                                            plugin.getServer().getConsoleSender(),
-                                            command.replace("%player%", player.getName())
-                                    )
-                            );
-
-                            plugin.getVoteStorage().claimMilestone(playerUUID, milestoneIndex);
-
-                            player.openInventory(plugin.getMilestonesInventory().createInventory(player));
-
-                            plugin.getMessageManager().sendMessage(player, "MILESTONE_CLAIMED");
-                        }
-                    } catch (SQLException e) {
-                        Bukkit.getLogger().warning("An error occurred for player " + player.getName() + " while claiming a milestone");
-                        e.printStackTrace();
+                .ifPresent(milestoneConfig -> plugin.getVoteStorage().loadClaims(playerUUID)
+                        .thenCompose(ignored -> plugin.getVoteStorage().getPlayerVoteCount(playerUUID, "all_time"))
+                        .thenAcceptAsync(playerVotes -> {
+                    int requiredVotes = milestoneConfig.getInt("required-votes");
+                    int milestoneIndex = Integer.parseInt(milestoneConfig.getName().substring(1));
+                    boolean isClaimed = plugin.getVoteStorage().isMilestoneClaimed(playerUUID, milestoneIndex);
+                    if (isClaimed) {
+                        plugin.getMessageManager().sendMessage(player, "MILESTONE_ALREADY_CLAIMED");
+                    } else if (playerVotes < requiredVotes) {
+                        plugin.getMessageManager().sendMessage(player, "MILESTONE_NOT_ENOUGH_VOTES", "%required_votes%", String.valueOf(requiredVotes));
+                    } else {
+                        milestoneConfig.getStringList("Available.commands").forEach(command ->
+                                plugin.getServer().dispatchCommand(
+                                        plugin.getServer().getConsoleSender(),
+                                        command.replace("%player%", player.getName())
+                                )
+                        );
+
+                        plugin.getVoteStorage().claimMilestone(playerUUID, milestoneIndex).exceptionally(throwable -> {
+                            Bukkit.getLogger().warning("An error occurred for player " + player.getName() + " while claiming a milestone");
+                            return null;
+                        });
+
+                        player.openInventory(plugin.getMilestonesInventory().createInventory(player));
+
+                        plugin.getMessageManager().sendMessage(player, "MILESTONE_CLAIMED");
                     }
-                });
+                }, SchedulerUtil.mainThread(plugin)));
     }
 
     /**
@@ -151,15 +168,15 @@ public class InventoryClickListener implements Listener {
         int clickedSlot = event.getSlot();
         if (clickedSlot < 0) return;
 
-        int playerStreaks = plugin.getVoteStorage().getPlayerStreak(playerUUID);
-
         streakMenuSection.getKeys(false).stream()
                 .map(streakMenuSection::getConfigurationSection)
                 .filter(Objects::nonNull)
                 .filter(streakConfig -> streakConfig.getInt("page", 1) == holder.getPage())
                 .filter(streakConfig -> streakConfig.getInt("slot", -1) == clickedSlot)
                 .findFirst()
-                .ifPresent(streakConfig -> {
+                .ifPresent(streakConfig -> plugin.getVoteStorage().loadClaims(playerUUID)
+                        .thenCompose(ignored -> plugin.getVoteStorage().getPlayerStreak(playerUUID))
+                        .thenAcceptAsync(playerStreaks -> {
                     int requiredStreaks = streakConfig.getInt("streak-required");
                     int streakIndex = Integer.parseInt(streakConfig.getName().substring(1));
                     boolean isClaimed = plugin.getVoteStorage().isStreakClaimed(playerUUID, streakIndex);
@@ -181,6 +198,6 @@ public class InventoryClickListener implements Listener {
 
                         plugin.getMessageManager().sendMessage(player, "STREAK_CLAIMED");
                     }
-                });
+                }, SchedulerUtil.mainThread(plugin)));
     }
 }
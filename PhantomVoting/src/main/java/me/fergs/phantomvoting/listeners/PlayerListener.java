@@ -2,19 +2,34 @@ package me.fergs.phantomvoting.listeners;
 
 import me.fergs.phantomvoting.PhantomVoting;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 public class PlayerListener implements Listener {
+    /**
+     * Event handler for when a player is about to log in.
+     * Loads the player's vote record while the login is still being processed.
+     *
+     * @param event the event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        PhantomVoting.getInstance().getVoteStorage().loadPlayer(event.getUniqueId());
+    }
     /**
      * Event handler for when a player joins the server.
+     * Delivers the votes received while the player was offline.
      *
      * @param event the event
      */
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         PhantomVoting.getInstance().getPlayerManager().addPlayer(event.getPlayer());
+        PhantomVoting.getInstance().getVoteIntakeManager().deliverOfflineVotes(event.getPlayer());
     }
     /**
      * Event handler for when a player leaves the server.
@@ -24,5 +39,9 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onPlayerLeave(PlayerQuitEvent event) {
         PhantomVoting.getInstance().getPlayerManager().removePlayer(event.getPlayer());
+        PhantomVoting.getInstance().getVoteStorage().unloadPlayer(event.getPlayer().getUniqueId());
+        if (PhantomVoting.getInstance().getPlaceholderManager() != null) {
+            PhantomVoting.getInstance().getPlaceholderManager().invalidate(event.getPlayer().getUniqueId());
+        }
     }
 }
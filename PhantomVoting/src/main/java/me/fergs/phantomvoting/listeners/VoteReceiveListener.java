@@ -1,75 +1,67 @@
 package me.fergs.phantomvoting.listeners;
 
+import com.vexsoftware.votifier.model.Vote;
 import com.vexsoftware.votifier.model.VotifierEvent;
 import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.objects.VoteEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.Sound;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
+import java.util.UUID;
 
 /**
  * A listener for handling vote events.
  */
 public class VoteReceiveListener implements Listener {
-
-    final Random random = new Random();
+    private static final boolean CACHED_LOOKUP = hasCachedLookup();
 
     /**
-     * Handles a vote event.
+     * Handles a vote event by handing the vote to the vote pipeline.
      *
      * @param event the vote event
      */
     @EventHandler
     public void onVoteReceive(VotifierEvent event) {
-        final String playerName = event.getVote().getUsername();
-        final Player player = Bukkit.getPlayer(playerName);
-        if (player == null) return;
-
-        PhantomVoting.getInstance().getVoteStorage().addVote(player.getUniqueId());
-
-        PhantomVoting.getInstance().getMessageManager().broadcastMessage("VOTE_RECEIVED", "%player%", playerName);
-
-        final Set<String> defaultCommands = new HashSet<>(PhantomVoting.getInstance().getConfigurationManager().getConfig("config").getStringList("Rewards.Default.Commands"));
-        for (final String command : defaultCommands) {
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command.replace("%player%", playerName));
-        }
-
-        if (PhantomVoting.getInstance().getConfigurationManager().getConfig("config").getBoolean("Sound.enabled")) {
-            String soundType = PhantomVoting.getInstance().getConfigurationManager().getConfig("config").getString("Sound.soundType");
-            assert soundType != null;
-            if (!soundType.isEmpty()) {
-                player.playSound(player, Sound.valueOf(soundType), 1.0f, 1.0f);
-            }
-        }
+        final Vote vote = event.getVote();
+        final String playerName = vote.getUsername();
+        final Player player = playerName == null ? null : Bukkit.getPlayer(playerName);
+        final long receivedAt = vote.getLocalTimestamp() > 0 ? vote.getLocalTimestamp() : System.currentTimeMillis();
+        final UUID playerUUID = player != null ? player.getUniqueId() : findKnownUUID(playerName);
+        PhantomVoting.getInstance().getVotePipeline().submit(player,
+                new VoteEvent(playerUUID, playerName, vote.getServiceName(), vote.getAddress(), receivedAt));
+    }
 
-        final ConfigurationSection voteRewardsSection = PhantomVoting.getInstance().getConfigurationManager().getConfig("config").getConfigurationSection("Rewards.VoteRewards");
-        if (voteRewardsSection != null) {
-            for (final String rewardKey : voteRewardsSection.getKeys(false)) {
-                ConfigurationSection rewardSection = voteRewardsSection.getConfigurationSection(rewardKey);
-                assert rewardSection != null;
-                boolean hasPermissionString = rewardSection.contains("Permission");
-                double chance = rewardSection.getDouble("Chance", 100);
-                if (hasPermissionString && !player.hasPermission(rewardSection.getString("Permission", "phantomvoting.default"))) {
-                    continue;
-                }
-                if (random.nextInt(100) + 1 <= chance) {
-                    final Set<String> rewardCommands = new HashSet<>(rewardSection.getStringList("Commands"));
-                    for (final String command : rewardCommands) {
-                        Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command.replace("%player%", playerName));
-                    }
-                }
-            }
+    /**
+     * Finds the UUID of a player who is not online, if the server already knows them. It is
+     * never looked up, so on servers without a cached lookup the queued vote is matched by
+     * name only.
+     *
+     * @param playerName the name sent by the vote site
+     * @return the UUID, or null if it is not known
+     */
+    private static UUID findKnownUUID(String playerName) {
+        if (!CACHED_LOOKUP || playerName == null) {
+            return null;
         }
+        OfflinePlayer known = Bukkit.getOfflinePlayerIfCached(playerName);
+        return known == null ? null : known.getUniqueId();
+    }
 
-        PhantomVoting.getInstance().getVotePartyManager().addVote();
-        if (PhantomVoting.getInstance().getConfigurationManager().isModuleEnabled("bossbar")) {
-            PhantomVoting.getInstance().getBossbarManager().update();
+    /**
+     * Checks if the server can look up known players by name without a web request, which
+     * only Paper and its forks can.
+     *
+     * @return true if the cached lookup is available
+     */
+    private static boolean hasCachedLookup() {
+        try {
+            Bukkit.class.getMethod("getOfflinePlayerIfCached", String.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
         }
     }
 }
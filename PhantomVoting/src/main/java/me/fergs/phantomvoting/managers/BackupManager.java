@@ -0,0 +1,171 @@
+package me.fergs.phantomvoting.managers;
+
+import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.database.backup.VoteBackupReader;
+import me.fergs.phantomvoting.database.backup.VoteBackupWriter;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.enums.StorageType;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Writes backups of the vote storage to the "backups" folder, restores them and migrates
+ * the stored votes to another storage type. Every operation runs off the main thread and
+ * streams the data, so the server keeps running while it completes.
+ */
+public class BackupManager {
+    private static final String EXTENSION = ".pvb";
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_.-]+");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private final PhantomVoting plugin;
+    private final Path directory;
+    private final Executor async;
+    /**
+     * Creates a new BackupManager instance.
+     *
+     * @param plugin The plugin instance.
+     */
+    public BackupManager(PhantomVoting plugin) {
+        this.plugin = plugin;
+        this.directory = plugin.getDataFolder().toPath().resolve("backups");
+        this.async = SchedulerUtil.async(plugin);
+    }
+    /**
+     * Writes a backup of the current storage.
+     *
+     * @param name The backup name, without the extension.
+     * @return A future completed with the number of rows written.
+     */
+    public CompletableFuture<Long> export(String name) {
+        return CompletableFuture.supplyAsync(() -> getFile(name), async)
+                .thenCompose(file -> export(plugin.getVoteStorage(), file));
+    }
+    /**
+     * Replaces the contents of the current storage with a backup.
+     *
+     * @param name The backup name, without the extension.
+     * @return A future completed with the number of rows restored.
+     */
+    public CompletableFuture<Long> restore(String name) {
+        return CompletableFuture.supplyAsync(() -> getFile(name), async)
+                .thenCompose(file -> restore(plugin.getVoteStorage(), file))
+                .thenApplyAsync(rows -> {
+                    plugin.getVotePartyManager().reloadVoteCount();
+                    return rows;
+                }, SchedulerUtil.mainThread(plugin));
+    }
+    /**
+     * Copies the current storage into another storage type through a backup, which is kept
+     * in the backups folder. The server keeps using the current storage until the type is
+     * changed in storage.yml and the server is restarted.
+     *
+     * @param type The storage type to copy into.
+     * @return A future completed with the number of rows copied.
+     */
+    public CompletableFuture<Long> migrate(StorageType type) {
+        ConfigurationSection storageSection = plugin.getConfigurationManager().getConfig("storage").getConfigurationSection("Storage-Settings");
+        StorageType current = StorageType.fromName(storageSection.getString("type", "SQLITE"));
+        if (type == StorageType.MEMORY || type == (current == null ? StorageType.SQLITE : current)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Cannot migrate into " + type.name()));
+        }
+        String name = "migrate-" + type.name().toLowerCase() + "-" + LocalDateTime.now().format(NAME_FORMAT);
+        return export(name).thenComposeAsync(ignored -> {
+            VoteStorage target = type.create("PhantomVoting", storageSection);
+            return restore(target, getFile(name)).whenComplete((rows, throwable) -> target.close());
+        }, async);
+    }
+    /**
+     * Streams a storage into a backup file. The file is written under a temporary name
+     * and moved into place once complete.
+     *
+     * @param storage The storage.
+     * @param file    The backup file.
+     * @return A future completed with the number of rows written.
+     */
+    private CompletableFuture<Long> export(VoteStorage storage, Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long started = System.nanoTime();
+        VoteBackupWriter writer;
+        try {
+            Files.createDirectories(directory);
+            writer = new VoteBackupWriter(temporary);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.runAsync(() -> { }, async)
+                .thenCompose(ignored -> storage.exportBackup(writer))
+                .handle((ignored, throwable) -> {
+                    try {
+                        writer.close();
+                        if (throwable == null) {
+                            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                        } else {
+                            Files.deleteIfExists(temporary);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (throwable != null) {
+                        throw new CompletionException(throwable);
+                    }
+                    Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eWrote &6" + writer.getRows() + " &erows to the backup &f"
+                            + file.getFileName() + " &ein &6" + (System.nanoTime() - started) / 1_000_000L + "ms&e."));
+                    return writer.getRows();
+                });
+    }
+    /**
+     * Streams a backup file into a storage.
+     *
+     * @param storage The storage.
+     * @param file    The backup file.
+     * @return A future completed with the number of rows restored.
+     */
+    private CompletableFuture<Long> restore(VoteStorage storage, Path file) {
+        long started = System.nanoTime();
+        VoteBackupReader reader;
+        try {
+            reader = new VoteBackupReader(file);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.runAsync(() -> { }, async)
+                .thenCompose(ignored -> storage.restoreBackup(reader))
+                .whenComplete((rows, throwable) -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    if (throwable == null) {
+                        Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eRestored &6" + rows + " &erows from the backup &f"
+                                + file.getFileName() + " &ein &6" + (System.nanoTime() - started) / 1_000_000L + "ms&e."));
+                    }
+                });
+    }
+    /**
+     * Gets the file of a backup, rejecting names that would leave the backups folder.
+     *
+     * @param name The backup name, with or without the extension.
+     * @return The backup file.
+     */
+    private Path getFile(String name) {
+        if (!NAME_PATTERN.matcher(name).matches() || name.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid backup name " + name);
+        }
+        return directory.resolve(name.endsWith(EXTENSION) ? name : name + EXTENSION);
+    }
+}
@@ -0,0 +1,116 @@
+package me.fergs.phantomvoting.managers;
+
+import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.database.importer.ColumnMapping;
+import me.fergs.phantomvoting.database.importer.ImportSource;
+import me.fergs.phantomvoting.database.importer.VoteImporter;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
+import me.fergs.phantomvoting.enums.ImportFormat;
+import me.fergs.phantomvoting.enums.ImportMode;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the imports configured in importers.yml, one at a time and off the main thread.
+ */
+public class ImportManager {
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,40}");
+    private final PhantomVoting plugin;
+    private final Executor async;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile VoteImporter active;
+    /**
+     * Creates a new ImportManager instance.
+     *
+     * @param plugin The plugin instance.
+     */
+    public ImportManager(PhantomVoting plugin) {
+        this.plugin = plugin;
+        this.async = SchedulerUtil.async(plugin);
+    }
+    /**
+     * Gets the names of the configured imports.
+     *
+     * @return The names.
+     */
+    public Set<String> getImportNames() {
+        ConfigurationSection imports = plugin.getConfigurationManager().getConfig("importers").getConfigurationSection("Imports");
+        return imports == null ? Collections.emptySet() : imports.getKeys(false);
+    }
+    /**
+     * Starts or resumes a configured import.
+     *
+     * @param name    The name of the import.
+     * @param restart True to start over from the first row, even if the import finished.
+     * @return A future completed with the importer once it has stopped.
+     */
+    public CompletableFuture<VoteImporter> start(String name, boolean restart) {
+        ConfigurationSection config = plugin.getConfigurationManager().getConfig("importers");
+        ConfigurationSection section = config.getConfigurationSection("Imports." + name);
+        if (!NAME_PATTERN.matcher(name).matches() || section == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown import " + name));
+        }
+        ImportFormat format = ImportFormat.fromName(section.getString("format", ""));
+        if (format == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown import format " + section.getString("format", "")));
+        }
+        ImportMode mode = ImportMode.fromName(section.getString("mode", "ADD"), ImportMode.ADD);
+        String source = section.getString("source", "");
+        String table = section.getString("table", "");
+        ColumnMapping mapping = format.getDefaultMapping().withOverrides(section.getConfigurationSection("columns"));
+        int batchSize = config.getInt("Settings.batch-size", 1000);
+        long progressInterval = Math.max(1L, config.getLong("Settings.progress-interval", 10L)) * 1000L;
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another import is running"));
+        }
+        VoteStorage storage = plugin.getVoteStorage();
+        return CompletableFuture.supplyAsync(() -> {
+            try (ImportSource importSource = format.create(source, table.isEmpty() ? format.getDefaultTable() : table, mapping)) {
+                if (restart) {
+                    storage.importRecords(name, Collections.emptyList(), mode, 0L).join();
+                }
+                VoteImporter importer = new VoteImporter(name, importSource, storage, mode, batchSize, progressInterval);
+                active = importer;
+                importer.run();
+                return importer;
+            } catch (IOException | SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                active = null;
+                running.set(false);
+                storage.loadLeaderboards();
+            }
+        }, async);
+    }
+    /**
+     * Stops the running import after its current batch.
+     *
+     * @return False if no import is running.
+     */
+    public boolean cancel() {
+        VoteImporter importer = active;
+        if (importer == null) {
+            return false;
+        }
+        importer.cancel();
+        return true;
+    }
+    /**
+     * Gets the running import.
+     *
+     * @return The importer, or null if no import is running.
+     */
+    public VoteImporter getActive() {
+        return active;
+    }
+}
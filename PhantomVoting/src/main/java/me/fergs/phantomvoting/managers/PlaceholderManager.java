@@ -1,17 +1,25 @@
 package me.fergs.phantomvoting.managers;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
-import me.fergs.phantomvoting.database.VoteStorage;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
 import me.fergs.phantomvoting.enums.PlaceholderType;
 import me.fergs.phantomvoting.utils.ConsoleUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class PlaceholderManager extends PlaceholderExpansion {
 
     private final VoteStorage voteStorage;
     private final VotePartyManager votePartyManager;
+    private final Map<UUID, Map<String, String>> resolvedValues = new ConcurrentHashMap<>();
+    private final Set<String> pendingRequests = ConcurrentHashMap.newKeySet();
     /**
      * Creates a new PlaceholderManager.
      *
@@ -69,7 +77,8 @@ public class PlaceholderManager extends PlaceholderExpansion {
         return true;
     }
     /**
-     * Gets the value of the placeholder.
+     * Gets the value of the placeholder. Values backed by the database are resolved
+     * asynchronously, the last resolved value is returned until the lookup completes.
      *
      * @param player     The player to get the placeholder value for.
      * @param identifier The placeholder identifier.
@@ -77,19 +86,55 @@ public class PlaceholderManager extends PlaceholderExpansion {
      */
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String identifier) {
-        if (identifier.contains("top_player")) {
-            return PlaceholderType.TOP_PLAYER.getValue(voteStorage, votePartyManager, player, identifier.substring(identifier.lastIndexOf("_") + 1));
+        if (identifier.startsWith("top_player_")) {
+            return resolve(player, identifier, PlaceholderType.TOP_PLAYER, identifier.substring("top_player_".length()));
         }
 
-        if (identifier.contains("top_votes")) {
-            return PlaceholderType.TOP_VOTES.getValue(voteStorage, votePartyManager, player, identifier.substring(identifier.lastIndexOf("_") + 1));
+        if (identifier.startsWith("top_votes_")) {
+            return resolve(player, identifier, PlaceholderType.TOP_VOTES, identifier.substring("top_votes_".length()));
         }
 
         PlaceholderType type = PlaceholderType.fromIdentifier(identifier);
-        if (type == null) {
+        if (type == null || player == null) {
             return "0";
         }
 
-        return type.getValue(voteStorage, votePartyManager, player, null);
+        return resolve(player, identifier, type, null);
+    }
+    /**
+     * Starts resolving a placeholder value unless a lookup is already in flight,
+     * and returns the most recent value known for the player.
+     *
+     * @param player     The player to resolve the value for.
+     * @param identifier The placeholder identifier.
+     * @param type       The placeholder type.
+     * @param extra      Any extra data to use.
+     * @return The most recent value, or "0" if none has been resolved yet.
+     */
+    private String resolve(Player player, String identifier, PlaceholderType type, String extra) {
+        if (player == null) {
+            return type.getValue(voteStorage, votePartyManager, null, extra).getNow("0");
+        }
+        UUID uuid = player.getUniqueId();
+        String requestKey = uuid + ":" + identifier;
+        if (pendingRequests.add(requestKey)) {
+            CompletableFuture<String> value = type.getValue(voteStorage, votePartyManager, player, extra);
+            value.whenComplete((result, throwable) -> {
+                if (result != null) {
+                    resolvedValues.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(identifier, result);
+                }
+                pendingRequests.remove(requestKey);
+            });
+        }
+        Map<String, String> values = resolvedValues.get(uuid);
+        return values == null ? "0" : values.getOrDefault(identifier, "0");
+    }
+    /**
+     * Forgets the resolved values of a player, called when the player leaves.
+     *
+     * @param uuid The UUID of the player.
+     */
+    public void invalidate(UUID uuid) {
+        resolvedValues.remove(uuid);
     }
 }
@@ -0,0 +1,364 @@
+package me.fergs.phantomvoting.managers;
+
+import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.config.YamlConfigFile;
+import me.fergs.phantomvoting.objects.voteparty.ChanceCommandGroup;
+import me.fergs.phantomvoting.objects.voteparty.PermissionCommandGroup;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans reward commands and runs them on the main thread, spread over the following ticks
+ * so a burst of rewards does not stall the server. Each tick the queued commands run until
+ * the configured time budget is used up, taking one command of each player in turn, so the
+ * commands of a player keep their order and a single vote is not stuck behind a vote party.
+ */
+public class RewardDispatcher {
+    private final PhantomVoting plugin;
+    private final Random random = new Random();
+    private final Map<String, Deque<QueuedCommand>> queuedCommands = new HashMap<>();
+    private final Deque<String> playerOrder = new ArrayDeque<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private int queued;
+    private BukkitTask drainTask;
+    /**
+     * Creates a new RewardDispatcher instance.
+     *
+     * @param plugin The plugin instance.
+     */
+    public RewardDispatcher(PhantomVoting plugin) {
+        this.plugin = plugin;
+    }
+    /**
+     * Picks the reward commands of one vote: the default commands and every vote reward
+     * the player has the permission for and wins the chance of. Duplicate commands of a
+     * reward run once, the rest run in the configured order.
+     *
+     * @param player The player who voted.
+     * @return The commands, with the player name filled in.
+     */
+    public List<String> planVoteRewards(Player player) {
+        final YamlConfigFile config = plugin.getConfigurationManager().getConfig("config");
+        final String playerName = player.getName();
+        final List<String> commands = new ArrayList<>();
+        for (final String command : new LinkedHashSet<>(config.getStringList("Rewards.Default.Commands"))) {
+            commands.add(command.replace("%player%", playerName));
+        }
+
+        final ConfigurationSection voteRewardsSection = config.getConfigurationSection("Rewards.VoteRewards");
+        if (voteRewardsSection != null) {
+            for (final String rewardKey : voteRewardsSection.getKeys(false)) {
+                ConfigurationSection rewardSection = voteRewardsSection.getConfigurationSection(rewardKey);
+                assert rewardSection != null;
+                boolean hasPermissionString = rewardSection.contains("Permission");
+                double chance = rewardSection.getDouble("Chance", 100);
+                if (hasPermissionString && !player.hasPermission(rewardSection.getString("Permission", "phantomvoting.default"))) {
+                    continue;
+                }
+                if (random.nextInt(100) + 1 <= chance) {
+                    for (final String command : new LinkedHashSet<>(rewardSection.getStringList("Commands"))) {
+                        commands.add(command.replace("%player%", playerName));
+                    }
+                }
+            }
+        }
+        return commands;
+    }
+    /**
+     * Picks the reward commands of a vote party for every player: the shared commands, the
+     * chance groups each player wins and the permission groups they have. Every distinct
+     * permission is checked once per player, when the party starts, so later permission
+     * changes do not affect rewards still waiting in the queue.
+     *
+     * @param players          The players taking part.
+     * @param commands         The commands every player gets.
+     * @param chanceGroups     The command groups given by chance.
+     * @param permissionGroups The command groups given by permission.
+     * @return The commands of each player by name, with the player name filled in.
+     */
+    public Map<String, List<String>> planPartyRewards(Collection<? extends Player> players, Collection<String> commands,
+                                                      Collection<ChanceCommandGroup> chanceGroups, Collection<PermissionCommandGroup> permissionGroups) {
+        Map<String, List<PermissionCommandGroup>> tiers = new LinkedHashMap<>();
+        for (PermissionCommandGroup group : permissionGroups) {
+            tiers.computeIfAbsent(group.getPermission(), permission -> new ArrayList<>()).add(group);
+        }
+
+        Map<String, List<String>> planned = new LinkedHashMap<>();
+        for (Player player : players) {
+            String playerName = player.getName();
+            List<String> playerCommands = new ArrayList<>();
+            for (String command : commands) {
+                playerCommands.add(command.replace("%player%", playerName));
+            }
+            for (ChanceCommandGroup group : chanceGroups) {
+                if (random.nextDouble() * 100 <= group.getChance()) {
+                    group.getCommands().forEach(command -> playerCommands.add(command.replace("%player%", playerName)));
+                }
+            }
+            for (Map.Entry<String, List<PermissionCommandGroup>> tier : tiers.entrySet()) {
+                if (tier.getKey() == null || !player.hasPermission(tier.getKey())) {
+                    continue;
+                }
+                for (PermissionCommandGroup group : tier.getValue()) {
+                    group.getCommands().forEach(command -> playerCommands.add(command.replace("%player%", playerName)));
+                }
+            }
+            planned.put(playerName, playerCommands);
+        }
+        return planned;
+    }
+    /**
+     * Queues the reward commands of one player, run in order over the following ticks.
+     * Must be called on the main thread.
+     *
+     * @param playerName The player the commands reward.
+     * @param commands   The commands to run.
+     * @return A future completed on the main thread once every command ran.
+     */
+    public CompletableFuture<Void> queue(String playerName, Collection<String> commands) {
+        CompletableFuture<Void> dispatched = new CompletableFuture<>();
+        queue(null, Collections.singletonMap(playerName, commands), dispatched);
+        return dispatched;
+    }
+    /**
+     * Queues the reward commands of several players, run over the following ticks with
+     * the commands of each player in order. A named batch reports its progress in the
+     * reward status and logs when it is done. Must be called on the main thread.
+     *
+     * @param name             The name of the batch, or null to not report it.
+     * @param commandsByPlayer The commands to run by player name.
+     */
+    public void queue(String name, Map<String, ? extends Collection<String>> commandsByPlayer) {
+        queue(name, commandsByPlayer, null);
+    }
+    /**
+     * Queues the reward commands of several players.
+     *
+     * @param name             The name of the batch, or null to not report it.
+     * @param commandsByPlayer The commands to run by player name.
+     * @param dispatched       Completed once the last queued command ran, or null.
+     */
+    private void queue(String name, Map<String, ? extends Collection<String>> commandsByPlayer, CompletableFuture<Void> dispatched) {
+        int total = 0;
+        for (Collection<String> commands : commandsByPlayer.values()) {
+            total += commands.size();
+        }
+        if (total == 0) {
+            if (dispatched != null) {
+                dispatched.complete(null);
+            }
+            return;
+        }
+        Batch batch = null;
+        if (name != null) {
+            batch = new Batch(name, total, commandsByPlayer.size());
+            batches.add(batch);
+        }
+        QueuedCommand last = null;
+        for (Map.Entry<String, ? extends Collection<String>> entry : commandsByPlayer.entrySet()) {
+            String key = entry.getKey().toLowerCase(Locale.ROOT);
+            Deque<QueuedCommand> playerCommands = queuedCommands.get(key);
+            if (playerCommands == null) {
+                playerCommands = new ArrayDeque<>();
+                queuedCommands.put(key, playerCommands);
+                playerOrder.add(key);
+            }
+            for (String command : entry.getValue()) {
+                last = new QueuedCommand(command, batch);
+                playerCommands.add(last);
+            }
+        }
+        if (last != null) {
+            last.dispatched = dispatched;
+        }
+        queued += total;
+        if (drainTask == null) {
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+    /**
+     * Runs queued commands until the time budget of this tick is used up, at least one,
+     * and stops once the queue is empty.
+     */
+    private void drain() {
+        long budget = TimeUnit.MICROSECONDS.toNanos(Math.round(Math.max(0.1,
+                plugin.getConfigurationManager().getConfig("config").getDouble("Rewards.Dispatch-Millis-Per-Tick", 5.0)) * 1000));
+        long started = System.nanoTime();
+        do {
+            String key = playerOrder.poll();
+            if (key == null) {
+                break;
+            }
+            Deque<QueuedCommand> playerCommands = queuedCommands.get(key);
+            QueuedCommand next = playerCommands.poll();
+            if (playerCommands.isEmpty()) {
+                queuedCommands.remove(key);
+            } else {
+                playerOrder.add(key);
+            }
+            queued--;
+            dispatch(next);
+            if (next.batch != null) {
+                next.batch.dispatched++;
+            }
+        } while (System.nanoTime() - started < budget);
+
+        for (Batch batch : batches) {
+            batch.ticks++;
+        }
+        batches.removeIf(batch -> {
+            if (!batch.isDone()) {
+                return false;
+            }
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eDispatched the &6" + batch.name + " &erewards: &6"
+                    + batch.total + " &ecommands for &6" + batch.players + " &eplayers over &6" + batch.ticks + " &eticks."));
+            return true;
+        });
+        if (queued == 0 && drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+    /**
+     * Runs every command still queued, called when the plugin disables so queued rewards
+     * are not lost. The stop may take longer if a vote party was still being rewarded.
+     */
+    public void close() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        if (queued > 0) {
+            Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eRunning &6" + queued + " &equeued reward commands before shutting down."));
+        }
+        String key;
+        while ((key = playerOrder.poll()) != null) {
+            Deque<QueuedCommand> playerCommands = queuedCommands.remove(key);
+            QueuedCommand next;
+            while ((next = playerCommands.poll()) != null) {
+                dispatch(next);
+            }
+        }
+        batches.clear();
+        queued = 0;
+    }
+    /**
+     * Runs a queued command and completes the future waiting for it. A command that fails
+     * counts as run, running it again would fail the same way.
+     *
+     * @param next The command.
+     */
+    private void dispatch(QueuedCommand next) {
+        try {
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), next.command);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        if (next.dispatched != null) {
+            next.dispatched.complete(null);
+        }
+    }
+    /**
+     * Gets the number of commands waiting to run.
+     *
+     * @return The number of queued commands.
+     */
+    public int getQueued() {
+        return queued;
+    }
+    /**
+     * Gets the named batches that are still running.
+     *
+     * @return The batches, oldest first.
+     */
+    public List<Batch> getBatches() {
+        return Collections.unmodifiableList(batches);
+    }
+    /**
+     * A command waiting in the queue of a player.
+     */
+    private static final class QueuedCommand {
+        private final String command;
+        private final Batch batch;
+        private CompletableFuture<Void> dispatched;
+        /**
+         * Creates a new queued command.
+         *
+         * @param command The command to run.
+         * @param batch   The batch it belongs to, or null.
+         */
+        private QueuedCommand(String command, Batch batch) {
+            this.command = command;
+            this.batch = batch;
+        }
+    }
+    /**
+     * The progress of a named group of queued commands, such as the rewards of a vote party.
+     */
+    public static final class Batch {
+        private final String name;
+        private final int total;
+        private final int players;
+        private int dispatched;
+        private int ticks;
+        /**
+         * Creates a new batch.
+         *
+         * @param name    The name of the batch.
+         * @param total   The number of commands.
+         * @param players The number of players rewarded.
+         */
+        private Batch(String name, int total, int players) {
+            this.name = name;
+            this.total = total;
+            this.players = players;
+        }
+        /**
+         * Gets the name of the batch.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+        /**
+         * Gets the number of commands in the batch.
+         *
+         * @return The total.
+         */
+        public int getTotal() {
+            return total;
+        }
+        /**
+         * Gets the number of commands that already ran.
+         *
+         * @return The dispatched commands.
+         */
+        public int getDispatched() {
+            return dispatched;
+        }
+        /**
+         * Gets the number of ticks the batch has been running for.
+         *
+         * @return The ticks.
+         */
+        public int getTicks() {
+            return ticks;
+        }
+        /**
+         * Checks if every command of the batch ran.
+         *
+         * @return True if the batch is done.
+         */
+        public boolean isDone() {
+            return dispatched >= total;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package me.fergs.phantomvoting.managers;
+
+import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.database.journal.VoteJournal;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands received votes to the vote storage through the vote journal, so a vote accepted
+ * from a vote site is not lost if the server stops before the storage commits it or before
+ * its rewards ran. When the plugin enables, votes left unstored by the last shutdown are
+ * stored again and votes left unrewarded are rewarded once their player joins. Votes for
+ * players who are offline are journaled separately, with their name, vote site and
+ * address, queued in the vote storage and delivered when they join.
+ */
+public class VoteIntakeManager {
+    /**
+     * The sequence number of a vote that was not journaled.
+     */
+    public static final long NOT_JOURNALED = -1L;
+    private final PhantomVoting plugin;
+    private final VoteJournal journal;
+    private final VoteJournal offlineJournal;
+    private final BukkitTask syncTask;
+    private final Map<UUID, List<Long>> unrewarded = new HashMap<>();
+    /**
+     * Creates a new VoteIntakeManager instance, opening the journals and storing the votes
+     * they still hold. The vote storage and the reward dispatcher must be loaded.
+     *
+     * @param plugin The plugin instance.
+     */
+    public VoteIntakeManager(PhantomVoting plugin) {
+        this.plugin = plugin;
+        ConfigurationSection journalSection = plugin.getConfigurationManager().getConfig("storage").getConfigurationSection("Storage-Settings.journal");
+        if (journalSection != null && !journalSection.getBoolean("enabled", true)) {
+            this.journal = null;
+            this.offlineJournal = null;
+            this.syncTask = null;
+            return;
+        }
+        long syncInterval = Math.max(50L, journalSection == null ? 1000L : journalSection.getLong("sync-interval", 1000L));
+        long segmentSize = (journalSection == null ? 1L : journalSection.getLong("segment-size", 1L)) << 20;
+        Path directory = plugin.getDataFolder().toPath().resolve("journal");
+        this.journal = openJournal(directory.resolve("votes.journal"), segmentSize, false);
+        this.offlineJournal = openJournal(directory.resolve("offline-votes.journal"), segmentSize, true);
+        this.syncTask = journal == null && offlineJournal == null ? null : Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            if (journal != null) {
+                journal.force();
+            }
+            if (offlineJournal != null) {
+                offlineJournal.force();
+            }
+        }, syncInterval / 50L, syncInterval / 50L);
+        Bukkit.getOnlinePlayers().forEach(this::deliverOfflineVotes);
+    }
+    /**
+     * Opens a journal and stores the votes it still holds that were not stored, keeping
+     * the ones not rewarded until their player joins. The votes of a detailed journal are
+     * queued for their offline players again.
+     *
+     * @param file        The journal file.
+     * @param segmentSize The number of bytes the mapped region grows by.
+     * @param detailed    Whether the journal keeps the votes of offline players.
+     * @return The journal, or null if it could not be opened.
+     */
+    private VoteJournal openJournal(Path file, long segmentSize, boolean detailed) {
+        VoteJournal created = new VoteJournal(file, segmentSize, detailed);
+        try {
+            long pending = created.open((sequence, vote, stored, rewarded) -> {
+                if (detailed) {
+                    queue(created, sequence, vote);
+                    return;
+                }
+                if (!rewarded) {
+                    unrewarded.computeIfAbsent(vote.getUuid(), uuid -> new ArrayList<>()).add(sequence);
+                }
+                if (!stored) {
+                    store(created, sequence, vote.getUuid());
+                }
+            });
+            if (pending > 0) {
+                Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eStoring &6" + pending + (detailed ? " &ejournaled votes of offline players" : " &ejournaled votes")
+                        + " that were not stored before the last shutdown."));
+            }
+            return created;
+        } catch (IOException e) {
+            e.printStackTrace();
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe vote journal &f" + file.getFileName() + " &ccould not be opened, received votes are only kept by the vote storage."));
+            created.close();
+            return null;
+        }
+    }
+    /**
+     * Journals a received vote without storing it yet, so it survives a crash while it
+     * waits in the vote pipeline.
+     *
+     * @param playerUUID UUID of the player
+     * @param receivedAt The epoch milliseconds the vote was received
+     * @return The sequence number of the entry, passed to {@link #storeJournaled(long, UUID)}
+     *         and {@link #rewardJournaled(long, CompletableFuture)}
+     */
+    public long journal(UUID playerUUID, long receivedAt) {
+        if (journal != null) {
+            try {
+                return journal.append(playerUUID, receivedAt);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return NOT_JOURNALED;
+    }
+    /**
+     * Adds a journaled vote to the vote storage. Its journal entry is marked as stored
+     * once the storage has committed it.
+     *
+     * @param sequence   The sequence number returned by {@link #journal(UUID, long)}
+     * @param playerUUID UUID of the player
+     * @return A future completed once the vote is stored
+     */
+    public CompletableFuture<Void> storeJournaled(long sequence, UUID playerUUID) {
+        return store(journal, sequence, playerUUID);
+    }
+    /**
+     * Marks the rewards of a journaled vote as run once the reward dispatcher ran them.
+     *
+     * @param sequence   The sequence number returned by {@link #journal(UUID, long)}
+     * @param dispatched The future returned when the rewards were queued
+     */
+    public void rewardJournaled(long sequence, CompletableFuture<Void> dispatched) {
+        if (journal != null && sequence != NOT_JOURNALED) {
+            dispatched.thenRun(() -> journal.markRewarded(sequence));
+        }
+    }
+    /**
+     * Journals a vote received for a player who is not online, so it survives a crash
+     * until it is queued in the vote storage.
+     *
+     * @param vote The vote, its UUID is null if the server does not know the player
+     * @return The sequence number of the entry, passed to {@link #acceptOffline(long, VoteEvent)}
+     */
+    public long journalOffline(VoteEvent vote) {
+        if (offlineJournal != null) {
+            try {
+                return offlineJournal.append(vote);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return NOT_JOURNALED;
+    }
+    /**
+     * Marks a journaled vote as applied without storing it, used for votes the vote
+     * pipeline dropped so they are not stored on the next start.
+     *
+     * @param sequence The sequence number returned when the vote was journaled
+     * @param offline  Whether the vote was journaled by {@link #journalOffline(VoteEvent)}
+     */
+    public void discard(long sequence, boolean offline) {
+        VoteJournal target = offline ? offlineJournal : journal;
+        if (target != null && sequence != NOT_JOURNALED) {
+            target.markApplied(sequence);
+        }
+    }
+    /**
+     * Queues a journaled vote received for a player who is not online. The journal entry
+     * is marked as applied once the vote storage has committed the queued vote.
+     *
+     * @param sequence The sequence number returned by {@link #journalOffline(VoteEvent)}
+     * @param vote     The vote
+     * @return A future completed once the vote is queued
+     */
+    public CompletableFuture<Void> acceptOffline(long sequence, VoteEvent vote) {
+        return queue(offlineJournal, sequence, vote);
+    }
+    /**
+     * Delivers the votes queued while a player was offline and the rewards of journaled
+     * votes that did not run before the last shutdown. The storage adds the queued votes to
+     * the player's record in one write, and each is journaled as stored until its rewards
+     * ran. The rewards of every vote are queued on the reward dispatcher instead of running
+     * all at once. Called on the main thread.
+     *
+     * @param player The player who joined.
+     */
+    public void deliverOfflineVotes(Player player) {
+        List<Long> held = unrewarded.remove(player.getUniqueId());
+        plugin.getVoteStorage().claimOfflineVotes(player.getUniqueId(), player.getName()).exceptionally(throwable -> {
+            throwable.printStackTrace();
+            return Collections.emptyList();
+        }).thenAcceptAsync(votes -> {
+            List<Long> sequences = held == null ? new ArrayList<>() : new ArrayList<>(held);
+            if (votes.isEmpty() && sequences.isEmpty()) {
+                return;
+            }
+            for (VoteEvent vote : votes) {
+                plugin.getVoteStorage().recordVoteEvent(vote);
+                sequences.add(journalStored(player.getUniqueId(), vote.getTimestamp()));
+            }
+            List<String> commands = new ArrayList<>();
+            for (int index = 0; index < sequences.size(); index++) {
+                commands.addAll(plugin.getRewardDispatcher().planVoteRewards(player));
+            }
+            CompletableFuture<Void> dispatched = plugin.getRewardDispatcher().queue(player.getName(), commands);
+            sequences.forEach(sequence -> rewardJournaled(sequence, dispatched));
+            plugin.getMessageManager().sendMessage(player, "OFFLINE_VOTES_DELIVERED", "%amount%", String.valueOf(sequences.size()));
+        }, SchedulerUtil.mainThread(plugin));
+    }
+    /**
+     * Journals a vote the vote storage already committed, so its rewards survive a crash
+     * until they ran.
+     *
+     * @param playerUUID UUID of the player
+     * @param receivedAt The epoch milliseconds the vote was received
+     * @return The sequence number of the entry, or {@link #NOT_JOURNALED}
+     */
+    private long journalStored(UUID playerUUID, long receivedAt) {
+        if (journal != null) {
+            try {
+                return journal.appendStored(playerUUID, receivedAt);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return NOT_JOURNALED;
+    }
+    /**
+     * Adds a vote to the vote storage and marks its journal entry as stored once it is
+     * committed. A vote that fails to store stays pending and is stored on the next start.
+     *
+     * @param target     The journal holding the entry.
+     * @param sequence   The sequence number of the entry, or {@link #NOT_JOURNALED}.
+     * @param playerUUID UUID of the player
+     * @return A future completed once the vote is stored
+     */
+    private CompletableFuture<Void> store(VoteJournal target, long sequence, UUID playerUUID) {
+        CompletableFuture<Void> stored = plugin.getVoteStorage().addVote(playerUUID);
+        if (sequence != NOT_JOURNALED) {
+            stored.thenRun(() -> target.markStored(sequence));
+        }
+        return stored;
+    }
+    /**
+     * Queues a vote for a player who is not online and marks its journal entry as applied
+     * once it is committed. A vote that fails to queue stays pending and is queued on the
+     * next start.
+     *
+     * @param target   The journal holding the entry.
+     * @param sequence The sequence number of the entry, or {@link #NOT_JOURNALED}.
+     * @param vote     The vote
+     * @return A future completed once the vote is queued
+     */
+    private CompletableFuture<Void> queue(VoteJournal target, long sequence, VoteEvent vote) {
+        CompletableFuture<Void> queued = plugin.getVoteStorage().queueOfflineVote(vote);
+        if (sequence != NOT_JOURNALED) {
+            queued.thenRun(() -> target.markApplied(sequence));
+        }
+        return queued;
+    }
+    /**
+     * Stops the journals. Called after the vote storage is closed, so the votes it wrote
+     * on shutdown are marked as applied first.
+     */
+    public void close() {
+        if (syncTask != null) {
+            syncTask.cancel();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (offlineJournal != null) {
+            offlineJournal.close();
+        }
+    }
+}
@@ -2,13 +2,19 @@ package me.fergs.phantomvoting.managers;
 
 import me.fergs.phantomvoting.PhantomVoting;
 import me.fergs.phantomvoting.config.YamlConfigFile;
-import me.fergs.phantomvoting.database.VoteStorage;
+import me.fergs.phantomvoting.database.interfaces.VoteStorage;
 import me.fergs.phantomvoting.objects.voteparty.ChanceCommandGroup;
 import me.fergs.phantomvoting.objects.voteparty.PermissionCommandGroup;
+import me.fergs.phantomvoting.objects.voteparty.SharedPartyState;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class VotePartyManager {
@@ -18,6 +24,10 @@ public class VotePartyManager {
     private final PhantomVoting plugin;
     private final YamlConfigFile votepartyConfig;
     private boolean votePartyEnabled;
+    private final boolean network;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private long seenPartyCount;
+    private long seenRevision = -1L;
 
     private final Set<String> cachedCommands = new HashSet<>();
     private final Map<String, PermissionCommandGroup> cachedPermissionCommands = new HashMap<>();
@@ -34,15 +44,112 @@ public class VotePartyManager {
         this.plugin = plugin;
         this.voteStorage = plugin.getVoteStorage();
         this.votePartyEnabled = votepartyConfig.getBoolean("Settings.Enabled", true);
+        this.network = loadNetworkMode();
         loadVoteCount();
         cacheCommands();
+        if (network) {
+            long pollTicks = Math.max(1L, votepartyConfig.getLong("Settings.Network.Poll-Interval", 2L)) * 20L;
+            Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::poll, pollTicks, pollTicks);
+        }
+    }
+
+    /**
+     * Checks if the vote party is shared with the other servers using the same database.
+     *
+     * @return True if the vote party is shared and the storage supports it.
+     */
+    private boolean loadNetworkMode() {
+        if (!votepartyConfig.getBoolean("Settings.Network.Enabled", false)) {
+            return false;
+        }
+        if (!voteStorage.supportsSharedParty()) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe vote party can only be shared with the SQL, SQLITE or H2 storage types, it stays local to this server."));
+            return false;
+        }
+        return true;
     }
 
     /**
-     * Loads the current vote count from storage.
+     * Loads the current vote count from storage. A shared vote party is read from the
+     * database, parties held before this server started are not run again.
      */
     private void loadVoteCount() {
         this.currentVoteCount = voteStorage.getCurrentGlobalVoteCount();
+        if (!network) {
+            return;
+        }
+        try {
+            applySharedState(voteStorage.readSharedParty().join());
+        } catch (CompletionException e) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe shared vote party could not be read, retrying with the next check."));
+        }
+    }
+
+    /**
+     * Reloads the current vote count from storage, after the stored data was replaced.
+     */
+    public void reloadVoteCount() {
+        if (!network) {
+            loadVoteCount();
+            return;
+        }
+        seenRevision = -1L;
+        poll();
+    }
+
+    /**
+     * Reads the shared vote party to pick up the votes and vote parties of the other
+     * servers. Skipped while the previous read is still running.
+     */
+    private void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        voteStorage.readSharedParty()
+                .whenComplete((state, throwable) -> polling.set(false))
+                .thenAcceptAsync(this::applySharedState, SchedulerUtil.mainThread(plugin))
+                .exceptionally(throwable -> {
+                    Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe shared vote party could not be read."));
+                    return null;
+                });
+    }
+
+    /**
+     * Applies a change to the shared vote party once the database returns the new state.
+     *
+     * @param change The pending change.
+     */
+    private void changeSharedParty(CompletableFuture<SharedPartyState> change) {
+        change.thenAcceptAsync(state -> {
+            if (state.getClaimed() > 0) {
+                Bukkit.getLogger().info(ConsoleUtil.translateColors("&6[&e!&6] &eThis server completed vote party &6#" + state.getPartyCount() + "&e."));
+            }
+            applySharedState(state);
+        }, SchedulerUtil.mainThread(plugin)).exceptionally(throwable -> {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cA change to the shared vote party could not be stored."));
+            return null;
+        });
+    }
+
+    /**
+     * Takes over a state of the shared vote party read from the database, running one vote
+     * party for every party held since the last state seen. States older than the last
+     * one seen are ignored, so every party runs exactly once on each server whichever of
+     * them claimed it. Runs on the main thread.
+     *
+     * @param state The stored state.
+     */
+    private void applySharedState(SharedPartyState state) {
+        if (state.getRevision() < seenRevision) {
+            return;
+        }
+        long parties = seenRevision < 0 ? 0 : state.getPartyCount() - seenPartyCount;
+        seenRevision = state.getRevision();
+        seenPartyCount = state.getPartyCount();
+        currentVoteCount = state.getVoteCount();
+        for (long party = 0; party < parties; party++) {
+            triggerVoteParty();
+        }
     }
 
     /**
@@ -81,6 +188,10 @@ public class VotePartyManager {
         if (!votePartyEnabled) {
             return;
         }
+        if (network) {
+            changeSharedParty(voteStorage.addSharedPartyVotes(1, voteThreshold));
+            return;
+        }
         currentVoteCount++;
         voteStorage.setCurrentGlobalVoteCount(currentVoteCount);
 
@@ -91,7 +202,8 @@ public class VotePartyManager {
     }
 
     /**
-     * Triggers the vote party by executing configured commands for all online players.
+     * Triggers the vote party. The rewards of every online player are planned at once and
+     * run by the reward dispatcher over the following ticks.
      */
     private void triggerVoteParty() {
         if (!votePartyEnabled) {
@@ -100,27 +212,8 @@ public class VotePartyManager {
 
         plugin.getMessageManager().broadcastMessage("VOTE_PARTY_TRIGGERED");
 
-        plugin.getPlayerManager().getPlayers().forEach(player -> {
-            for (final String command : cachedCommands) {
-                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command.replace("%player%", player.getName()));
-            }
-
-            cachedChanceCommands.forEach(group -> {
-                if (Math.random() * 100 <= group.getChance()) {
-                    group.getCommands().forEach(command ->
-                            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command.replace("%player%", player.getName()))
-                    );
-                }
-            });
-
-            cachedPermissionCommands.values().forEach(group -> {
-                if (player.hasPermission(group.getPermission())) {
-                    group.getCommands().forEach(command ->
-                            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command.replace("%player%", player.getName()))
-                    );
-                }
-            });
-        });
+        plugin.getRewardDispatcher().queue("vote party", plugin.getRewardDispatcher().planPartyRewards(
+                plugin.getPlayerManager().getPlayers(), cachedCommands, cachedChanceCommands, cachedPermissionCommands.values()));
     }
 
     /**
@@ -165,7 +258,9 @@ public class VotePartyManager {
      * @param resetVotes Whether to reset the vote count after triggering.
      */
     public void forceVoteParty(boolean resetVotes) {
-        if (resetVotes) {
+        if (network && resetVotes) {
+            changeSharedParty(voteStorage.setSharedPartyVotes(0, 0));
+        } else if (resetVotes) {
             resetVoteCount();
         }
 
@@ -173,11 +268,16 @@ public class VotePartyManager {
     }
 
     /**
-     * Forces the vote count to a specific amount.
+     * Forces the vote count to a specific amount. A shared vote party claims no party
+     * here, the next vote claims every party the count has reached.
      *
      * @param amount The amount to set the vote count to.
      */
     public void forceAddAmount(int amount) {
+        if (network) {
+            changeSharedParty(voteStorage.addSharedPartyVotes(amount, 0));
+            return;
+        }
         currentVoteCount += amount;
         voteStorage.setCurrentGlobalVoteCount(currentVoteCount);
     }
@@ -188,6 +288,10 @@ public class VotePartyManager {
      * @param currentVoteCount The current vote count.
      */
     public void setCurrentVoteCount(int currentVoteCount) {
+        if (network) {
+            changeSharedParty(voteStorage.setSharedPartyVotes(currentVoteCount, voteThreshold));
+            return;
+        }
         this.currentVoteCount = currentVoteCount;
         if (currentVoteCount >= voteThreshold) {
             triggerVoteParty();
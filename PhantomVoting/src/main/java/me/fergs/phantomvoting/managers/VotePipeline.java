@@ -0,0 +1,368 @@
+package me.fergs.phantomvoting.managers;
+
+import me.fergs.phantomvoting.PhantomVoting;
+import me.fergs.phantomvoting.config.YamlConfigFile;
+import me.fergs.phantomvoting.enums.OverflowPolicy;
+import me.fergs.phantomvoting.enums.PipelineStage;
+import me.fergs.phantomvoting.objects.VoteEvent;
+import me.fergs.phantomvoting.utils.ConsoleUtil;
+import me.fergs.phantomvoting.utils.SchedulerUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Processes received votes in stages, so the vote event handler only hands a vote over.
+ * Every vote is journaled before it is queued. A single worker thread validates each vote
+ * and hands it to the vote storage, which updates the cached record, leaderboards and rank
+ * index; the votes of offline players are queued there until they join. Only the work that
+ * needs the server is handed to the main thread: planning and queuing the rewards with the
+ * reward dispatcher, the broadcast, the sound and the vote party. The queue in front of the
+ * worker is bounded and the overflow policy decides what happens when it is full. Every
+ * stage records how long it takes, shown by the pipeline status command.
+ */
+public class VotePipeline {
+    private static final Pattern PLAYER_NAME = Pattern.compile("\\S{1,32}");
+    private final PhantomVoting plugin;
+    private final ThreadPoolExecutor worker;
+    private final OverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final Map<PipelineStage, StageStats> stages = new EnumMap<>(PipelineStage.class);
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Queue<Runnable> handOffs = new ConcurrentLinkedQueue<>();
+    /**
+     * Creates a new VotePipeline instance and starts its worker thread.
+     *
+     * @param plugin The plugin instance.
+     */
+    public VotePipeline(PhantomVoting plugin) {
+        this.plugin = plugin;
+        ConfigurationSection pipelineSection = plugin.getConfigurationManager().getConfig("config").getConfigurationSection("Pipeline");
+        this.capacity = Math.max(1, pipelineSection == null ? 1000 : pipelineSection.getInt("Queue-Size", 1000));
+        this.overflowPolicy = OverflowPolicy.fromName(pipelineSection == null ? null : pipelineSection.getString("Overflow"), OverflowPolicy.CALLER_RUNS);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "PhantomVoting-VotePipeline");
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        for (PipelineStage stage : PipelineStage.values()) {
+            stages.put(stage, new StageStats());
+        }
+    }
+    /**
+     * Hands a received vote to the pipeline. If the queue is full the overflow policy
+     * applies.
+     *
+     * @param player The player if they were online when the vote arrived, otherwise null.
+     * @param vote   The vote, for an offline player its UUID is null unless the server knows them.
+     */
+    public void submit(Player player, VoteEvent vote) {
+        received.incrementAndGet();
+        long sequence;
+        if (player != null) {
+            sequence = plugin.getVoteIntakeManager().journal(vote.getUuid(), vote.getTimestamp());
+        } else if (plugin.getConfigurationManager().getConfig("config").getBoolean("Rewards.Offline-Votes", true)) {
+            sequence = plugin.getVoteIntakeManager().journalOffline(vote);
+        } else {
+            sequence = VoteIntakeManager.NOT_JOURNALED;
+        }
+        QueuedVote queued = new QueuedVote(player, vote, sequence);
+        if (offer(queued)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && !worker.isShutdown()) {
+            Runnable oldest = worker.getQueue().poll();
+            if (oldest instanceof QueuedVote) {
+                drop((QueuedVote) oldest);
+            }
+            if (offer(queued)) {
+                return;
+            }
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS || worker.isShutdown()) {
+            queued.run();
+            return;
+        }
+        drop(queued);
+    }
+    /**
+     * Adds a vote to the worker queue.
+     *
+     * @param queued The vote.
+     * @return True if the vote was queued.
+     */
+    private boolean offer(QueuedVote queued) {
+        try {
+            worker.execute(queued);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    /**
+     * Drops a vote that does not fit into the queue.
+     *
+     * @param queued The dropped vote.
+     */
+    private void drop(QueuedVote queued) {
+        dropped.incrementAndGet();
+        plugin.getVoteIntakeManager().discard(queued.sequence, queued.player == null);
+        Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cThe vote queue is full, dropped the vote of &f"
+                + queued.vote.getUsername() + " &cfrom &f" + queued.vote.getServiceName() + "&c."));
+    }
+    /**
+     * Runs the stages of a vote. The vote is stored on the worker, then the server actions
+     * are handed to the main thread, where the rewards of an online player are planned and
+     * queued; its journal entry is applied once it is stored and its rewards ran. The vote
+     * of an offline player is queued in the vote storage, its rewards are planned when the
+     * player joins.
+     *
+     * @param player   The player if they were online when the vote arrived, otherwise null.
+     * @param vote     The vote.
+     * @param sequence The journal sequence number of the vote.
+     */
+    private void process(Player player, VoteEvent vote, long sequence) {
+        long started = System.nanoTime();
+        boolean valid = vote.getUsername() != null && PLAYER_NAME.matcher(vote.getUsername()).matches();
+        stages.get(PipelineStage.VALIDATE).record(started);
+        if (!valid) {
+            Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cIgnoring a vote with an invalid player name from &f" + vote.getServiceName() + "&c."));
+            plugin.getVoteIntakeManager().discard(sequence, player == null);
+            return;
+        }
+        YamlConfigFile config = plugin.getConfigurationManager().getConfig("config");
+        if (player == null && !config.getBoolean("Rewards.Offline-Votes", true)) {
+            return;
+        }
+
+        if (player == null) {
+            store(plugin.getVoteIntakeManager().acceptOffline(sequence, vote));
+        } else {
+            store(plugin.getVoteIntakeManager().storeJournaled(sequence, vote.getUuid()));
+            plugin.getVoteStorage().recordVoteEvent(vote);
+        }
+        long handedOver = System.nanoTime();
+        handOff(() -> {
+            long planStarted = stages.get(PipelineStage.MAIN_THREAD).record(handedOver);
+            if (player != null) {
+                plugin.getVoteIntakeManager().rewardJournaled(sequence,
+                        runServerActions(player, vote.getUsername(), plugin.getRewardDispatcher().planVoteRewards(player), config));
+            }
+            updateVoteParty();
+            stages.get(PipelineStage.PLAN).record(planStarted);
+        });
+    }
+    /**
+     * Records the time the vote storage takes to commit a vote.
+     *
+     * @param stored The future completed once the vote is stored.
+     */
+    private void store(CompletableFuture<Void> stored) {
+        long started = System.nanoTime();
+        stored.whenComplete((ignored, throwable) -> stages.get(PipelineStage.STORE).record(started));
+    }
+    /**
+     * Hands the server actions of a vote to the main thread. They wait in a queue of their
+     * own, which {@link #close()} runs itself once the plugin is disabling and the scheduler
+     * no longer takes tasks.
+     *
+     * @param actions The actions to run.
+     */
+    private void handOff(Runnable actions) {
+        handOffs.add(actions);
+        SchedulerUtil.mainThread(plugin).execute(this::runHandOffs);
+    }
+    /**
+     * Runs the server actions handed to the main thread so far.
+     */
+    private void runHandOffs() {
+        Runnable actions;
+        while ((actions = handOffs.poll()) != null) {
+            try {
+                actions.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    /**
+     * Broadcasts the vote, queues its reward commands and plays the vote sound. Runs on the
+     * main thread.
+     *
+     * @param player     The player who voted.
+     * @param playerName The name sent by the vote site.
+     * @param commands   The planned reward commands.
+     * @param config     The main configuration.
+     * @return A future completed once the reward commands ran.
+     */
+    private CompletableFuture<Void> runServerActions(Player player, String playerName, List<String> commands, YamlConfigFile config) {
+        plugin.getMessageManager().broadcastMessage("VOTE_RECEIVED", "%player%", playerName);
+
+        CompletableFuture<Void> dispatched = plugin.getRewardDispatcher().queue(player.getName(), commands);
+
+        if (config.getBoolean("Sound.enabled") && player.isOnline()) {
+            String soundType = config.getString("Sound.soundType");
+            assert soundType != null;
+            if (!soundType.isEmpty()) {
+                player.playSound(player, Sound.valueOf(soundType), 1.0f, 1.0f);
+            }
+        }
+        return dispatched;
+    }
+    /**
+     * Counts a vote towards the vote party and updates the bossbar. Runs on the main thread.
+     */
+    private void updateVoteParty() {
+        plugin.getVotePartyManager().addVote();
+        if (plugin.getConfigurationManager().isModuleEnabled("bossbar")) {
+            plugin.getBossbarManager().update();
+        }
+    }
+    /**
+     * Gets the number of votes waiting for the worker.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return worker.getQueue().size();
+    }
+    /**
+     * Gets the number of votes the queue holds.
+     *
+     * @return The queue capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    /**
+     * Gets the number of votes handed to the pipeline since the server started.
+     *
+     * @return The number of received votes.
+     */
+    public long getReceived() {
+        return received.get();
+    }
+    /**
+     * Gets the number of votes dropped because the queue was full.
+     *
+     * @return The number of dropped votes.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+    /**
+     * Gets the timings of a stage.
+     *
+     * @param stage The stage.
+     * @return The timings.
+     */
+    public StageStats getStats(PipelineStage stage) {
+        return stages.get(stage);
+    }
+    /**
+     * Stops taking votes, waits for the queued ones and runs the server actions still
+     * waiting for the main thread, so their rewards are queued. Called on the main thread before the reward dispatcher and the vote
+     * storage are closed. Votes arriving afterwards are processed on the calling thread.
+     */
+    public void close() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                Bukkit.getLogger().warning(ConsoleUtil.translateColors("&4[&c!&4] &cTimed out waiting for &f" + getQueueDepth() + " &cqueued votes, they are stored again on the next start."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        runHandOffs();
+    }
+    /**
+     * A vote waiting in the worker queue.
+     */
+    private final class QueuedVote implements Runnable {
+        private final Player player;
+        private final VoteEvent vote;
+        private final long sequence;
+        private final long queuedAt = System.nanoTime();
+        /**
+         * Creates a new queued vote.
+         *
+         * @param player   The player if they were online, otherwise null.
+         * @param vote     The vote.
+         * @param sequence The journal sequence number of the vote.
+         */
+        private QueuedVote(Player player, VoteEvent vote, long sequence) {
+            this.player = player;
+            this.vote = vote;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            stages.get(PipelineStage.QUEUE).record(queuedAt);
+            try {
+                process(player, vote, sequence);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    /**
+     * The number of votes that passed a stage and how long they took.
+     */
+    public static final class StageStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        /**
+         * Records a vote that passed the stage.
+         *
+         * @param startedAt The {@link System#nanoTime()} the vote entered the stage.
+         * @return The current {@link System#nanoTime()}, where the next stage starts.
+         */
+        private long record(long startedAt) {
+            long now = System.nanoTime();
+            long elapsed = now - startedAt;
+            count.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            return now;
+        }
+        /**
+         * Gets the number of votes that passed the stage.
+         *
+         * @return The count.
+         */
+        public long getCount() {
+            return count.get();
+        }
+        /**
+         * Gets the average time a vote spent in the stage.
+         *
+         * @return The average in milliseconds, 0 if no vote passed yet.
+         */
+        public double getAverageMillis() {
+            long passed = count.get();
+            return passed == 0 ? 0.0 : totalNanos.get() / (double) passed / 1_000_000.0;
+        }
+        /**
+         * Gets the longest time a vote spent in the stage.
+         *
+         * @return The maximum in milliseconds.
+         */
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package me.fergs.phantomvoting.objects;
+
+import me.fergs.phantomvoting.enums.LeaderboardType;
+import me.fergs.phantomvoting.utils.TimeUtil;
+
+import java.util.UUID;
+
+/**
+ * An in-memory copy of a player's row in the player_votes table.
+ * Updates mirror the statements used by the vote storage so the copy stays in sync.
+ */
+public class PlayerVoteRecord {
+    private final UUID uuid;
+    private boolean stored;
+    private int dailyCount, weeklyCount, monthlyCount, yearlyCount, allTimeCount, streakCount;
+    private long lastVoteDay = TimeUtil.NONE;
+    /**
+     * Creates an empty record for a player without a row in the database.
+     *
+     * @param uuid The UUID.
+     */
+    public PlayerVoteRecord(UUID uuid) {
+        this.uuid = uuid;
+    }
+    /**
+     * Creates a record from a stored row.
+     *
+     * @param uuid             The UUID.
+     * @param counts           The daily, weekly, monthly, yearly and all-time counts.
+     * @param streakCount      The streak count.
+     * @param lastVoteDay      The epoch day of the last vote, {@link TimeUtil#NONE} if unset.
+     */
+    public PlayerVoteRecord(UUID uuid, int[] counts, int streakCount, long lastVoteDay) {
+        this.uuid = uuid;
+        this.stored = true;
+        this.dailyCount = counts[0];
+        this.weeklyCount = counts[1];
+        this.monthlyCount = counts[2];
+        this.yearlyCount = counts[3];
+        this.allTimeCount = counts[4];
+        this.streakCount = streakCount;
+        this.lastVoteDay = lastVoteDay;
+    }
+    /**
+     * Applies votes received from a vote site. Creates the record if it is not stored yet
+     * and updates the streak.
+     *
+     * @param amount  The number of votes.
+     * @param voteDay The epoch day of the most recent vote.
+     */
+    public synchronized void addSiteVotes(int amount, long voteDay) {
+        if (!stored) {
+            stored = true;
+            dailyCount = weeklyCount = monthlyCount = yearlyCount = allTimeCount = amount;
+            streakCount = 1;
+            lastVoteDay = voteDay;
+            return;
+        }
+        applyVotes(amount);
+        recordVoteDay(voteDay);
+    }
+    /**
+     * Applies votes given by an administrator. Nothing changes if the record is not stored.
+     *
+     * @param amount The number of votes.
+     */
+    public synchronized void addVotes(int amount) {
+        if (stored) {
+            applyVotes(amount);
+        }
+    }
+    /**
+     * Removes votes from every count, no count goes below zero.
+     *
+     * @param amount The number of votes to remove.
+     */
+    public synchronized void removeVotes(int amount) {
+        if (stored) {
+            dailyCount = Math.max(0, dailyCount - amount);
+            weeklyCount = Math.max(0, weeklyCount - amount);
+            monthlyCount = Math.max(0, monthlyCount - amount);
+            yearlyCount = Math.max(0, yearlyCount - amount);
+            allTimeCount = Math.max(0, allTimeCount - amount);
+        }
+    }
+    /**
+     * Clears the count of a period that has ended.
+     *
+     * @param period The period.
+     */
+    public synchronized void resetCount(LeaderboardType period) {
+        switch (period) {
+            case DAILY:
+                dailyCount = 0;
+                break;
+            case WEEKLY:
+                weeklyCount = 0;
+                break;
+            case MONTHLY:
+                monthlyCount = 0;
+                break;
+            case YEARLY:
+                yearlyCount = 0;
+                break;
+            default:
+                break;
+        }
+    }
+    /**
+     * Continues, resets or keeps the streak for a vote on the given day. Creates the record
+     * if it is not stored yet.
+     *
+     * @param today The epoch day of the vote.
+     */
+    public synchronized void recordVoteDay(long today) {
+        stored = true;
+        long yesterday = today - 1;
+        if (lastVoteDay < yesterday) {
+            streakCount = 1;
+        } else if (lastVoteDay == yesterday) {
+            streakCount++;
+        }
+        lastVoteDay = today;
+    }
+    /**
+     * Sets the streak count.
+     *
+     * @param streak The streak count.
+     */
+    public synchronized void setStreak(int streak) {
+        if (stored) {
+            streakCount = streak;
+        }
+    }
+    /**
+     * Adds to the streak count.
+     *
+     * @param streak The amount to add.
+     */
+    public synchronized void addStreak(int streak) {
+        if (stored) {
+            streakCount += streak;
+        }
+    }
+    /**
+     * Sets the streak count and the last vote date.
+     *
+     * @param streak       The streak count.
+     * @param lastVoteDay  The epoch day of the last vote.
+     */
+    public synchronized void setStreak(int streak, long lastVoteDay) {
+        if (stored) {
+            this.streakCount = streak;
+            this.lastVoteDay = lastVoteDay;
+        }
+    }
+    /**
+     * Adds an imported record to this one, creating the record if it is not stored yet.
+     * The streak and last vote day of whichever record voted last are kept, matching the
+     * SQL import statement.
+     *
+     * @param imported The imported record.
+     */
+    public synchronized void merge(PlayerVoteRecord imported) {
+        int[] importedCounts = imported.getCounts();
+        stored = true;
+        dailyCount += importedCounts[0];
+        weeklyCount += importedCounts[1];
+        monthlyCount += importedCounts[2];
+        yearlyCount += importedCounts[3];
+        allTimeCount += importedCounts[4];
+        long importedDay = imported.getLastVoteDay();
+        if (lastVoteDay == TimeUtil.NONE || lastVoteDay < importedDay) {
+            streakCount = imported.getStreakCount();
+            lastVoteDay = importedDay;
+        }
+    }
+    /**
+     * Gets every vote count.
+     *
+     * @return The daily, weekly, monthly, yearly and all-time counts.
+     */
+    public synchronized int[] getCounts() {
+        return new int[]{dailyCount, weeklyCount, monthlyCount, yearlyCount, allTimeCount};
+    }
+    /**
+     * Gets the vote count for a period.
+     *
+     * @param type The period ("daily", "weekly", "monthly", "yearly", "all_time").
+     * @return The vote count.
+     */
+    public synchronized int getCount(String type) {
+        switch (type) {
+            case "daily":
+                return dailyCount;
+            case "weekly":
+                return weeklyCount;
+            case "monthly":
+                return monthlyCount;
+            case "yearly":
+                return yearlyCount;
+            default:
+                return allTimeCount;
+        }
+    }
+    /**
+     * Gets the streak count.
+     *
+     * @return The streak count.
+     */
+    public synchronized int getStreakCount() {
+        return streakCount;
+    }
+    /**
+     * Gets the day of the last vote.
+     *
+     * @return The epoch day of the last vote, or {@link TimeUtil#NONE} if the player never voted.
+     */
+    public synchronized long getLastVoteDay() {
+        return lastVoteDay;
+    }
+    /**
+     * Gets the UUID.
+     *
+     * @return The UUID.
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+    /**
+     * Adds votes to every period and the all-time count.
+     *
+     * @param amount The number of votes.
+     */
+    private void applyVotes(int amount) {
+        dailyCount += amount;
+        weeklyCount += amount;
+        monthlyCount += amount;
+        yearlyCount += amount;
+        allTimeCount += amount;
+    }
+}
@@ -0,0 +1,67 @@
+package me.fergs.phantomvoting.objects;
+
+import java.util.UUID;
+
+public class VoteEvent {
+    private final UUID uuid;
+    private final String username;
+    private final String serviceName;
+    private final String address;
+    private final long timestamp;
+    /**
+     * Creates a new vote event.
+     *
+     * @param uuid        The UUID of the player who voted.
+     * @param username    The username sent by the vote site.
+     * @param serviceName The name of the vote site.
+     * @param address     The address the vote was cast from.
+     * @param timestamp   The time the vote was received, in epoch milliseconds.
+     */
+    public VoteEvent(UUID uuid, String username, String serviceName, String address, long timestamp) {
+        this.uuid = uuid;
+        this.username = username;
+        this.serviceName = serviceName;
+        this.address = address;
+        this.timestamp = timestamp;
+    }
+    /**
+     * Gets the UUID of the player who voted.
+     *
+     * @return The UUID.
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+    /**
+     * Gets the username sent by the vote site.
+     *
+     * @return The username.
+     */
+    public String getUsername() {
+        return username;
+    }
+    /**
+     * Gets the name of the vote site.
+     *
+     * @return The service name.
+     */
+    public String getServiceName() {
+        return serviceName;
+    }
+    /**
+     * Gets the address the vote was cast from.
+     *
+     * @return The address.
+     */
+    public String getAddress() {
+        return address;
+    }
+    /**
+     * Gets the time the vote was received.
+     *
+     * @return The epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,54 @@
+package me.fergs.phantomvoting.objects.voteparty;
+
+public class SharedPartyState {
+    private final int voteCount;
+    private final long partyCount;
+    private final long revision;
+    private final int claimed;
+    /**
+     * Creates a new shared party state.
+     *
+     * @param voteCount  The votes towards the next vote party.
+     * @param partyCount The number of vote parties held so far.
+     * @param revision   The revision of the stored state, raised by every change.
+     * @param claimed    The number of vote parties claimed by the change that returned this state.
+     */
+    public SharedPartyState(int voteCount, long partyCount, long revision, int claimed) {
+        this.voteCount = voteCount;
+        this.partyCount = partyCount;
+        this.revision = revision;
+        this.claimed = claimed;
+    }
+    /**
+     * Gets the votes towards the next vote party.
+     *
+     * @return The vote count.
+     */
+    public int getVoteCount() {
+        return voteCount;
+    }
+    /**
+     * Gets the number of vote parties held so far.
+     *
+     * @return The party count.
+     */
+    public long getPartyCount() {
+        return partyCount;
+    }
+    /**
+     * Gets the revision of the stored state, raised by every change.
+     *
+     * @return The revision.
+     */
+    public long getRevision() {
+        return revision;
+    }
+    /**
+     * Gets the number of vote parties claimed by the change that returned this state.
+     *
+     * @return The number of claimed vote parties, 0 for a plain read.
+     */
+    public int getClaimed() {
+        return claimed;
+    }
+}
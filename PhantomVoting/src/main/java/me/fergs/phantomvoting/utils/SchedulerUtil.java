@@ -0,0 +1,37 @@
+package me.fergs.phantomvoting.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+public class SchedulerUtil {
+    /**
+     * Creates an executor that runs tasks on the server main thread.
+     * Tasks submitted from the main thread run immediately, tasks submitted
+     * from any other thread are scheduled for the next tick.
+     *
+     * @param plugin The plugin instance.
+     * @return The main thread executor.
+     */
+    public static Executor mainThread(Plugin plugin) {
+        return task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+                return;
+            }
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+    /**
+     * Creates an executor that runs tasks on the server's async worker threads.
+     *
+     * @param plugin The plugin instance.
+     * @return The async executor.
+     */
+    public static Executor async(Plugin plugin) {
+        return task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+}
@@ -0,0 +1,21 @@
+package me.fergs.phantomvoting.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public class TimeUtil {
+    /**
+     * The value used for a period start or vote day that has not been set. It is older than
+     * every real time, so a period that was never reset is always due.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    /**
+     * Converts a local time in the server's time zone to epoch milliseconds.
+     *
+     * @param time The local time.
+     * @return The time in epoch milliseconds.
+     */
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
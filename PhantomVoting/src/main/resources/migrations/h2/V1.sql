@@ -0,0 +1,30 @@
+-- Create vote tables
+CREATE TABLE IF NOT EXISTS player_votes (
+    uuid VARCHAR(36) PRIMARY KEY,
+    daily_count INT DEFAULT 0,
+    weekly_count INT DEFAULT 0,
+    monthly_count INT DEFAULT 0,
+    yearly_count INT DEFAULT 0,
+    all_time_count INT DEFAULT 0,
+    daily_timestamp DATETIME,
+    weekly_timestamp DATETIME,
+    monthly_timestamp DATETIME,
+    yearly_timestamp DATETIME,
+    streak_count INT DEFAULT 0,
+    last_vote_date DATETIME
+);
+CREATE TABLE IF NOT EXISTS vote_party (
+    current_vote_count INT DEFAULT 0
+);
+CREATE TABLE IF NOT EXISTS player_milestones (
+    uuid VARCHAR(36) NOT NULL,
+    milestone_id INT NOT NULL,
+    claimed BOOLEAN DEFAULT FALSE,
+    PRIMARY KEY (uuid, milestone_id)
+);
+CREATE TABLE IF NOT EXISTS player_streaks (
+    uuid VARCHAR(36) NOT NULL,
+    streak_id INT NOT NULL,
+    claimed BOOLEAN DEFAULT FALSE,
+    PRIMARY KEY (uuid, streak_id)
+);
@@ -0,0 +1,2 @@
+-- Widen the offline vote queue names
+ALTER TABLE pending_votes ALTER COLUMN player_name SET DATA TYPE VARCHAR(32);
@@ -0,0 +1,14 @@
+-- Add vote history
+CREATE TABLE IF NOT EXISTS vote_event_partitions (
+    table_name VARCHAR(32) PRIMARY KEY,
+    first_day BIGINT NOT NULL,
+    last_day BIGINT NOT NULL,
+    compacted BOOLEAN DEFAULT FALSE
+);
+CREATE TABLE IF NOT EXISTS vote_event_daily (
+    event_day BIGINT NOT NULL,
+    service VARCHAR(64) NOT NULL,
+    vote_count INT NOT NULL,
+    player_count INT NOT NULL,
+    PRIMARY KEY (event_day, service)
+);
@@ -0,0 +1,4 @@
+-- Share the vote party between servers
+ALTER TABLE vote_party ADD COLUMN party_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE vote_party ADD COLUMN revision BIGINT DEFAULT 0 NOT NULL;
+INSERT INTO vote_party (current_vote_count) SELECT 0 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM vote_party);
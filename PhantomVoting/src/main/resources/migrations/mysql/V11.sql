@@ -0,0 +1,2 @@
+-- Widen the offline vote queue names
+ALTER TABLE pending_votes MODIFY player_name VARCHAR(32) NOT NULL;
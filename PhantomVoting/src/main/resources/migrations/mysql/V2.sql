@@ -0,0 +1,7 @@
+-- Add leaderboard indexes
+CREATE INDEX idx_player_votes_all_time ON player_votes (all_time_count);
+CREATE INDEX idx_player_votes_daily ON player_votes (daily_count);
+CREATE INDEX idx_player_votes_weekly ON player_votes (weekly_count);
+CREATE INDEX idx_player_votes_monthly ON player_votes (monthly_count);
+CREATE INDEX idx_player_votes_yearly ON player_votes (yearly_count);
+CREATE INDEX idx_player_votes_streak ON player_votes (streak_count);
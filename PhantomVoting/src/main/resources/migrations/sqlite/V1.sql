@@ -0,0 +1,30 @@
+-- Create vote tables
+CREATE TABLE IF NOT EXISTS player_votes (
+    uuid TEXT PRIMARY KEY,
+    daily_count INTEGER DEFAULT 0,
+    weekly_count INTEGER DEFAULT 0,
+    monthly_count INTEGER DEFAULT 0,
+    yearly_count INTEGER DEFAULT 0,
+    all_time_count INTEGER DEFAULT 0,
+    daily_timestamp TEXT,
+    weekly_timestamp TEXT,
+    monthly_timestamp TEXT,
+    yearly_timestamp TEXT,
+    streak_count INTEGER DEFAULT 0,
+    last_vote_date TEXT
+);
+CREATE TABLE IF NOT EXISTS vote_party (
+    current_vote_count INTEGER DEFAULT 0
+);
+CREATE TABLE IF NOT EXISTS player_milestones (
+    uuid TEXT NOT NULL,
+    milestone_id INTEGER NOT NULL,
+    claimed BOOLEAN DEFAULT FALSE,
+    PRIMARY KEY (uuid, milestone_id)
+);
+CREATE TABLE IF NOT EXISTS player_streaks (
+    uuid TEXT NOT NULL,
+    streak_id INTEGER NOT NULL,
+    claimed BOOLEAN DEFAULT FALSE,
+    PRIMARY KEY (uuid, streak_id)
+);
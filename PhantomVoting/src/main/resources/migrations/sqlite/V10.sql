@@ -0,0 +1,12 @@
+-- Add the offline vote queue
+CREATE TABLE IF NOT EXISTS pending_votes (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    player_name VARCHAR(16) NOT NULL,
+    uuid_most BIGINT,
+    uuid_least BIGINT,
+    service VARCHAR(64) NOT NULL,
+    address VARCHAR(64),
+    received_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_pending_votes_name ON pending_votes (player_name);
+CREATE INDEX IF NOT EXISTS idx_pending_votes_uuid ON pending_votes (uuid_most, uuid_least);
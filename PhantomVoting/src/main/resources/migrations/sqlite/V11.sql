@@ -0,0 +1,2 @@
+-- Widen the offline vote queue names
+-- SQLite does not enforce VARCHAR lengths, so names up to 32 characters already fit.
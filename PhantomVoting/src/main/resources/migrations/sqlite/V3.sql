@@ -0,0 +1,8 @@
+-- Add storage metadata tables
+CREATE TABLE IF NOT EXISTS storage_meta (
+    meta_key VARCHAR(64) PRIMARY KEY,
+    meta_value VARCHAR(255)
+);
+CREATE TABLE IF NOT EXISTS uuid_migration_dirty (
+    uuid VARCHAR(36) PRIMARY KEY
+);
@@ -0,0 +1,8 @@
+-- Add vote period archive
+CREATE TABLE IF NOT EXISTS vote_period_archive (
+    period VARCHAR(16) NOT NULL,
+    period_start BIGINT NOT NULL,
+    uuid VARCHAR(36) NOT NULL,
+    vote_count INT NOT NULL,
+    PRIMARY KEY (period, period_start, uuid)
+);